@@ -47,6 +47,7 @@ import org.apache.camel.spi.EndpointStrategy;
 import org.apache.camel.spi.ExecutorServiceManager;
 import org.apache.camel.spi.FactoryFinder;
 import org.apache.camel.spi.FactoryFinderResolver;
+import org.apache.camel.spi.HeadersMapFactory;
 import org.apache.camel.spi.InflightRepository;
 import org.apache.camel.spi.Injector;
 import org.apache.camel.spi.InterceptStrategy;
@@ -1543,6 +1544,28 @@ public interface CamelContext extends SuspendableService, RuntimeConfiguration {
      */
     void setUseBreadcrumb(Boolean useBreadcrumb);
 
+    /**
+     * Whether or not the routes are started in parallel.
+     *
+     * @return <tt>true</tt> if the routes are started in parallel
+     */
+    Boolean isParallelRouteStartup();
+
+    /**
+     * Sets whether the routes should be started in parallel, which can speedup starting many routes where the
+     * consumers are slow to start, such as when connecting to remote systems.
+     * <p/>
+     * Routes which have a {@link org.apache.camel.model.RouteDefinition#startupOrder(int) startup order}
+     * configured are still started one by one in that order, but the routes in between are started in parallel
+     * using a thread pool bounded by the max pool size of the default thread pool profile.
+     * <p/>
+     * This option is by default <tt>false</tt>.
+     *
+     * @param parallelRouteStartup <tt>true</tt> to start the routes in parallel
+     * @see org.apache.camel.spi.ShutdownStrategy#setParallelRouteShutdown(boolean)
+     */
+    void setParallelRouteStartup(Boolean parallelRouteStartup);
+
     /**
      * Resolves a component's default name from its java type.
      * <p/>
@@ -1680,6 +1703,16 @@ public interface CamelContext extends SuspendableService, RuntimeConfiguration {
      */
     void setUnitOfWorkFactory(UnitOfWorkFactory unitOfWorkFactory);
 
+    /**
+     * Gets the {@link HeadersMapFactory} to use.
+     */
+    HeadersMapFactory getHeadersMapFactory();
+
+    /**
+     * Sets a custom {@link HeadersMapFactory} to be used.
+     */
+    void setHeadersMapFactory(HeadersMapFactory factory);
+
     /**
      * Gets the {@link org.apache.camel.spi.RuntimeEndpointRegistry} to use, or <tt>null</tt> if none is in use.
      */
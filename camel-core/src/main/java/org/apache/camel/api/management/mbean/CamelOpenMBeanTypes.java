@@ -41,6 +41,28 @@ public final class CamelOpenMBeanTypes {
                 new OpenType[]{SimpleType.STRING, SimpleType.STRING});
     }
 
+    public static TabularType listTypeConversionStatisticsTabularType() throws OpenDataException {
+        CompositeType ct = listTypeConversionStatisticsCompositeType();
+        return new TabularType("listTypeConversionStatistics", "Lists the utilization statistics per type conversion (from -> to)", ct, new String[]{"from", "to"});
+    }
+
+    public static CompositeType listTypeConversionStatisticsCompositeType() throws OpenDataException {
+        return new CompositeType("conversions", "Type conversions", new String[]{"from", "to", "converter", "attempts", "hits", "fallbacks", "misses"},
+                new String[]{"From type", "To type", "Type converter", "Attempts", "Hits", "Fallbacks", "Misses"},
+                new OpenType[]{SimpleType.STRING, SimpleType.STRING, SimpleType.STRING, SimpleType.LONG, SimpleType.LONG, SimpleType.LONG, SimpleType.LONG});
+    }
+
+    public static TabularType listThrottleCorrelationKeysTabularType() throws OpenDataException {
+        CompositeType ct = listThrottleCorrelationKeysCompositeType();
+        return new TabularType("listCorrelationKeys", "Lists the throttling state per correlation key", ct, new String[]{"key"});
+    }
+
+    public static CompositeType listThrottleCorrelationKeysCompositeType() throws OpenDataException {
+        return new CompositeType("keys", "Correlation keys", new String[]{"key", "maximumRequestsPerPeriod", "availablePermits", "queued"},
+                new String[]{"Key", "Maximum requests per period", "Available permits", "Queued"},
+                new OpenType[]{SimpleType.STRING, SimpleType.INTEGER, SimpleType.INTEGER, SimpleType.INTEGER});
+    }
+
     public static TabularType listRestServicesTabularType() throws OpenDataException {
         CompositeType ct = listRestServicesCompositeType();
         return new TabularType("listRestServices", "Lists all the rest services in the registry", ct, new String[]{"url", "method"});
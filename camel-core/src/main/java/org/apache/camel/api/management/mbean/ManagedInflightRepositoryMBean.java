@@ -29,6 +29,18 @@ public interface ManagedInflightRepositoryMBean extends ManagedServiceMBean {
     @ManagedOperation(description = "Current size of inflight exchanges which are from the given route.")
     int size(String routeId);
 
+    @ManagedAttribute(description = "Duration in millis of the oldest inflight exchange, or null if there are no inflight exchanges.")
+    Long getOldestDuration();
+
+    @ManagedAttribute(description = "Exchange id of the oldest inflight exchange, or null if there are no inflight exchanges.")
+    String getOldestExchangeId();
+
+    @ManagedOperation(description = "Duration in millis of the oldest inflight exchange which is from the given route.")
+    Long oldestDuration(String fromRouteId);
+
+    @ManagedOperation(description = "Exchange id of the oldest inflight exchange which is from the given route.")
+    String oldestExchangeId(String fromRouteId);
+
     @ManagedOperation(description = "Lists all the exchanges which are currently inflight")
     TabularData browse();
 
@@ -44,4 +44,22 @@ public interface ManagedResequencerMBean extends ManagedProcessorMBean {
     @ManagedAttribute(description = "If true, throws an exception when messages older than the last delivered message are processed")
     Boolean isRejectOld();
 
+    @ManagedAttribute(description = "Expression to use for resequencing the messages per group")
+    String getGroupExpression();
+
+    @ManagedAttribute(description = "The number of threads which delivers the resequenced messages")
+    Integer getDeliveryThreads();
+
+    @ManagedAttribute(description = "The number of groups which are being resequenced")
+    Integer getGroupCount();
+
+    @ManagedAttribute(description = "The number of messages which are waiting to be resequenced")
+    Integer getPendingExchanges();
+
+    @ManagedAttribute(description = "The number of messages which arrived out of sequence and had to wait for a missing message")
+    Long getGapCount();
+
+    @ManagedAttribute(description = "The number of messages which was delivered after the timeout as the missing message did not arrive in time")
+    Long getTimeoutCount();
+
 }
\ No newline at end of file
@@ -67,6 +67,15 @@ public interface ManagedStreamCachingStrategyMBean extends ManagedServiceMBean {
     @ManagedAttribute(description = "Whether any or all spool rules determines whether to spool")
     boolean isAnySpoolRules();
 
+    @ManagedAttribute(description = "Where to spool stream caches which are not kept in-memory")
+    StreamCachingStrategy.SpoolMode getSpoolMode();
+
+    @ManagedAttribute(description = "Maximum number of bytes of off-heap memory to use when spooling off-heap")
+    long getSpoolOffHeapMemoryLimit();
+
+    @ManagedAttribute(description = "Size in bytes of the chunks of off-heap memory when spooling off-heap")
+    int getSpoolOffHeapChunkSize();
+
     @ManagedAttribute(description = "Number of in-memory StreamCache created")
     long getCacheMemoryCounter();
 
@@ -85,6 +94,18 @@ public interface ManagedStreamCachingStrategyMBean extends ManagedServiceMBean {
     @ManagedAttribute(description = "Average number of bytes per cached stream for spooled (not in-memory) stream caches.")
     long getCacheSpoolAverageSize();
 
+    @ManagedAttribute(description = "Number of bytes of off-heap memory currently used by spooled StreamCache")
+    long getSpoolOffHeapMemoryUsed();
+
+    @ManagedAttribute(description = "Number of bytes of off-heap memory which are pooled and free to be reused")
+    long getSpoolOffHeapMemoryPooled();
+
+    @ManagedAttribute(description = "Number of times a pooled off-heap chunk has been reused")
+    long getSpoolOffHeapChunkReuseCounter();
+
+    @ManagedAttribute(description = "Number of times the off-heap memory limit was reached and spooled to disk instead")
+    long getSpoolOffHeapExhaustedCounter();
+
     @ManagedAttribute(description = "Whether utilization statistics is enabled")
     boolean isStatisticsEnabled();
 
@@ -16,7 +16,10 @@
  */
 package org.apache.camel.api.management.mbean;
 
+import javax.management.openmbean.TabularData;
+
 import org.apache.camel.api.management.ManagedAttribute;
+import org.apache.camel.api.management.ManagedOperation;
 
 public interface ManagedThrottlerMBean extends ManagedProcessorMBean {
 
@@ -41,4 +44,19 @@ public interface ManagedThrottlerMBean extends ManagedProcessorMBean {
     @ManagedAttribute(description = "Whether or not throttler throws the ThrottlerRejectedExecutionException when the exchange exceeds the request limit")
     Boolean isRejectExecution();
 
+    @ManagedAttribute(description = "Number of permits which can currently be acquired without being throttled")
+    int getAvailablePermits();
+
+    @ManagedAttribute(description = "Number of exchanges currently waiting for a permit")
+    int getQueuedExchanges();
+
+    @ManagedAttribute(description = "Number of correlation keys currently being throttled")
+    int getCorrelationKeysSize();
+
+    @ManagedAttribute(description = "Maximum number of correlation keys to keep track of")
+    int getMaximumCorrelationKeys();
+
+    @ManagedOperation(description = "Lists the throttle rate, available permits and queued exchanges per correlation key")
+    TabularData listCorrelationKeys();
+
 }
\ No newline at end of file
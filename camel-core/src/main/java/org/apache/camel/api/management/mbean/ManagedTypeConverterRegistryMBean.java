@@ -62,4 +62,7 @@ public interface ManagedTypeConverterRegistryMBean extends ManagedServiceMBean {
     @ManagedOperation(description = "Lists all the type converters in the registry (from -> to)")
     TabularData listTypeConverters();
 
+    @ManagedOperation(description = "Lists the utilization statistics per type conversion (from -> to) when statistics is enabled")
+    TabularData listTypeConversionStatistics();
+
 }
@@ -0,0 +1,494 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.builder.xml;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Evaluates a subset of XPath as a predicate over the StAX events of a XML document, without building a DOM.
+ * <p/>
+ * The evaluation stops reading the document as soon as the first match is found, which is what makes it fast for
+ * large documents. The trade-off is that a document which is malformed after the first match is matched, where
+ * parsing the document into a DOM fails. A document which does not match is always read to the end, and fails
+ * if it is not well formed.
+ * The supported subset is:
+ * <ul>
+ *     <li>absolute location paths with child steps, such as <tt>/soap:Envelope/soap:Body/order</tt>,
+ *     where the name test can also be <tt>*</tt></li>
+ *     <li>predicates on the steps which can be decided at the start of the element, that is a position
+ *     such as <tt>order[1]</tt>, an attribute such as <tt>order[@id]</tt> and an attribute value such as
+ *     <tt>order[@type='buy']</tt></li>
+ *     <li>an attribute or <tt>text()</tt> as the last step, such as <tt>/order/@id</tt></li>
+ *     <li>comparing the path with a string literal, such as <tt>/order/symbol = 'IBM'</tt></li>
+ * </ul>
+ * The predicate matches if the path selects any node, or if compared with a literal, if the string value of any
+ * of the selected nodes is equal to the literal, the same as XPath 1.0.
+ * <p/>
+ * Use {@link #compile(String, NamespaceContext)} to check whether an expression is supported.
+ * Notice that documents with a DTD are not supported, and evaluating such a document fails with an
+ * {@link UnsupportedDocumentException} before any content of the document has been evaluated.
+ */
+public final class StreamingXPath {
+
+    private static volatile XMLInputFactory factory;
+
+    private final String text;
+    private final Step[] steps;
+    // the last step which selects the attribute or text() of the element
+    private final String attributeNamespace;
+    private final String attributeName;
+    private final boolean textNode;
+    // the literal to compare with, or null to check if the path selects any nodes
+    private final String literal;
+
+    private StreamingXPath(String text, Step[] steps, String attributeNamespace, String attributeName, boolean textNode, String literal) {
+        this.text = text;
+        this.steps = steps;
+        this.attributeNamespace = attributeNamespace;
+        this.attributeName = attributeName;
+        this.textNode = textNode;
+        this.literal = literal;
+    }
+
+    /**
+     * Compiles the XPath expression.
+     *
+     * @param text             the XPath expression
+     * @param namespaceContext the namespaces for resolving the prefixes in the expression
+     * @return the compiled expression, or <tt>null</tt> if the expression is not supported
+     */
+    public static StreamingXPath compile(String text, NamespaceContext namespaceContext) {
+        return new Parser(text, namespaceContext).parse();
+    }
+
+    /**
+     * Evaluates the predicate on the XML document.
+     *
+     * @param is the XML document
+     * @return <tt>true</tt> if matched
+     * @throws UnsupportedDocumentException is thrown if the XML document has a DTD
+     * @throws XMLStreamException is thrown if the XML document is invalid
+     */
+    public boolean matches(InputStream is) throws XMLStreamException {
+        return matches(getFactory().createXMLStreamReader(is));
+    }
+
+    /**
+     * Evaluates the predicate on the XML document.
+     *
+     * @param reader the XML document
+     * @return <tt>true</tt> if matched
+     * @throws UnsupportedDocumentException is thrown if the XML document has a DTD
+     * @throws XMLStreamException is thrown if the XML document is invalid
+     */
+    public boolean matches(Reader reader) throws XMLStreamException {
+        return matches(getFactory().createXMLStreamReader(reader));
+    }
+
+    private boolean matches(XMLStreamReader reader) throws XMLStreamException {
+        try {
+            // the remainder of the document is not read when matched
+            return doMatches(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private boolean doMatches(XMLStreamReader reader) throws XMLStreamException {
+        int n = steps.length;
+        // the position counters of the predicates of the steps, for the children of the currently matched element
+        int[][] positions = new int[n][];
+        for (int i = 0; i < n; i++) {
+            positions[i] = new int[steps[i].predicates.length];
+        }
+
+        // the number of open elements
+        int depth = 0;
+        // the number of open elements which matched the steps
+        int matched = 0;
+        // the string value of the selected element
+        StringBuilder value = null;
+        // the selected text node, which may be reported as more events
+        StringBuilder textValue = null;
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (textValue != null && (event == XMLStreamConstants.START_ELEMENT || event == XMLStreamConstants.END_ELEMENT
+                    || event == XMLStreamConstants.PROCESSING_INSTRUCTION)) {
+                // the text node ends here, as comments are ignored when parsing into a DOM and do not split the text
+                if (literal == null || literal.contentEquals(textValue)) {
+                    return true;
+                }
+                textValue = null;
+            }
+            switch (event) {
+            case XMLStreamConstants.START_ELEMENT:
+                if (matched == depth && depth < n && steps[depth].matches(reader, positions[depth])) {
+                    matched++;
+                    if (matched < n) {
+                        // start counting the positions of the children
+                        int[] counters = positions[matched];
+                        for (int i = 0; i < counters.length; i++) {
+                            counters[i] = 0;
+                        }
+                    } else if (attributeName != null) {
+                        String attribute = getAttributeValue(reader, attributeNamespace, attributeName);
+                        if (attribute != null && (literal == null || literal.equals(attribute))) {
+                            return true;
+                        }
+                    } else if (!textNode) {
+                        if (literal == null) {
+                            return true;
+                        }
+                        value = new StringBuilder();
+                    }
+                }
+                depth++;
+                break;
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.CDATA:
+            case XMLStreamConstants.SPACE:
+                if (value != null) {
+                    // the string value of an element is all its descendant text
+                    value.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                } else if (textNode && matched == n && depth == n && reader.getTextLength() > 0) {
+                    if (textValue == null) {
+                        textValue = new StringBuilder();
+                    }
+                    textValue.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                }
+                break;
+            case XMLStreamConstants.END_ELEMENT:
+                depth--;
+                if (matched > depth) {
+                    matched = depth;
+                    if (value != null && depth == n - 1) {
+                        if (literal.contentEquals(value)) {
+                            return true;
+                        }
+                        value = null;
+                    }
+                }
+                break;
+            case XMLStreamConstants.DTD:
+                throw new UnsupportedDocumentException("DTD is not supported", reader);
+            default:
+                break;
+            }
+        }
+        return false;
+    }
+
+    private static String getAttributeValue(XMLStreamReader reader, String namespace, String localName) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String uri = reader.getAttributeNamespace(i);
+            if (localName.equals(reader.getAttributeLocalName(i)) && namespace.equals(uri != null ? uri : "")) {
+                return reader.getAttributeValue(i);
+            }
+        }
+        return null;
+    }
+
+    private static XMLInputFactory getFactory() {
+        if (factory == null) {
+            XMLInputFactory answer = XMLInputFactory.newInstance();
+            answer.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+            // adjacent text and CDATA is a single text node in XPath
+            answer.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+            answer.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+            answer.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+            factory = answer;
+        }
+        return factory;
+    }
+
+    @Override
+    public String toString() {
+        return "StreamingXPath[" + text + "]";
+    }
+
+    /**
+     * Thrown if the XML document uses features which are not supported by the streaming evaluation, such as a DTD.
+     */
+    public static final class UnsupportedDocumentException extends XMLStreamException {
+        private static final long serialVersionUID = 1L;
+
+        UnsupportedDocumentException(String message, XMLStreamReader reader) {
+            super(message, reader.getLocation());
+        }
+    }
+
+    /**
+     * A child step of the location path.
+     */
+    private static final class Step {
+        // null to match any element
+        private final String namespace;
+        private final String localName;
+        private final Predicate[] predicates;
+
+        Step(String namespace, String localName, Predicate[] predicates) {
+            this.namespace = namespace;
+            this.localName = localName;
+            this.predicates = predicates;
+        }
+
+        boolean matches(XMLStreamReader reader, int[] positions) {
+            if (localName != null) {
+                String uri = reader.getNamespaceURI();
+                if (!localName.equals(reader.getLocalName()) || !namespace.equals(uri != null ? uri : "")) {
+                    return false;
+                }
+            }
+            // the predicates are applied in turn, so the position is among the elements which matched the previous predicates
+            for (int i = 0; i < predicates.length; i++) {
+                Predicate predicate = predicates[i];
+                if (predicate.position > 0) {
+                    if (++positions[i] != predicate.position) {
+                        return false;
+                    }
+                } else {
+                    String value = getAttributeValue(reader, predicate.namespace, predicate.localName);
+                    if (value == null || (predicate.literal != null && !predicate.literal.equals(value))) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * A predicate of a step which is either a position or an attribute test.
+     */
+    private static final class Predicate {
+        private final int position;
+        private final String namespace;
+        private final String localName;
+        private final String literal;
+
+        Predicate(int position, String namespace, String localName, String literal) {
+            this.position = position;
+            this.namespace = namespace;
+            this.localName = localName;
+            this.literal = literal;
+        }
+    }
+
+    /**
+     * Parses the supported subset of XPath, and returns <tt>null</tt> for anything else.
+     */
+    private static final class Parser {
+        private final String text;
+        private final NamespaceContext namespaceContext;
+        private int index;
+
+        Parser(String text, NamespaceContext namespaceContext) {
+            this.text = text;
+            this.namespaceContext = namespaceContext;
+        }
+
+        StreamingXPath parse() {
+            List<Step> steps = new ArrayList<Step>();
+            String[] attribute = null;
+            boolean textNode = false;
+
+            skipWhitespace();
+            while (attribute == null && !textNode && accept('/')) {
+                if (peek() == '/') {
+                    // the descendant axis is not supported
+                    return null;
+                }
+                if (accept('@')) {
+                    attribute = parseQName(true);
+                    if (attribute == null) {
+                        return null;
+                    }
+                } else if (text.startsWith("text()", index)) {
+                    index += "text()".length();
+                    textNode = true;
+                } else {
+                    Step step = parseStep();
+                    if (step == null) {
+                        return null;
+                    }
+                    steps.add(step);
+                }
+            }
+            if (steps.isEmpty()) {
+                return null;
+            }
+
+            String literal = null;
+            skipWhitespace();
+            if (accept('=')) {
+                skipWhitespace();
+                literal = parseLiteral();
+                if (literal == null) {
+                    return null;
+                }
+                skipWhitespace();
+            }
+            if (index != text.length()) {
+                return null;
+            }
+
+            return new StreamingXPath(text, steps.toArray(new Step[steps.size()]), attribute != null ? attribute[0] : null,
+                    attribute != null ? attribute[1] : null, textNode, literal);
+        }
+
+        private Step parseStep() {
+            String[] name = null;
+            if (!accept('*')) {
+                name = parseQName(false);
+                if (name == null) {
+                    return null;
+                }
+            }
+            List<Predicate> predicates = new ArrayList<Predicate>();
+            while (accept('[')) {
+                skipWhitespace();
+                Predicate predicate;
+                if (accept('@')) {
+                    String[] attribute = parseQName(true);
+                    if (attribute == null) {
+                        return null;
+                    }
+                    skipWhitespace();
+                    String literal = null;
+                    if (accept('=')) {
+                        skipWhitespace();
+                        literal = parseLiteral();
+                        if (literal == null) {
+                            return null;
+                        }
+                        skipWhitespace();
+                    }
+                    predicate = new Predicate(0, attribute[0], attribute[1], literal);
+                } else {
+                    int start = index;
+                    while (index < text.length() && Character.isDigit(text.charAt(index))) {
+                        index++;
+                    }
+                    if (start == index || index - start > 9) {
+                        return null;
+                    }
+                    int position = Integer.parseInt(text.substring(start, index));
+                    if (position == 0) {
+                        // never matches, so leave that to XPath
+                        return null;
+                    }
+                    skipWhitespace();
+                    predicate = new Predicate(position, null, null, null);
+                }
+                if (!accept(']')) {
+                    return null;
+                }
+                predicates.add(predicate);
+            }
+            return new Step(name != null ? name[0] : null, name != null ? name[1] : null, predicates.toArray(new Predicate[predicates.size()]));
+        }
+
+        /**
+         * Parses the qualified name and resolves the namespace
+         *
+         * @return the namespace and local name, or <tt>null</tt> if invalid
+         */
+        private String[] parseQName(boolean attribute) {
+            String prefix = null;
+            String localName = parseNCName();
+            if (localName != null && peek() == ':') {
+                index++;
+                prefix = localName;
+                localName = parseNCName();
+            }
+            if (localName == null || peek() == '(') {
+                // a function or node type test
+                return null;
+            }
+            String namespace = "";
+            if (prefix != null) {
+                namespace = namespaceContext != null ? namespaceContext.getNamespaceURI(prefix) : null;
+                if (namespace == null || XMLConstants.NULL_NS_URI.equals(namespace)) {
+                    // unbound prefix
+                    return null;
+                }
+            } else if (attribute && "xmlns".equals(localName)) {
+                // namespace declarations are not attributes
+                return null;
+            }
+            return new String[]{namespace, localName};
+        }
+
+        private String parseNCName() {
+            int start = index;
+            if (index < text.length() && (Character.isLetter(text.charAt(index)) || text.charAt(index) == '_')) {
+                index++;
+                while (index < text.length()) {
+                    char ch = text.charAt(index);
+                    if (Character.isLetterOrDigit(ch) || ch == '_' || ch == '-' || ch == '.') {
+                        index++;
+                    } else {
+                        break;
+                    }
+                }
+            }
+            return start < index ? text.substring(start, index) : null;
+        }
+
+        private String parseLiteral() {
+            char quote = peek();
+            if (quote != '\'' && quote != '"') {
+                return null;
+            }
+            int end = text.indexOf(quote, index + 1);
+            if (end < 0) {
+                return null;
+            }
+            String answer = text.substring(index + 1, end);
+            index = end + 1;
+            return answer;
+        }
+
+        private void skipWhitespace() {
+            while (index < text.length() && Character.isWhitespace(text.charAt(index))) {
+                index++;
+            }
+        }
+
+        private boolean accept(char ch) {
+            if (peek() == ch) {
+                index++;
+                return true;
+            }
+            return false;
+        }
+
+        private char peek() {
+            return index < text.length() ? text.charAt(index) : 0;
+        }
+    }
+}
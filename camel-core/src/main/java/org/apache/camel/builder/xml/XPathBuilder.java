@@ -16,8 +16,11 @@
  */
 package org.apache.camel.builder.xml;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringReader;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -27,6 +30,7 @@ import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
@@ -49,6 +53,8 @@ import org.apache.camel.Expression;
 import org.apache.camel.NoTypeConversionAvailableException;
 import org.apache.camel.Predicate;
 import org.apache.camel.RuntimeExpressionException;
+import org.apache.camel.StreamCache;
+import org.apache.camel.TypeConversionException;
 import org.apache.camel.WrappedFile;
 import org.apache.camel.impl.DefaultExchange;
 import org.apache.camel.spi.Language;
@@ -86,6 +92,8 @@ public class XPathBuilder extends ServiceSupport implements Expression, Predicat
     private static final Logger LOG = LoggerFactory.getLogger(XPathBuilder.class);
     private static final String SAXON_OBJECT_MODEL_URI = "http://saxon.sf.net/jaxp/xpath/om";
     private static final String OBTAIN_ALL_NS_XPATH = "//*/namespace::*";
+    // how much of a stream which cannot be read again is kept to fallback from streaming XPath to XPath
+    private static final int STREAMING_FALLBACK_READ_LIMIT = 64 * 1024;
 
     private static volatile XPathFactory defaultXPathFactory;
 
@@ -118,6 +126,8 @@ public class XPathBuilder extends ServiceSupport implements Expression, Predicat
      * the xpath to be evaluated on the required header, otherwise it will be applied to the body
      */
     private volatile String headerName;
+    private volatile StreamingXPath streamingXPath;
+    private volatile boolean streamingXPathCompiled;
 
     /**
      * @param text The XPath expression
@@ -758,6 +768,18 @@ public class XPathBuilder extends ServiceSupport implements Expression, Predicat
      * Evaluates the expression as the given result type
      */
     protected Object evaluateAs(Exchange exchange, QName resultQName) {
+        if (resultQName == XPathConstants.BOOLEAN) {
+            // evaluate predicates on streams without building a DOM if possible
+            StreamingXPath streaming = getStreamingXPath();
+            if (streaming != null && isStreamingXPathSupported(exchange.getIn().getBody())) {
+                Object answer = doInEvaluateStreaming(streaming, exchange);
+                if (answer != null) {
+                    return answer;
+                }
+                // the document is not supported so fallback and evaluate using XPath
+            }
+        }
+
         // pool a pre compiled expression from pool
         XPathExpression xpathExpression = pool.poll();
         if (xpathExpression == null) {
@@ -925,6 +947,102 @@ public class XPathBuilder extends ServiceSupport implements Expression, Predicat
         return answer;
     }
 
+    /**
+     * Evaluates the expression as a predicate using the streaming XPath.
+     * <p/>
+     * If the document is not supported by the streaming XPath or it is invalid, then the message body is made
+     * ready to be read again, so it can be evaluated using XPath the same as if streaming XPath was not in use.
+     * A stream which cannot be read again is buffered up till 64 kb for this.
+     *
+     * @return the result, or <tt>null</tt> if it should be evaluated using XPath instead
+     */
+    protected Object doInEvaluateStreaming(StreamingXPath streaming, Exchange exchange) {
+        LOG.trace("Evaluating exchange: {} using: {}", exchange, streaming);
+
+        Object body = exchange.getIn().getBody();
+        // the underlying input stream, which we need to close to avoid locking files or other resources
+        InputStream is = null;
+        // the stream which cannot be read again, which is buffered so it can be reset
+        BufferedInputStream buffered = null;
+        try {
+            boolean answer;
+            if (body instanceof String) {
+                answer = streaming.matches(new StringReader((String) body));
+            } else if (body instanceof InputStream && body instanceof StreamCache) {
+                answer = streaming.matches((InputStream) body);
+            } else if (body instanceof InputStream) {
+                buffered = new BufferedInputStream((InputStream) body);
+                buffered.mark(STREAMING_FALLBACK_READ_LIMIT);
+                answer = streaming.matches(buffered);
+            } else {
+                is = exchange.getIn().getBody(InputStream.class);
+                answer = streaming.matches(is);
+            }
+            LOG.trace("Done evaluating exchange: {} using: {} with result: {}", new Object[]{exchange, streaming, answer});
+            return answer;
+        } catch (XMLStreamException e) {
+            if (buffered != null) {
+                try {
+                    buffered.reset();
+                } catch (IOException ioe) {
+                    // the stream has been read too far to be read again, so fail the same way as parsing into a DOM
+                    throw new TypeConversionException(body, Document.class, e);
+                }
+                exchange.getIn().setBody(buffered);
+            }
+            LOG.debug("Cannot evaluate exchange: {} using: {} due to: {}. Will fallback and evaluate using XPath.",
+                    new Object[]{exchange, streaming, e.getMessage()});
+            return null;
+        } finally {
+            // IOHelper can handle if is is null
+            IOHelper.close(is);
+            // call the reset if the in message body is StreamCache
+            MessageHelper.resetStreamCache(exchange.getIn());
+        }
+    }
+
+    /**
+     * Gets the streaming XPath which is used for evaluating predicates, if the expression is supported by
+     * {@link StreamingXPath} and this builder is not configured to use anything it does not support.
+     *
+     * @return the streaming XPath, or <tt>null</tt> if not in use
+     */
+    protected StreamingXPath getStreamingXPath() {
+        if (ObjectHelper.isNotEmpty(getHeaderName()) || getDocumentType() != Document.class || getObjectModelUri() != null || logNamespaces) {
+            return null;
+        }
+        if (!streamingXPathCompiled) {
+            compileStreamingXPath();
+        }
+        return streamingXPath;
+    }
+
+    private synchronized void compileStreamingXPath() {
+        if (streamingXPathCompiled) {
+            return;
+        }
+        // ensure we are started so the namespaces are ready
+        try {
+            start();
+        } catch (Exception e) {
+            throw new RuntimeExpressionException("Error starting XPathBuilder", e);
+        }
+        streamingXPath = StreamingXPath.compile(text, getNamespaceContext());
+        LOG.debug("XPath: {} is {}supported by streaming XPath", text, streamingXPath != null ? "" : "not ");
+        streamingXPathCompiled = true;
+    }
+
+    /**
+     * Checks whether the streaming XPath can be used for the given message body, which is the case for bodies
+     * which would otherwise be parsed into a DOM, such as streams, files and strings.
+     */
+    protected boolean isStreamingXPathSupported(Object body) {
+        if (body instanceof WrappedFile) {
+            body = ((WrappedFile<?>) body).getFile();
+        }
+        return body instanceof String || body instanceof byte[] || body instanceof InputStream || body instanceof File;
+    }
+
     /**
      * Creates a new xpath expression as there we no available in the pool.
      * <p/>
@@ -1175,6 +1293,8 @@ public class XPathBuilder extends ServiceSupport implements Expression, Predicat
     public void doStop() throws Exception {
         pool.clear();
         poolLogNamespaces.clear();
+        streamingXPath = null;
+        streamingXPathCompiled = false;
     }
 
     protected synchronized XPathFactory createXPathFactory() throws XPathFactoryConfigurationException {
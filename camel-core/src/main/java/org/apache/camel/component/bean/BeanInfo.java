@@ -31,6 +31,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.camel.Attachments;
 import org.apache.camel.Body;
@@ -65,6 +67,8 @@ public class BeanInfo {
     private static final Logger LOG = LoggerFactory.getLogger(BeanInfo.class);
     private static final String CGLIB_CLASS_SEPARATOR = "$$";
     private static final List<Method> EXCLUDED_METHODS = new ArrayList<Method>();
+    // upper bound of the number of chosen methods to cache per bean type
+    private static final int MAX_CHOSEN_METHODS_CACHE_SIZE = 1000;
     private final CamelContext camelContext;
     private final BeanComponent component;
     private final Class<?> type;
@@ -78,6 +82,42 @@ public class BeanInfo {
     private List<MethodInfo> operationsWithHandlerAnnotation = new ArrayList<MethodInfo>();
     private Map<Method, MethodInfo> methodMap = new HashMap<Method, MethodInfo>();
     private boolean publicConstructors;
+    private ConcurrentMap<ChosenMethodKey, MethodInfo> chosenMethods = new ConcurrentHashMap<ChosenMethodKey, MethodInfo>();
+
+    /**
+     * Key for caching the method chosen for a given method name, message body type and exchange pattern.
+     */
+    private static final class ChosenMethodKey {
+        private final String name;
+        private final Class<?> bodyType;
+        private final boolean outCapable;
+
+        private ChosenMethodKey(String name, Class<?> bodyType, boolean outCapable) {
+            this.name = name;
+            this.bodyType = bodyType;
+            this.outCapable = outCapable;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ChosenMethodKey)) {
+                return false;
+            }
+            ChosenMethodKey that = (ChosenMethodKey) o;
+            return outCapable == that.outCapable && bodyType == that.bodyType
+                && (name != null ? name.equals(that.name) : that.name == null);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = name != null ? name.hashCode() : 0;
+            result = 31 * result + (bodyType != null ? bodyType.hashCode() : 0);
+            return 31 * result + (outCapable ? 1 : 0);
+        }
+    }
 
     static {
         // exclude all java.lang.Object methods as we dont want to invoke them
@@ -125,6 +165,7 @@ public class BeanInfo {
             operationsWithHandlerAnnotation = beanInfo.operationsWithHandlerAnnotation;
             methodMap = beanInfo.methodMap;
             publicConstructors = beanInfo.publicConstructors;
+            chosenMethods = beanInfo.chosenMethods;
             return;
         }
 
@@ -256,7 +297,7 @@ public class BeanInfo {
 
                     // but first let's try to choose a method and see if that complies with the name
                     // must use the method name which may have qualifiers
-                    methodInfo = chooseMethod(pojo, exchange, methodName);
+                    methodInfo = chooseMethodUsingCache(pojo, exchange, methodName);
 
                     // validate that if we want an explicit no-arg method, then that's what we get
                     if (emptyParameters) {
@@ -278,7 +319,7 @@ public class BeanInfo {
 
         if (methodInfo == null) {
             // no name or type
-            methodInfo = chooseMethod(pojo, exchange, null);
+            methodInfo = chooseMethodUsingCache(pojo, exchange, null);
         }
         if (methodInfo == null) {
             methodInfo = defaultMethod;
@@ -292,6 +333,35 @@ public class BeanInfo {
         return null;
     }
 
+    /**
+     * Chooses the method to invoke the same way as {@link #chooseMethod(Object, Exchange, String)}, but caches the chosen
+     * method by the method name, message body type and exchange pattern, which is what the choice depends upon, so the
+     * methods do not have to be matched again for every exchange.
+     * <p/>
+     * The cache is not used if the method name has parameter values, or if the exchange has an exception, as the choice
+     * then depends upon the values. The chosen method is not cached if the message body had to be converted for the
+     * chosen method.
+     */
+    private MethodInfo chooseMethodUsingCache(Object pojo, Exchange exchange, String name) throws AmbiguousMethodCallException {
+        if ((name != null && name.indexOf('(') != -1)
+                || exchange.getException() != null || exchange.getProperty(Exchange.EXCEPTION_CAUGHT) != null) {
+            return chooseMethod(pojo, exchange, name);
+        }
+
+        Object body = exchange.getIn().getBody();
+        ChosenMethodKey key = new ChosenMethodKey(name, body != null ? body.getClass() : null, exchange.getPattern().isOutCapable());
+        MethodInfo answer = chosenMethods.get(key);
+        if (answer == null) {
+            answer = chooseMethod(pojo, exchange, name);
+            if (answer != null && exchange.getIn().getBody() == body && chosenMethods.size() < MAX_CHOSEN_METHODS_CACHE_SIZE) {
+                chosenMethods.putIfAbsent(key, answer);
+            }
+        } else {
+            LOG.trace("Using cached chosen method: {}", answer);
+        }
+        return answer;
+    }
+
     /**
      * Introspects the given class
      *
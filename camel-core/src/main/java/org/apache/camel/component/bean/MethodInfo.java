@@ -17,6 +17,9 @@
 package org.apache.camel.component.bean;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.InvocationTargetException;
@@ -28,6 +31,8 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 
 import org.apache.camel.AsyncCallback;
@@ -62,6 +67,9 @@ import static org.apache.camel.util.ObjectHelper.asString;
  */
 public class MethodInfo {
     private static final Logger LOG = LoggerFactory.getLogger(MethodInfo.class);
+    // upper bound of the number of different method names with parameter values to keep pre compiled
+    private static final int MAX_PARAMETER_VALUES_CACHE_SIZE = 100;
+    private static final ParameterValue[] NO_PARAMETER_VALUES = new ParameterValue[0];
 
     private CamelContext camelContext;
     private Class<?> type;
@@ -75,6 +83,25 @@ public class MethodInfo {
     private RecipientList recipientList;
     private RoutingSlip routingSlip;
     private DynamicRouter dynamicRouter;
+    private final MethodHandle methodHandle;
+    private final Class<?>[] parameterTypes;
+    private final Class<?>[] argumentTypes;
+    private final ConcurrentMap<String, ParameterValue[]> parameterValuesCache = new ConcurrentHashMap<String, ParameterValue[]>();
+
+    /**
+     * A parameter value provided in the method name syntax, which has been pre compiled into an expression.
+     */
+    private static final class ParameterValue {
+        private final String text;
+        private final boolean valid;
+        private final Expression expression;
+
+        private ParameterValue(String text, boolean valid, Expression expression) {
+            this.text = text;
+            this.valid = valid;
+            this.expression = expression;
+        }
+    }
 
     /**
      * Adapter to invoke the method which has been annotated with the @DynamicRouter
@@ -114,6 +141,12 @@ public class MethodInfo {
         this.hasCustomAnnotation = hasCustomAnnotation;
         this.hasHandlerAnnotation = hasHandlerAnnotation;
         this.parametersExpression = createParametersExpression();
+        this.methodHandle = createMethodHandle(method);
+        this.parameterTypes = method.getParameterTypes();
+        this.argumentTypes = new Class<?>[parameterTypes.length];
+        for (int i = 0; i < argumentTypes.length; i++) {
+            argumentTypes[i] = ObjectHelper.convertPrimitiveTypeToWrapperType(parameterTypes[i]);
+        }
         
         Map<Class<?>, Annotation> collectedMethodAnnotation = collectMethodAnnotations(type, method);
 
@@ -404,6 +437,17 @@ public class MethodInfo {
     }
 
     protected Object invoke(Method mth, Object pojo, Object[] arguments, Exchange exchange) throws InvocationTargetException {
+        if (mth == method && methodHandle != null && isValidArguments(pojo, arguments)) {
+            Object result;
+            try {
+                result = (Object) methodHandle.invokeExact(pojo, arguments);
+            } catch (Throwable e) {
+                // the arguments are valid so the exception is thrown by the invoked method
+                throw new InvocationTargetException(e);
+            }
+            return result;
+        }
+
         try {
             return mth.invoke(pojo, arguments);
         } catch (IllegalAccessException e) {
@@ -413,6 +457,52 @@ public class MethodInfo {
         }
     }
 
+    /**
+     * Creates a method handle for invoking the method, which is adapted to take the bean and the arguments as an array,
+     * so it can be invoked with the same arguments as {@link Method#invoke(Object, Object...)}.
+     *
+     * @return the method handle, or <tt>null</tt> if the method cannot be invoked using a method handle
+     */
+    private static MethodHandle createMethodHandle(Method method) {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().unreflect(method).asFixedArity();
+            if (Modifier.isStatic(method.getModifiers())) {
+                // the bean is not used when invoking static methods
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            int count = method.getParameterTypes().length;
+            return handle.asType(MethodType.genericMethodType(count + 1)).asSpreader(Object[].class, count);
+        } catch (Exception e) {
+            LOG.debug("Cannot create method handle for method: {} due {}. Will use reflection to invoke the method.", method, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Whether the bean and arguments can be passed to the method handle as-is. Otherwise the method is invoked using
+     * reflection, which takes care of widening primitive values and reporting invalid arguments.
+     */
+    private boolean isValidArguments(Object pojo, Object[] arguments) {
+        if (arguments == null || arguments.length != argumentTypes.length) {
+            return false;
+        }
+        if (!isStaticMethod() && !method.getDeclaringClass().isInstance(pojo)) {
+            return false;
+        }
+        for (int i = 0; i < arguments.length; i++) {
+            Object argument = arguments[i];
+            if (argument == null) {
+                if (argumentTypes[i] != parameterTypes[i]) {
+                    // null cannot be passed as a primitive value
+                    return false;
+                }
+            } else if (!argumentTypes[i].isInstance(argument)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     protected Expression[] createParameterExpressions() {
         final int size = parameters.size();
         LOG.trace("Creating parameters expression for {} parameters", size);
@@ -448,16 +538,7 @@ public class MethodInfo {
                 // if there was an explicit method name to invoke, then we should support using
                 // any provided parameter values in the method name
                 String methodName = exchange.getIn().getHeader(Exchange.BEAN_METHOD_NAME, "", String.class);
-                // the parameter values is between the parenthesis
-                String methodParameters = ObjectHelper.betweenOuterPair(methodName, '(', ')');
-                // use an iterator to walk the parameter values
-                Iterator<?> it = null;
-                if (methodParameters != null) {
-                    // split the parameters safely separated by comma, but beware that we can have
-                    // quoted parameters which contains comma as well, so do a safe quote split
-                    String[] parameters = StringQuoteHelper.splitSafeQuote(methodParameters, ',', true);
-                    it = ObjectHelper.createIterator(parameters, ",", true);
-                }
+                ParameterValue[] parameterValues = getParameterValues(exchange, methodName);
 
                 // remove headers as they should not be propagated
                 // we need to do this before the expressions gets evaluated as it may contain
@@ -468,7 +549,7 @@ public class MethodInfo {
 
                 for (int i = 0; i < expressions.length; i++) {
                     // grab the parameter value for the given index
-                    Object parameterValue = it != null && it.hasNext() ? it.next() : null;
+                    ParameterValue parameterValue = i < parameterValues.length ? parameterValues[i] : null;
                     // and the expected parameter type
                     Class<?> parameterType = parameters.get(i).getType();
                     // the value for the parameter to use
@@ -479,8 +560,7 @@ public class MethodInfo {
                         value = ((Object[])body)[i];
                     } else {
                         // prefer to use parameter value if given, as they override any bean parameter binding
-                        // we should skip * as its a type placeholder to indicate any type
-                        if (parameterValue != null && !parameterValue.equals("*")) {
+                        if (parameterValue != null) {
                             // evaluate the parameter value binding
                             value = evaluateParameterValue(exchange, i, parameterValue, parameterType);
                         }
@@ -510,77 +590,60 @@ public class MethodInfo {
              *
              * @since 2.9
              */
-            private Object evaluateParameterValue(Exchange exchange, int index, Object parameterValue, Class<?> parameterType) {
+            private Object evaluateParameterValue(Exchange exchange, int index, ParameterValue parameter, Class<?> parameterType) {
                 Object answer = null;
 
-                // convert the parameter value to a String
-                String exp = exchange.getContext().getTypeConverter().convertTo(String.class, exchange, parameterValue);
-                if (exp != null) {
-                    // check if its a valid parameter value
-                    boolean valid = BeanHelper.isValidParameterValue(exp);
-
-                    if (!valid) {
-                        // it may be a parameter type instead, and if so, then we should return null,
-                        // as this method is only for evaluating parameter values
-                        Boolean isClass = BeanHelper.isAssignableToExpectedType(exchange.getContext().getClassResolver(), exp, parameterType);
-                        // the method will return a non null value if exp is a class
-                        if (isClass != null) {
-                            return null;
-                        }
+                // use the pre compiled simple language expression, as it may refer to message body, headers etc.
+                Object parameterValue;
+                try {
+                    parameterValue = parameter.expression.evaluate(exchange, Object.class);
+                    // use "null" to indicate the expression returned a null value which is a valid response we need to honor
+                    if (parameterValue == null) {
+                        parameterValue = "null";
                     }
+                } catch (Exception e) {
+                    throw new ExpressionEvaluationException(parameter.expression, "Cannot create/evaluate simple expression: " + parameter.text
+                            + " to be bound to parameter at index: " + index + " on method: " + getMethod(), exchange, e);
+                }
 
-                    // use simple language to evaluate the expression, as it may use the simple language to refer to message body, headers etc.
-                    Expression expression = null;
-                    try {
-                        expression = exchange.getContext().resolveLanguage("simple").createExpression(exp);
-                        parameterValue = expression.evaluate(exchange, Object.class);
-                        // use "null" to indicate the expression returned a null value which is a valid response we need to honor
-                        if (parameterValue == null) {
-                            parameterValue = "null";
-                        }
-                    } catch (Exception e) {
-                        throw new ExpressionEvaluationException(expression, "Cannot create/evaluate simple expression: " + exp
-                                + " to be bound to parameter at index: " + index + " on method: " + getMethod(), exchange, e);
-                    }
+                // special for explicit null parameter values (as end users can explicit indicate they want null as parameter)
+                // see method javadoc for details
+                if ("null".equals(parameterValue)) {
+                    return Void.TYPE;
+                }
 
-                    // special for explicit null parameter values (as end users can explicit indicate they want null as parameter)
-                    // see method javadoc for details
-                    if ("null".equals(parameterValue)) {
-                        return Void.TYPE;
+                boolean valid = parameter.valid;
+                // the parameter value may match the expected type, then we use it as-is
+                if (parameterType.isAssignableFrom(parameterValue.getClass())) {
+                    valid = true;
+                } else {
+                    // the parameter value was not already valid, but since the simple language have evaluated the expression
+                    // which may change the parameterValue, so we have to check it again to see if its now valid
+                    String exp = exchange.getContext().getTypeConverter().tryConvertTo(String.class, parameterValue);
+                    // String values from the simple language is always valid
+                    if (!valid) {
+                        // re validate if the parameter was not valid the first time (String values should be accepted)
+                        valid = parameterValue instanceof String || BeanHelper.isValidParameterValue(exp);
                     }
+                }
 
-                    // the parameter value may match the expected type, then we use it as-is
-                    if (parameterType.isAssignableFrom(parameterValue.getClass())) {
-                        valid = true;
-                    } else {
-                        // the parameter value was not already valid, but since the simple language have evaluated the expression
-                        // which may change the parameterValue, so we have to check it again to see if its now valid
-                        exp = exchange.getContext().getTypeConverter().tryConvertTo(String.class, parameterValue);
-                        // String values from the simple language is always valid
-                        if (!valid) {
-                            // re validate if the parameter was not valid the first time (String values should be accepted)
-                            valid = parameterValue instanceof String || BeanHelper.isValidParameterValue(exp);
-                        }
+                if (valid) {
+                    // we need to unquote String parameters, as the enclosing quotes is there to denote a parameter value
+                    if (parameterValue instanceof String) {
+                        parameterValue = StringHelper.removeLeadingAndEndingQuotes((String) parameterValue);
                     }
-
-                    if (valid) {
-                        // we need to unquote String parameters, as the enclosing quotes is there to denote a parameter value
-                        if (parameterValue instanceof String) {
-                            parameterValue = StringHelper.removeLeadingAndEndingQuotes((String) parameterValue);
-                        }
-                        if (parameterValue != null) {
-                            try {
-                                // its a valid parameter value, so convert it to the expected type of the parameter
-                                answer = exchange.getContext().getTypeConverter().mandatoryConvertTo(parameterType, exchange, parameterValue);
-                                if (LOG.isTraceEnabled()) {
-                                    LOG.trace("Parameter #{} evaluated as: {} type: ", new Object[]{index, answer, ObjectHelper.type(answer)});
-                                }
-                            } catch (Exception e) {
-                                if (LOG.isDebugEnabled()) {
-                                    LOG.debug("Cannot convert from type: {} to type: {} for parameter #{}", new Object[]{ObjectHelper.type(parameterValue), parameterType, index});
-                                }
-                                throw new ParameterBindingException(e, method, index, parameterType, parameterValue);
+                    if (parameterValue != null) {
+                        try {
+                            // its a valid parameter value, so convert it to the expected type of the parameter
+                            answer = exchange.getContext().getTypeConverter().mandatoryConvertTo(parameterType, exchange, parameterValue);
+                            if (LOG.isTraceEnabled()) {
+                                LOG.trace("Parameter #{} evaluated as: {} type: ", new Object[]{index, answer, ObjectHelper.type(answer)});
                             }
+                        } catch (Exception e) {
+                            if (LOG.isDebugEnabled()) {
+                                LOG.debug("Cannot convert from type: {} to type: {} for parameter #{}", new Object[]{ObjectHelper.type(parameterValue), parameterType, index});
+                            }
+                            throw new ParameterBindingException(e, method, index, parameterType, parameterValue);
                         }
                     }
                 }
@@ -629,6 +692,83 @@ public class MethodInfo {
         };
     }
 
+    /**
+     * Gets the parameter values provided in the method name syntax, such as <tt>foo(${body}, true)</tt>, pre compiled
+     * into expressions. The parameter values are compiled the first time the method name is used and then cached,
+     * so the method name is not parsed, and the simple language expressions are not created, on each invocation.
+     *
+     * @return the parameter values where <tt>null</tt> elements are not parameter values (such as <tt>*</tt> or a type)
+     */
+    private ParameterValue[] getParameterValues(Exchange exchange, String methodName) {
+        if (methodName.isEmpty()) {
+            return NO_PARAMETER_VALUES;
+        }
+        ParameterValue[] answer = parameterValuesCache.get(methodName);
+        if (answer == null) {
+            answer = createParameterValues(exchange, methodName);
+            if (parameterValuesCache.size() < MAX_PARAMETER_VALUES_CACHE_SIZE) {
+                parameterValuesCache.putIfAbsent(methodName, answer);
+            }
+        }
+        return answer;
+    }
+
+    private ParameterValue[] createParameterValues(Exchange exchange, String methodName) {
+        // the parameter values is between the parenthesis
+        String methodParameters = ObjectHelper.betweenOuterPair(methodName, '(', ')');
+        if (methodParameters == null) {
+            return NO_PARAMETER_VALUES;
+        }
+
+        // split the parameters safely separated by comma, but beware that we can have
+        // quoted parameters which contains comma as well, so do a safe quote split
+        String[] values = StringQuoteHelper.splitSafeQuote(methodParameters, ',', true);
+        List<ParameterValue> answer = new ArrayList<ParameterValue>(values.length);
+        Iterator<?> it = ObjectHelper.createIterator(values, ",", true);
+        int index = 0;
+        while (it.hasNext()) {
+            Object value = it.next();
+            Class<?> parameterType = index < parameters.size() ? parameters.get(index).getType() : null;
+            answer.add(createParameterValue(exchange, index, value, parameterType));
+            index++;
+        }
+        return answer.toArray(new ParameterValue[answer.size()]);
+    }
+
+    private ParameterValue createParameterValue(Exchange exchange, int index, Object parameterValue, Class<?> parameterType) {
+        // we should skip * as its a type placeholder to indicate any type
+        if (parameterValue == null || parameterValue.equals("*") || parameterType == null) {
+            return null;
+        }
+
+        // convert the parameter value to a String
+        String exp = camelContext.getTypeConverter().convertTo(String.class, parameterValue);
+        if (exp == null) {
+            return null;
+        }
+
+        // check if its a valid parameter value
+        boolean valid = BeanHelper.isValidParameterValue(exp);
+        if (!valid) {
+            // it may be a parameter type instead, and if so, then its not a parameter value
+            Boolean isClass = BeanHelper.isAssignableToExpectedType(camelContext.getClassResolver(), exp, parameterType);
+            // the method will return a non null value if exp is a class
+            if (isClass != null) {
+                return null;
+            }
+        }
+
+        // use simple language to evaluate the expression, as it may use the simple language to refer to message body, headers etc.
+        Expression expression = null;
+        try {
+            expression = camelContext.resolveLanguage("simple").createExpression(exp);
+        } catch (Exception e) {
+            throw new ExpressionEvaluationException(expression, "Cannot create/evaluate simple expression: " + exp
+                    + " to be bound to parameter at index: " + index + " on method: " + getMethod(), exchange, e);
+        }
+        return new ParameterValue(exp, valid, expression);
+    }
+
     /**
      * Finds the oneway annotation in priority order; look for method level annotations first, then the class level annotations,
      * then super class annotations then interface annotations
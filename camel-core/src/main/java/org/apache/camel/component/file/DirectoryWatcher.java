@@ -0,0 +1,110 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.camel.util.IOHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches directories using a {@link WatchService} to detect whether files have been created or
+ * modified in the directories since they were last walked.
+ * <p/>
+ * This class is not thread safe, and is only supposed to be used by the polling thread of the consumer.
+ */
+class DirectoryWatcher {
+    private static final Logger LOG = LoggerFactory.getLogger(DirectoryWatcher.class);
+    private final WatchService watchService;
+    private final Map<Path, WatchKey> directories = new HashMap<Path, WatchKey>();
+    private boolean changed = true;
+    private boolean unwatched;
+
+    DirectoryWatcher() throws IOException {
+        this.watchService = FileSystems.getDefault().newWatchService();
+    }
+
+    /**
+     * Registers the directory to be watched if not already watched.
+     */
+    void register(File directory) {
+        Path path = directory.toPath().toAbsolutePath();
+        if (directories.containsKey(path)) {
+            return;
+        }
+        try {
+            WatchKey key = path.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            directories.put(path, key);
+            LOG.trace("Watching directory: {}", path);
+        } catch (IOException e) {
+            // we cannot rely on the watch service so the directories must always be walked
+            LOG.debug("Cannot watch directory: " + path + " due " + e.getMessage() + ". The directories will be walked on every poll.", e);
+            unwatched = true;
+        }
+    }
+
+    /**
+     * Whether any files have been created or modified since the directories were last walked, which is also
+     * the case if the directories have never been walked or could not be watched.
+     */
+    boolean hasChanges() {
+        WatchKey key;
+        while ((key = watchService.poll()) != null) {
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    changed = true;
+                } else {
+                    String name = event.context().toString();
+                    // ignore hidden files such as .camel and lock files which the consumer creates itself
+                    if (!name.startsWith(".") && !name.endsWith(FileComponent.DEFAULT_LOCK_FILE_POSTFIX)) {
+                        LOG.trace("Detected {} of file: {}", event.kind(), name);
+                        changed = true;
+                    }
+                }
+            }
+            if (!key.reset()) {
+                // the directory is no longer accessible, so walk the directories again to register it if it is recreated
+                directories.values().remove(key);
+                changed = true;
+            }
+        }
+        return changed || unwatched;
+    }
+
+    /**
+     * Sets whether the directories have changed, which is cleared before the directories are walked, and
+     * set again if not all the files could be processed.
+     */
+    void setChanged(boolean changed) {
+        this.changed = changed;
+    }
+
+    void close() {
+        IOHelper.close(watchService, "watchService", LOG);
+        directories.clear();
+    }
+}
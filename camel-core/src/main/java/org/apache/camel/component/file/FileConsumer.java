@@ -18,8 +18,10 @@ package org.apache.camel.component.file;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -29,6 +31,7 @@ import java.util.Set;
 
 import org.apache.camel.Processor;
 import org.apache.camel.util.FileUtil;
+import org.apache.camel.util.IOHelper;
 import org.apache.camel.util.ObjectHelper;
 
 /**
@@ -38,6 +41,10 @@ public class FileConsumer extends GenericFileConsumer<File> {
 
     private String endpointPath;
     private Set<String> extendedAttributes;
+    private DirectoryWatcher watcher;
+    private boolean limitHit;
+    private int gatheredFiles;
+    private int inProgressFiles;
 
     public FileConsumer(FileEndpoint endpoint, Processor processor, GenericFileOperations<File> operations) {
         super(endpoint, processor, operations);
@@ -52,6 +59,33 @@ public class FileConsumer extends GenericFileConsumer<File> {
         }
     }
 
+    @Override
+    protected int poll() throws Exception {
+        if (watcher != null) {
+            if (!watcher.hasChanges()) {
+                log.trace("Skipping poll as no files have been created or modified in directory: {}", endpointPath);
+                return 0;
+            }
+            // clear the changes before we walk the directories, so we detect changes made while walking
+            watcher.setChanged(false);
+        }
+
+        limitHit = false;
+        gatheredFiles = 0;
+        inProgressFiles = 0;
+        boolean complete = false;
+        try {
+            int polledMessages = super.poll();
+            complete = true;
+            return polledMessages;
+        } finally {
+            // the directories must be walked again on the next poll, unless we found nothing to process
+            if (watcher != null && (!complete || limitHit || gatheredFiles > 0 || inProgressFiles > 0)) {
+                watcher.setChanged(true);
+            }
+        }
+    }
+
     @Override
     protected boolean pollDirectory(String fileName, List<GenericFile<File>> fileList, int depth) {
         log.trace("pollDirectory from fileName: {}", fileName);
@@ -67,6 +101,14 @@ public class FileConsumer extends GenericFileConsumer<File> {
             return true;
         }
 
+        if (watcher != null) {
+            watcher.register(directory);
+        }
+
+        if (streamingBatchSize > 0) {
+            return pollDirectoryStream(fileName, directory, fileList, depth);
+        }
+
         log.trace("Polling directory: {}", directory.getPath());
         File[] dirFiles = directory.listFiles();
         if (dirFiles == null || dirFiles.length == 0) {
@@ -86,6 +128,7 @@ public class FileConsumer extends GenericFileConsumer<File> {
         for (File file : dirFiles) {
             // check if we can continue polling in files
             if (!canPollMoreFiles(fileList)) {
+                limitHit = true;
                 return false;
             }
 
@@ -98,65 +141,141 @@ public class FileConsumer extends GenericFileConsumer<File> {
             // creates a generic file
             GenericFile<File> gf = asGenericFile(endpointPath, file, getEndpoint().getCharset(), getEndpoint().isProbeContentType());
 
-            if (file.isDirectory()) {
-                if (endpoint.isRecursive() && depth < endpoint.getMaxDepth() && isValidFile(gf, true, files)) {
-                    // recursive scan and add the sub files and folders
-                    String subDirectory = fileName + File.separator + file.getName();
-                    boolean canPollMore = pollDirectory(subDirectory, fileList, depth);
-                    if (!canPollMore) {
-                        return false;
-                    }
+            if (!pollFile(fileName, file, gf, fileList, files, depth)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Polls the directory using a {@link DirectoryStream} which reads the attributes of each file once, and
+     * dispatches the gathered files in batches while walking the directory.
+     */
+    protected boolean pollDirectoryStream(String fileName, File directory, List<GenericFile<File>> fileList, int depth) {
+        log.trace("Polling directory using directory stream: {}", directory.getPath());
+
+        DirectoryStream<Path> stream = null;
+        try {
+            stream = Files.newDirectoryStream(directory.toPath());
+            for (Path path : stream) {
+                // check if we can continue polling in files
+                if (!canPollMoreFiles(fileList)) {
+                    limitHit = true;
+                    return false;
                 }
-            } else {
-                // Windows can report false to a file on a share so regard it always as a file (if its not a directory)
-                if (depth >= endpoint.minDepth && isValidFile(gf, false, files)) {
-                    log.trace("Adding valid file: {}", file);
-                    // matched file so add
-                    if (extendedAttributes != null) {
-                        Path path = file.toPath();
-                        Map<String, Object> allAttributes = new HashMap<>();
-                        for (String attribute : extendedAttributes) {
-                            try {
-                                String prefix = null;
-                                if (attribute.endsWith(":*")) {
-                                    prefix = attribute.substring(0, attribute.length() - 1);
-                                } else if (attribute.equals("*")) {
-                                    prefix = "basic:";
-                                }
-
-                                if (ObjectHelper.isNotEmpty(prefix)) {
-                                    Map<String, Object> attributes = Files.readAttributes(path, attribute);
-                                    if (attributes != null) {
-                                        for (Map.Entry<String, Object> entry : attributes.entrySet()) {
-                                            allAttributes.put(prefix + entry.getKey(), entry.getValue());
-                                        }
-                                    }
-                                } else if (!attribute.contains(":")) {
-                                    allAttributes.put("basic:" + attribute, Files.getAttribute(path, attribute));
-                                } else {
-                                    allAttributes.put(attribute, Files.getAttribute(path, attribute));
-                                }
-                            } catch (IOException e) {
-                                if (log.isDebugEnabled()) {
-                                    log.debug("Unable to read attribute {} on file {}", attribute, file, e);
-                                }
-                            }
-                        }
 
-                        gf.setExtendedAttributes(allAttributes);
-                    }
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                } catch (IOException e) {
+                    // the file may have been deleted in the meantime
+                    log.trace("Cannot read attributes of file: {} due {}", path, e.getMessage());
+                    continue;
+                }
+
+                File file = path.toFile();
+                log.trace("Found file: {} [isDirectory: {}]", file, attributes.isDirectory());
+
+                // creates a generic file
+                GenericFile<File> gf = asGenericFile(endpointPath, file, attributes, getEndpoint().getCharset(), getEndpoint().isProbeContentType());
+
+                // there is no list of the files in the directory, as we do not list the directory up front
+                if (!pollFile(fileName, file, gf, fileList, null, depth)) {
+                    return false;
+                }
+            }
+        } catch (IOException e) {
+            throw new GenericFileOperationFailedException("Cannot poll directory: " + directory, e);
+        } finally {
+            IOHelper.close(stream, "directory stream", log);
+        }
+
+        return true;
+    }
+
+    private boolean pollFile(String fileName, File file, GenericFile<File> gf, List<GenericFile<File>> fileList, List<File> files, int depth) {
+        if (gf.isDirectory()) {
+            if (endpoint.isRecursive() && depth < endpoint.getMaxDepth() && isValidFile(gf, true, files)) {
+                // recursive scan and add the sub files and folders
+                String subDirectory = fileName + File.separator + file.getName();
+                boolean canPollMore = pollDirectory(subDirectory, fileList, depth);
+                if (!canPollMore) {
+                    return false;
+                }
+            }
+        } else {
+            // keep track of the files which are in progress, as they must be polled again if they are rolled back
+            if (watcher != null && endpoint.getInProgressRepository().contains(gf.getAbsoluteFilePath())) {
+                inProgressFiles++;
+            }
 
-                    fileList.add(gf);
+            // Windows can report false to a file on a share so regard it always as a file (if its not a directory)
+            if (depth >= endpoint.minDepth && isValidFile(gf, false, files)) {
+                log.trace("Adding valid file: {}", file);
+                // matched file so add
+                if (extendedAttributes != null) {
+                    gf.setExtendedAttributes(readExtendedAttributes(file));
                 }
 
+                fileList.add(gf);
+                gatheredFiles++;
+
+                // dispatch the gathered files if we are streaming
+                if (!dispatchStreamingBatch(fileList)) {
+                    return false;
+                }
             }
         }
 
         return true;
     }
 
+    private Map<String, Object> readExtendedAttributes(File file) {
+        Path path = file.toPath();
+        Map<String, Object> allAttributes = new HashMap<>();
+        for (String attribute : extendedAttributes) {
+            try {
+                String prefix = null;
+                if (attribute.endsWith(":*")) {
+                    prefix = attribute.substring(0, attribute.length() - 1);
+                } else if (attribute.equals("*")) {
+                    prefix = "basic:";
+                }
+
+                if (ObjectHelper.isNotEmpty(prefix)) {
+                    Map<String, Object> attributes = Files.readAttributes(path, attribute);
+                    if (attributes != null) {
+                        for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+                            allAttributes.put(prefix + entry.getKey(), entry.getValue());
+                        }
+                    }
+                } else if (!attribute.contains(":")) {
+                    allAttributes.put("basic:" + attribute, Files.getAttribute(path, attribute));
+                } else {
+                    allAttributes.put(attribute, Files.getAttribute(path, attribute));
+                }
+            } catch (IOException e) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Unable to read attribute {} on file {}", attribute, file, e);
+                }
+            }
+        }
+        return allAttributes;
+    }
+
     @Override
     protected boolean isMatched(GenericFile<File> file, String doneFileName, List<File> files) {
+        if (files == null) {
+            // the directory was not listed up front so check the file system
+            if (new File(doneFileName).exists()) {
+                return true;
+            }
+            log.trace("Done file: {} does not exist", doneFileName);
+            return false;
+        }
+
         String onlyName = FileUtil.stripPath(doneFileName);
         // the done file name must be among the files
         for (File f : files) {
@@ -191,6 +310,31 @@ public class FileConsumer extends GenericFileConsumer<File> {
      */
     public static GenericFile<File> asGenericFile(String endpointPath, File file, String charset, boolean probeContentType) {
         GenericFile<File> answer = new GenericFile<File>(probeContentType);
+        answer.setFileLength(file.length());
+        answer.setDirectory(file.isDirectory());
+        answer.setLastModified(file.lastModified());
+        return asGenericFile(answer, endpointPath, file, charset);
+    }
+
+    /**
+     * Creates a new GenericFile<File> based on the given file, using the given attributes of the file
+     * to avoid reading them from the file system again.
+     *
+     * @param endpointPath the starting directory the endpoint was configured with
+     * @param file the source file
+     * @param attributes the attributes of the file
+     * @param probeContentType whether to probe the content type of the file or not
+     * @return wrapped as a GenericFile
+     */
+    public static GenericFile<File> asGenericFile(String endpointPath, File file, BasicFileAttributes attributes, String charset, boolean probeContentType) {
+        GenericFile<File> answer = new GenericFile<File>(probeContentType);
+        answer.setFileLength(attributes.size());
+        answer.setDirectory(attributes.isDirectory());
+        answer.setLastModified(attributes.lastModifiedTime().toMillis());
+        return asGenericFile(answer, endpointPath, file, charset);
+    }
+
+    private static GenericFile<File> asGenericFile(GenericFile<File> answer, String endpointPath, File file, String charset) {
         // use file specific binding
         answer.setBinding(new FileBinding());
 
@@ -198,8 +342,6 @@ public class FileConsumer extends GenericFileConsumer<File> {
         answer.setEndpointPath(endpointPath);
         answer.setFile(file);
         answer.setFileNameOnly(file.getName());
-        answer.setFileLength(file.length());
-        answer.setDirectory(file.isDirectory());
         // must use FileUtil.isAbsolute to have consistent check for whether the file is
         // absolute or not. As windows do not consider \ paths as absolute where as all
         // other OS platforms will consider \ as absolute. The logic in Camel mandates
@@ -207,7 +349,6 @@ public class FileConsumer extends GenericFileConsumer<File> {
         // to return a consistent answer for all OS platforms.
         answer.setAbsolute(FileUtil.isAbsolute(file));
         answer.setAbsoluteFilePath(file.getAbsolutePath());
-        answer.setLastModified(file.lastModified());
 
         // compute the file path as relative to the starting directory
         File path;
@@ -237,4 +378,21 @@ public class FileConsumer extends GenericFileConsumer<File> {
     public FileEndpoint getEndpoint() {
         return (FileEndpoint) super.getEndpoint();
     }
+
+    @Override
+    protected void doStart() throws Exception {
+        if (getEndpoint().isWatchDirectory() && watcher == null) {
+            watcher = new DirectoryWatcher();
+        }
+        super.doStart();
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        super.doStop();
+        if (watcher != null) {
+            watcher.close();
+            watcher = null;
+        }
+    }
 }
@@ -59,6 +59,12 @@ public class FileEndpoint extends GenericFileEndpoint<File> {
     private boolean probeContentType;
     @UriParam(label = "consumer,advanced")
     private String extendedAttributes;
+    @UriParam(label = "consumer,advanced")
+    private int streamingBatchSize;
+    @UriParam(label = "consumer,lock")
+    private int parallelReadLocks;
+    @UriParam(label = "consumer,advanced")
+    private boolean watchDirectory;
     @UriParam(label = "producer,advanced")
     private String chmod;
     @UriParam(label = "producer,advanced")
@@ -111,9 +117,15 @@ public class FileEndpoint extends GenericFileEndpoint<File> {
             idempotentRepository = MemoryIdempotentRepository.memoryIdempotentRepository(DEFAULT_IDEMPOTENT_CACHE_SIZE);
         }
 
+        if (streamingBatchSize > 0 && (getSorter() != null || getSortBy() != null || isShuffle() || !isEagerMaxMessagesPerPoll())) {
+            throw new IllegalArgumentException("You cannot set streamingBatchSize together with the sorter, sortBy, shuffle or eagerMaxMessagesPerPoll=false options");
+        }
+
         // set max messages per poll
         result.setMaxMessagesPerPoll(getMaxMessagesPerPoll());
         result.setEagerLimitMaxMessagesPerPoll(isEagerMaxMessagesPerPoll());
+        result.setStreamingBatchSize(getStreamingBatchSize());
+        result.setParallelReadLocks(getParallelReadLocks());
 
         configureConsumer(result);
         return result;
@@ -252,6 +264,47 @@ public class FileEndpoint extends GenericFileEndpoint<File> {
         this.extendedAttributes = extendedAttributes;
     }
 
+    public int getStreamingBatchSize() {
+        return streamingBatchSize;
+    }
+
+    /**
+     * To walk the directories using a {@link java.nio.file.DirectoryStream} and dispatch the files in batches of this size
+     * while still walking the directories, so the first files are processed before the directories have been completely walked.
+     * This is useful for directories with a large number of files. Each batch is dispatched as its own batch, and therefore this
+     * option cannot be used together with the sorter, sortBy and shuffle options.
+     */
+    public void setStreamingBatchSize(int streamingBatchSize) {
+        this.streamingBatchSize = streamingBatchSize;
+    }
+
+    public int getParallelReadLocks() {
+        return parallelReadLocks;
+    }
+
+    /**
+     * To acquire the exclusive read lock of this number of files in parallel ahead of the file being processed,
+     * which is useful with read locks which wait for the file to be ready, such as readLock=changed.
+     * The files are still processed one by one in the same order.
+     */
+    public void setParallelReadLocks(int parallelReadLocks) {
+        this.parallelReadLocks = parallelReadLocks;
+    }
+
+    public boolean isWatchDirectory() {
+        return watchDirectory;
+    }
+
+    /**
+     * To use a {@link java.nio.file.WatchService} to detect changes in the directories, and skip walking the directories
+     * when nothing has changed since the last poll which found no files to process. Notice the directories are
+     * only walked when files are created or modified, so files which become valid without being changed, such as
+     * files removed from the idempotent repository, are not picked up until the next change.
+     */
+    public void setWatchDirectory(boolean watchDirectory) {
+        this.watchDirectory = watchDirectory;
+    }
+
     /**
      * Chmod value must be between 000 and 777; If there is a leading digit like in 0755 we will ignore it.
      */
@@ -38,6 +38,7 @@ import org.apache.camel.Exchange;
 import org.apache.camel.InvalidPayloadException;
 import org.apache.camel.WrappedFile;
 import org.apache.camel.converter.IOConverter;
+import org.apache.camel.util.FileSegment;
 import org.apache.camel.util.FileUtil;
 import org.apache.camel.util.IOHelper;
 import org.apache.camel.util.ObjectHelper;
@@ -249,6 +250,7 @@ public class FileOperations implements GenericFileOperations<File> {
 
             // we can optimize and use file based if no charset must be used, and the input body is a file
             File source = null;
+            FileSegment segment = null;
             boolean fileBased = false;
             if (charset == null) {
                 // if no charset, then we can try using file directly (optimized)
@@ -259,9 +261,22 @@ public class FileOperations implements GenericFileOperations<File> {
                 if (body instanceof File) {
                     source = (File) body;
                     fileBased = true;
+                } else if (body instanceof FileChannel) {
+                    segment = FileSegment.remainderOf((FileChannel) body);
+                } else if (body instanceof FileSegment) {
+                    segment = (FileSegment) body;
                 }
             }
 
+            if (segment != null) {
+                // the body is a file channel so we can transfer it to the file without copying the bytes through the heap
+                writeFileBySegment(segment, file);
+                keepLastModified(exchange, file);
+                // set permissions if the chmod option was set
+                setPermissions(file);
+                return true;
+            }
+
             if (fileBased) {
                 // okay we know the body is a file based
 
@@ -275,15 +290,7 @@ public class FileOperations implements GenericFileOperations<File> {
                         // try to keep last modified timestamp if configured to do so
                         keepLastModified(exchange, file);
                         // set permissions if the chmod option was set
-                        if (ObjectHelper.isNotEmpty(endpoint.getChmod())) {
-                            Set<PosixFilePermission> permissions = endpoint.getPermissions();
-                            if (!permissions.isEmpty()) {
-                                if (LOG.isTraceEnabled()) {
-                                    LOG.trace("Setting chmod: {} on file: {} ", PosixFilePermissions.toString(permissions), file);
-                                }
-                                Files.setPosixFilePermissions(file.toPath(), permissions);
-                            }
-                        }
+                        setPermissions(file);
                         // clear header as we have renamed the file
                         exchange.getIn().setHeader(Exchange.FILE_LOCAL_WORK_PATH, null);
                         // return as the operation is complete, we just renamed the local work file
@@ -296,15 +303,7 @@ public class FileOperations implements GenericFileOperations<File> {
                     // try to keep last modified timestamp if configured to do so
                     keepLastModified(exchange, file);
                     // set permissions if the chmod option was set
-                    if (ObjectHelper.isNotEmpty(endpoint.getChmod())) {
-                        Set<PosixFilePermission> permissions = endpoint.getPermissions();
-                        if (!permissions.isEmpty()) {
-                            if (LOG.isTraceEnabled()) {
-                                LOG.trace("Setting chmod: {} on file: {} ", PosixFilePermissions.toString(permissions), file);
-                            }
-                            Files.setPosixFilePermissions(file.toPath(), permissions);
-                        }
-                    }
+                    setPermissions(file);
                     return true;
                 }
             }
@@ -329,15 +328,7 @@ public class FileOperations implements GenericFileOperations<File> {
             // try to keep last modified timestamp if configured to do so
             keepLastModified(exchange, file);
             // set permissions if the chmod option was set
-            if (ObjectHelper.isNotEmpty(endpoint.getChmod())) {
-                Set<PosixFilePermission> permissions = endpoint.getPermissions();
-                if (!permissions.isEmpty()) {
-                    if (LOG.isTraceEnabled()) {
-                        LOG.trace("Setting chmod: {} on file: {} ", PosixFilePermissions.toString(permissions), file);
-                    }
-                    Files.setPosixFilePermissions(file.toPath(), permissions);
-                }
-            }
+            setPermissions(file);
 
             return true;
         } catch (IOException e) {
@@ -416,29 +407,55 @@ public class FileOperations implements GenericFileOperations<File> {
         }
     }
 
+    private void setPermissions(File file) throws IOException {
+        if (ObjectHelper.isNotEmpty(endpoint.getChmod())) {
+            Set<PosixFilePermission> permissions = endpoint.getPermissions();
+            if (!permissions.isEmpty()) {
+                if (LOG.isTraceEnabled()) {
+                    LOG.trace("Setting chmod: {} on file: {} ", PosixFilePermissions.toString(permissions), file);
+                }
+                Files.setPosixFilePermissions(file.toPath(), permissions);
+            }
+        }
+    }
+
     private boolean writeFileByLocalWorkPath(File source, File file) throws IOException {
         LOG.trace("Using local work file being renamed from: {} to: {}", source, file);
         return FileUtil.renameFile(source, file, endpoint.isCopyAndDeleteOnRenameFail());
     }
 
     private void writeFileByFile(File source, File target) throws IOException {
-        FileChannel in = new FileInputStream(source).getChannel();
+        writeFileBySegment(FileSegment.open(source), target);
+    }
+
+    private void writeFileBySegment(FileSegment segment, File target) throws IOException {
         FileChannel out = null;
         try {
             out = prepareOutputFileChannel(target);
             LOG.debug("Using FileChannel to write file: {}", target);
-            long size = in.size();
-            long position = 0;
-            while (position < size) {
-                position += in.transferTo(position, endpoint.getBufferSize(), out);
+            // transfer the entire segment at once and let the operating system copy the bytes (zero copy)
+            long transferred = segment.transferTo(out);
+            if (transferred < segment.getCount()) {
+                throw new IOException("Cannot write file: " + target + " as only " + transferred + " of "
+                        + segment.getCount() + " bytes could be transferred, the source file may have been truncated");
             }
         } finally {
-            IOHelper.close(in, source.getName(), LOG);
+            IOHelper.close(segment, target.getName(), LOG);
             IOHelper.close(out, target.getName(), LOG, endpoint.isForceWrites());
         }
     }
 
     private void writeFileByStream(InputStream in, File target) throws IOException {
+        if (in.getClass() == FileInputStream.class) {
+            // the stream is a plain file stream so we can transfer the remainder of the file using its channel,
+            // but only if its size is known, which is not the case for a pipe or device such as /dev/stdin
+            FileChannel channel = ((FileInputStream) in).getChannel();
+            if (hasRemainder(channel)) {
+                writeFileBySegment(FileSegment.remainderOf(channel), target);
+                return;
+            }
+        }
+
         FileChannel out = null;
         try {
             out = prepareOutputFileChannel(target);
@@ -460,6 +477,15 @@ public class FileOperations implements GenericFileOperations<File> {
         }
     }
 
+    private static boolean hasRemainder(FileChannel channel) {
+        try {
+            return channel.position() < channel.size();
+        } catch (IOException e) {
+            // a pipe cannot be positioned
+            return false;
+        }
+    }
+
     private void writeFileByReaderWithCharset(Reader in, File target, String charset) throws IOException {
         boolean append = endpoint.getFileExist() == GenericFileExist.Append;
         FileOutputStream os = new FileOutputStream(target, append);
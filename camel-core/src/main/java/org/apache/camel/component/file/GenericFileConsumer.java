@@ -22,6 +22,10 @@ import java.util.Deque;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 
 import org.apache.camel.AsyncCallback;
@@ -50,7 +54,12 @@ public abstract class GenericFileConsumer<T> extends ScheduledBatchPollingConsum
     protected Processor customProcessor;
     protected boolean eagerLimitMaxMessagesPerPoll = true;
     protected volatile boolean prepareOnStartup;
+    protected int streamingBatchSize;
+    protected int parallelReadLocks;
     private final Pattern includePattern;
+    private ExecutorService readLockExecutorService;
+    private int streamedFiles;
+    private int streamedMessages;
     private final Pattern excludePattern;
 
     public GenericFileConsumer(GenericFileEndpoint<T> endpoint, Processor processor, GenericFileOperations<T> operations) {
@@ -97,6 +106,34 @@ public abstract class GenericFileConsumer<T> extends ScheduledBatchPollingConsum
         this.eagerLimitMaxMessagesPerPoll = eagerLimitMaxMessagesPerPoll;
     }
 
+    public int getStreamingBatchSize() {
+        return streamingBatchSize;
+    }
+
+    /**
+     * Sets the number of files to gather before they are dispatched as a batch while still polling the directory,
+     * so the first files can be processed before the directory has been completely polled.
+     * <p/>
+     * Each batch is dispatched as its own batch, and the files cannot be sorted. Is by default 0 (disabled).
+     */
+    public void setStreamingBatchSize(int streamingBatchSize) {
+        this.streamingBatchSize = streamingBatchSize;
+    }
+
+    public int getParallelReadLocks() {
+        return parallelReadLocks;
+    }
+
+    /**
+     * Sets the number of files to begin processing (such as acquiring the exclusive read lock) in parallel
+     * ahead of the file being processed. The files are still processed in the same order.
+     * <p/>
+     * Is by default 0 (disabled).
+     */
+    public void setParallelReadLocks(int parallelReadLocks) {
+        this.parallelReadLocks = parallelReadLocks;
+    }
+
     /**
      * Poll for files
      */
@@ -123,6 +160,8 @@ public abstract class GenericFileConsumer<T> extends ScheduledBatchPollingConsum
         // gather list of files to process
         List<GenericFile<T>> files = new ArrayList<GenericFile<T>>();
         String name = endpoint.getConfiguration().getDirectory();
+        streamedFiles = 0;
+        streamedMessages = 0;
 
         // time how long time it takes to poll
         StopWatch stop = new StopWatch();
@@ -147,6 +186,20 @@ public abstract class GenericFileConsumer<T> extends ScheduledBatchPollingConsum
             log.debug("Limiting maximum messages to poll at {} files as there was more messages in this poll.", maxMessagesPerPoll);
         }
 
+        int polledMessages = streamedMessages + processFiles(files);
+
+        postPollCheck(polledMessages);
+
+        return polledMessages;
+    }
+
+    /**
+     * Processes the gathered files as a batch
+     *
+     * @param files  the files
+     * @return number of files which was started to be processed
+     */
+    protected int processFiles(List<GenericFile<T>> files) {
         // sort files using file comparator if provided
         if (endpoint.getSorter() != null) {
             Collections.sort(files, endpoint.getSorter());
@@ -187,11 +240,27 @@ public abstract class GenericFileConsumer<T> extends ScheduledBatchPollingConsum
             log.debug("Total {} files to consume", total);
         }
 
-        int polledMessages = processBatch(CastUtils.cast(q));
+        return processBatch(CastUtils.cast(q));
+    }
 
-        postPollCheck(polledMessages);
+    /**
+     * Dispatches the gathered files as a batch while still polling the directory, if the
+     * {@link #setStreamingBatchSize(int) streamingBatchSize} has been reached.
+     *
+     * @param fileList  the current list of gathered files, which is cleared if the files was dispatched
+     * @return <tt>true</tt> to continue, <tt>false</tt> to stop polling as the consumer is stopping
+     */
+    protected boolean dispatchStreamingBatch(List<GenericFile<T>> fileList) {
+        if (streamingBatchSize <= 0 || fileList.size() < streamingBatchSize) {
+            return true;
+        }
 
-        return polledMessages;
+        List<GenericFile<T>> batch = new ArrayList<GenericFile<T>>(fileList);
+        fileList.clear();
+        streamedFiles += batch.size();
+        log.debug("Dispatching batch of {} files while polling", batch.size());
+        streamedMessages += processFiles(batch);
+        return isBatchAllowed();
     }
 
     public int processBatch(Queue<Object> exchanges) {
@@ -204,21 +273,40 @@ public abstract class GenericFileConsumer<T> extends ScheduledBatchPollingConsum
             total = maxMessagesPerPoll;
         }
 
+        // begin processing the files ahead in parallel if enabled
+        LinkedList<BeginTask> ahead = null;
+        if (readLockExecutorService != null && customProcessor == null) {
+            ahead = new LinkedList<BeginTask>();
+        }
+        int submitted = 0;
+
         for (int index = 0; index < total && isBatchAllowed(); index++) {
             // only loop if we are started (allowed to run)
             // use poll to remove the head so it does not consume memory even after we have processed it
-            Exchange exchange = (Exchange) exchanges.poll();
-            // add current index and total as properties
-            exchange.setProperty(Exchange.BATCH_INDEX, index);
-            exchange.setProperty(Exchange.BATCH_SIZE, total);
-            exchange.setProperty(Exchange.BATCH_COMPLETE, index == total - 1);
+            Exchange exchange;
+            BeginTask task = null;
+            if (ahead != null) {
+                while (submitted < total && ahead.size() <= parallelReadLocks) {
+                    Exchange next = (Exchange) exchanges.poll();
+                    setBatchProperties(next, submitted++, total);
+                    ahead.add(new BeginTask(next));
+                }
+                task = ahead.poll();
+                exchange = task.exchange;
+            } else {
+                exchange = (Exchange) exchanges.poll();
+                setBatchProperties(exchange, index, total);
+            }
 
             // update pending number of exchanges
             pendingExchanges = total - index - 1;
 
             // process the current exchange
             boolean started;
-            if (customProcessor != null) {
+            if (task != null) {
+                // continue processing the exchange which we began in parallel
+                started = task.process();
+            } else if (customProcessor != null) {
                 // use a custom processor
                 started = customProcessExchange(exchange, customProcessor);
             } else {
@@ -232,12 +320,26 @@ public abstract class GenericFileConsumer<T> extends ScheduledBatchPollingConsum
             }
         }
 
+        // abort the files which we began ahead but did not process as we are stopping
+        if (ahead != null) {
+            for (BeginTask task : ahead) {
+                task.abort();
+            }
+        }
+
         // drain any in progress files as we are done with this batch
         removeExcessiveInProgressFiles(CastUtils.cast((Deque<?>) exchanges, Exchange.class), 0);
 
         return answer;
     }
 
+    private static void setBatchProperties(Exchange exchange, int index, int total) {
+        // add current index and total as properties
+        exchange.setProperty(Exchange.BATCH_INDEX, index);
+        exchange.setProperty(Exchange.BATCH_SIZE, total);
+        exchange.setProperty(Exchange.BATCH_COMPLETE, index == total - 1);
+    }
+
     /**
      * Drain any in progress files as we are done with this batch
      *
@@ -284,8 +386,8 @@ public abstract class GenericFileConsumer<T> extends ScheduledBatchPollingConsum
             return true;
         }
 
-        // then only poll if we haven't reached the max limit
-        return fileList.size() < maxMessagesPerPoll;
+        // then only poll if we haven't reached the max limit (including the files dispatched while polling)
+        return fileList.size() + streamedFiles < maxMessagesPerPoll;
     }
 
     /**
@@ -359,16 +461,32 @@ public abstract class GenericFileConsumer<T> extends ScheduledBatchPollingConsum
         String absoluteFileName = file.getAbsoluteFilePath();
 
         // check if we can begin processing the file
-        final GenericFileProcessStrategy<T> processStrategy = endpoint.getGenericFileProcessStrategy();
-
         Exception beginCause = null;
         boolean begin = false;
         try {
-            begin = processStrategy.begin(operations, endpoint, exchange, file);
+            begin = endpoint.getGenericFileProcessStrategy().begin(operations, endpoint, exchange, file);
         } catch (Exception e) {
             beginCause = e;
         }
 
+        return processExchange(exchange, file, absoluteFileName, begin, beginCause);
+    }
+
+    /**
+     * Processes the exchange after the process strategy has begun processing the file
+     *
+     * @param exchange the exchange
+     * @param file the file
+     * @param absoluteFileName the absolute name of the file before the process strategy began
+     * @param begin whether the process strategy could begin processing the file
+     * @param beginCause optional exception thrown by the process strategy
+     * @return <tt>true</tt> if the file was started to be processed, <tt>false</tt> if the file was not started
+     * to be processed, for some reason (not found, or aborted etc)
+     */
+    protected boolean processExchange(final Exchange exchange, GenericFile<T> file, String absoluteFileName,
+                                      boolean begin, Exception beginCause) {
+        final GenericFileProcessStrategy<T> processStrategy = endpoint.getGenericFileProcessStrategy();
+
         if (!begin) {
             // no something was wrong, so we need to abort and remove the file from the in progress list
             Exception abortCause = null;
@@ -691,6 +809,10 @@ public abstract class GenericFileConsumer<T> extends ScheduledBatchPollingConsum
 
     @Override
     protected void doStart() throws Exception {
+        if (parallelReadLocks > 0 && readLockExecutorService == null) {
+            readLockExecutorService = endpoint.getCamelContext().getExecutorServiceManager()
+                    .newFixedThreadPool(this, "FileReadLock", parallelReadLocks);
+        }
         super.doStart();
     }
 
@@ -699,4 +821,70 @@ public abstract class GenericFileConsumer<T> extends ScheduledBatchPollingConsum
         prepareOnStartup = false;
         super.doStop();
     }
+
+    @Override
+    protected void doShutdown() throws Exception {
+        super.doShutdown();
+        if (readLockExecutorService != null) {
+            endpoint.getCamelContext().getExecutorServiceManager().shutdownNow(readLockExecutorService);
+            readLockExecutorService = null;
+        }
+    }
+
+    /**
+     * Begins processing a file (such as acquiring the exclusive read lock) in parallel with the
+     * files being processed before it.
+     */
+    private final class BeginTask implements Callable<Boolean> {
+        private final Exchange exchange;
+        private final GenericFile<T> file;
+        private final String absoluteFileName;
+        private final Future<Boolean> future;
+
+        BeginTask(Exchange exchange) {
+            this.exchange = exchange;
+            this.file = getExchangeFileProperty(exchange);
+            // must extract the absolute name before the begin strategy as the file could potentially be pre moved
+            this.absoluteFileName = file.getAbsoluteFilePath();
+            this.future = readLockExecutorService.submit(this);
+        }
+
+        public Boolean call() throws Exception {
+            log.trace("Begin processing file: {}", file);
+            return endpoint.getGenericFileProcessStrategy().begin(operations, endpoint, exchange, file);
+        }
+
+        boolean process() {
+            log.trace("Processing file: {}", file);
+            Exception beginCause = null;
+            boolean begin = false;
+            try {
+                begin = awaitBegin();
+            } catch (Exception e) {
+                beginCause = e;
+            }
+            return processExchange(exchange, file, absoluteFileName, begin, beginCause);
+        }
+
+        void abort() {
+            try {
+                if (awaitBegin()) {
+                    endpoint.getGenericFileProcessStrategy().abort(operations, endpoint, exchange, file);
+                }
+            } catch (Exception e) {
+                log.debug("Error aborting file: " + file + " due " + e.getMessage() + ". This exception is ignored.", e);
+            } finally {
+                endpoint.getInProgressRepository().remove(absoluteFileName);
+            }
+        }
+
+        private boolean awaitBegin() throws Exception {
+            try {
+                return future.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof Exception ? (Exception) cause : e;
+            }
+        }
+    }
 }
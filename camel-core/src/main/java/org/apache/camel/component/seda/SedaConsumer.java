@@ -16,7 +16,9 @@
  */
 package org.apache.camel.component.seda;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
@@ -56,6 +58,8 @@ public class SedaConsumer extends ServiceSupport implements Consumer, Runnable,
     private static final Logger LOG = LoggerFactory.getLogger(SedaConsumer.class);
 
     private final AtomicInteger taskCount = new AtomicInteger();
+    // number of exchanges taken from the queue in batches which has not yet been processed
+    private final AtomicInteger batchPending = new AtomicInteger();
     private volatile CountDownLatch latch;
     private volatile boolean shutdownPending;
     private volatile boolean forceShutdown;
@@ -64,11 +68,13 @@ public class SedaConsumer extends ServiceSupport implements Consumer, Runnable,
     private ExecutorService executor;
     private ExceptionHandler exceptionHandler;
     private final int pollTimeout;
+    private final int batchSize;
 
     public SedaConsumer(SedaEndpoint endpoint, Processor processor) {
         this.endpoint = endpoint;
         this.processor = AsyncProcessorConverterHelper.convert(processor);
         this.pollTimeout = endpoint.getPollTimeout();
+        this.batchSize = endpoint.getBatchSize();
         this.exceptionHandler = new LoggingExceptionHandler(endpoint.getCamelContext(), getClass());
     }
 
@@ -105,7 +111,7 @@ public class SedaConsumer extends ServiceSupport implements Consumer, Runnable,
         if (endpoint.isPurgeWhenStopping()) {
             endpoint.purgeQueue();
         }
-        return endpoint.getQueue().size();
+        return endpoint.getQueue().size() + batchPending.get();
     }
 
     @Override
@@ -159,6 +165,8 @@ public class SedaConsumer extends ServiceSupport implements Consumer, Runnable,
 
     protected void doRun() {
         BlockingQueue<Exchange> queue = endpoint.getQueue();
+        // the exchanges drained from the queue in batch mode
+        List<Exchange> batch = batchSize > 1 ? new ArrayList<Exchange>(batchSize - 1) : null;
         // loop while we are allowed, or if we are stopping loop until the queue is empty
         while (queue != null && (isRunAllowed())) {
 
@@ -200,24 +208,27 @@ public class SedaConsumer extends ServiceSupport implements Consumer, Runnable,
                     LOG.trace("Polled queue {} with timeout {} ms. -> {}", new Object[]{ObjectHelper.getIdentityHashCode(queue), pollTimeout, exchange});
                 }
                 if (exchange != null) {
-                    try {
-                        // send a new copied exchange with new camel context
-                        Exchange newExchange = prepareExchange(exchange);
-                        // process the exchange
-                        sendToConsumers(newExchange);
-                        // copy the message back
-                        if (newExchange.hasOut()) {
-                            exchange.setOut(newExchange.getOut().copy());
-                        } else {
-                            exchange.setIn(newExchange.getIn());
-                        }
-                        // log exception if an exception occurred and was not handled
-                        if (newExchange.getException() != null) {
-                            exchange.setException(newExchange.getException());
-                            getExceptionHandler().handleException("Error processing exchange", exchange, exchange.getException());
+                    processExchange(exchange);
+
+                    // take the following exchanges which are ready on the queue at once and process them back to back
+                    if (batch != null) {
+                        int size = queue.drainTo(batch, batchSize - 1);
+                        if (size > 0) {
+                            LOG.trace("Drained {} exchanges from queue {}", size, ObjectHelper.getIdentityHashCode(queue));
+                            batchPending.addAndGet(size);
+                            try {
+                                for (int i = 0; i < size; i++) {
+                                    exchange = batch.get(i);
+                                    batch.set(i, null);
+                                    batchPending.decrementAndGet();
+                                    processExchange(exchange);
+                                }
+                            } finally {
+                                // put back any exchanges we did not process, so they are not lost
+                                putBackPendingExchanges(queue, batch);
+                                batch.clear();
+                            }
                         }
-                    } catch (Exception e) {
-                        getExceptionHandler().handleException("Error processing exchange", exchange, e);
                     }
                 } else if (shutdownPending && queue.isEmpty()) {
                     LOG.trace("Shutdown is pending, so this consumer thread is breaking out because the task queue is empty.");
@@ -240,6 +251,78 @@ public class SedaConsumer extends ServiceSupport implements Consumer, Runnable,
         LOG.debug("Ending this polling consumer thread, there are still {} consumer threads left.", latch.getCount());
     }
 
+    /**
+     * Fails the exchange which was drained from the queue but could not be put back as the queue is full,
+     * and completes it so a waiting producer is not left waiting.
+     *
+     * @param exchange the exchange
+     */
+    /**
+     * Puts back the exchanges taken from the queue in a batch which was not processed.
+     * <p/>
+     * They are put back at the head of the queue in their original order if the queue is a {@link BlockingDeque},
+     * otherwise they can only be put back at the tail of the queue, after any exchanges added in the meantime.
+     *
+     * @param queue the queue
+     * @param batch the exchanges taken from the queue, where the processed exchanges are <tt>null</tt>
+     */
+    protected void putBackPendingExchanges(BlockingQueue<Exchange> queue, List<Exchange> batch) {
+        if (queue instanceof BlockingDeque) {
+            BlockingDeque<Exchange> deque = (BlockingDeque<Exchange>) queue;
+            for (int i = batch.size() - 1; i >= 0; i--) {
+                Exchange pending = batch.get(i);
+                if (pending != null) {
+                    batchPending.decrementAndGet();
+                    if (!deque.offerFirst(pending)) {
+                        failPendingExchange(pending);
+                    }
+                }
+            }
+        } else {
+            for (Exchange pending : batch) {
+                if (pending != null) {
+                    batchPending.decrementAndGet();
+                    if (!queue.offer(pending)) {
+                        failPendingExchange(pending);
+                    }
+                }
+            }
+        }
+    }
+
+    protected void failPendingExchange(Exchange exchange) {
+        exchange.setException(new IllegalStateException("Cannot put back exchange on queue as the queue is full: " + endpoint.getEndpointUri()));
+        getExceptionHandler().handleException("Error processing exchange", exchange, exchange.getException());
+        UnitOfWorkHelper.doneSynchronizations(exchange, exchange.handoverCompletions(), LOG);
+    }
+
+    /**
+     * Processes the exchange taken from the queue.
+     *
+     * @param exchange the exchange
+     */
+    protected void processExchange(Exchange exchange) {
+        try {
+            // send a new copied exchange with new camel context
+            Exchange newExchange = prepareExchange(exchange);
+            // process the exchange
+            sendToConsumers(newExchange);
+            // copy the message back
+            if (newExchange.hasOut()) {
+                exchange.setOut(newExchange.getOut().copy());
+            } else {
+                exchange.setIn(newExchange.getIn());
+            }
+            // log exception if an exception occurred and was not handled
+            if (newExchange.getException() != null) {
+                exchange.setException(newExchange.getException());
+                getExceptionHandler().handleException("Error processing exchange", exchange, exchange.getException());
+            }
+        } catch (Exception e) {
+            getExceptionHandler().handleException("Error processing exchange", exchange, e);
+        }
+    }
+
     /**
      * Strategy to prepare exchange for being processed by this consumer
      *
@@ -358,7 +441,7 @@ public class SedaConsumer extends ServiceSupport implements Consumer, Runnable,
 
         // submit needed number of tasks
         int tasks = poolSize - taskCount.get();
-        LOG.debug("Creating {} consumer tasks with poll timeout {} ms.", tasks, pollTimeout);
+        LOG.debug("Creating {} consumer tasks with poll timeout {} ms. and batch size {}", new Object[]{tasks, pollTimeout, batchSize});
         for (int i = 0; i < tasks; i++) {
             executor.execute(this);
         }
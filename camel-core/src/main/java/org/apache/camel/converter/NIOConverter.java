@@ -22,9 +22,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 import org.apache.camel.Converter;
 import org.apache.camel.Exchange;
+import org.apache.camel.util.FileSegment;
 import org.apache.camel.util.IOHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -63,6 +65,16 @@ public final class NIOConverter {
         return ByteBuffer.wrap(data);
     }
 
+    @Converter
+    public static FileSegment toFileSegment(File file) throws IOException {
+        return FileSegment.open(file);
+    }
+
+    @Converter
+    public static FileSegment toFileSegment(FileChannel channel) throws IOException {
+        return FileSegment.remainderOf(channel);
+    }
+
     @Converter
     public static ByteBuffer toByteBuffer(File file) throws IOException {
         InputStream in = null;
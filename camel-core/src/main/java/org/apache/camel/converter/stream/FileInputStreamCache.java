@@ -25,12 +25,16 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
 import java.nio.channels.WritableByteChannel;
 import java.security.GeneralSecurityException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.crypto.CipherInputStream;
@@ -40,6 +44,8 @@ import org.apache.camel.Exchange;
 import org.apache.camel.RuntimeCamelException;
 import org.apache.camel.StreamCache;
 import org.apache.camel.spi.StreamCachingStrategy;
+import org.apache.camel.spi.StreamCachingStrategy.OffHeapChunkPool;
+import org.apache.camel.spi.StreamCachingStrategy.SpoolMode;
 import org.apache.camel.spi.Synchronization;
 import org.apache.camel.spi.UnitOfWork;
 import org.apache.camel.support.SynchronizationAdapter;
@@ -147,6 +153,12 @@ public final class FileInputStreamCache extends InputStream implements StreamCac
     }
 
     private InputStream createInputStream(File file) throws IOException {
+        if (tempFileManager.isMemoryMapped()) {
+            ByteBuffer buffer = tempFileManager.getMappedBuffer();
+            if (buffer != null) {
+                return new ByteBufferInputStream(buffer);
+            }
+        }
         InputStream in = new BufferedInputStream(new FileInputStream(file));
         if (ciphers != null) {
             in = new CipherInputStream(in, ciphers.getDecryptor()) {
@@ -169,6 +181,9 @@ public final class FileInputStreamCache extends InputStream implements StreamCac
      * Counts the number of exchanges which have a FileInputStreamCache  instance of the temporary file.
      * Deletes the temporary file, if all exchanges are done.
      * 
+     * When using the off-heap spool mode, then the data is written to chunks of off-heap memory
+     * instead of the temporary file, and the chunks are returned to the pool when all exchanges are done.
+     * 
      * @see CachedOutputStream
      */
     static class TempFileManager {
@@ -180,6 +195,15 @@ public final class FileInputStreamCache extends InputStream implements StreamCac
         private File tempFile;
         private OutputStream outputStream; // file output stream
         private CipherPair ciphers;
+        private boolean memoryMapped;
+        private MappedByteBuffer mappedBuffer;
+        private OffHeapChunkPool offHeapPool;
+        private volatile List<ByteBuffer> offHeapChunks;
+        private long offHeapLength;
+        // the references to the off-heap chunks, which is one for the exchanges and one for each read in progress,
+        // so the chunks are not returned to the pool while they are being read
+        private final AtomicInteger offHeapReferences = new AtomicInteger();
+        private final AtomicBoolean offHeapDone = new AtomicBoolean();
         
         // there can be several input streams, for example in the multi-cast, or wiretap parallel processing
         private List<FileInputStreamCache> fileInputStreamCaches;
@@ -252,9 +276,24 @@ public final class FileInputStreamCache extends InputStream implements StreamCac
         
         OutputStream createOutputStream(StreamCachingStrategy strategy) throws IOException {
             // should only be called once
-            if (tempFile != null) {
+            if (tempFile != null || offHeapPool != null) {
                 throw new IllegalStateException("The method 'createOutputStream' can only be called once!");
             }
+            if (strategy.getSpoolMode() == SpoolMode.OffHeap) {
+                OffHeapChunkPool pool = strategy.getOffHeapChunkPool();
+                if (pool != null) {
+                    LOG.trace("Spooling stream cache to off-heap memory using pool: {}", pool);
+                    offHeapPool = pool;
+                    offHeapChunks = new ArrayList<ByteBuffer>();
+                    offHeapReferences.set(1);
+                    outputStream = new OffHeapOutputStream(strategy);
+                    return outputStream;
+                }
+            }
+            return createFileOutputStream(strategy);
+        }
+
+        private OutputStream createFileOutputStream(StreamCachingStrategy strategy) throws IOException {
             tempFile = FileUtil.createTempFile("cos", ".tmp", strategy.getSpoolDirectory());
 
             LOG.trace("Creating temporary stream cache file: {}", tempFile);
@@ -277,11 +316,17 @@ public final class FileInputStreamCache extends InputStream implements StreamCac
                     }
                 };
             }
+            // the file can only be memory mapped if its not encrypted
+            memoryMapped = strategy.getSpoolMode() == SpoolMode.MemoryMapped && ciphers == null;
             outputStream = out;
             return out;
         }
         
-        FileInputStreamCache newStreamCache() throws IOException {
+        StreamCache newStreamCache() throws IOException {
+            List<ByteBuffer> chunks = offHeapChunks;
+            if (chunks != null) {
+                return new OffHeapInputStreamCache(this, offHeapLength, offHeapPool.getChunkSize());
+            }
             try {
                 return new FileInputStreamCache(this);
             } catch (FileNotFoundException e) {
@@ -299,6 +344,12 @@ public final class FileInputStreamCache extends InputStream implements StreamCac
         } 
 
         void cleanUpTempFile() {
+            // the exchanges are done with the off-heap chunks, which are returned to the pool when no reads are in progress
+            if (offHeapChunks != null && offHeapDone.compareAndSet(false, true)) {
+                releaseOffHeapChunks();
+            }
+            // the mapped buffer is unmapped when its garbage collected
+            mappedBuffer = null;
             // cleanup temporary file
             try {
                 if (tempFile != null) {
@@ -317,6 +368,155 @@ public final class FileInputStreamCache extends InputStream implements StreamCac
         CipherPair getCiphers() {
             return ciphers;
         }
+
+        boolean isMemoryMapped() {
+            return memoryMapped;
+        }
+
+        /**
+         * Retains the off-heap chunks for reading, which must be followed by {@link #releaseOffHeapChunks()}
+         * when done reading.
+         *
+         * @return the chunks, or <tt>null</tt> if the chunks has been returned to the pool
+         */
+        List<ByteBuffer> retainOffHeapChunks() {
+            while (true) {
+                int count = offHeapReferences.get();
+                if (count <= 0) {
+                    return null;
+                }
+                if (offHeapReferences.compareAndSet(count, count + 1)) {
+                    return offHeapChunks;
+                }
+            }
+        }
+
+        /**
+         * Releases a reference to the off-heap chunks, and returns the chunks to the pool when it was the last reference.
+         */
+        void releaseOffHeapChunks() {
+            if (offHeapReferences.decrementAndGet() == 0) {
+                List<ByteBuffer> chunks = offHeapChunks;
+                offHeapChunks = null;
+                if (chunks != null) {
+                    for (ByteBuffer chunk : chunks) {
+                        offHeapPool.release(chunk);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Gets a buffer with the content of the temporary file memory mapped, or <tt>null</tt> if the file
+         * is too big to be mapped into a single buffer.
+         */
+        synchronized ByteBuffer getMappedBuffer() throws IOException {
+            long length = tempFile.length();
+            if (length > Integer.MAX_VALUE) {
+                return null;
+            }
+            if (mappedBuffer == null || mappedBuffer.capacity() != length) {
+                // the file is only mapped once, and then shared by all the readers
+                RandomAccessFile raf = new RandomAccessFile(tempFile, "r");
+                try {
+                    mappedBuffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length);
+                } finally {
+                    IOHelper.close(raf);
+                }
+            }
+            return mappedBuffer.duplicate();
+        }
+
+        /**
+         * Output stream which writes to chunks of off-heap memory, and spools to a temporary file
+         * if the off-heap memory limit is reached.
+         */
+        private final class OffHeapOutputStream extends OutputStream {
+
+            private final StreamCachingStrategy strategy;
+            private ByteBuffer current;
+            private OutputStream fileStream;
+
+            private OffHeapOutputStream(StreamCachingStrategy strategy) {
+                this.strategy = strategy;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                if (fileStream == null && nextChunk()) {
+                    current.put((byte) b);
+                    offHeapLength++;
+                } else {
+                    fileStream.write(b);
+                }
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                while (len > 0) {
+                    if (fileStream != null || !nextChunk()) {
+                        fileStream.write(b, off, len);
+                        return;
+                    }
+                    int n = Math.min(len, current.remaining());
+                    current.put(b, off, n);
+                    offHeapLength += n;
+                    off += n;
+                    len -= n;
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                if (fileStream != null) {
+                    fileStream.flush();
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (fileStream != null) {
+                    fileStream.close();
+                }
+            }
+
+            /**
+             * Ensures there is a chunk with free space, or spools to a temporary file if no more chunks are available.
+             *
+             * @return <tt>true</tt> if there is a chunk to write to, <tt>false</tt> if spooled to a temporary file
+             */
+            private boolean nextChunk() throws IOException {
+                if (current != null && current.hasRemaining()) {
+                    return true;
+                }
+                current = offHeapPool.acquire();
+                if (current != null) {
+                    offHeapChunks.add(current);
+                    return true;
+                }
+
+                LOG.debug("Off-heap memory limit of {} bytes reached. Spooling stream cache to temporary file instead.", offHeapPool.getMemoryLimit());
+                List<ByteBuffer> chunks = offHeapChunks;
+                fileStream = createFileOutputStream(strategy);
+                // restore our self as the output stream, so the file stream is closed when we are closed
+                outputStream = this;
+                byte[] buffer = new byte[Math.min(offHeapPool.getChunkSize(), IOHelper.DEFAULT_BUFFER_SIZE)];
+                for (ByteBuffer chunk : chunks) {
+                    ByteBuffer data = chunk.duplicate();
+                    data.flip();
+                    while (data.hasRemaining()) {
+                        int n = Math.min(buffer.length, data.remaining());
+                        data.get(buffer, 0, n);
+                        fileStream.write(buffer, 0, n);
+                    }
+                    offHeapPool.release(chunk);
+                }
+                offHeapChunks = null;
+                offHeapReferences.set(0);
+                offHeapLength = 0;
+                return false;
+            }
+        }
         
     }
 
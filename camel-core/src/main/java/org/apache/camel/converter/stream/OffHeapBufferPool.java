@@ -0,0 +1,152 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.converter.stream;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.camel.spi.StreamCachingStrategy;
+
+/**
+ * A pool of fixed size chunks of off-heap (direct) memory used for spooling stream caches.
+ * <p/>
+ * Allocating direct memory is expensive, so the chunks are returned to the pool when the stream caches
+ * are done, and then reused by new stream caches. The total amount of allocated memory (used and pooled)
+ * is capped by the memory limit.
+ * <p/>
+ * This pool is thread safe.
+ */
+public final class OffHeapBufferPool implements StreamCachingStrategy.OffHeapChunkPool {
+
+    private final int chunkSize;
+    private final long memoryLimit;
+    private final ConcurrentLinkedQueue<ByteBuffer> pooled = new ConcurrentLinkedQueue<ByteBuffer>();
+    private final AtomicLong allocated = new AtomicLong();
+    private final AtomicLong used = new AtomicLong();
+    private final LongAdder reused = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    public OffHeapBufferPool(int chunkSize, long memoryLimit) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("ChunkSize must be a positive number, was: " + chunkSize);
+        }
+        if (memoryLimit < chunkSize) {
+            throw new IllegalArgumentException("MemoryLimit must be at least the chunk size " + chunkSize + ", was: " + memoryLimit);
+        }
+        this.chunkSize = chunkSize;
+        this.memoryLimit = memoryLimit;
+    }
+
+    /**
+     * Acquires a chunk, which is either a pooled chunk or a newly allocated chunk.
+     *
+     * @return the cleared chunk, or <tt>null</tt> if the memory limit has been reached
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer answer = pooled.poll();
+        if (answer != null) {
+            reused.increment();
+            used.addAndGet(chunkSize);
+            answer.clear();
+            return answer;
+        }
+
+        while (true) {
+            long current = allocated.get();
+            if (current + chunkSize > memoryLimit) {
+                exhausted.increment();
+                return null;
+            }
+            if (allocated.compareAndSet(current, current + chunkSize)) {
+                break;
+            }
+        }
+        used.addAndGet(chunkSize);
+        return ByteBuffer.allocateDirect(chunkSize);
+    }
+
+    /**
+     * Returns the chunk to the pool so it can be reused.
+     */
+    public void release(ByteBuffer chunk) {
+        used.addAndGet(-chunkSize);
+        pooled.offer(chunk);
+    }
+
+    /**
+     * Discards the pooled chunks so their memory can be freed. Chunks which are in use are pooled again
+     * when they are released.
+     */
+    public void clear() {
+        ByteBuffer chunk;
+        while ((chunk = pooled.poll()) != null) {
+            allocated.addAndGet(-chunk.capacity());
+        }
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public long getMemoryLimit() {
+        return memoryLimit;
+    }
+
+    /**
+     * Number of bytes in chunks which are currently in use.
+     */
+    public long getMemoryUsed() {
+        return used.get();
+    }
+
+    /**
+     * Number of bytes in chunks which are pooled and free to be reused.
+     */
+    public long getMemoryPooled() {
+        return (long) pooled.size() * chunkSize;
+    }
+
+    /**
+     * Number of times a pooled chunk has been reused.
+     */
+    public long getReuseCounter() {
+        return reused.sum();
+    }
+
+    /**
+     * Number of times a chunk could not be acquired because the memory limit was reached.
+     */
+    public long getExhaustedCounter() {
+        return exhausted.sum();
+    }
+
+    /**
+     * Reset the counters
+     */
+    public void resetStatistics() {
+        reused.reset();
+        exhausted.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "OffHeapBufferPool[chunkSize=" + chunkSize + ", memoryLimit=" + memoryLimit + ", used=" + getMemoryUsed()
+                + ", pooled=" + getMemoryPooled() + "]";
+    }
+}
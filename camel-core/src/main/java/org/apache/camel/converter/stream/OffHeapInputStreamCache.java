@@ -0,0 +1,191 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.converter.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.StreamCache;
+import org.apache.camel.converter.stream.FileInputStreamCache.TempFileManager;
+
+/**
+ * A {@link StreamCache} for data spooled to chunks of off-heap memory from a {@link OffHeapBufferPool}.
+ * <p/>
+ * The chunks are shared by the copies of this stream cache, and are returned to the pool when all the
+ * exchanges using the stream cache are done, and no reads are in progress.
+ */
+public final class OffHeapInputStreamCache extends InputStream implements StreamCache {
+
+    private final TempFileManager tempFileManager;
+    private final long length;
+    private final int chunkSize;
+    private long position;
+    private long mark;
+
+    OffHeapInputStreamCache(TempFileManager tempFileManager, long length, int chunkSize) {
+        this.tempFileManager = tempFileManager;
+        this.length = length;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void reset() {
+        position = mark;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public void mark(int readLimit) {
+        mark = position;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (position >= length) {
+            return -1;
+        }
+        List<ByteBuffer> chunks = retainChunks();
+        try {
+            ByteBuffer chunk = chunks.get((int) (position / chunkSize));
+            int answer = chunk.get((int) (position % chunkSize)) & 0xFF;
+            position++;
+            return answer;
+        } finally {
+            tempFileManager.releaseOffHeapChunks();
+        }
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (position >= length) {
+            return -1;
+        }
+        int n = (int) Math.min(len, length - position);
+        List<ByteBuffer> chunks = retainChunks();
+        try {
+            int remaining = n;
+            while (remaining > 0) {
+                ByteBuffer chunk = slice(chunks, remaining);
+                int count = chunk.remaining();
+                chunk.get(b, off, count);
+                off += count;
+                remaining -= count;
+                position += count;
+            }
+            return n;
+        } finally {
+            tempFileManager.releaseOffHeapChunks();
+        }
+    }
+
+    @Override
+    public long skip(long n) {
+        if (n <= 0) {
+            return 0;
+        }
+        long skip = Math.min(n, length - position);
+        position += skip;
+        return skip;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, length - position);
+    }
+
+    public void writeTo(OutputStream os) throws IOException {
+        List<ByteBuffer> chunks = retainChunks();
+        try {
+            byte[] buffer = null;
+            while (position < length) {
+                ByteBuffer chunk = slice(chunks, length - position);
+                int count = chunk.remaining();
+                if (os instanceof WritableByteChannel) {
+                    WritableByteChannel channel = (WritableByteChannel) os;
+                    while (chunk.hasRemaining()) {
+                        channel.write(chunk);
+                    }
+                } else {
+                    if (buffer == null) {
+                        buffer = new byte[Math.min(chunkSize, 8192)];
+                    }
+                    while (chunk.hasRemaining()) {
+                        int n = Math.min(buffer.length, chunk.remaining());
+                        chunk.get(buffer, 0, n);
+                        os.write(buffer, 0, n);
+                    }
+                }
+                position += count;
+            }
+        } finally {
+            tempFileManager.releaseOffHeapChunks();
+        }
+    }
+
+    public StreamCache copy(Exchange exchange) throws IOException {
+        tempFileManager.addExchange(exchange);
+        return new OffHeapInputStreamCache(tempFileManager, length, chunkSize);
+    }
+
+    public boolean inMemory() {
+        // the data is spooled out of the heap
+        return false;
+    }
+
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Gets a view of the chunk at the current position, limited to the given number of bytes.
+     */
+    private ByteBuffer slice(List<ByteBuffer> chunks, long max) {
+        int offset = (int) (position % chunkSize);
+        ByteBuffer chunk = chunks.get((int) (position / chunkSize)).duplicate();
+        chunk.limit((int) Math.min(chunkSize, offset + max));
+        chunk.position(offset);
+        return chunk;
+    }
+
+    /**
+     * Retains the chunks while reading, so they are not returned to the pool and reused in the meantime.
+     */
+    private List<ByteBuffer> retainChunks() throws IOException {
+        List<ByteBuffer> chunks = tempFileManager.retainOffHeapChunks();
+        if (chunks == null) {
+            throw new IOException("The off-heap stream cache has been released as the exchanges using it are done");
+        }
+        return chunks;
+    }
+
+    @Override
+    public String toString() {
+        return "OffHeapInputStreamCache[length=" + length + "]";
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.impl;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.camel.spi.UuidGenerator;
+
+/**
+ * {@link org.apache.camel.spi.UuidGenerator} which generates compact and monotonic 128 bit ids.
+ * <p/>
+ * The most significant 64 bits is a random node id, which is generated once per JVM, combined with the number of the
+ * generator instance. The least significant 64 bits is a counter which starts from the current time shifted
+ * 20 bits to the left, so the ids keeps increasing after a restart of the JVM as long as less than a million ids
+ * is generated per millisecond on average. The ids are formatted as two fixed length hex numbers, which means
+ * the ids generated by the same generator are in order when sorted as strings.
+ * <p/>
+ * Unlike {@link ActiveMQUuidGenerator} this implementation does not need to lookup the host name or bind to
+ * a local port, and unlike {@link JavaUuidGenerator} it only use {@link SecureRandom} once. Generating an id is
+ * a single atomic increment, and the string form is created directly from a preformatted prefix. Callers who
+ * need an id but rarely its string form, can use {@link #nextSequence()} and only materialize the id using
+ * {@link #toUuid(long)} when the string form is needed.
+ */
+public class CompactUuidGenerator implements UuidGenerator {
+
+    private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    private final long mostSignificantBits;
+    private final char[] prefix;
+    private final AtomicLong sequence;
+
+    public CompactUuidGenerator() {
+        this.mostSignificantBits = NodeHolder.NODE | (INSTANCES.getAndIncrement() & 0xFFFF);
+        this.sequence = new AtomicLong(System.currentTimeMillis() << 20);
+        this.prefix = new char[17];
+        formatHex(mostSignificantBits, prefix, 0);
+        prefix[16] = '-';
+    }
+
+    public String generateUuid() {
+        return toUuid(sequence.getAndIncrement());
+    }
+
+    /**
+     * Gets the next sequence number, which are the least significant bits of the next id.
+     * <p/>
+     * Use {@link #toUuid(long)} to create the string form of the id.
+     *
+     * @return the next sequence number
+     */
+    public long nextSequence() {
+        return sequence.getAndIncrement();
+    }
+
+    /**
+     * Creates the string form of the id with the given sequence number from this generator.
+     *
+     * @param sequence the sequence number
+     * @return the id
+     */
+    public String toUuid(long sequence) {
+        char[] chars = new char[33];
+        System.arraycopy(prefix, 0, chars, 0, 17);
+        formatHex(sequence, chars, 17);
+        return new String(chars);
+    }
+
+    /**
+     * Gets the most significant bits of the ids from this generator, which are the node id and the number
+     * of the generator.
+     */
+    public long getMostSignificantBits() {
+        return mostSignificantBits;
+    }
+
+    private static void formatHex(long value, char[] chars, int offset) {
+        for (int i = offset + 15; i >= offset; i--) {
+            chars[i] = DIGITS[(int) value & 0xF];
+            value >>>= 4;
+        }
+    }
+
+    /**
+     * Holder of the random node id, so it is only generated when a generator is created.
+     */
+    private static final class NodeHolder {
+        private static final long NODE = new SecureRandom().nextLong() & 0xFFFFFFFFFFFF0000L;
+    }
+}
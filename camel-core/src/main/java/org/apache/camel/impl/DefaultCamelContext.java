@@ -16,6 +16,8 @@
  */
 package org.apache.camel.impl;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
@@ -37,6 +39,9 @@ import java.util.TreeMap;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -48,6 +53,7 @@ import javax.management.ObjectName;
 import javax.naming.Context;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLStreamException;
 
 import org.apache.camel.CamelContext;
 import org.apache.camel.CamelContextAware;
@@ -96,6 +102,7 @@ import org.apache.camel.management.ManagementStrategyFactory;
 import org.apache.camel.model.DataFormatDefinition;
 import org.apache.camel.model.FromDefinition;
 import org.apache.camel.model.ModelCamelContext;
+import org.apache.camel.model.ModelParser;
 import org.apache.camel.model.ProcessorDefinition;
 import org.apache.camel.model.ProcessorDefinitionHelper;
 import org.apache.camel.model.RouteDefinition;
@@ -124,6 +131,7 @@ import org.apache.camel.spi.EventNotifier;
 import org.apache.camel.spi.ExecutorServiceManager;
 import org.apache.camel.spi.FactoryFinder;
 import org.apache.camel.spi.FactoryFinderResolver;
+import org.apache.camel.spi.HeadersMapFactory;
 import org.apache.camel.spi.InflightRepository;
 import org.apache.camel.spi.Injector;
 import org.apache.camel.spi.InterceptStrategy;
@@ -227,6 +235,7 @@ public class DefaultCamelContext extends ServiceSupport implements ModelCamelCon
     private Boolean typeConverterStatisticsEnabled = Boolean.FALSE;
     private Boolean useMDCLogging = Boolean.FALSE;
     private Boolean useBreadcrumb = Boolean.TRUE;
+    private Boolean parallelRouteStartup = Boolean.FALSE;
     private Boolean allowUseOriginalMessage = Boolean.TRUE;
     private Long delay;
     private ErrorHandlerFactory errorHandlerBuilder;
@@ -267,6 +276,7 @@ public class DefaultCamelContext extends ServiceSupport implements ModelCamelCon
     private Debugger debugger;
     private UuidGenerator uuidGenerator = createDefaultUuidGenerator();
     private UnitOfWorkFactory unitOfWorkFactory = new DefaultUnitOfWorkFactory();
+    private HeadersMapFactory headersMapFactory = new DefaultHeadersMapFactory();
     private final StopWatch stopWatch = new StopWatch(false);
     private Date startDate;
     private ModelJAXBContextFactory modelJAXBContextFactory;
@@ -866,14 +876,7 @@ public class DefaultCamelContext extends ServiceSupport implements ModelCamelCon
     }
 
     public synchronized RoutesDefinition loadRoutesDefinition(InputStream is) throws Exception {
-        // load routes using JAXB
-        if (jaxbContext == null) {
-            // must use classloader from CamelContext to have JAXB working
-            jaxbContext = getModelJAXBContextFactory().newJAXBContext();
-        }
-
-        Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
-        Object result = unmarshaller.unmarshal(is);
+        Object result = unmarshalModel(is);
 
         if (result == null) {
             throw new IOException("Cannot unmarshal to routes using JAXB from input stream: " + is);
@@ -895,14 +898,7 @@ public class DefaultCamelContext extends ServiceSupport implements ModelCamelCon
     }
 
     public synchronized RestsDefinition loadRestsDefinition(InputStream is) throws Exception {
-        // load routes using JAXB
-        if (jaxbContext == null) {
-            // must use classloader from CamelContext to have JAXB working
-            jaxbContext = getModelJAXBContextFactory().newJAXBContext();
-        }
-
-        Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
-        Object result = unmarshaller.unmarshal(is);
+        Object result = unmarshalModel(is);
 
         if (result == null) {
             throw new IOException("Cannot unmarshal to rests using JAXB from input stream: " + is);
@@ -923,6 +919,31 @@ public class DefaultCamelContext extends ServiceSupport implements ModelCamelCon
         return answer;
     }
 
+    private Object unmarshalModel(InputStream is) throws Exception {
+        if (ModelParser.isSupported(this)) {
+            // the model parser is much faster than JAXB, but if the xml is not supported then we need to use JAXB
+            // so read the stream into memory first
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            IOHelper.copy(is, bos);
+            byte[] data = bos.toByteArray();
+            try {
+                return ModelParser.getInstance().parse(new ByteArrayInputStream(data));
+            } catch (XMLStreamException e) {
+                log.debug("Cannot parse the xml using the model parser, will use JAXB instead. Reason: {}", e.getMessage());
+            }
+            is = new ByteArrayInputStream(data);
+        }
+
+        // load using JAXB
+        if (jaxbContext == null) {
+            // must use classloader from CamelContext to have JAXB working
+            jaxbContext = getModelJAXBContextFactory().newJAXBContext();
+        }
+
+        Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
+        return unmarshaller.unmarshal(is);
+    }
+
     public synchronized void addRouteDefinitions(Collection<RouteDefinition> routeDefinitions) throws Exception {
         if (routeDefinitions == null || routeDefinitions.isEmpty()) {
             return;
@@ -2697,7 +2718,7 @@ public class DefaultCamelContext extends ServiceSupport implements ModelCamelCon
         synchronized (errorHandlerExecutorServiceLock) {
             if (errorHandlerExecutorService == null) {
                 // setup default thread pool for error handler
-                errorHandlerExecutorService = getExecutorServiceManager().newDefaultScheduledThreadPool("ErrorHandlerRedeliveryThreadPool", "ErrorHandlerRedeliveryTask");
+                errorHandlerExecutorService = getExecutorServiceManager().newDefaultTimerScheduledThreadPool("ErrorHandlerRedeliveryThreadPool", "ErrorHandlerRedeliveryTask");
             }
         }
         return errorHandlerExecutorService;
@@ -2727,6 +2748,14 @@ public class DefaultCamelContext extends ServiceSupport implements ModelCamelCon
         this.unitOfWorkFactory = unitOfWorkFactory;
     }
 
+    public HeadersMapFactory getHeadersMapFactory() {
+        return headersMapFactory;
+    }
+
+    public void setHeadersMapFactory(HeadersMapFactory headersMapFactory) {
+        this.headersMapFactory = headersMapFactory;
+    }
+
     public RuntimeEndpointRegistry getRuntimeEndpointRegistry() {
         return runtimeEndpointRegistry;
     }
@@ -3561,10 +3590,10 @@ public class DefaultCamelContext extends ServiceSupport implements ModelCamelCon
 
     private void doStartOrResumeRouteConsumers(Map<Integer, DefaultRouteStartupOrder> inputs, boolean resumeOnly, boolean addingRoute) throws Exception {
         List<Endpoint> routeInputs = new ArrayList<Endpoint>();
+        // the routes to be started together, which is only a single route unless parallel route startup is enabled
+        List<DefaultRouteStartupOrder> batch = new ArrayList<DefaultRouteStartupOrder>();
 
         for (Map.Entry<Integer, DefaultRouteStartupOrder> entry : inputs.entrySet()) {
-            Integer order = entry.getKey();
-            Route route = entry.getValue().getRoute();
             RouteService routeService = entry.getValue().getRouteService();
 
             // if we are starting camel, then skip routes which are configured to not be auto started
@@ -3574,77 +3603,165 @@ public class DefaultCamelContext extends ServiceSupport implements ModelCamelCon
                 continue;
             }
 
-            // start the service
-            for (Consumer consumer : routeService.getInputs().values()) {
-                Endpoint endpoint = consumer.getEndpoint();
+            // routes with a configured startup order must be started one by one in that order,
+            // but the other routes can be started together if parallel route startup is enabled
+            boolean parallel = isParallelRouteStartup() && routeService.getRouteDefinition().getStartupOrder() == null;
+            if (!parallel && !batch.isEmpty()) {
+                doStartOrResumeRouteConsumers(batch, resumeOnly);
+                batch.clear();
+            }
 
-                // check multiple consumer violation, with the other routes to be started
-                if (!doCheckMultipleConsumerSupportClash(endpoint, routeInputs)) {
-                    throw new FailedToStartRouteException(routeService.getId(),
-                        "Multiple consumers for the same endpoint is not allowed: " + endpoint);
-                }
+            doPrepareRouteConsumers(entry.getValue(), resumeOnly, routeInputs);
+            batch.add(entry.getValue());
 
-                // check for multiple consumer violations with existing routes which
-                // have already been started, or is currently starting
-                List<Endpoint> existingEndpoints = new ArrayList<Endpoint>();
-                for (Route existingRoute : getRoutes()) {
-                    if (route.getId().equals(existingRoute.getId())) {
-                        // skip ourselves
-                        continue;
-                    }
-                    Endpoint existing = existingRoute.getEndpoint();
-                    ServiceStatus status = getRouteStatus(existingRoute.getId());
-                    if (status != null && (status.isStarted() || status.isStarting())) {
-                        existingEndpoints.add(existing);
-                    }
+            if (!parallel) {
+                doStartOrResumeRouteConsumers(batch, resumeOnly);
+                batch.clear();
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            doStartOrResumeRouteConsumers(batch, resumeOnly);
+        }
+    }
+
+    private void doPrepareRouteConsumers(DefaultRouteStartupOrder order, boolean resumeOnly, List<Endpoint> routeInputs) throws Exception {
+        Route route = order.getRoute();
+        RouteService routeService = order.getRouteService();
+
+        for (Consumer consumer : routeService.getInputs().values()) {
+            Endpoint endpoint = consumer.getEndpoint();
+
+            // check multiple consumer violation, with the other routes to be started
+            if (!doCheckMultipleConsumerSupportClash(endpoint, routeInputs)) {
+                throw new FailedToStartRouteException(routeService.getId(),
+                    "Multiple consumers for the same endpoint is not allowed: " + endpoint);
+            }
+
+            // check for multiple consumer violations with existing routes which
+            // have already been started, or is currently starting
+            List<Endpoint> existingEndpoints = new ArrayList<Endpoint>();
+            for (Route existingRoute : getRoutes()) {
+                if (route.getId().equals(existingRoute.getId())) {
+                    // skip ourselves
+                    continue;
                 }
-                if (!doCheckMultipleConsumerSupportClash(endpoint, existingEndpoints)) {
-                    throw new FailedToStartRouteException(routeService.getId(),
-                            "Multiple consumers for the same endpoint is not allowed: " + endpoint);
+                Endpoint existing = existingRoute.getEndpoint();
+                ServiceStatus status = getRouteStatus(existingRoute.getId());
+                if (status != null && (status.isStarted() || status.isStarting())) {
+                    existingEndpoints.add(existing);
                 }
+            }
+            if (!doCheckMultipleConsumerSupportClash(endpoint, existingEndpoints)) {
+                throw new FailedToStartRouteException(routeService.getId(),
+                        "Multiple consumers for the same endpoint is not allowed: " + endpoint);
+            }
 
-                // start the consumer on the route
-                log.debug("Route: {} >>> {}", route.getId(), route);
-                if (resumeOnly) {
-                    log.debug("Resuming consumer (order: {}) on route: {}", order, route.getId());
-                } else {
-                    log.debug("Starting consumer (order: {}) on route: {}", order, route.getId());
+            if (!resumeOnly || !route.supportsSuspension()) {
+                // when starting we should invoke the lifecycle strategies
+                for (LifecycleStrategy strategy : lifecycleStrategies) {
+                    strategy.onServiceAdd(this, consumer, route);
                 }
+            }
 
-                if (resumeOnly && route.supportsSuspension()) {
-                    // if we are resuming and the route can be resumed
-                    ServiceHelper.resumeService(consumer);
-                    log.info("Route: " + route.getId() + " resumed and consuming from: " + endpoint);
-                } else {
-                    // when starting we should invoke the lifecycle strategies
-                    for (LifecycleStrategy strategy : lifecycleStrategies) {
-                        strategy.onServiceAdd(this, consumer, route);
-                    }
-                    startService(consumer);
-                    log.info("Route: " + route.getId() + " started and consuming from: " + endpoint);
-                }
+            routeInputs.add(endpoint);
+        }
+    }
 
-                routeInputs.add(endpoint);
+    private void doStartOrResumeRouteConsumers(List<DefaultRouteStartupOrder> batch, final boolean resumeOnly) throws Exception {
+        List<DefaultRouteStartupOrder> started = new ArrayList<DefaultRouteStartupOrder>(batch.size());
+        Exception cause = null;
 
-                // add to the order which they was started, so we know how to stop them in reverse order
-                // but only add if we haven't already registered it before (we dont want to double add when restarting)
-                boolean found = false;
-                for (RouteStartupOrder other : routeStartupOrder) {
-                    if (other.getRoute().getId().equals(route.getId())) {
-                        found = true;
-                        break;
+        if (batch.size() == 1) {
+            doStartOrResumeRouteConsumer(batch.get(0), resumeOnly);
+            started.add(batch.get(0));
+        } else {
+            // start the consumers in parallel as connecting consumers to remote systems can be slow
+            int poolSize = Math.min(batch.size(), getExecutorServiceManager().getDefaultThreadPoolProfile().getMaxPoolSize());
+            ExecutorService executor = getExecutorServiceManager().newFixedThreadPool(this, "RouteStartup", poolSize);
+            try {
+                List<Future<Void>> futures = new ArrayList<Future<Void>>(batch.size());
+                for (final DefaultRouteStartupOrder order : batch) {
+                    futures.add(executor.submit(new Callable<Void>() {
+                        @Override
+                        public Void call() throws Exception {
+                            // we are starting routes in this thread as well
+                            isStartingRoutes.set(true);
+                            try {
+                                doStartOrResumeRouteConsumer(order, resumeOnly);
+                            } finally {
+                                isStartingRoutes.remove();
+                            }
+                            return null;
+                        }
+                    }));
+                }
+                for (int i = 0; i < futures.size(); i++) {
+                    try {
+                        futures.get(i).get();
+                        started.add(batch.get(i));
+                    } catch (ExecutionException e) {
+                        // fail with the first failure in the startup order
+                        if (cause == null) {
+                            cause = e.getCause() instanceof Exception ? (Exception) e.getCause() : new FailedToStartRouteException(e.getCause());
+                        }
                     }
                 }
-                if (!found) {
-                    routeStartupOrder.add(entry.getValue());
+            } finally {
+                getExecutorServiceManager().shutdownNow(executor);
+            }
+        }
+
+        // register and start the route services in the startup order
+        for (DefaultRouteStartupOrder order : started) {
+            // add to the order which they was started, so we know how to stop them in reverse order
+            // but only add if we haven't already registered it before (we dont want to double add when restarting)
+            boolean found = false;
+            for (RouteStartupOrder other : routeStartupOrder) {
+                if (other.getRoute().getId().equals(order.getRoute().getId())) {
+                    found = true;
+                    break;
                 }
             }
+            if (!found) {
+                routeStartupOrder.add(order);
+            }
 
             if (resumeOnly) {
-                routeService.resume();
+                order.getRouteService().resume();
             } else {
                 // and start the route service (no need to start children as they are already warmed up)
-                routeService.start(false);
+                order.getRouteService().start(false);
+            }
+        }
+
+        if (cause != null) {
+            throw cause;
+        }
+    }
+
+    private void doStartOrResumeRouteConsumer(DefaultRouteStartupOrder order, boolean resumeOnly) throws Exception {
+        Route route = order.getRoute();
+
+        for (Consumer consumer : order.getRouteService().getInputs().values()) {
+            Endpoint endpoint = consumer.getEndpoint();
+
+            // start the consumer on the route
+            log.debug("Route: {} >>> {}", route.getId(), route);
+            if (resumeOnly) {
+                log.debug("Resuming consumer (order: {}) on route: {}", order.getStartupOrder(), route.getId());
+            } else {
+                log.debug("Starting consumer (order: {}) on route: {}", order.getStartupOrder(), route.getId());
+            }
+
+            StopWatch watch = new StopWatch();
+            if (resumeOnly && route.supportsSuspension()) {
+                // if we are resuming and the route can be resumed
+                ServiceHelper.resumeService(consumer);
+                log.info("Route: {} resumed and consuming from: {} (took {} millis)", new Object[]{route.getId(), endpoint, watch.taken()});
+            } else {
+                startService(consumer);
+                log.info("Route: {} started and consuming from: {} (took {} millis)", new Object[]{route.getId(), endpoint, watch.taken()});
             }
         }
     }
@@ -4002,6 +4119,14 @@ public class DefaultCamelContext extends ServiceSupport implements ModelCamelCon
         this.useBreadcrumb = useBreadcrumb;
     }
 
+    public Boolean isParallelRouteStartup() {
+        return parallelRouteStartup != null && parallelRouteStartup;
+    }
+
+    public void setParallelRouteStartup(Boolean parallelRouteStartup) {
+        this.parallelRouteStartup = parallelRouteStartup;
+    }
+
     public ClassLoader getApplicationContextClassLoader() {
         return applicationContextClassLoader;
     }
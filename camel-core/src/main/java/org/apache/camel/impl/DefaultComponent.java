@@ -20,6 +20,8 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -28,7 +30,9 @@ import org.apache.camel.Component;
 import org.apache.camel.ComponentConfiguration;
 import org.apache.camel.Endpoint;
 import org.apache.camel.EndpointConfiguration;
+import org.apache.camel.NoFactoryAvailableException;
 import org.apache.camel.ResolveEndpointFailedException;
+import org.apache.camel.spi.GeneratedPropertyConfigurer;
 import org.apache.camel.support.ServiceSupport;
 import org.apache.camel.util.CamelContextHelper;
 import org.apache.camel.util.EndpointHelper;
@@ -46,7 +50,14 @@ import org.slf4j.LoggerFactory;
  */
 public abstract class DefaultComponent extends ServiceSupport implements Component {
     private static final Logger LOG = LoggerFactory.getLogger(DefaultComponent.class);
+    private static final String CONFIGURER_RESOURCE_PATH = "META-INF/services/org/apache/camel/configurer/";
+    private static final GeneratedPropertyConfigurer NO_CONFIGURER = new GeneratedPropertyConfigurer() {
+        public boolean configure(CamelContext camelContext, Object target, String name, Object value) {
+            return false;
+        }
+    };
 
+    private final ConcurrentMap<Class<?>, GeneratedPropertyConfigurer> configurers = new ConcurrentHashMap<Class<?>, GeneratedPropertyConfigurer>();
     private CamelContext camelContext;
 
     public DefaultComponent() {
@@ -254,7 +265,39 @@ public abstract class DefaultComponent extends ServiceSupport implements Compone
     protected void setProperties(Object bean, Map<String, Object> parameters) throws Exception {        
         // set reference properties first as they use # syntax that fools the regular properties setter
         EndpointHelper.setReferenceProperties(getCamelContext(), bean, parameters);
-        EndpointHelper.setProperties(getCamelContext(), bean, parameters);
+        GeneratedPropertyConfigurer configurer = resolvePropertyConfigurer(bean);
+        if (configurer != null) {
+            EndpointHelper.setProperties(getCamelContext(), configurer, bean, parameters);
+        } else {
+            EndpointHelper.setProperties(getCamelContext(), bean, parameters);
+        }
+    }
+
+    /**
+     * Resolves the configurer generated by the <tt>camel-apt</tt> annotation processor, which can set the
+     * properties on the given bean without using reflection.
+     *
+     * @param bean the bean such as an endpoint
+     * @return the configurer, or <tt>null</tt> if no configurer has been generated for the type of the bean
+     */
+    protected GeneratedPropertyConfigurer resolvePropertyConfigurer(Object bean) {
+        Class<?> type = bean.getClass();
+        GeneratedPropertyConfigurer answer = configurers.get(type);
+        if (answer == null) {
+            answer = NO_CONFIGURER;
+            try {
+                Class<?> clazz = getCamelContext().getFactoryFinder(CONFIGURER_RESOURCE_PATH).findClass(type.getName(), null, type);
+                if (GeneratedPropertyConfigurer.class.isAssignableFrom(clazz)) {
+                    answer = (GeneratedPropertyConfigurer) getCamelContext().getInjector().newInstance(clazz);
+                }
+            } catch (NoFactoryAvailableException e) {
+                // no configurer has been generated so use reflection
+            } catch (Exception e) {
+                LOG.debug("Cannot resolve property configurer for " + type.getName() + ". This exception is ignored.", e);
+            }
+            configurers.put(type, answer);
+        }
+        return answer != NO_CONFIGURER ? answer : null;
     }
 
     /**
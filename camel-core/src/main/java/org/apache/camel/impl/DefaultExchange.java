@@ -16,9 +16,16 @@
  */
 package org.apache.camel.impl;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.camel.CamelContext;
@@ -27,6 +34,7 @@ import org.apache.camel.Exchange;
 import org.apache.camel.ExchangePattern;
 import org.apache.camel.Message;
 import org.apache.camel.MessageHistory;
+import org.apache.camel.spi.HeadersMapFactory;
 import org.apache.camel.spi.Synchronization;
 import org.apache.camel.spi.UnitOfWork;
 import org.apache.camel.util.CaseInsensitiveMap;
@@ -36,6 +44,11 @@ import org.apache.camel.util.ObjectHelper;
 
 /**
  * A default implementation of {@link Exchange}
+ * <p/>
+ * The properties are shared with copies of the exchange (copy on write) using immutable snapshots.
+ * Like the rest of the exchange this is not thread safe, and the exchange must only be used by one thread
+ * at a time, and be handed over to other threads with a happens-before relationship (such as when
+ * submitting a task to an executor), as the routing engine does.
  *
  * @version 
  */
@@ -43,6 +56,12 @@ public final class DefaultExchange implements Exchange {
 
     protected final CamelContext context;
     private Map<String, Object> properties;
+    // properties which are shared with copies of this exchange and therefore must not be changed
+    private Map<String, Object> sharedProperties;
+    // a snapshot of all the properties which is shared with the copies, until the properties are changed
+    private Map<String, Object> propertiesSnapshot;
+    // the properties map which has been handed out, as then it can be changed without us knowing
+    private Map<String, Object> exposedProperties;
     private Message in;
     private Message out;
     private Exception exception;
@@ -52,6 +71,8 @@ public final class DefaultExchange implements Exchange {
     private Endpoint fromEndpoint;
     private String fromRouteId;
     private List<Synchronization> onCompletions;
+    // the entry when this exchange is inflight, which avoids looking up the exchange by its id
+    volatile DefaultInflightRepository.Entry inflightEntry;
 
     public DefaultExchange(CamelContext context) {
         this(context, ExchangePattern.InOnly);
@@ -89,11 +110,19 @@ public final class DefaultExchange implements Exchange {
         return copy(false);
     }
 
+    @SuppressWarnings("unchecked")
     public Exchange copy(boolean safeCopy) {
         DefaultExchange exchange = new DefaultExchange(this);
 
         if (hasProperties()) {
-            exchange.setProperties(safeCopyProperties(getProperties()));
+            // share the properties with the copy (copy on write) which avoids copying the properties
+            // for every copy, such as when using the multicast or splitter EIPs
+            exchange.sharedProperties = shareProperties();
+            // safe copy message history using a defensive copy as its updated during routing
+            List<MessageHistory> history = getProperty(Exchange.MESSAGE_HISTORY, List.class);
+            if (history != null) {
+                exchange.getOwnProperties().put(Exchange.MESSAGE_HISTORY, new ArrayList<MessageHistory>(history));
+            }
         }
 
         if (safeCopy) {
@@ -125,33 +154,133 @@ public final class DefaultExchange implements Exchange {
         return exchange;
     }
 
-    @SuppressWarnings("unchecked")
-    private static Map<String, Object> safeCopyHeaders(Map<String, Object> headers) {
+    private Map<String, Object> safeCopyHeaders(Map<String, Object> headers) {
         if (headers == null) {
             return null;
         }
 
-        Map<String, Object> answer = new CaseInsensitiveMap();
-        answer.putAll(headers);
+        HeadersMapFactory factory = context != null ? context.getHeadersMapFactory() : null;
+        if (factory != null) {
+            return factory.newMap(headers);
+        }
+        return new CaseInsensitiveMap(headers);
+    }
+
+    /**
+     * Gets an immutable snapshot of the current properties which can be shared with a copy of this exchange.
+     * <p/>
+     * The properties of this exchange are not changed, and the snapshot is reused for further copies until
+     * the properties of this exchange are changed.
+     */
+    private Map<String, Object> shareProperties() {
+        Map<String, Object> answer = getCurrentSnapshot();
+        if (answer == null) {
+            // merge with the shared properties so the copies only need to lookup in a single map
+            Map<String, Object> merged = sharedProperties != null
+                    ? new HashMap<String, Object>(sharedProperties) : new HashMap<String, Object>(properties.size());
+            merged.putAll(properties);
+            // the message history is updated during routing so its never shared but copied defensively
+            merged.remove(Exchange.MESSAGE_HISTORY);
+            answer = Collections.unmodifiableMap(merged);
+            if (!isPropertiesExposed()) {
+                propertiesSnapshot = answer;
+            }
+        }
         return answer;
     }
 
-    @SuppressWarnings("unchecked")
-    private static Map<String, Object> safeCopyProperties(Map<String, Object> properties) {
-        if (properties == null) {
-            return null;
+    /**
+     * Gets the immutable snapshot of the current properties if one is available without copying.
+     */
+    private Map<String, Object> getCurrentSnapshot() {
+        if (properties == null || properties.isEmpty()) {
+            return sharedProperties;
         }
+        return isPropertiesExposed() ? null : propertiesSnapshot;
+    }
 
-        // TODO: properties should use same map kind as headers
-        Map<String, Object> answer = new ConcurrentHashMap<String, Object>(properties);
+    /**
+     * Whether the current properties map has been handed out by {@link #getProperties()}, which is no longer
+     * the case when the properties map is replaced.
+     */
+    private boolean isPropertiesExposed() {
+        return exposedProperties != null && exposedProperties == properties;
+    }
 
-        // safe copy message history using a defensive copy
-        List<MessageHistory> history = (List<MessageHistory>) answer.remove(Exchange.MESSAGE_HISTORY);
-        if (history != null) {
-            answer.put(Exchange.MESSAGE_HISTORY, new ArrayList<MessageHistory>(history));
+    /**
+     * Copies the properties of the given exchange into this exchange, which is the same as
+     * <tt>getProperties().putAll(source.getProperties())</tt>, but keeps sharing the properties when possible.
+     *
+     * @param source the exchange to copy the properties from
+     */
+    public void copyPropertiesFrom(Exchange source) {
+        if (source == this || !source.hasProperties()) {
+            return;
+        }
+        if (!(source instanceof DefaultExchange) || isPropertiesExposed()) {
+            getProperties().putAll(source.getProperties());
+            return;
         }
 
-        return answer;
+        DefaultExchange other = (DefaultExchange) source;
+        Map<String, Object> current = getCurrentSnapshot();
+        if (!hasProperties()) {
+            // no properties so we can share the properties of the source
+            sharedProperties = other.shareProperties();
+            properties = null;
+            Object history = other.getProperty(Exchange.MESSAGE_HISTORY);
+            if (history != null) {
+                getOwnProperties().put(Exchange.MESSAGE_HISTORY, history);
+            }
+        } else if (current != null && current == other.sharedProperties) {
+            // the source is a copy of this exchange, so only its own changes need to be added
+            // (and our message history which is not part of the shared properties)
+            Object history = properties != null ? properties.get(Exchange.MESSAGE_HISTORY) : null;
+            sharedProperties = current;
+            properties = null;
+            if (history != null) {
+                getOwnProperties().put(Exchange.MESSAGE_HISTORY, history);
+            }
+            if (other.properties != null && !other.properties.isEmpty()) {
+                getOwnProperties().putAll(other.properties);
+            }
+        } else {
+            // add the properties of the source on top of our own properties
+            Map<String, Object> own = getOwnProperties();
+            if (other.sharedProperties != null) {
+                own.putAll(other.sharedProperties);
+            }
+            if (other.properties != null) {
+                own.putAll(other.properties);
+            }
+        }
+        propertiesSnapshot = null;
+    }
+
+    /**
+     * Merges the shared properties into the properties owned by this exchange, so they can be changed.
+     */
+    private Map<String, Object> materializeProperties() {
+        if (sharedProperties != null) {
+            Map<String, Object> answer = new ConcurrentHashMap<String, Object>(sharedProperties);
+            if (properties != null) {
+                answer.putAll(properties);
+            }
+            properties = answer;
+            sharedProperties = null;
+        }
+        propertiesSnapshot = null;
+        return getOwnProperties();
+    }
+
+    /**
+     * Gets the properties owned by this exchange, which does not include any shared properties.
+     */
+    private Map<String, Object> getOwnProperties() {
+        if (properties == null) {
+            properties = new ConcurrentHashMap<String, Object>();
+        }
+        return properties;
     }
 
     public CamelContext getContext() {
@@ -160,7 +289,13 @@ public final class DefaultExchange implements Exchange {
 
     public Object getProperty(String name) {
         if (properties != null) {
-            return properties.get(name);
+            Object answer = properties.get(name);
+            if (answer != null || sharedProperties == null) {
+                return answer;
+            }
+        }
+        if (sharedProperties != null) {
+            return sharedProperties.get(name);
         }
         return null;
     }
@@ -213,11 +348,12 @@ public final class DefaultExchange implements Exchange {
     public void setProperty(String name, Object value) {
         if (value != null) {
             // avoid the NullPointException
-            getProperties().put(name, value);
+            getOwnProperties().put(name, value);
+            propertiesSnapshot = null;
         } else {
             // if the value is null, we just remove the key from the map
             if (name != null) {
-                getProperties().remove(name);
+                removeProperty(name);
             }
         }
     }
@@ -226,7 +362,12 @@ public final class DefaultExchange implements Exchange {
         if (!hasProperties()) {
             return null;
         }
-        return getProperties().remove(name);
+        if (sharedProperties != null && sharedProperties.containsKey(name)) {
+            // the shared properties must not be changed so we need our own copy to remove the property
+            return materializeProperties().remove(name);
+        }
+        propertiesSnapshot = null;
+        return properties != null ? properties.remove(name) : null;
     }
 
     public boolean removeProperties(String pattern) {
@@ -239,14 +380,15 @@ public final class DefaultExchange implements Exchange {
         }
 
         boolean matches = false;
-        for (Map.Entry<String, Object> entry : properties.entrySet()) {
+        Map<String, Object> map = materializeProperties();
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
             String key = entry.getKey();
             if (EndpointHelper.matchPattern(key, pattern)) {
                 if (excludePatterns != null && isExcludePatternMatch(key, excludePatterns)) {
                     continue;
                 }
                 matches = true;
-                properties.remove(entry.getKey());
+                map.remove(entry.getKey());
             }
 
         }
@@ -254,18 +396,40 @@ public final class DefaultExchange implements Exchange {
     }
 
     public Map<String, Object> getProperties() {
-        if (properties == null) {
-            properties = new ConcurrentHashMap<String, Object>();
+        // the caller may change the returned map so we need our own copy of the shared properties,
+        // and cannot reuse snapshots of the properties for copies anymore
+        exposedProperties = materializeProperties();
+        return exposedProperties;
+    }
+
+    /**
+     * Gets a read-only view of the properties.
+     * <p/>
+     * Unlike {@link #getProperties()} this does not take a copy of the properties which are shared with
+     * copies of this exchange, so this should be used when the properties are only read.
+     *
+     * @return the properties, which cannot be changed
+     */
+    public Map<String, Object> getReadOnlyProperties() {
+        if (sharedProperties == null || sharedProperties.isEmpty()) {
+            return properties != null ? Collections.unmodifiableMap(properties) : Collections.<String, Object>emptyMap();
         }
-        return properties;
+        if (properties == null || properties.isEmpty()) {
+            // the shared properties are immutable
+            return sharedProperties;
+        }
+        return new PropertiesView(properties, sharedProperties);
     }
 
     public boolean hasProperties() {
-        return properties != null && !properties.isEmpty();
+        return (properties != null && !properties.isEmpty()) || (sharedProperties != null && !sharedProperties.isEmpty());
     }
 
     public void setProperties(Map<String, Object> properties) {
         this.properties = properties;
+        this.sharedProperties = null;
+        this.propertiesSnapshot = null;
+        this.exposedProperties = properties;
     }
 
     public Message getIn() {
@@ -370,7 +534,13 @@ public final class DefaultExchange implements Exchange {
     }
 
     public void setFromRouteId(String fromRouteId) {
+        boolean changed = !ObjectHelper.equal(this.fromRouteId, fromRouteId);
         this.fromRouteId = fromRouteId;
+        DefaultInflightRepository.Entry entry = inflightEntry;
+        if (changed && entry != null) {
+            // the inflight repository groups the exchanges by the route they originate from
+            entry.repository.routeChanged(this, entry);
+        }
     }
 
     public String getExchangeId() {
@@ -527,4 +697,90 @@ public final class DefaultExchange implements Exchange {
         }
         return false;
     }
+
+    /**
+     * A read-only view of the own properties on top of the shared properties.
+     */
+    private static final class PropertiesView extends AbstractMap<String, Object> {
+
+        private final Map<String, Object> own;
+        private final Map<String, Object> shared;
+
+        PropertiesView(Map<String, Object> own, Map<String, Object> shared) {
+            this.own = own;
+            this.shared = shared;
+        }
+
+        @Override
+        public Object get(Object key) {
+            Object answer = own.get(key);
+            return answer != null ? answer : shared.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return own.containsKey(key) || shared.containsKey(key);
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<Entry<String, Object>>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    int size = own.size();
+                    for (String key : shared.keySet()) {
+                        if (!own.containsKey(key)) {
+                            size++;
+                        }
+                    }
+                    return size;
+                }
+            };
+        }
+
+        /**
+         * Iterates the own properties, and then the shared properties which are not overridden by the own properties.
+         */
+        private final class EntryIterator implements Iterator<Entry<String, Object>> {
+
+            private final Iterator<Entry<String, Object>> ownIterator = own.entrySet().iterator();
+            private final Iterator<Entry<String, Object>> sharedIterator = shared.entrySet().iterator();
+            private Entry<String, Object> next;
+
+            public boolean hasNext() {
+                while (next == null) {
+                    if (ownIterator.hasNext()) {
+                        next = ownIterator.next();
+                    } else if (sharedIterator.hasNext()) {
+                        Entry<String, Object> entry = sharedIterator.next();
+                        if (!own.containsKey(entry.getKey())) {
+                            next = entry;
+                        }
+                    } else {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            public Entry<String, Object> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                // do not allow the value to be changed using the entry
+                Entry<String, Object> answer = new SimpleImmutableEntry<String, Object>(next);
+                next = null;
+                return answer;
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        }
+    }
 }
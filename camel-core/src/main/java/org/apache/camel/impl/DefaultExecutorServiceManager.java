@@ -47,6 +47,8 @@ import org.apache.camel.util.StopWatch;
 import org.apache.camel.util.TimeUtils;
 import org.apache.camel.util.URISupport;
 import org.apache.camel.util.concurrent.CamelThreadFactory;
+import org.apache.camel.util.concurrent.HashedWheelScheduledExecutorService;
+import org.apache.camel.util.concurrent.HashedWheelTimer;
 import org.apache.camel.util.concurrent.SizedScheduledExecutorService;
 import org.apache.camel.util.concurrent.ThreadHelper;
 import org.slf4j.Logger;
@@ -58,6 +60,16 @@ import org.slf4j.LoggerFactory;
  * @version 
  */
 public class DefaultExecutorServiceManager extends ServiceSupport implements ExecutorServiceManager {
+    /**
+     * The tick duration in millis of the timer used by the timer scheduled thread pools
+     */
+    public static final long TIMER_TICK_DURATION = 10;
+
+    /**
+     * The number of ticks per wheel of the timer used by the timer scheduled thread pools
+     */
+    public static final int TIMER_TICKS_PER_WHEEL = 512;
+
     private static final Logger LOG = LoggerFactory.getLogger(DefaultExecutorServiceManager.class);
 
     private final CamelContext camelContext;
@@ -65,6 +77,8 @@ public class DefaultExecutorServiceManager extends ServiceSupport implements Exe
     private final List<ExecutorService> executorServices = new CopyOnWriteArrayList<ExecutorService>();
     private String threadNamePattern;
     private long shutdownAwaitTermination = 10000;
+    private boolean useTimerWheel = true;
+    private HashedWheelTimer timer;
     private String defaultThreadPoolProfileId = "defaultThreadPoolProfile";
     private final Map<String, ThreadPoolProfile> threadPoolProfiles = new ConcurrentHashMap<String, ThreadPoolProfile>();
     private ThreadPoolProfile defaultProfile;
@@ -141,6 +155,16 @@ public class DefaultExecutorServiceManager extends ServiceSupport implements Exe
         return shutdownAwaitTermination;
     }
 
+    @Override
+    public void setUseTimerWheel(boolean useTimerWheel) {
+        this.useTimerWheel = useTimerWheel;
+    }
+
+    @Override
+    public boolean isUseTimerWheel() {
+        return useTimerWheel;
+    }
+
     @Override
     public void setShutdownAwaitTermination(long shutdownAwaitTermination) {
         this.shutdownAwaitTermination = shutdownAwaitTermination;
@@ -266,6 +290,35 @@ public class DefaultExecutorServiceManager extends ServiceSupport implements Exe
         return newScheduledThreadPool(source, name, profile);
     }
 
+    @Override
+    public ScheduledExecutorService newDefaultTimerScheduledThreadPool(Object source, String name) {
+        return newTimerScheduledThreadPool(source, name, getDefaultThreadPoolProfile());
+    }
+
+    @Override
+    public ScheduledExecutorService newTimerScheduledThreadPool(Object source, String name, int poolSize) {
+        ThreadPoolProfile profile = new ThreadPoolProfile(name);
+        profile.setPoolSize(poolSize);
+        return newTimerScheduledThreadPool(source, name, profile);
+    }
+
+    @Override
+    public ScheduledExecutorService newTimerScheduledThreadPool(Object source, String name, ThreadPoolProfile profile) {
+        if (!useTimerWheel) {
+            return newScheduledThreadPool(source, name, profile);
+        }
+
+        String sanitizedName = URISupport.sanitizeUri(name);
+        profile.addDefaults(getDefaultThreadPoolProfile());
+        ScheduledExecutorService answer = threadPoolFactory.newTimerScheduledThreadPool(profile, createThreadFactory(sanitizedName, true), getTimer());
+        onThreadPoolCreated(answer, source, null);
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Created new TimerScheduledThreadPool for source: {} with name: {}. -> {}", new Object[]{source, sanitizedName, answer});
+        }
+        return answer;
+    }
+
     @Override
     public void shutdown(ExecutorService executorService) {
         doShutdown(executorService, 0, false);
@@ -328,12 +381,7 @@ public class DefaultExecutorServiceManager extends ServiceSupport implements Exe
         }
 
         // let lifecycle strategy be notified as well which can let it be managed in JMX as well
-        ThreadPoolExecutor threadPool = null;
-        if (executorService instanceof ThreadPoolExecutor) {
-            threadPool = (ThreadPoolExecutor) executorService;
-        } else if (executorService instanceof SizedScheduledExecutorService) {
-            threadPool = ((SizedScheduledExecutorService) executorService).getScheduledThreadPoolExecutor();
-        }
+        ThreadPoolExecutor threadPool = getThreadPoolExecutor(executorService);
         if (threadPool != null) {
             for (LifecycleStrategy lifecycle : camelContext.getLifecycleStrategies()) {
                 lifecycle.onThreadPoolRemove(camelContext, threadPool);
@@ -372,12 +420,7 @@ public class DefaultExecutorServiceManager extends ServiceSupport implements Exe
         }
 
         // let lifecycle strategy be notified as well which can let it be managed in JMX as well
-        ThreadPoolExecutor threadPool = null;
-        if (executorService instanceof ThreadPoolExecutor) {
-            threadPool = (ThreadPoolExecutor) executorService;
-        } else if (executorService instanceof SizedScheduledExecutorService) {
-            threadPool = ((SizedScheduledExecutorService) executorService).getScheduledThreadPoolExecutor();
-        }
+        ThreadPoolExecutor threadPool = getThreadPoolExecutor(executorService);
         if (threadPool != null) {
             for (LifecycleStrategy lifecycle : camelContext.getLifecycleStrategies()) {
                 lifecycle.onThreadPoolRemove(camelContext, threadPool);
@@ -433,6 +476,17 @@ public class DefaultExecutorServiceManager extends ServiceSupport implements Exe
         // noop
     }
 
+    /**
+     * Gets the timer which is shared by the timer scheduled thread pools, so there is only a single timer thread
+     * no matter how many of these thread pools are created.
+     */
+    protected synchronized HashedWheelTimer getTimer() {
+        if (timer == null) {
+            timer = new HashedWheelTimer(createThreadFactory("TimerWheel", true), TIMER_TICK_DURATION, TimeUnit.MILLISECONDS, TIMER_TICKS_PER_WHEEL);
+        }
+        return timer;
+    }
+
     @Override
     protected void doShutdown() throws Exception {
         // shutdown all remainder executor services by looping and doing this aggressively
@@ -470,6 +524,14 @@ public class DefaultExecutorServiceManager extends ServiceSupport implements Exe
         // clear list
         executorServices.clear();
 
+        // the timer is stopped after the thread pools as their delayed tasks are executed when they are shutdown
+        synchronized (this) {
+            if (timer != null) {
+                timer.stop();
+                timer = null;
+            }
+        }
+
         // do not clear the default profile as we could potential be restarted
         Iterator<ThreadPoolProfile> it = threadPoolProfiles.values().iterator();
         while (it.hasNext()) {
@@ -530,12 +592,7 @@ public class DefaultExecutorServiceManager extends ServiceSupport implements Exe
         }
 
         // let lifecycle strategy be notified as well which can let it be managed in JMX as well
-        ThreadPoolExecutor threadPool = null;
-        if (executorService instanceof ThreadPoolExecutor) {
-            threadPool = (ThreadPoolExecutor) executorService;
-        } else if (executorService instanceof SizedScheduledExecutorService) {
-            threadPool = ((SizedScheduledExecutorService) executorService).getScheduledThreadPoolExecutor();
-        }
+        ThreadPoolExecutor threadPool = getThreadPoolExecutor(executorService);
         if (threadPool != null) {
             for (LifecycleStrategy lifecycle : camelContext.getLifecycleStrategies()) {
                 lifecycle.onThreadPoolAdd(camelContext, threadPool, id, sourceId, routeId, threadPoolProfileId);
@@ -546,6 +603,23 @@ public class DefaultExecutorServiceManager extends ServiceSupport implements Exe
         onNewExecutorService(executorService);
     }
 
+    /**
+     * Gets the underlying {@link ThreadPoolExecutor} of the executor service, which is enlisted in JMX management.
+     */
+    private static ThreadPoolExecutor getThreadPoolExecutor(ExecutorService executorService) {
+        if (executorService instanceof ThreadPoolExecutor) {
+            return (ThreadPoolExecutor) executorService;
+        } else if (executorService instanceof SizedScheduledExecutorService) {
+            return ((SizedScheduledExecutorService) executorService).getScheduledThreadPoolExecutor();
+        } else if (executorService instanceof HashedWheelScheduledExecutorService) {
+            ExecutorService worker = ((HashedWheelScheduledExecutorService) executorService).getWorker();
+            if (worker instanceof ThreadPoolExecutor) {
+                return (ThreadPoolExecutor) worker;
+            }
+        }
+        return null;
+    }
+
     private ThreadFactory createThreadFactory(String name, boolean isDaemon) {
         ThreadFactory threadFactory = new CamelThreadFactory(threadNamePattern, name, isDaemon);
         return threadFactory;
@@ -24,7 +24,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.apache.camel.Endpoint;
 import org.apache.camel.Exchange;
@@ -36,39 +36,78 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Default {@link org.apache.camel.spi.InflightRepository}.
+ * <p/>
+ * The inflight exchanges are grouped by the route they originate from, and each group is split into stripes
+ * which are chosen by the current thread to reduce contention. Each stripe keeps its exchanges in a linked list
+ * in the order they were added, which means that adding and removing an exchange only links and unlinks its entry,
+ * and the oldest inflight exchange is found by only looking at the head of each list. The entry of a
+ * {@link DefaultExchange} is kept on the exchange itself, so the exchange does not need to be looked up by its id.
+ * When the route a {@link DefaultExchange} originates from is changed, then its entry is moved to the new route.
+ * <p/>
+ * The number of exchanges inflight at each route is kept in striped counters.
  *
  * @version 
  */
 public class DefaultInflightRepository extends ServiceSupport implements InflightRepository {
 
     private static final Logger LOG = LoggerFactory.getLogger(DefaultInflightRepository.class);
-    private final ConcurrentMap<String, Exchange> inflight = new ConcurrentHashMap<String, Exchange>();
-    private final ConcurrentMap<String, AtomicInteger> routeCount = new ConcurrentHashMap<String, AtomicInteger>();
+    private static final int STRIPES = stripes();
+
+    // exchanges by the route they originate from
+    private final ConcurrentMap<String, RouteInflight> fromRoutes = new ConcurrentHashMap<String, RouteInflight>();
+    // exchanges which did not originate from a route when they was added
+    private final RouteInflight noRoute = new RouteInflight(null);
+    // entries of exchanges which cannot keep the entry themselves
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+    private final ConcurrentMap<String, LongAdder> routeCount = new ConcurrentHashMap<String, LongAdder>();
 
     public void add(Exchange exchange) {
-        inflight.put(exchange.getExchangeId(), exchange);
+        long since = System.nanoTime();
+        while (true) {
+            Entry entry = new Entry(this, exchange, routeInflight(exchange).stripe(), since);
+            if (!attach(exchange, entry)) {
+                return;
+            }
+            if (entry.stripe.link(entry)) {
+                return;
+            }
+            // the route was removed concurrently so try again with a new route
+            detach(exchange);
+        }
     }
 
     public void remove(Exchange exchange) {
-        inflight.remove(exchange.getExchangeId());
+        Entry entry = detach(exchange);
+        if (entry != null) {
+            entry.stripe.unlink(entry);
+        }
     }
 
     public void add(Exchange exchange, String routeId) {
-        AtomicInteger existing = routeCount.putIfAbsent(routeId, new AtomicInteger(1));
-        if (existing != null) {
-            existing.incrementAndGet();
+        LongAdder counter = routeCount.get(routeId);
+        if (counter == null) {
+            counter = new LongAdder();
+            LongAdder existing = routeCount.putIfAbsent(routeId, counter);
+            if (existing != null) {
+                counter = existing;
+            }
         }
+        counter.increment();
     }
 
     public void remove(Exchange exchange, String routeId) {
-        AtomicInteger existing = routeCount.get(routeId);
-        if (existing != null) {
-            existing.decrementAndGet();
+        LongAdder counter = routeCount.get(routeId);
+        if (counter != null) {
+            counter.decrement();
         }
     }
 
     public int size() {
-        return inflight.size();
+        int answer = noRoute.size();
+        for (RouteInflight route : fromRoutes.values()) {
+            answer += route.size();
+        }
+        return answer;
     }
 
     @Deprecated
@@ -79,12 +118,16 @@ public class DefaultInflightRepository extends ServiceSupport implements Infligh
     @Override
     public void removeRoute(String routeId) {
         routeCount.remove(routeId);
+        RouteInflight route = fromRoutes.get(routeId);
+        if (route != null && route.removeIfEmpty(0)) {
+            fromRoutes.remove(routeId, route);
+        }
     }
 
     @Override
     public int size(String routeId) {
-        AtomicInteger existing = routeCount.get(routeId);
-        return existing != null ? existing.get() : 0;
+        LongAdder counter = routeCount.get(routeId);
+        return counter != null ? counter.intValue() : 0;
     }
 
     @Override
@@ -106,19 +149,20 @@ public class DefaultInflightRepository extends ServiceSupport implements Infligh
     public Collection<InflightExchange> browse(String fromRouteId, int limit, boolean sortByLongestDuration) {
         List<InflightExchange> answer = new ArrayList<InflightExchange>();
 
-        List<Exchange> values;
+        List<Exchange> values = new ArrayList<Exchange>();
         if (fromRouteId == null) {
             // all values
-            values = new ArrayList<Exchange>(inflight.values());
+            noRoute.addExchanges(values, null);
+            for (RouteInflight route : fromRoutes.values()) {
+                route.addExchanges(values, null);
+            }
         } else {
             // only if route match
-            values = new ArrayList<Exchange>();
-            for (Exchange exchange : inflight.values()) {
-                String exchangeRouteId = exchange.getFromRouteId();
-                if (fromRouteId.equals(exchangeRouteId)) {
-                    values.add(exchange);
-                }
+            RouteInflight route = fromRoutes.get(fromRouteId);
+            if (route != null) {
+                route.addExchanges(values, null);
             }
+            noRoute.addExchanges(values, fromRouteId);
         }
 
         if (sortByLongestDuration) {
@@ -149,6 +193,30 @@ public class DefaultInflightRepository extends ServiceSupport implements Infligh
         return Collections.unmodifiableCollection(answer);
     }
 
+    /**
+     * Gets the oldest {@link InflightExchange} that are currently inflight that started from the given route.
+     * <p/>
+     * The oldest exchange is the exchange which has been in the inflight registry for the longest time,
+     * which is found without looking at all the inflight exchanges.
+     *
+     * @param fromRouteId  the route id, or <tt>null</tt> for all routes.
+     * @return the oldest inflight exchange, or <tt>null</tt> if there are no inflight exchanges.
+     */
+    public InflightExchange oldest(String fromRouteId) {
+        Entry oldest;
+        if (fromRouteId == null) {
+            oldest = noRoute.oldest(null, null);
+            for (RouteInflight route : fromRoutes.values()) {
+                oldest = route.oldest(oldest, null);
+            }
+        } else {
+            RouteInflight route = fromRoutes.get(fromRouteId);
+            oldest = route != null ? route.oldest(null, null) : null;
+            oldest = noRoute.oldest(oldest, fromRouteId);
+        }
+        return oldest != null ? new InflightExchangeEntry(oldest.exchange) : null;
+    }
+
     @Override
     protected void doStart() throws Exception {
     }
@@ -164,6 +232,83 @@ public class DefaultInflightRepository extends ServiceSupport implements Infligh
         routeCount.clear();
     }
 
+    /**
+     * Moves the entry of the exchange to the stripe of the route the exchange now originates from.
+     */
+    void routeChanged(DefaultExchange exchange, Entry entry) {
+        while (true) {
+            RouteInflight route = routeInflight(exchange);
+            if (entry.stripe.route == route) {
+                return;
+            }
+            // keep the time it was added so its still ordered by its age
+            Entry moved = new Entry(this, exchange, route.stripe(), entry.since);
+            if (moved.stripe.link(moved)) {
+                exchange.inflightEntry = moved;
+                entry.stripe.unlink(entry);
+                return;
+            }
+        }
+    }
+
+    private RouteInflight routeInflight(Exchange exchange) {
+        String fromRouteId = exchange.getFromRouteId();
+        return fromRouteId != null ? routeInflight(fromRouteId) : noRoute;
+    }
+
+    private RouteInflight routeInflight(String fromRouteId) {
+        RouteInflight answer = fromRoutes.get(fromRouteId);
+        if (answer == null) {
+            answer = new RouteInflight(fromRouteId);
+            RouteInflight existing = fromRoutes.putIfAbsent(fromRouteId, answer);
+            if (existing != null) {
+                answer = existing;
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Associates the entry with the exchange.
+     *
+     * @return <tt>false</tt> if the exchange is already inflight
+     */
+    private boolean attach(Exchange exchange, Entry entry) {
+        if (exchange instanceof DefaultExchange) {
+            DefaultExchange de = (DefaultExchange) exchange;
+            Entry existing = de.inflightEntry;
+            if (existing == null) {
+                de.inflightEntry = entry;
+                return true;
+            } else if (existing.repository == this) {
+                return false;
+            }
+            // the exchange is inflight in another repository as well
+        }
+        return entries.putIfAbsent(exchange.getExchangeId(), entry) == null;
+    }
+
+    private Entry detach(Exchange exchange) {
+        if (exchange instanceof DefaultExchange) {
+            DefaultExchange de = (DefaultExchange) exchange;
+            Entry existing = de.inflightEntry;
+            if (existing != null && existing.repository == this) {
+                de.inflightEntry = null;
+                return existing;
+            }
+        }
+        return entries.isEmpty() ? null : entries.remove(exchange.getExchangeId());
+    }
+
+    private static int stripes() {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        int answer = 2;
+        while (answer < cpus && answer < 32) {
+            answer <<= 1;
+        }
+        return answer;
+    }
+
     private static long getExchangeDuration(Exchange exchange) {
         long duration = 0;
         Date created = exchange.getProperty(Exchange.CREATED_TIMESTAMP, Date.class);
@@ -173,6 +318,173 @@ public class DefaultInflightRepository extends ServiceSupport implements Infligh
         return duration;
     }
 
+    /**
+     * An inflight exchange, which is linked in the list of its stripe.
+     */
+    static final class Entry {
+        final DefaultInflightRepository repository;
+        final Exchange exchange;
+        final Stripe stripe;
+        final long since;
+        Entry prev;
+        Entry next;
+
+        Entry(DefaultInflightRepository repository, Exchange exchange, Stripe stripe, long since) {
+            this.repository = repository;
+            this.exchange = exchange;
+            this.stripe = stripe;
+            this.since = since;
+        }
+    }
+
+    /**
+     * The exchanges from a route, which are split into stripes.
+     */
+    private static final class RouteInflight {
+        private final String routeId;
+        private final Stripe[] stripes;
+        // only changed while holding the locks of all the stripes
+        private boolean removed;
+
+        RouteInflight(String routeId) {
+            this.routeId = routeId;
+            this.stripes = new Stripe[STRIPES];
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new Stripe(this);
+            }
+        }
+
+        /**
+         * Marks the route as removed if it has no exchanges, which is checked while holding the locks of the stripes
+         * starting from the given stripe, so no exchanges can be linked into a route which is removed.
+         */
+        boolean removeIfEmpty(int stripe) {
+            if (stripe == stripes.length) {
+                if (size() == 0) {
+                    removed = true;
+                }
+                return removed;
+            }
+            synchronized (stripes[stripe]) {
+                return removeIfEmpty(stripe + 1);
+            }
+        }
+
+        Stripe stripe() {
+            return stripes[(int) Thread.currentThread().getId() & (STRIPES - 1)];
+        }
+
+        int size() {
+            int answer = 0;
+            for (Stripe stripe : stripes) {
+                answer += stripe.size;
+            }
+            return answer;
+        }
+
+        void addExchanges(List<Exchange> exchanges, String fromRouteId) {
+            for (Stripe stripe : stripes) {
+                if (stripe.head != null) {
+                    stripe.addExchanges(exchanges, fromRouteId);
+                }
+            }
+        }
+
+        Entry oldest(Entry oldest, String fromRouteId) {
+            for (Stripe stripe : stripes) {
+                Entry head = fromRouteId == null ? stripe.head : stripe.first(fromRouteId);
+                if (head != null && (oldest == null || head.since - oldest.since < 0)) {
+                    oldest = head;
+                }
+            }
+            return oldest;
+        }
+
+        @Override
+        public String toString() {
+            return "RouteInflight[" + routeId + "]";
+        }
+    }
+
+    /**
+     * A linked list of entries in the order they were added, so the head is the oldest entry.
+     */
+    private static final class Stripe {
+        private final RouteInflight route;
+        private volatile Entry head;
+        private Entry tail;
+        private volatile int size;
+
+        Stripe(RouteInflight route) {
+            this.route = route;
+        }
+
+        /**
+         * Links the entry after the entries which were added before it, which is normally at the tail.
+         *
+         * @return <tt>false</tt> if the route has been removed
+         */
+        synchronized boolean link(Entry entry) {
+            if (route.removed) {
+                return false;
+            }
+            Entry prev = tail;
+            while (prev != null && prev.since - entry.since > 0) {
+                prev = prev.prev;
+            }
+            Entry next = prev != null ? prev.next : head;
+            entry.prev = prev;
+            entry.next = next;
+            if (prev == null) {
+                head = entry;
+            } else {
+                prev.next = entry;
+            }
+            if (next == null) {
+                tail = entry;
+            } else {
+                next.prev = entry;
+            }
+            size++;
+            return true;
+        }
+
+        synchronized void unlink(Entry entry) {
+            Entry prev = entry.prev;
+            Entry next = entry.next;
+            if (prev == null) {
+                head = next;
+            } else {
+                prev.next = next;
+            }
+            if (next == null) {
+                tail = prev;
+            } else {
+                next.prev = prev;
+            }
+            entry.prev = null;
+            entry.next = null;
+            size--;
+        }
+
+        synchronized void addExchanges(List<Exchange> exchanges, String fromRouteId) {
+            for (Entry entry = head; entry != null; entry = entry.next) {
+                if (fromRouteId == null || fromRouteId.equals(entry.exchange.getFromRouteId())) {
+                    exchanges.add(entry.exchange);
+                }
+            }
+        }
+
+        synchronized Entry first(String fromRouteId) {
+            for (Entry entry = head; entry != null; entry = entry.next) {
+                if (fromRouteId.equals(entry.exchange.getFromRouteId())) {
+                    return entry;
+                }
+            }
+            return null;
+        }
+    }
+
     private static final class InflightExchangeEntry implements InflightExchange {
 
         private final Exchange exchange;
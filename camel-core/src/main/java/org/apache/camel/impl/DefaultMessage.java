@@ -22,14 +22,17 @@ import java.util.Map;
 import java.util.Set;
 import javax.activation.DataHandler;
 
+import org.apache.camel.CamelContext;
 import org.apache.camel.Exchange;
-import org.apache.camel.util.CaseInsensitiveMap;
+import org.apache.camel.Message;
+import org.apache.camel.spi.HeadersMapFactory;
 import org.apache.camel.util.EndpointHelper;
 
 /**
  * The default implementation of {@link org.apache.camel.Message}
  * <p/>
- * This implementation uses a {@link org.apache.camel.util.CaseInsensitiveMap} storing the headers.
+ * This implementation uses the {@link HeadersMapFactory} configured on the {@link CamelContext} to create the map
+ * storing the headers, which by default is a {@link org.apache.camel.util.CaseInsensitiveMap}.
  * This allows us to be able to lookup headers using case insensitive keys, making it easier for end users
  * as they do not have to be worried about using exact keys.
  * See more details at {@link org.apache.camel.util.CaseInsensitiveMap}.
@@ -37,9 +40,11 @@ import org.apache.camel.util.EndpointHelper;
  * @version 
  */
 public class DefaultMessage extends MessageSupport {
+    private static final HeadersMapFactory DEFAULT_HEADERS_MAP_FACTORY = new DefaultHeadersMapFactory();
     private boolean fault;
     private Map<String, Object> headers;
     private Map<String, DataHandler> attachments;
+    private HeadersMapFactory copiedHeadersMapFactory;
 
     public boolean isFault() {
         return fault;
@@ -164,11 +169,12 @@ public class DefaultMessage extends MessageSupport {
     }
 
     public void setHeaders(Map<String, Object> headers) {
-        if (headers instanceof CaseInsensitiveMap) {
+        HeadersMapFactory factory = getHeadersMapFactory();
+        if (factory.isInstanceOf(headers)) {
             this.headers = headers;
         } else {
             // wrap it in a case insensitive map
-            this.headers = new CaseInsensitiveMap(headers);
+            this.headers = factory.newMap(headers);
         }
     }
 
@@ -193,11 +199,36 @@ public class DefaultMessage extends MessageSupport {
      *         the underlying inbound transport
      */
     protected Map<String, Object> createHeaders() {
-        Map<String, Object> map = new CaseInsensitiveMap();
+        Map<String, Object> map = getHeadersMapFactory().newMap();
         populateInitialHeaders(map);
         return map;
     }
 
+    /**
+     * Gets the {@link HeadersMapFactory} to use for creating the headers, which is the factory configured on
+     * the {@link CamelContext} if this message has been attached to an exchange.
+     */
+    protected HeadersMapFactory getHeadersMapFactory() {
+        Exchange exchange = getExchange();
+        CamelContext context = exchange != null ? exchange.getContext() : null;
+        if (context != null && context.getHeadersMapFactory() != null) {
+            return context.getHeadersMapFactory();
+        }
+        if (copiedHeadersMapFactory != null) {
+            return copiedHeadersMapFactory;
+        }
+        return DEFAULT_HEADERS_MAP_FACTORY;
+    }
+
+    @Override
+    public void copyFrom(Message that) {
+        if (that != this && getExchange() == null && that instanceof DefaultMessage) {
+            // a copy is not attached to an exchange yet, so use the same factory as the message copied from
+            copiedHeadersMapFactory = ((DefaultMessage) that).getHeadersMapFactory();
+        }
+        super.copyFrom(that);
+    }
+
     /**
      * A factory method to lazily create the attachments to make it easy to
      * create efficient Message implementations which only construct and
@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -123,6 +124,7 @@ public class DefaultShutdownStrategy extends ServiceSupport implements ShutdownS
     private TimeUnit timeUnit = TimeUnit.SECONDS;
     private boolean shutdownNowOnTimeout = true;
     private boolean shutdownRoutesInReverseOrder = true;
+    private boolean parallelRouteShutdown;
     private boolean suppressLoggingOnTimeout;
     private boolean logInflightExchangesOnTimeout = true;
 
@@ -196,9 +198,17 @@ public class DefaultShutdownStrategy extends ServiceSupport implements ShutdownS
             LOG.info("Starting to graceful shutdown " + routesOrdered.size() + " routes (timeout " + timeout + " " + timeUnit.toString().toLowerCase(Locale.ENGLISH) + ")");
         }
 
+        // the routes can be shutdown in parallel using a thread pool which the shutdown task shuts down when done
+        ExecutorService routeExecutor = null;
+        if (parallelRouteShutdown && routesOrdered.size() > 1) {
+            int poolSize = Math.min(routesOrdered.size(), context.getExecutorServiceManager().getDefaultThreadPoolProfile().getMaxPoolSize());
+            routeExecutor = context.getExecutorServiceManager().newFixedThreadPool(this, "RouteShutdown", poolSize);
+        }
+
         // use another thread to perform the shutdowns so we can support timeout
         timeoutOccurred.set(false);
-        currentShutdownTaskFuture = getExecutorService().submit(new ShutdownTask(context, routesOrdered, timeout, timeUnit, suspendOnly, abortAfterTimeout, timeoutOccurred));
+        currentShutdownTaskFuture = getExecutorService().submit(new ShutdownTask(context, routesOrdered, timeout, timeUnit, suspendOnly,
+            abortAfterTimeout, timeoutOccurred, routeExecutor));
         try {
             currentShutdownTaskFuture.get(timeout, timeUnit);
         } catch (ExecutionException e) {
@@ -306,6 +316,14 @@ public class DefaultShutdownStrategy extends ServiceSupport implements ShutdownS
         this.shutdownRoutesInReverseOrder = shutdownRoutesInReverseOrder;
     }
 
+    public boolean isParallelRouteShutdown() {
+        return parallelRouteShutdown;
+    }
+
+    public void setParallelRouteShutdown(boolean parallelRouteShutdown) {
+        this.parallelRouteShutdown = parallelRouteShutdown;
+    }
+
     public boolean isSuppressLoggingOnTimeout() {
         return suppressLoggingOnTimeout;
     }
@@ -506,9 +524,10 @@ public class DefaultShutdownStrategy extends ServiceSupport implements ShutdownS
         private final long timeout;
         private final TimeUnit timeUnit;
         private final AtomicBoolean timeoutOccurred;
+        private final ExecutorService routeExecutor;
 
         ShutdownTask(CamelContext context, List<RouteStartupOrder> routes, long timeout, TimeUnit timeUnit,
-                            boolean suspendOnly, boolean abortAfterTimeout, AtomicBoolean timeoutOccurred) {
+                            boolean suspendOnly, boolean abortAfterTimeout, AtomicBoolean timeoutOccurred, ExecutorService routeExecutor) {
             this.context = context;
             this.routes = routes;
             this.suspendOnly = suspendOnly;
@@ -516,9 +535,20 @@ public class DefaultShutdownStrategy extends ServiceSupport implements ShutdownS
             this.timeout = timeout;
             this.timeUnit = timeUnit;
             this.timeoutOccurred = timeoutOccurred;
+            this.routeExecutor = routeExecutor;
         }
 
         public void run() {
+            try {
+                doRun();
+            } finally {
+                if (routeExecutor != null) {
+                    context.getExecutorServiceManager().shutdownNow(routeExecutor);
+                }
+            }
+        }
+
+        private void doRun() {
             // the strategy in this run method is to
             // 1) go over the routes and shutdown those routes which can be shutdown asap
             //    some routes will be deferred to shutdown at the end, as they are needed
@@ -531,55 +561,19 @@ public class DefaultShutdownStrategy extends ServiceSupport implements ShutdownS
             // list of deferred consumers to shutdown when all exchanges has been completed routed
             // and thus there are no more inflight exchanges so they can be safely shutdown at that time
             List<ShutdownDeferredConsumer> deferredConsumers = new ArrayList<ShutdownDeferredConsumer>();
-            for (RouteStartupOrder order : routes) {
-
-                ShutdownRoute shutdownRoute = order.getRoute().getRouteContext().getShutdownRoute();
-                ShutdownRunningTask shutdownRunningTask = order.getRoute().getRouteContext().getShutdownRunningTask();
-
-                if (LOG.isTraceEnabled()) {
-                    LOG.trace("{}{} with options [{},{}]",
-                            new Object[]{suspendOnly ? "Suspending route: " : "Shutting down route: ",
-                                order.getRoute().getId(), shutdownRoute, shutdownRunningTask});
-                }
-
-                for (Consumer consumer : order.getInputs()) {
-
-                    boolean suspend = false;
-
-                    // assume we should shutdown if we are not deferred
-                    boolean shutdown = shutdownRoute != ShutdownRoute.Defer;
-
-                    if (shutdown) {
-                        // if we are to shutdown then check whether we can suspend instead as its a more
-                        // gentle way to graceful shutdown
-
-                        // some consumers do not support shutting down so let them decide
-                        // if a consumer is suspendable then prefer to use that and then shutdown later
-                        if (consumer instanceof ShutdownAware) {
-                            shutdown = !((ShutdownAware) consumer).deferShutdown(shutdownRunningTask);
-                        }
-                        if (shutdown && consumer instanceof Suspendable) {
-                            // we prefer to suspend over shutdown
-                            suspend = true;
-                        }
-                    }
-
-                    // log at info level when a route has been shutdown (otherwise log at debug level to not be too noisy)
-                    if (suspend) {
-                        // only suspend it and then later shutdown it
-                        suspendNow(consumer);
-                        // add it to the deferred list so the route will be shutdown later
-                        deferredConsumers.add(new ShutdownDeferredConsumer(order.getRoute(), consumer));
-                        LOG.debug("Route: {} suspended and shutdown deferred, was consuming from: {}", order.getRoute().getId(), order.getRoute().getEndpoint());
-                    } else if (shutdown) {
-                        shutdownNow(consumer);
-                        LOG.info("Route: {} shutdown complete, was consuming from: {}", order.getRoute().getId(), order.getRoute().getEndpoint());
-                    } else {
-                        // we will stop it later, but for now it must run to be able to help all inflight messages
-                        // be safely completed
-                        deferredConsumers.add(new ShutdownDeferredConsumer(order.getRoute(), consumer));
-                        LOG.debug("Route: " + order.getRoute().getId() + (suspendOnly ? " shutdown deferred." : " suspension deferred."));
+            List<Route> list = new ArrayList<Route>(routes.size());
+            List<Callable<List<ShutdownDeferredConsumer>>> tasks = new ArrayList<Callable<List<ShutdownDeferredConsumer>>>(routes.size());
+            for (final RouteStartupOrder order : routes) {
+                list.add(order.getRoute());
+                tasks.add(new Callable<List<ShutdownDeferredConsumer>>() {
+                    public List<ShutdownDeferredConsumer> call() throws Exception {
+                        return shutdownOrSuspendRoute(order);
                     }
+                });
+            }
+            for (List<ShutdownDeferredConsumer> deferred : invokeAll(list, tasks)) {
+                if (deferred != null) {
+                    deferredConsumers.addAll(deferred);
                 }
             }
 
@@ -659,16 +653,25 @@ public class DefaultShutdownStrategy extends ServiceSupport implements ShutdownS
             }
 
             // now all messages has been completed then stop the deferred consumers
-            for (ShutdownDeferredConsumer deferred : deferredConsumers) {
-                Consumer consumer = deferred.getConsumer();
-                if (suspendOnly) {
-                    suspendNow(consumer);
-                    LOG.info("Route: {} suspend complete, was consuming from: {}", deferred.getRoute().getId(), deferred.getConsumer().getEndpoint());
-                } else {
-                    shutdownNow(consumer);
-                    LOG.info("Route: {} shutdown complete, was consuming from: {}", deferred.getRoute().getId(), deferred.getConsumer().getEndpoint());
-                }
+            list.clear();
+            List<Callable<Void>> deferredTasks = new ArrayList<Callable<Void>>(deferredConsumers.size());
+            for (final ShutdownDeferredConsumer deferred : deferredConsumers) {
+                list.add(deferred.getRoute());
+                deferredTasks.add(new Callable<Void>() {
+                    public Void call() throws Exception {
+                        Consumer consumer = deferred.getConsumer();
+                        if (suspendOnly) {
+                            suspendNow(consumer);
+                            LOG.info("Route: {} suspend complete, was consuming from: {}", deferred.getRoute().getId(), deferred.getConsumer().getEndpoint());
+                        } else {
+                            shutdownNow(consumer);
+                            LOG.info("Route: {} shutdown complete, was consuming from: {}", deferred.getRoute().getId(), deferred.getConsumer().getEndpoint());
+                        }
+                        return null;
+                    }
+                });
             }
+            invokeAll(list, deferredTasks);
 
             // now the route consumers has been shutdown, then prepare route services for shutdown
             for (RouteStartupOrder order : routes) {
@@ -680,6 +683,130 @@ public class DefaultShutdownStrategy extends ServiceSupport implements ShutdownS
             }
         }
 
+        /**
+         * Shutdown or suspend the consumers of the route, unless the shutdown is deferred.
+         *
+         * @return the consumers which are deferred to be shutdown later
+         */
+        private List<ShutdownDeferredConsumer> shutdownOrSuspendRoute(RouteStartupOrder order) {
+            List<ShutdownDeferredConsumer> answer = new ArrayList<ShutdownDeferredConsumer>();
+
+            ShutdownRoute shutdownRoute = order.getRoute().getRouteContext().getShutdownRoute();
+            ShutdownRunningTask shutdownRunningTask = order.getRoute().getRouteContext().getShutdownRunningTask();
+
+            if (LOG.isTraceEnabled()) {
+                LOG.trace("{}{} with options [{},{}]",
+                        new Object[]{suspendOnly ? "Suspending route: " : "Shutting down route: ",
+                            order.getRoute().getId(), shutdownRoute, shutdownRunningTask});
+            }
+
+            for (Consumer consumer : order.getInputs()) {
+
+                boolean suspend = false;
+
+                // assume we should shutdown if we are not deferred
+                boolean shutdown = shutdownRoute != ShutdownRoute.Defer;
+
+                if (shutdown) {
+                    // if we are to shutdown then check whether we can suspend instead as its a more
+                    // gentle way to graceful shutdown
+
+                    // some consumers do not support shutting down so let them decide
+                    // if a consumer is suspendable then prefer to use that and then shutdown later
+                    if (consumer instanceof ShutdownAware) {
+                        shutdown = !((ShutdownAware) consumer).deferShutdown(shutdownRunningTask);
+                    }
+                    if (shutdown && consumer instanceof Suspendable) {
+                        // we prefer to suspend over shutdown
+                        suspend = true;
+                    }
+                }
+
+                // log at info level when a route has been shutdown (otherwise log at debug level to not be too noisy)
+                if (suspend) {
+                    // only suspend it and then later shutdown it
+                    suspendNow(consumer);
+                    // add it to the deferred list so the route will be shutdown later
+                    answer.add(new ShutdownDeferredConsumer(order.getRoute(), consumer));
+                    LOG.debug("Route: {} suspended and shutdown deferred, was consuming from: {}", order.getRoute().getId(), order.getRoute().getEndpoint());
+                } else if (shutdown) {
+                    shutdownNow(consumer);
+                    LOG.info("Route: {} shutdown complete, was consuming from: {}", order.getRoute().getId(), order.getRoute().getEndpoint());
+                } else {
+                    // we will stop it later, but for now it must run to be able to help all inflight messages
+                    // be safely completed
+                    answer.add(new ShutdownDeferredConsumer(order.getRoute(), consumer));
+                    LOG.debug("Route: " + order.getRoute().getId() + (suspendOnly ? " shutdown deferred." : " suspension deferred."));
+                }
+            }
+
+            return answer;
+        }
+
+        /**
+         * Invokes the tasks for the routes, where the tasks of the routes which have no startup order configured
+         * are invoked in parallel if parallel route shutdown is enabled, and the other tasks one by one in order.
+         *
+         * @return the results of the tasks in the same order, which is <tt>null</tt> if the task failed when
+         *         shutting down in parallel (otherwise the exception is thrown)
+         */
+        <T> List<T> invokeAll(List<Route> list, List<Callable<T>> tasks) {
+            List<T> answer = new ArrayList<T>(tasks.size());
+            List<Callable<T>> batch = new ArrayList<Callable<T>>();
+            for (int i = 0; i < tasks.size(); i++) {
+                boolean parallel = routeExecutor != null && list.get(i).getRouteContext().getRoute().getStartupOrder() == null;
+                if (parallel) {
+                    batch.add(tasks.get(i));
+                } else {
+                    invokeBatch(batch, answer);
+                    batch.clear();
+                    answer.add(invoke(tasks.get(i)));
+                }
+            }
+            invokeBatch(batch, answer);
+            return answer;
+        }
+
+        private <T> void invokeBatch(List<Callable<T>> batch, List<T> answer) {
+            if (batch.size() == 1) {
+                try {
+                    answer.add(batch.get(0).call());
+                } catch (Exception e) {
+                    LOG.warn("Error occurred while shutting down route. This exception will be ignored.", e);
+                    answer.add(null);
+                }
+            } else if (!batch.isEmpty()) {
+                int start = answer.size();
+                try {
+                    for (Future<T> future : routeExecutor.invokeAll(batch)) {
+                        try {
+                            answer.add(future.get());
+                        } catch (ExecutionException e) {
+                            LOG.warn("Error occurred while shutting down route. This exception will be ignored.", e.getCause());
+                            answer.add(null);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    // the shutdown task has been cancelled due timeout, so let the forced shutdown take over
+                    LOG.debug("Interrupted while shutting down routes in parallel");
+                    Thread.currentThread().interrupt();
+                    for (int i = answer.size() - start; i < batch.size(); i++) {
+                        answer.add(null);
+                    }
+                }
+            }
+        }
+
+        private <T> T invoke(Callable<T> task) {
+            // the routes which are shutdown one by one fail the shutdown, also when parallel route shutdown is enabled
+            try {
+                return task.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw ObjectHelper.wrapRuntimeCamelException(e);
+            }
+        }
     }
 
     /**
@@ -28,6 +28,7 @@ import org.apache.camel.CamelContextAware;
 import org.apache.camel.Exchange;
 import org.apache.camel.Message;
 import org.apache.camel.StreamCache;
+import org.apache.camel.converter.stream.OffHeapBufferPool;
 import org.apache.camel.spi.StreamCachingStrategy;
 import org.apache.camel.util.FilePathResolver;
 import org.apache.camel.util.FileUtil;
@@ -61,6 +62,10 @@ public class DefaultStreamCachingStrategy extends org.apache.camel.support.Servi
     private String spoolChiper;
     private int bufferSize = IOHelper.DEFAULT_BUFFER_SIZE;
     private boolean removeSpoolDirectoryWhenStopping = true;
+    private SpoolMode spoolMode = SpoolMode.File;
+    private long spoolOffHeapMemoryLimit = 64 * 1024 * 1024;
+    private int spoolOffHeapChunkSize = 64 * 1024;
+    private volatile OffHeapBufferPool offHeapBufferPool;
     private final UtilizationStatistics statistics = new UtilizationStatistics();
     private final Set<SpoolRule> spoolRules = new LinkedHashSet<SpoolRule>();
     private boolean anySpoolRules;
@@ -133,6 +138,34 @@ public class DefaultStreamCachingStrategy extends org.apache.camel.support.Servi
         this.bufferSize = bufferSize;
     }
 
+    public SpoolMode getSpoolMode() {
+        return spoolMode;
+    }
+
+    public void setSpoolMode(SpoolMode spoolMode) {
+        this.spoolMode = spoolMode;
+    }
+
+    public long getSpoolOffHeapMemoryLimit() {
+        return spoolOffHeapMemoryLimit;
+    }
+
+    public void setSpoolOffHeapMemoryLimit(long spoolOffHeapMemoryLimit) {
+        this.spoolOffHeapMemoryLimit = spoolOffHeapMemoryLimit;
+    }
+
+    public int getSpoolOffHeapChunkSize() {
+        return spoolOffHeapChunkSize;
+    }
+
+    public void setSpoolOffHeapChunkSize(int spoolOffHeapChunkSize) {
+        this.spoolOffHeapChunkSize = spoolOffHeapChunkSize;
+    }
+
+    public OffHeapChunkPool getOffHeapChunkPool() {
+        return offHeapBufferPool;
+    }
+
     public boolean isRemoveSpoolDirectoryWhenStopping() {
         return removeSpoolDirectoryWhenStopping;
     }
@@ -298,6 +331,14 @@ public class DefaultStreamCachingStrategy extends org.apache.camel.support.Servi
 
             }
 
+            if (spoolMode == SpoolMode.OffHeap) {
+                // keep the pool when restarting, as the chunks may still be in use by stream caches
+                if (offHeapBufferPool == null) {
+                    offHeapBufferPool = new OffHeapBufferPool(spoolOffHeapChunkSize, spoolOffHeapMemoryLimit);
+                }
+                LOG.debug("Using off-heap spool with {}", offHeapBufferPool);
+            }
+
             if (spoolThreshold > 0) {
                 spoolRules.add(new FixedThresholdSpoolRule());
             }
@@ -331,6 +372,11 @@ public class DefaultStreamCachingStrategy extends org.apache.camel.support.Servi
         }
 
         statistics.reset();
+
+        if (offHeapBufferPool != null) {
+            // release the memory of the pooled chunks
+            offHeapBufferPool.clear();
+        }
     }
 
     @Override
@@ -340,6 +386,7 @@ public class DefaultStreamCachingStrategy extends org.apache.camel.support.Servi
             + ", spoolChiper=" + spoolChiper
             + ", spoolThreshold=" + spoolThreshold
             + ", spoolUsedHeapMemoryThreshold=" + spoolUsedHeapMemoryThreshold
+            + ", spoolMode=" + spoolMode
             + ", bufferSize=" + bufferSize
             + ", anySpoolRules=" + anySpoolRules + "]";
     }
@@ -405,7 +452,7 @@ public class DefaultStreamCachingStrategy extends org.apache.camel.support.Servi
     /**
      * Represents utilization statistics.
      */
-    private static final class UtilizationStatistics implements Statistics {
+    private final class UtilizationStatistics implements Statistics {
 
         private boolean statisticsEnabled;
         private volatile long memoryCounter;
@@ -451,7 +498,31 @@ public class DefaultStreamCachingStrategy extends org.apache.camel.support.Servi
             return spoolAverageSize;
         }
 
+        public long getSpoolOffHeapMemoryUsed() {
+            OffHeapBufferPool pool = offHeapBufferPool;
+            return pool != null ? pool.getMemoryUsed() : 0;
+        }
+
+        public long getSpoolOffHeapMemoryPooled() {
+            OffHeapBufferPool pool = offHeapBufferPool;
+            return pool != null ? pool.getMemoryPooled() : 0;
+        }
+
+        public long getSpoolOffHeapChunkReuseCounter() {
+            OffHeapBufferPool pool = offHeapBufferPool;
+            return pool != null ? pool.getReuseCounter() : 0;
+        }
+
+        public long getSpoolOffHeapExhaustedCounter() {
+            OffHeapBufferPool pool = offHeapBufferPool;
+            return pool != null ? pool.getExhaustedCounter() : 0;
+        }
+
         public synchronized void reset() {
+            OffHeapBufferPool pool = offHeapBufferPool;
+            if (pool != null) {
+                pool.resetStatistics();
+            }
             memoryCounter = 0;
             memorySize = 0;
             memoryAverageSize = 0;
@@ -469,8 +540,10 @@ public class DefaultStreamCachingStrategy extends org.apache.camel.support.Servi
         }
 
         public String toString() {
-            return String.format("[memoryCounter=%s, memorySize=%s, memoryAverageSize=%s, spoolCounter=%s, spoolSize=%s, spoolAverageSize=%s]",
-                    memoryCounter, memorySize, memoryAverageSize, spoolCounter, spoolSize, spoolAverageSize);
+            return String.format("[memoryCounter=%s, memorySize=%s, memoryAverageSize=%s, spoolCounter=%s, spoolSize=%s, spoolAverageSize=%s"
+                    + ", spoolOffHeapMemoryUsed=%s, spoolOffHeapMemoryPooled=%s, spoolOffHeapChunkReuseCounter=%s, spoolOffHeapExhaustedCounter=%s]",
+                    memoryCounter, memorySize, memoryAverageSize, spoolCounter, spoolSize, spoolAverageSize,
+                    getSpoolOffHeapMemoryUsed(), getSpoolOffHeapMemoryPooled(), getSpoolOffHeapChunkReuseCounter(), getSpoolOffHeapExhaustedCounter());
         }
     }
 
@@ -30,6 +30,8 @@ import java.util.concurrent.TimeUnit;
 
 import org.apache.camel.spi.ThreadPoolFactory;
 import org.apache.camel.spi.ThreadPoolProfile;
+import org.apache.camel.util.concurrent.HashedWheelScheduledExecutorService;
+import org.apache.camel.util.concurrent.HashedWheelTimer;
 import org.apache.camel.util.concurrent.RejectableScheduledThreadPoolExecutor;
 import org.apache.camel.util.concurrent.RejectableThreadPoolExecutor;
 import org.apache.camel.util.concurrent.SizedScheduledExecutorService;
@@ -115,4 +117,15 @@ public class DefaultThreadPoolFactory implements ThreadPoolFactory {
         }
     }
 
+    @Override
+    public ScheduledExecutorService newTimerScheduledThreadPool(ThreadPoolProfile profile, ThreadFactory threadFactory, HashedWheelTimer timer) {
+        // the worker has an unbounded task queue the same as the scheduled thread pool, as the timer thread must
+        // never block or run the tasks itself, and instead the number of delayed tasks is limited
+        int poolSize = Math.max(1, profile.getPoolSize());
+        ThreadPoolExecutor worker = new RejectableThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>());
+        worker.setThreadFactory(threadFactory);
+
+        return new HashedWheelScheduledExecutorService(timer, worker, profile.getMaxQueueSize(), false);
+    }
+
 }
@@ -61,16 +61,23 @@ import org.slf4j.LoggerFactory;
  * Therefore its recommended to specify FQN class names in the {@link #META_INF_SERVICES} file.
  * Likewise the procedure for scanning using {@link PackageScanClassResolver} may require custom implementations
  * to work in various containers such as JBoss, OSGi, etc.
+ * <p/>
+ * Modules which are built with the Camel annotation processor contain a generated {@link TypeConverterLoader} which
+ * registers their type converters without scanning or reflection. The generated loaders are listed in the
+ * {@link #META_INF_SERVICES_LOADER} file, and are preferred over the {@link #META_INF_SERVICES} file from the same
+ * location. Scanning is only used for legacy modules without a generated loader, or if a generated loader fails.
  *
  * @version
  */
 public class AnnotationTypeConverterLoader implements TypeConverterLoader {
     public static final String META_INF_SERVICES = "META-INF/services/org/apache/camel/TypeConverter";
+    public static final String META_INF_SERVICES_LOADER = "META-INF/services/org/apache/camel/TypeConverterLoader";
     private static final Logger LOG = LoggerFactory.getLogger(AnnotationTypeConverterLoader.class);
     private static final Charset UTF8 = Charset.forName("UTF-8");
     protected PackageScanClassResolver resolver;
     protected Set<Class<?>> visitedClasses = new HashSet<Class<?>>();
     protected Set<String> visitedURIs = new HashSet<String>();
+    protected Set<String> loadedLocations = new HashSet<String>();
 
     public AnnotationTypeConverterLoader(PackageScanClassResolver resolver) {
         this.resolver = resolver;
@@ -80,6 +87,13 @@ public class AnnotationTypeConverterLoader implements TypeConverterLoader {
     public void load(TypeConverterRegistry registry) throws TypeConverterLoaderException {
         String[] packageNames;
 
+        // prefer the generated loaders, so we do not need to scan the locations they have loaded
+        try {
+            loadGeneratedTypeConverterLoaders(registry);
+        } catch (IOException e) {
+            throw new TypeConverterLoaderException("Cannot find generated type converter loaders.", e);
+        }
+
         LOG.trace("Searching for {} services", META_INF_SERVICES);
         try {
             packageNames = findPackageNames();
@@ -133,6 +147,62 @@ public class AnnotationTypeConverterLoader implements TypeConverterLoader {
         // now clear the maps so we do not hold references
         visitedClasses.clear();
         visitedURIs.clear();
+        loadedLocations.clear();
+    }
+
+    /**
+     * Loads the type converters using the generated loaders which are listed in the
+     * {@link #META_INF_SERVICES_LOADER} files, and remembers the locations they are loaded from.
+     *
+     * @param registry the registry to load the type converters into
+     * @throws IOException is thrown for IO related errors
+     */
+    protected void loadGeneratedTypeConverterLoaders(TypeConverterRegistry registry) throws IOException {
+        LOG.trace("Searching for {} services", META_INF_SERVICES_LOADER);
+        ClassLoader ccl = Thread.currentThread().getContextClassLoader();
+        if (ccl != null) {
+            loadGeneratedTypeConverterLoaders(registry, ccl);
+        }
+        loadGeneratedTypeConverterLoaders(registry, getClass().getClassLoader());
+    }
+
+    private void loadGeneratedTypeConverterLoaders(TypeConverterRegistry registry, ClassLoader classLoader) throws IOException {
+        Enumeration<URL> resources = classLoader.getResources(META_INF_SERVICES_LOADER);
+        while (resources.hasMoreElements()) {
+            URL url = resources.nextElement();
+            String location = getLocation(url, META_INF_SERVICES_LOADER);
+            if (loadedLocations.contains(location)) {
+                continue;
+            }
+
+            Set<String> names = new HashSet<String>();
+            readNames(names, url);
+            boolean loaded = true;
+            for (String name : names) {
+                try {
+                    Class<?> type = classLoader.loadClass(name);
+                    TypeConverterLoader loader = (TypeConverterLoader) type.newInstance();
+                    LOG.debug("Loading type converters using generated loader: {}", name);
+                    loader.load(registry);
+                } catch (Throwable e) {
+                    LOG.warn("Cannot load type converters using generated loader: " + name + " from url: " + url
+                            + ". Will scan for type converters instead. This exception is ignored.", e);
+                    loaded = false;
+                }
+            }
+            if (loaded) {
+                // remember we have loaded this location so we do not scan it
+                loadedLocations.add(location);
+            }
+        }
+    }
+
+    /**
+     * Gets the location (such as the JAR) of the resource.
+     */
+    private static String getLocation(URL url, String resource) {
+        String answer = url.toExternalForm();
+        return answer.endsWith(resource) ? answer.substring(0, answer.length() - resource.length()) : answer;
     }
 
     /**
@@ -215,24 +285,32 @@ public class AnnotationTypeConverterLoader implements TypeConverterLoader {
             if (!visitedURIs.contains(path)) {
                 // remember we have visited this uri so we wont read it twice
                 visitedURIs.add(path);
+                if (loadedLocations.contains(getLocation(url, META_INF_SERVICES))) {
+                    LOG.debug("Skipping file {} as the type converters has been loaded by a generated loader, from url: {}", META_INF_SERVICES, url);
+                    continue;
+                }
                 LOG.debug("Loading file {} to retrieve list of packages, from url: {}", META_INF_SERVICES, url);
-                BufferedReader reader = IOHelper.buffered(new InputStreamReader(url.openStream(), UTF8));
-                try {
-                    while (true) {
-                        String line = reader.readLine();
-                        if (line == null) {
-                            break;
-                        }
-                        line = line.trim();
-                        if (line.startsWith("#") || line.length() == 0) {
-                            continue;
-                        }
-                        tokenize(packages, line);
-                    }
-                } finally {
-                    IOHelper.close(reader, null, LOG);
+                readNames(packages, url);
+            }
+        }
+    }
+
+    private void readNames(Set<String> names, URL url) throws IOException {
+        BufferedReader reader = IOHelper.buffered(new InputStreamReader(url.openStream(), UTF8));
+        try {
+            while (true) {
+                String line = reader.readLine();
+                if (line == null) {
+                    break;
+                }
+                line = line.trim();
+                if (line.startsWith("#") || line.length() == 0) {
+                    continue;
                 }
+                tokenize(names, line);
             }
+        } finally {
+            IOHelper.close(reader, null, LOG);
         }
     }
 
@@ -27,7 +27,9 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.apache.camel.CamelContext;
 import org.apache.camel.CamelContextAware;
@@ -50,7 +52,6 @@ import org.apache.camel.spi.TypeConverterLoader;
 import org.apache.camel.spi.TypeConverterRegistry;
 import org.apache.camel.support.ServiceSupport;
 import org.apache.camel.util.CamelLogger;
-import org.apache.camel.util.LRUSoftCache;
 import org.apache.camel.util.MessageHelper;
 import org.apache.camel.util.ObjectHelper;
 import org.slf4j.Logger;
@@ -63,10 +64,18 @@ import org.slf4j.LoggerFactory;
  * @version 
  */
 public abstract class BaseTypeConverterRegistry extends ServiceSupport implements TypeConverter, TypeConverterRegistry, CamelContextAware {
+    // the maximum number of type conversions to keep in the lookup table, as the classes may be un-deployed at runtime
+    private static final int MAXIMUM_TYPE_CONVERSIONS = 10000;
+
     protected final Logger log = LoggerFactory.getLogger(getClass());
     protected final ConcurrentMap<TypeMapping, TypeConverter> typeMappings = new ConcurrentHashMap<TypeMapping, TypeConverter>();
-    // for misses use a soft reference cache map, as the classes may be un-deployed at runtime
-    protected final LRUSoftCache<TypeMapping, TypeMapping> misses = new LRUSoftCache<TypeMapping, TypeMapping>(1000);
+    // lookup table of the type conversions (including misses) per to type keyed by the from type, which allows
+    // to lookup the type converter without allocating any objects, as the class keys are compared by identity
+    protected final ConcurrentMap<Class<?>, ConcurrentMap<Class<?>, TypeConversion>> typeConversions
+            = new ConcurrentHashMap<Class<?>, ConcurrentMap<Class<?>, TypeConversion>>();
+    private final AtomicInteger typeConversionsSize = new AtomicInteger();
+    // incremented when the type mappings changes, which invalidates the resolved type conversions
+    private final AtomicLong typeMappingsVersion = new AtomicLong();
     protected final List<TypeConverterLoader> typeConverterLoaders = new ArrayList<TypeConverterLoader>();
     protected final List<FallbackTypeConverter> fallbackConverters = new CopyOnWriteArrayList<FallbackTypeConverter>();
     protected final PackageScanClassResolver resolver;
@@ -284,21 +293,32 @@ public abstract class BaseTypeConverterRegistry extends ServiceSupport implement
         }
 
         // okay we need to attempt to convert
-        if (statistics.isStatisticsEnabled()) {
+        boolean statisticsEnabled = statistics.isStatisticsEnabled();
+        if (statisticsEnabled) {
             attemptCounter.incrementAndGet();
         }
 
+        // find the type conversion for the types, and resolve its type converter if not already done
+        Class<?> fromType = value.getClass();
+        TypeConversion conversion = getOrCreateTypeConversion(type, fromType);
+        if (statisticsEnabled) {
+            conversion.attempts.increment();
+        }
+        ResolvedTypeConverter resolved = resolveTypeConverter(conversion);
+
         // check if we have tried it before and if its a miss
-        TypeMapping key = new TypeMapping(type, value.getClass());
-        if (misses.containsKey(key)) {
+        if (resolved.miss) {
             // we have tried before but we cannot convert this one
+            if (statisticsEnabled) {
+                conversion.misses.increment();
+            }
             return Void.TYPE;
         }
-        
-        // try to find a suitable type converter
-        TypeConverter converter = getOrFindTypeConverter(key);
+
+        // try to use the suitable type converter
+        TypeConverter converter = resolved.converter;
         if (converter != null) {
-            log.trace("Using converter: {} to convert {}", converter, key);
+            log.trace("Using converter: {} to convert {}", converter, conversion);
             Object rc;
             if (tryConvert) {
                 rc = converter.tryConvertTo(type, exchange, value);
@@ -306,8 +326,14 @@ public abstract class BaseTypeConverterRegistry extends ServiceSupport implement
                 rc = converter.convertTo(type, exchange, value);
             }
             if (rc == null && converter.allowNull()) {
+                if (statisticsEnabled) {
+                    conversion.hits.increment();
+                }
                 return null;
             } else if (rc != null) {
+                if (statisticsEnabled) {
+                    conversion.hits.increment();
+                }
                 return rc;
             }
         }
@@ -316,7 +342,6 @@ public abstract class BaseTypeConverterRegistry extends ServiceSupport implement
         if (type.isPrimitive()) {
             Class<?> primitiveType = ObjectHelper.convertPrimitiveTypeToWrapperType(type);
             if (primitiveType != type) {
-                Class<?> fromType = value.getClass();
                 TypeConverter tc = getOrFindTypeConverter(new TypeMapping(primitiveType, fromType));
                 if (tc != null) {
                     // add the type as a known type converter as we can convert from primitive to object converter
@@ -328,8 +353,14 @@ public abstract class BaseTypeConverterRegistry extends ServiceSupport implement
                         rc = tc.convertTo(primitiveType, exchange, value);
                     }
                     if (rc == null && tc.allowNull()) {
+                        if (statisticsEnabled) {
+                            conversion.hits.increment();
+                        }
                         return null;
                     } else if (rc != null) {
+                        if (statisticsEnabled) {
+                            conversion.hits.increment();
+                        }
                         return rc;
                     }
                 }
@@ -346,15 +377,25 @@ public abstract class BaseTypeConverterRegistry extends ServiceSupport implement
                 rc = tc.convertTo(type, exchange, value);
             }
             if (rc == null && tc.allowNull()) {
+                if (statisticsEnabled) {
+                    conversion.fallbacks.increment();
+                }
                 return null;
             }
 
             if (Void.TYPE.equals(rc)) {
                 // it cannot be converted so give up
+                if (statisticsEnabled) {
+                    conversion.misses.increment();
+                }
                 return Void.TYPE;
             }
 
             if (rc != null) {
+                if (statisticsEnabled) {
+                    conversion.fallbacks.increment();
+                }
+
                 // if fallback can promote then let it be promoted to a first class type converter
                 if (fallback.isCanPromote()) {
                     // add it as a known type converter since we found a fallback that could do it
@@ -379,7 +420,10 @@ public abstract class BaseTypeConverterRegistry extends ServiceSupport implement
         if (!tryConvert) {
             // Could not find suitable conversion, so remember it
             // do not register misses for try conversions
-            misses.put(key, key);
+            conversion.resolved = new ResolvedTypeConverter(resolved.version, resolved.converter, true);
+        }
+        if (statisticsEnabled) {
+            conversion.misses.increment();
         }
 
         // Could not find suitable conversion, so return Void to indicate not found
@@ -416,8 +460,8 @@ public abstract class BaseTypeConverterRegistry extends ServiceSupport implement
 
             if (add) {
                 typeMappings.put(key, typeConverter);
-                // remove any previous misses, as we added the new type converter
-                misses.remove(key);
+                // invalidate any previous resolved type conversions and misses, as we added the new type converter
+                typeMappingsVersion.incrementAndGet();
             }
         }
     }
@@ -441,7 +485,8 @@ public abstract class BaseTypeConverterRegistry extends ServiceSupport implement
         TypeConverter converter = typeMappings.remove(key);
         if (converter != null) {
             typeMappings.remove(key);
-            misses.remove(key);
+            // invalidate any previous resolved type conversions
+            typeMappingsVersion.incrementAndGet();
         }
         return converter != null;
     }
@@ -515,6 +560,50 @@ public abstract class BaseTypeConverterRegistry extends ServiceSupport implement
         return converter;
     }
 
+    /**
+     * Gets the type conversion for the given types from the lookup table, or creates a new if not already present.
+     */
+    protected TypeConversion getOrCreateTypeConversion(Class<?> toType, Class<?> fromType) {
+        ConcurrentMap<Class<?>, TypeConversion> conversions = typeConversions.get(toType);
+        if (conversions == null) {
+            conversions = new ConcurrentHashMap<Class<?>, TypeConversion>();
+            ConcurrentMap<Class<?>, TypeConversion> existing = typeConversions.putIfAbsent(toType, conversions);
+            if (existing != null) {
+                conversions = existing;
+            }
+        }
+
+        TypeConversion answer = conversions.get(fromType);
+        if (answer == null) {
+            answer = new TypeConversion(toType, fromType);
+            TypeConversion existing = conversions.putIfAbsent(fromType, answer);
+            if (existing != null) {
+                answer = existing;
+            } else if (typeConversionsSize.incrementAndGet() > MAXIMUM_TYPE_CONVERSIONS) {
+                // the lookup table is only a cache so clear it to not hold on to too many classes
+                log.debug("Clearing type conversions as the maximum size {} was exceeded", MAXIMUM_TYPE_CONVERSIONS);
+                typeConversions.clear();
+                typeConversionsSize.set(0);
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Resolves the type converter of the given type conversion, unless its already resolved and the type mappings
+     * has not been changed since.
+     */
+    protected ResolvedTypeConverter resolveTypeConverter(TypeConversion conversion) {
+        long version = typeMappingsVersion.get();
+        ResolvedTypeConverter answer = conversion.resolved;
+        if (answer == null || answer.version != version) {
+            TypeConverter converter = getOrFindTypeConverter(new TypeMapping(conversion.toType, conversion.fromType));
+            answer = new ResolvedTypeConverter(version, converter, false);
+            conversion.resolved = answer;
+        }
+        return answer;
+    }
+
     @Override
     public TypeConverter lookup(Class<?> toType, Class<?> fromType) {
         return doLookup(toType, fromType, false);
@@ -665,12 +754,20 @@ public abstract class BaseTypeConverterRegistry extends ServiceSupport implement
         // log utilization statistics when stopping, including mappings
         if (statistics.isStatisticsEnabled()) {
             String info = statistics.toString();
-            info += String.format(" mappings[total=%s, misses=%s]", typeMappings.size(), misses.size());
+            int misses = 0;
+            for (TypeConversionStatistics conversion : statistics.getTypeConversionStatistics()) {
+                ResolvedTypeConverter resolved = ((TypeConversion) conversion).resolved;
+                if (resolved != null && resolved.miss) {
+                    misses++;
+                }
+            }
+            info += String.format(" mappings[total=%s, misses=%s]", typeMappings.size(), misses);
             log.info(info);
         }
 
         typeMappings.clear();
-        misses.clear();
+        typeConversions.clear();
+        typeConversionsSize.set(0);
         statistics.reset();
     }
 
@@ -713,6 +810,20 @@ public abstract class BaseTypeConverterRegistry extends ServiceSupport implement
             hitCounter.set(0);
             missCounter.set(0);
             failedCounter.set(0);
+            for (ConcurrentMap<Class<?>, TypeConversion> conversions : typeConversions.values()) {
+                for (TypeConversion conversion : conversions.values()) {
+                    conversion.reset();
+                }
+            }
+        }
+
+        @Override
+        public List<TypeConversionStatistics> getTypeConversionStatistics() {
+            List<TypeConversionStatistics> answer = new ArrayList<TypeConversionStatistics>();
+            for (ConcurrentMap<Class<?>, TypeConversion> conversions : typeConversions.values()) {
+                answer.addAll(conversions.values());
+            }
+            return answer;
         }
 
         @Override
@@ -781,6 +892,88 @@ public abstract class BaseTypeConverterRegistry extends ServiceSupport implement
         }
     }
 
+    /**
+     * Represents the conversion from one type to another type in the lookup table, which keeps the resolved
+     * type converter and the utilization statistics of the conversion.
+     */
+    protected static final class TypeConversion implements TypeConversionStatistics {
+        private final Class<?> toType;
+        private final Class<?> fromType;
+        private final LongAdder attempts = new LongAdder();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder fallbacks = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private volatile ResolvedTypeConverter resolved;
+
+        TypeConversion(Class<?> toType, Class<?> fromType) {
+            this.toType = toType;
+            this.fromType = fromType;
+        }
+
+        @Override
+        public Class<?> getFromType() {
+            return fromType;
+        }
+
+        @Override
+        public Class<?> getToType() {
+            return toType;
+        }
+
+        @Override
+        public TypeConverter getTypeConverter() {
+            ResolvedTypeConverter answer = resolved;
+            return answer != null ? answer.converter : null;
+        }
+
+        @Override
+        public long getAttemptCounter() {
+            return attempts.sum();
+        }
+
+        @Override
+        public long getHitCounter() {
+            return hits.sum();
+        }
+
+        @Override
+        public long getFallbackCounter() {
+            return fallbacks.sum();
+        }
+
+        @Override
+        public long getMissCounter() {
+            return misses.sum();
+        }
+
+        void reset() {
+            attempts.reset();
+            hits.reset();
+            fallbacks.reset();
+            misses.reset();
+        }
+
+        @Override
+        public String toString() {
+            return "[" + fromType + "=>" + toType + "]";
+        }
+    }
+
+    /**
+     * Represents the type converter (if any) resolved for a type conversion with the given version of the type mappings
+     */
+    protected static final class ResolvedTypeConverter {
+        private final long version;
+        private final TypeConverter converter;
+        private final boolean miss;
+
+        ResolvedTypeConverter(long version, TypeConverter converter, boolean miss) {
+            this.version = version;
+            this.converter = converter;
+            this.miss = miss;
+        }
+    }
+
     /**
      * Represents a fallback type converter
      */
@@ -18,6 +18,8 @@ package org.apache.camel.impl.converter;
 
 import java.io.IOException;
 
+import org.apache.camel.spi.TypeConverterRegistry;
+
 /**
  * Will load all type converters from camel-core without classpath scanning, which makes
  * it much faster.
@@ -30,6 +32,11 @@ public class CoreTypeConverterLoader extends AnnotationTypeConverterLoader {
         super(new CorePackageScanClassResolver());
     }
 
+    @Override
+    protected void loadGeneratedTypeConverterLoaders(TypeConverterRegistry registry) throws IOException {
+        // the core type converters are loaded from the hardcoded list
+    }
+
     @Override
     protected String[] findPackageNames() throws IOException {
         // this method doesn't change the behavior of the CorePackageScanClassResolver
@@ -19,6 +19,7 @@ package org.apache.camel.impl.converter;
 import java.io.IOException;
 
 import org.apache.camel.TypeConverters;
+import org.apache.camel.spi.TypeConverterRegistry;
 
 /**
  * A type converter loader, that <b>only</b> supports scanning a {@link org.apache.camel.TypeConverters} class
@@ -38,6 +39,11 @@ public class TypeConvertersLoader extends AnnotationTypeConverterLoader {
         this.typeConverters = typeConverters;
     }
 
+    @Override
+    protected void loadGeneratedTypeConverterLoaders(TypeConverterRegistry registry) throws IOException {
+        // only load the given type converters
+    }
+
     @Override
     protected String[] findPackageNames() throws IOException {
         // this method doesn't change the behavior of the CorePackageScanClassResolver
@@ -16,12 +16,19 @@
  */
 package org.apache.camel.language.simple;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.apache.camel.Expression;
 import org.apache.camel.Predicate;
+import org.apache.camel.StaticService;
 import org.apache.camel.builder.ExpressionBuilder;
 import org.apache.camel.support.LanguageSupport;
+import org.apache.camel.util.CamelContextHelper;
+import org.apache.camel.util.LRUCache;
 import org.apache.camel.util.ObjectHelper;
 import org.apache.camel.util.PredicateToExpressionAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * A <a href="http://camel.apache.org/simple.html">simple language</a>
@@ -86,53 +93,157 @@ import org.apache.camel.util.PredicateToExpressionAdapter;
  * return the full path including the starting directory.
  * <br/>
  * The <b>only</b> file is the filename only with all paths clipped.
- *
+ * <p/>
+ * When the language is used from a {@link org.apache.camel.CamelContext} the parsed expressions and predicates
+ * are kept in a LRU cache, so dynamic EIPs such as <tt>toD</tt> and <tt>recipientList</tt> which creates the
+ * same expressions over and over again only pay the parsing cost once. The size of the cache can be configured
+ * using the {@link org.apache.camel.Exchange#MAXIMUM_SIMPLE_CACHE_SIZE} property on the CamelContext.
  */
-public class SimpleLanguage extends LanguageSupport {
+public class SimpleLanguage extends LanguageSupport implements StaticService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SimpleLanguage.class);
+
+    // the function tokens are global, so the version is changed when they change to invalidate the caches of all instances
+    private static final AtomicInteger FUNCTION_TOKENS_VERSION = new AtomicInteger();
 
     // singleton for expressions without a result type
     private static final SimpleLanguage SIMPLE = new SimpleLanguage();
 
     protected boolean allowEscape = true;
 
+    // use caches to avoid re-parsing the same expressions over and over again
+    private LRUCache<String, Expression> cacheExpression;
+    private LRUCache<String, Predicate> cachePredicate;
+    private volatile int cacheFunctionTokensVersion = FUNCTION_TOKENS_VERSION.get();
+
     /**
      * Default constructor.
      */
     public SimpleLanguage() {
     }
 
+    @Override
+    public void start() throws Exception {
+        // setup cache which requires CamelContext to be set first
+        if (cacheExpression == null && cachePredicate == null && getCamelContext() != null) {
+            int maxSize = CamelContextHelper.getMaximumSimpleCacheSize(getCamelContext());
+            if (maxSize > 0) {
+                cacheExpression = new LRUCache<String, Expression>(16, maxSize, false);
+                cachePredicate = new LRUCache<String, Predicate>(16, maxSize, false);
+                LOG.debug("Simple language predicate/expression cache size: {}", maxSize);
+            } else {
+                LOG.debug("Simple language disabled predicate/expression cache");
+            }
+        }
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (cachePredicate != null) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Clearing simple language predicate cache[size={}, hits={}, misses={}, evicted={}]",
+                        new Object[]{cachePredicate.size(), cachePredicate.getHits(), cachePredicate.getMisses(), cachePredicate.getEvicted()});
+            }
+            cachePredicate.clear();
+        }
+        if (cacheExpression != null) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Clearing simple language expression cache[size={}, hits={}, misses={}, evicted={}]",
+                        new Object[]{cacheExpression.size(), cacheExpression.getHits(), cacheExpression.getMisses(), cacheExpression.getEvicted()});
+            }
+            cacheExpression.clear();
+        }
+    }
+
     public Predicate createPredicate(String expression) {
         ObjectHelper.notNull(expression, "expression");
 
-        expression = loadResource(expression);
+        checkFunctionTokensVersion();
+        Predicate answer = cachePredicate != null ? cachePredicate.get(expression) : null;
+        if (answer != null) {
+            return answer;
+        }
+
+        String text = loadResource(expression);
 
         // support old simple language syntax
         @SuppressWarnings("deprecation")
-        Predicate answer = SimpleBackwardsCompatibleParser.parsePredicate(expression, allowEscape);
+        Predicate predicate = SimpleBackwardsCompatibleParser.parsePredicate(text, allowEscape);
+        answer = predicate;
         if (answer == null) {
             // use the new parser
-            SimplePredicateParser parser = new SimplePredicateParser(expression, allowEscape);
+            SimplePredicateParser parser = new SimplePredicateParser(text, allowEscape);
             answer = parser.parsePredicate();
         }
+
+        if (cachePredicate != null && answer != null) {
+            cachePredicate.put(expression, answer);
+        }
         return answer;
     }
 
     public Expression createExpression(String expression) {
         ObjectHelper.notNull(expression, "expression");
 
-        expression = loadResource(expression);
+        checkFunctionTokensVersion();
+        Expression answer = cacheExpression != null ? cacheExpression.get(expression) : null;
+        if (answer != null) {
+            return answer;
+        }
+
+        String text = loadResource(expression);
 
         // support old simple language syntax
         @SuppressWarnings("deprecation")
-        Expression answer = SimpleBackwardsCompatibleParser.parseExpression(expression, allowEscape);
+        Expression exp = SimpleBackwardsCompatibleParser.parseExpression(text, allowEscape);
+        answer = exp;
         if (answer == null) {
             // use the new parser
-            SimpleExpressionParser parser = new SimpleExpressionParser(expression, allowEscape);
+            SimpleExpressionParser parser = new SimpleExpressionParser(text, allowEscape);
             answer = parser.parseExpression();
         }
+
+        if (cacheExpression != null && answer != null) {
+            cacheExpression.put(expression, answer);
+        }
         return answer;
     }
 
+    /**
+     * Clears the cache of parsed expressions and predicates.
+     */
+    public void clearCache() {
+        if (cachePredicate != null) {
+            cachePredicate.clear();
+        }
+        if (cacheExpression != null) {
+            cacheExpression.clear();
+        }
+    }
+
+    private void checkFunctionTokensVersion() {
+        int version = FUNCTION_TOKENS_VERSION.get();
+        if (version != cacheFunctionTokensVersion) {
+            // the tokens has changed so previous parsed expressions are no longer valid
+            clearCache();
+            cacheFunctionTokensVersion = version;
+        }
+    }
+
+    /**
+     * Number of parsed predicates currently in the cache, or <tt>-1</tt> if caching is disabled.
+     */
+    public int getPredicateCacheSize() {
+        return cachePredicate != null ? cachePredicate.size() : -1;
+    }
+
+    /**
+     * Number of parsed expressions currently in the cache, or <tt>-1</tt> if caching is disabled.
+     */
+    public int getExpressionCacheSize() {
+        return cacheExpression != null ? cacheExpression.size() : -1;
+    }
+
     /**
      * Creates a new {@link Expression}.
      * <p/>
@@ -194,6 +305,7 @@ public class SimpleLanguage extends LanguageSupport {
      */
     public static void changeFunctionStartToken(String... startToken) {
         SimpleTokenizer.changeFunctionStartToken(startToken);
+        FUNCTION_TOKENS_VERSION.incrementAndGet();
     }
     
     /**
@@ -208,6 +320,7 @@ public class SimpleLanguage extends LanguageSupport {
      */
     public static void changeFunctionEndToken(String... endToken) {
         SimpleTokenizer.changeFunctionEndToken(endToken);
+        FUNCTION_TOKENS_VERSION.incrementAndGet();
     }
 
     /**
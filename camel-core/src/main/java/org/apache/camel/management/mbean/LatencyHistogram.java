@@ -0,0 +1,144 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.management.mbean;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of latencies which is used for calculating percentiles of the processing times.
+ * <p/>
+ * The histogram is inspired by HdrHistogram and uses log-linear buckets, where values below 32 are
+ * recorded exactly, and larger values are recorded in one of 16 linear sub buckets per power of two,
+ * which gives a relative precision of about 6%. Values above {@link Integer#MAX_VALUE} are recorded
+ * as the highest value. The buckets are allocated lazily on the first recorded value, so a histogram
+ * which is never used does not take up any memory.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKETS = 32;
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+    private static final int HALF_SUB_BUCKETS_BITS = 4;
+    private static final long HIGHEST_VALUE = Integer.MAX_VALUE;
+    private static final int BUCKETS = indexOf(HIGHEST_VALUE) + 1;
+
+    private volatile AtomicLongArray counts;
+
+    /**
+     * Records the value
+     *
+     * @param value the value such as the processing time in millis
+     */
+    public void recordValue(long value) {
+        AtomicLongArray array = counts;
+        if (array == null) {
+            array = createCounts();
+        }
+        array.incrementAndGet(indexOf(value));
+    }
+
+    /**
+     * Gets the number of recorded values
+     */
+    public long getTotalCount() {
+        AtomicLongArray array = counts;
+        if (array == null) {
+            return 0;
+        }
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += array.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Gets the value at the given percentile, which is the highest value that is equivalent to the
+     * recorded values at the percentile.
+     *
+     * @param percentile the percentile such as <tt>99.9</tt>
+     * @return the value, or <tt>0</tt> if no values has been recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        AtomicLongArray array = counts;
+        if (array == null) {
+            return 0;
+        }
+
+        // take a snapshot as the counts may be updated concurrently
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = array.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        double p = Math.min(Math.max(percentile, 0), 100);
+        long target = Math.max(1, (long) (p / 100 * total + 0.5));
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += snapshot[i];
+            if (count >= target) {
+                return highestValueOf(i);
+            }
+        }
+        return highestValueOf(BUCKETS - 1);
+    }
+
+    /**
+     * Resets the histogram
+     * <p/>
+     * The buckets are discarded and new buckets are allocated on the next recorded value, so a value
+     * which is recorded at the same time as the reset may be recorded in the discarded buckets and be lost.
+     */
+    public void reset() {
+        counts = null;
+    }
+
+    private synchronized AtomicLongArray createCounts() {
+        if (counts == null) {
+            counts = new AtomicLongArray(BUCKETS);
+        }
+        return counts;
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return value < 0 ? 0 : (int) value;
+        }
+        if (value > HIGHEST_VALUE) {
+            value = HIGHEST_VALUE;
+        }
+        // the shift keeps the value in the upper half of the sub buckets
+        int shift = 63 - Long.numberOfLeadingZeros(value) - HALF_SUB_BUCKETS_BITS;
+        int mantissa = (int) (value >>> shift);
+        return SUB_BUCKETS + (shift - 1) * HALF_SUB_BUCKETS + (mantissa - HALF_SUB_BUCKETS);
+    }
+
+    static long highestValueOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int bucket = index - SUB_BUCKETS;
+        int shift = bucket / HALF_SUB_BUCKETS + 1;
+        long mantissa = bucket % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+}
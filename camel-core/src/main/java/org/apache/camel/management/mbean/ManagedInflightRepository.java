@@ -27,6 +27,7 @@ import org.apache.camel.CamelContext;
 import org.apache.camel.api.management.ManagedResource;
 import org.apache.camel.api.management.mbean.CamelOpenMBeanTypes;
 import org.apache.camel.api.management.mbean.ManagedInflightRepositoryMBean;
+import org.apache.camel.impl.DefaultInflightRepository;
 import org.apache.camel.spi.InflightRepository;
 import org.apache.camel.util.ObjectHelper;
 
@@ -57,6 +58,42 @@ public class ManagedInflightRepository extends ManagedService implements Managed
         return inflightRepository.size(routeId);
     }
 
+    @Override
+    public Long getOldestDuration() {
+        return oldestDuration(null);
+    }
+
+    @Override
+    public String getOldestExchangeId() {
+        return oldestExchangeId(null);
+    }
+
+    @Override
+    public Long oldestDuration(String fromRouteId) {
+        InflightRepository.InflightExchange oldest = oldest(fromRouteId);
+        return oldest != null ? oldest.getDuration() : null;
+    }
+
+    @Override
+    public String oldestExchangeId(String fromRouteId) {
+        InflightRepository.InflightExchange oldest = oldest(fromRouteId);
+        return oldest != null ? oldest.getExchange().getExchangeId() : null;
+    }
+
+    private InflightRepository.InflightExchange oldest(String fromRouteId) {
+        if (inflightRepository instanceof DefaultInflightRepository) {
+            return ((DefaultInflightRepository) inflightRepository).oldest(fromRouteId);
+        }
+        // a custom inflight repository so we need to browse all the inflight exchanges
+        InflightRepository.InflightExchange answer = null;
+        for (InflightRepository.InflightExchange entry : inflightRepository.browse(fromRouteId)) {
+            if (answer == null || entry.getDuration() > answer.getDuration()) {
+                answer = entry;
+            }
+        }
+        return answer;
+    }
+
     @Override
     public TabularData browse() {
         return browse(null, -1, false);
@@ -42,15 +42,15 @@ public abstract class ManagedPerformanceCounter extends ManagedCounter implement
     private Statistic totalProcessingTime;
     private Statistic lastProcessingTime;
     private Statistic deltaProcessingTime;
-    private Statistic meanProcessingTime;
+    private LatencyHistogram processingTimeHistogram;
     private Statistic firstExchangeCompletedTimestamp;
-    private String firstExchangeCompletedExchangeId;
+    private volatile String firstExchangeCompletedExchangeId;
     private Statistic firstExchangeFailureTimestamp;
-    private String firstExchangeFailureExchangeId;
+    private volatile String firstExchangeFailureExchangeId;
     private Statistic lastExchangeCompletedTimestamp;
-    private String lastExchangeCompletedExchangeId;
+    private volatile String lastExchangeCompletedExchangeId;
     private Statistic lastExchangeFailureTimestamp;
-    private String lastExchangeFailureExchangeId;
+    private volatile String lastExchangeFailureExchangeId;
     private boolean statisticsEnabled = true;
 
     public void init(ManagementStrategy strategy) {
@@ -68,7 +68,7 @@ public abstract class ManagedPerformanceCounter extends ManagedCounter implement
         this.totalProcessingTime = new Statistic("org.apache.camel.totalProcessingTime", this, Statistic.UpdateMode.COUNTER);
         this.lastProcessingTime = new Statistic("org.apache.camel.lastProcessingTime", this, Statistic.UpdateMode.VALUE);
         this.deltaProcessingTime = new Statistic("org.apache.camel.deltaProcessingTime", this, Statistic.UpdateMode.DELTA);
-        this.meanProcessingTime = new Statistic("org.apache.camel.meanProcessingTime", this, Statistic.UpdateMode.VALUE);
+        this.processingTimeHistogram = new LatencyHistogram();
 
         this.firstExchangeCompletedTimestamp = new Statistic("org.apache.camel.firstExchangeCompletedTimestamp", this, Statistic.UpdateMode.VALUE);
         this.firstExchangeFailureTimestamp = new Statistic("org.apache.camel.firstExchangeFailureTimestamp", this, Statistic.UpdateMode.VALUE);
@@ -90,7 +90,7 @@ public abstract class ManagedPerformanceCounter extends ManagedCounter implement
         totalProcessingTime.reset();
         lastProcessingTime.reset();
         deltaProcessingTime.reset();
-        meanProcessingTime.reset();
+        processingTimeHistogram.reset();
         firstExchangeCompletedTimestamp.reset();
         firstExchangeCompletedExchangeId = null;
         firstExchangeFailureTimestamp.reset();
@@ -130,7 +130,7 @@ public abstract class ManagedPerformanceCounter extends ManagedCounter implement
     }
 
     public long getMeanProcessingTime() throws Exception {
-        return meanProcessingTime.getValue();
+        return meanProcessingTime();
     }
 
     public long getMaxProcessingTime() throws Exception {
@@ -149,6 +149,18 @@ public abstract class ManagedPerformanceCounter extends ManagedCounter implement
         return deltaProcessingTime.getValue();
     }
 
+    public long getP50ProcessingTime() throws Exception {
+        return processingTimeHistogram.getValueAtPercentile(50);
+    }
+
+    public long getP99ProcessingTime() throws Exception {
+        return processingTimeHistogram.getValueAtPercentile(99);
+    }
+
+    public long getP999ProcessingTime() throws Exception {
+        return processingTimeHistogram.getValueAtPercentile(99.9);
+    }
+
     public Date getLastExchangeCompletedTimestamp() {
         long value = lastExchangeCompletedTimestamp.getValue();
         return value > 0 ? new Date(value) : null;
@@ -193,11 +205,11 @@ public abstract class ManagedPerformanceCounter extends ManagedCounter implement
         this.statisticsEnabled = statisticsEnabled;
     }
 
-    public synchronized void processExchange(Exchange exchange) {
+    public void processExchange(Exchange exchange) {
         exchangesInflight.increment();
     }
 
-    public synchronized void completedExchange(Exchange exchange, long time) {
+    public void completedExchange(Exchange exchange, long time) {
         increment();
         exchangesCompleted.increment();
         exchangesInflight.decrement();
@@ -215,25 +227,23 @@ public abstract class ManagedPerformanceCounter extends ManagedCounter implement
         totalProcessingTime.updateValue(time);
         lastProcessingTime.updateValue(time);
         deltaProcessingTime.updateValue(time);
+        processingTimeHistogram.recordValue(time);
 
-        long now = new Date().getTime();
-        if (firstExchangeCompletedTimestamp.getUpdateCount() == 0) {
-            firstExchangeCompletedTimestamp.updateValue(now);
+        long now = System.currentTimeMillis();
+        if (firstExchangeCompletedExchangeId == null) {
+            synchronized (this) {
+                if (firstExchangeCompletedExchangeId == null) {
+                    firstExchangeCompletedTimestamp.updateValue(now);
+                    firstExchangeCompletedExchangeId = exchange.getExchangeId();
+                }
+            }
         }
 
         lastExchangeCompletedTimestamp.updateValue(now);
-        if (firstExchangeCompletedExchangeId == null) {
-            firstExchangeCompletedExchangeId = exchange.getExchangeId();
-        }
         lastExchangeCompletedExchangeId = exchange.getExchangeId();
-
-        // update mean
-        long count = exchangesCompleted.getValue();
-        long mean = count > 0 ? totalProcessingTime.getValue() / count : 0;
-        meanProcessingTime.updateValue(mean);
     }
 
-    public synchronized void failedExchange(Exchange exchange) {
+    public void failedExchange(Exchange exchange) {
         increment();
         exchangesFailed.increment();
         exchangesInflight.decrement();
@@ -246,15 +256,17 @@ public abstract class ManagedPerformanceCounter extends ManagedCounter implement
             externalRedeliveries.increment();
         }
 
-        long now = new Date().getTime();
-        if (firstExchangeFailureTimestamp.getUpdateCount() == 0) {
-            firstExchangeFailureTimestamp.updateValue(now);
+        long now = System.currentTimeMillis();
+        if (firstExchangeFailureExchangeId == null) {
+            synchronized (this) {
+                if (firstExchangeFailureExchangeId == null) {
+                    firstExchangeFailureTimestamp.updateValue(now);
+                    firstExchangeFailureExchangeId = exchange.getExchangeId();
+                }
+            }
         }
 
         lastExchangeFailureTimestamp.updateValue(now);
-        if (firstExchangeFailureExchangeId == null) {
-            firstExchangeFailureExchangeId = exchange.getExchangeId();
-        }
         lastExchangeFailureExchangeId = exchange.getExchangeId();
     }
 
@@ -271,7 +283,10 @@ public abstract class ManagedPerformanceCounter extends ManagedCounter implement
         sb.append(String.format(" totalProcessingTime=\"%s\"", totalProcessingTime.getValue()));
         sb.append(String.format(" lastProcessingTime=\"%s\"", lastProcessingTime.getValue()));
         sb.append(String.format(" deltaProcessingTime=\"%s\"", deltaProcessingTime.getValue()));
-        sb.append(String.format(" meanProcessingTime=\"%s\"", meanProcessingTime.getValue()));
+        sb.append(String.format(" meanProcessingTime=\"%s\"", meanProcessingTime()));
+        sb.append(String.format(" p50ProcessingTime=\"%s\"", processingTimeHistogram.getValueAtPercentile(50)));
+        sb.append(String.format(" p99ProcessingTime=\"%s\"", processingTimeHistogram.getValueAtPercentile(99)));
+        sb.append(String.format(" p999ProcessingTime=\"%s\"", processingTimeHistogram.getValueAtPercentile(99.9)));
 
         if (fullStats) {
             sb.append(String.format(" startTimestamp=\"%s\"", dateAsString(startTimestamp.getValue())));
@@ -289,6 +304,12 @@ public abstract class ManagedPerformanceCounter extends ManagedCounter implement
         return sb.toString();
     }
 
+    private long meanProcessingTime() {
+        // the mean is calculated on demand to avoid updating it for every exchange
+        long count = exchangesCompleted.getValue();
+        return count > 0 ? totalProcessingTime.getValue() / count : 0;
+    }
+
     private static String dateAsString(long value) {
         if (value == 0) {
             return "";
@@ -113,4 +113,66 @@ public class ManagedResequencer extends ManagedProcessor implements ManagedReseq
             return streamProcessor.isRejectOld();
         }
     }
+
+    @Override
+    public String getGroupExpression() {
+        if (streamProcessor != null && streamProcessor.getGroupExpression() != null) {
+            return streamProcessor.getGroupExpression().toString();
+        } else {
+            return null;
+        }
+    }
+
+    @Override
+    public Integer getDeliveryThreads() {
+        if (processor != null) {
+            return null;
+        } else {
+            return streamProcessor.getDeliveryThreads();
+        }
+    }
+
+    @Override
+    public Integer getGroupCount() {
+        if (processor != null) {
+            return null;
+        } else {
+            return streamProcessor.getGroupCount();
+        }
+    }
+
+    @Override
+    public Integer getPendingExchanges() {
+        if (processor != null) {
+            return null;
+        } else {
+            return streamProcessor.getPendingExchanges();
+        }
+    }
+
+    @Override
+    public Long getGapCount() {
+        if (processor != null) {
+            return null;
+        } else {
+            return streamProcessor.getGapCount();
+        }
+    }
+
+    @Override
+    public Long getTimeoutCount() {
+        if (processor != null) {
+            return null;
+        } else {
+            return streamProcessor.getTimeoutCount();
+        }
+    }
+
+    @Override
+    public synchronized void reset() {
+        super.reset();
+        if (streamProcessor != null) {
+            streamProcessor.resetStatistics();
+        }
+    }
 }
@@ -483,7 +483,7 @@ public class ManagedRoute extends ManagedPerformanceCounter implements TimerList
     }
 
     @Override
-    public synchronized void processExchange(Exchange exchange) {
+    public void processExchange(Exchange exchange) {
         InFlightKey key = new InFlightKey(System.currentTimeMillis(), exchange.getExchangeId());
         InFlightKey oldKey = exchangesInFlightKeys.putIfAbsent(exchange.getExchangeId(), key);
         // we may already have the exchange being processed so only add to timestamp if its a new exchange
@@ -495,7 +495,7 @@ public class ManagedRoute extends ManagedPerformanceCounter implements TimerList
     }
 
     @Override
-    public synchronized void completedExchange(Exchange exchange, long time) {
+    public void completedExchange(Exchange exchange, long time) {
         InFlightKey key = exchangesInFlightKeys.remove(exchange.getExchangeId());
         if (key != null) {
             exchangesInFlightStartTimestamps.remove(key);
@@ -504,7 +504,7 @@ public class ManagedRoute extends ManagedPerformanceCounter implements TimerList
     }
 
     @Override
-    public synchronized void failedExchange(Exchange exchange) {
+    public void failedExchange(Exchange exchange) {
         InFlightKey key = exchangesInFlightKeys.remove(exchange.getExchangeId());
         if (key != null) {
             exchangesInFlightStartTimestamps.remove(key);
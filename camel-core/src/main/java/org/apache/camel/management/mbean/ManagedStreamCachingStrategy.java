@@ -106,6 +106,18 @@ public class ManagedStreamCachingStrategy extends ManagedService implements Mana
         return streamCachingStrategy.isAnySpoolRules();
     }
 
+    public StreamCachingStrategy.SpoolMode getSpoolMode() {
+        return streamCachingStrategy.getSpoolMode();
+    }
+
+    public long getSpoolOffHeapMemoryLimit() {
+        return streamCachingStrategy.getSpoolOffHeapMemoryLimit();
+    }
+
+    public int getSpoolOffHeapChunkSize() {
+        return streamCachingStrategy.getSpoolOffHeapChunkSize();
+    }
+
     public long getCacheMemoryCounter() {
         return streamCachingStrategy.getStatistics().getCacheMemoryCounter();
     }
@@ -130,6 +142,22 @@ public class ManagedStreamCachingStrategy extends ManagedService implements Mana
         return streamCachingStrategy.getStatistics().getCacheSpoolAverageSize();
     }
 
+    public long getSpoolOffHeapMemoryUsed() {
+        return streamCachingStrategy.getStatistics().getSpoolOffHeapMemoryUsed();
+    }
+
+    public long getSpoolOffHeapMemoryPooled() {
+        return streamCachingStrategy.getStatistics().getSpoolOffHeapMemoryPooled();
+    }
+
+    public long getSpoolOffHeapChunkReuseCounter() {
+        return streamCachingStrategy.getStatistics().getSpoolOffHeapChunkReuseCounter();
+    }
+
+    public long getSpoolOffHeapExhaustedCounter() {
+        return streamCachingStrategy.getStatistics().getSpoolOffHeapExhaustedCounter();
+    }
+
     public boolean isStatisticsEnabled() {
         return streamCachingStrategy.getStatistics().isStatisticsEnabled();
     }
@@ -16,11 +16,19 @@
  */
 package org.apache.camel.management.mbean;
 
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.CompositeDataSupport;
+import javax.management.openmbean.CompositeType;
+import javax.management.openmbean.TabularData;
+import javax.management.openmbean.TabularDataSupport;
+
 import org.apache.camel.CamelContext;
 import org.apache.camel.api.management.ManagedResource;
+import org.apache.camel.api.management.mbean.CamelOpenMBeanTypes;
 import org.apache.camel.api.management.mbean.ManagedThrottlerMBean;
 import org.apache.camel.model.ProcessorDefinition;
 import org.apache.camel.processor.Throttler;
+import org.apache.camel.util.ObjectHelper;
 
 import static org.apache.camel.builder.Builder.constant;
 
@@ -67,4 +75,35 @@ public class ManagedThrottler extends ManagedProcessor implements ManagedThrottl
     public Boolean isRejectExecution() {
         return throttler.isRejectExecution();
     }
+
+    public int getAvailablePermits() {
+        return throttler.getAvailablePermits();
+    }
+
+    public int getQueuedExchanges() {
+        return throttler.getQueuedExchanges();
+    }
+
+    public int getCorrelationKeysSize() {
+        return throttler.getCorrelationKeys().size();
+    }
+
+    public int getMaximumCorrelationKeys() {
+        return throttler.getMaximumCorrelationKeys();
+    }
+
+    public TabularData listCorrelationKeys() {
+        try {
+            TabularData answer = new TabularDataSupport(CamelOpenMBeanTypes.listThrottleCorrelationKeysTabularType());
+            for (Object key : throttler.getCorrelationKeys()) {
+                CompositeType ct = CamelOpenMBeanTypes.listThrottleCorrelationKeysCompositeType();
+                CompositeData data = new CompositeDataSupport(ct, new String[]{"key", "maximumRequestsPerPeriod", "availablePermits", "queued"},
+                        new Object[]{key.toString(), throttler.getCurrentMaximumRequestsPerPeriod(key), throttler.getAvailablePermits(key), throttler.getQueuedExchanges(key)});
+                answer.put(data);
+            }
+            return answer;
+        } catch (Exception e) {
+            throw ObjectHelper.wrapRuntimeCamelException(e);
+        }
+    }
 }
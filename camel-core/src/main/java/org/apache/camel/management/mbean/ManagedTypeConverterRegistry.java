@@ -117,4 +117,24 @@ public class ManagedTypeConverterRegistry extends ManagedService implements Mana
             throw ObjectHelper.wrapRuntimeCamelException(e);
         }
     }
+
+    public TabularData listTypeConversionStatistics() {
+        try {
+            TabularData answer = new TabularDataSupport(CamelOpenMBeanTypes.listTypeConversionStatisticsTabularType());
+            List<TypeConverterRegistry.TypeConversionStatistics> conversions = registry.getStatistics().getTypeConversionStatistics();
+            for (TypeConverterRegistry.TypeConversionStatistics entry : conversions) {
+                CompositeType ct = CamelOpenMBeanTypes.listTypeConversionStatisticsCompositeType();
+                // use the class name as the canonical name is not available for local and anonymous classes
+                String from = entry.getFromType().getName();
+                String to = entry.getToType().getName();
+                String converter = entry.getTypeConverter() != null ? entry.getTypeConverter().toString() : "";
+                CompositeData data = new CompositeDataSupport(ct, new String[]{"from", "to", "converter", "attempts", "hits", "fallbacks", "misses"},
+                        new Object[]{from, to, converter, entry.getAttemptCounter(), entry.getHitCounter(), entry.getFallbackCounter(), entry.getMissCounter()});
+                answer.put(data);
+            }
+            return answer;
+        } catch (Exception e) {
+            throw ObjectHelper.wrapRuntimeCamelException(e);
+        }
+    }
 }
@@ -16,8 +16,13 @@
  */
 package org.apache.camel.management.mbean;
 
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * Default implementation of {@link Statistic}
+ * <p/>
+ * The statistic is lock-free, so it can be updated concurrently by many threads without contention.
  */
 public class Statistic {
 
@@ -45,9 +50,12 @@ public class Statistic {
     }
 
     private final UpdateMode updateMode;
-    private long lastValue;
-    private long value;
-    private long updateCount;
+    // the counters are striped to avoid contention when many threads updates the same statistic
+    private final LongAdder counter;
+    private final AtomicLong value = new AtomicLong();
+    private final LongAdder updateCount = new LongAdder();
+    // the delta is calculated when updated, so its read in a single step
+    private volatile long delta;
 
     /**
      * Instantiates a new statistic.
@@ -58,77 +66,97 @@ public class Statistic {
      */
     public Statistic(String name, Object owner, UpdateMode updateMode) {
         this.updateMode = updateMode;
+        this.counter = updateMode == UpdateMode.COUNTER ? new LongAdder() : null;
+        this.value.set(initialValue());
     }
 
-    public synchronized void updateValue(long newValue) {
+    public void updateValue(long newValue) {
         switch (this.updateMode) {
         case COUNTER:
-            this.value += newValue;
+            counter.add(newValue);
             break;
         case VALUE:
-            this.value = newValue;
+            value.set(newValue);
             break;
         case DIFFERENCE:
-            this.value -= newValue;
-            if (this.value < 0) {
-                this.value = -this.value;
+            while (true) {
+                long current = value.get();
+                long answer = current - newValue;
+                if (value.compareAndSet(current, answer < 0 ? -answer : answer)) {
+                    break;
+                }
             }
             break;
         case DELTA:
-            if (updateCount > 0) {
-                this.lastValue = this.value;
-            }
-            this.value = newValue;
+            // the value before the first update is the initial value of 0, so the first delta is the new value
+            delta = newValue - value.getAndSet(newValue);
             break;
         case MAXIMUM:
-            // initialize value at first time
-            if (this.updateCount == 0 || this.value < newValue) {
-                this.value = newValue;
+            // the initial value is the lowest possible value
+            long max = value.get();
+            while (max < newValue && !value.compareAndSet(max, newValue)) {
+                max = value.get();
             }
             break;
         case MINIMUM:
-            // initialize value at first time
-            if (this.updateCount == 0 || this.value > newValue) {
-                this.value = newValue;
+            // the initial value is the highest possible value
+            long min = value.get();
+            while (min > newValue && !value.compareAndSet(min, newValue)) {
+                min = value.get();
             }
             break;
         default:
         }
-        this.updateCount++;
+        updateCount.increment();
     }
 
-    public synchronized void increment() {
+    public void increment() {
         updateValue(1);
     }
 
-    public synchronized void decrement() {
+    public void decrement() {
         updateValue(-1);
     }
 
-    public synchronized long getValue() {
-        if (updateMode == UpdateMode.DELTA) {
-            if (updateCount == 0) {
-                return this.value;
-            } else {
-                return this.value - this.lastValue;
-            }
-        } else {
-            return this.value;
+    public long getValue() {
+        switch (updateMode) {
+        case COUNTER:
+            return counter.sum();
+        case DELTA:
+            return delta;
+        case MAXIMUM:
+        case MINIMUM:
+            long answer = value.get();
+            return answer == initialValue() ? 0 : answer;
+        default:
+            return value.get();
         }
     }
 
-    public synchronized long getUpdateCount() {
-        return this.updateCount;
+    public long getUpdateCount() {
+        return updateCount.sum();
+    }
+
+    public void reset() {
+        if (counter != null) {
+            counter.reset();
+        }
+        value.set(initialValue());
+        delta = 0;
+        updateCount.reset();
     }
 
-    public synchronized void reset() {
-        this.value = 0;
-        this.lastValue = 0;
-        this.updateCount = 0;
+    private long initialValue() {
+        if (updateMode == UpdateMode.MAXIMUM) {
+            return Long.MIN_VALUE;
+        } else if (updateMode == UpdateMode.MINIMUM) {
+            return Long.MAX_VALUE;
+        }
+        return 0;
     }
 
     public String toString() {
-        return "" + value;
+        return "" + getValue();
     }
 
 }
@@ -77,7 +77,11 @@ public class DelayDefinition extends ExpressionNode implements ExecutorServiceAw
 
         boolean async = getAsyncDelayed() != null && getAsyncDelayed();
         boolean shutdownThreadPool = ProcessorDefinitionHelper.willCreateNewThreadPool(routeContext, this, async);
-        ScheduledExecutorService threadPool = ProcessorDefinitionHelper.getConfiguredScheduledExecutorService(routeContext, "Delay", this, async);
+        ScheduledExecutorService threadPool = ProcessorDefinitionHelper.getConfiguredScheduledExecutorService(routeContext, "Delay", this, false);
+        if (threadPool == null && async) {
+            // the default thread pool uses a timer as it can have many delayed exchanges
+            threadPool = routeContext.getCamelContext().getExecutorServiceManager().newDefaultTimerScheduledThreadPool(this, "Delay");
+        }
 
         Delayer answer = new Delayer(routeContext.getCamelContext(), childProcessor, delay, threadPool, shutdownThreadPool);
         if (getAsyncDelayed() != null) {
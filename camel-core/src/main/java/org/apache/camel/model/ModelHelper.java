@@ -16,6 +16,9 @@
  */
 package org.apache.camel.model;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringReader;
 import java.io.StringWriter;
@@ -23,16 +26,21 @@ import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLStreamException;
 
 import org.apache.camel.CamelContext;
 import org.apache.camel.NamedNode;
 import org.apache.camel.util.IOHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Helper for the Camel {@link org.apache.camel.model model} classes.
  */
 public final class ModelHelper {
 
+    private static final Logger LOG = LoggerFactory.getLogger(ModelHelper.class);
+
     private ModelHelper() {
         // utility class
     }
@@ -71,6 +79,15 @@ public final class ModelHelper {
      * @throws javax.xml.bind.JAXBException is thrown if error unmarshalling from xml to model
      */
     public static <T extends NamedNode> T createModelFromXml(CamelContext context, String xml, Class<T> type) throws JAXBException {
+        if (ModelParser.isSupported(context)) {
+            // parsing is much faster than creating the JAXB context, and if the xml is not supported then use JAXB
+            try {
+                return type.cast(ModelParser.getInstance().parse(new StringReader(xml)));
+            } catch (XMLStreamException e) {
+                LOG.debug("Cannot parse the xml using the model parser, will use JAXB instead. Reason: {}", e.getMessage());
+            }
+        }
+
         JAXBContext jaxbContext;
         if (context == null) {
             jaxbContext = createJAXBContext();
@@ -103,6 +120,24 @@ public final class ModelHelper {
      * @throws javax.xml.bind.JAXBException is thrown if error unmarshalling from xml to model
      */
     public static <T extends NamedNode> T createModelFromXml(CamelContext context, InputStream stream, Class<T> type) throws JAXBException {
+        if (ModelParser.isSupported(context)) {
+            // the stream must be read into memory so it can be unmarshalled using JAXB if not supported by the parser
+            byte[] data;
+            try {
+                ByteArrayOutputStream bos = new ByteArrayOutputStream();
+                IOHelper.copy(stream, bos);
+                data = bos.toByteArray();
+            } catch (IOException e) {
+                throw new JAXBException("Cannot read the xml", e);
+            }
+            try {
+                return type.cast(ModelParser.getInstance().parse(new ByteArrayInputStream(data)));
+            } catch (XMLStreamException e) {
+                LOG.debug("Cannot parse the xml using the model parser, will use JAXB instead. Reason: {}", e.getMessage());
+            }
+            stream = new ByteArrayInputStream(data);
+        }
+
         JAXBContext jaxbContext;
         if (context == null) {
             jaxbContext = createJAXBContext();
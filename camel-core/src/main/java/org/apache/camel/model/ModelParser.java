@@ -0,0 +1,909 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.model;
+
+import java.beans.Introspector;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.XMLConstants;
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAnyAttribute;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlElementRef;
+import javax.xml.bind.annotation.XmlElementWrapper;
+import javax.xml.bind.annotation.XmlElements;
+import javax.xml.bind.annotation.XmlEnumValue;
+import javax.xml.bind.annotation.XmlList;
+import javax.xml.bind.annotation.XmlNsForm;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlSchema;
+import javax.xml.bind.annotation.XmlTransient;
+import javax.xml.bind.annotation.XmlValue;
+import javax.xml.bind.annotation.adapters.XmlAdapter;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.impl.DefaultModelJAXBContextFactory;
+import org.apache.camel.util.IOHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Parses the XML representation of the Camel {@link org.apache.camel.model model}, such as the XML routes loaded
+ * by {@link org.apache.camel.CamelContext#loadRoutesDefinition(java.io.InputStream)}, using StAX.
+ * <p/>
+ * This is a faster alternative to unmarshalling using JAXB, as it does not have to create a
+ * {@link javax.xml.bind.JAXBContext} which is expensive in both time and memory. The XML is bound to the model
+ * classes from the same JAXB annotations as JAXB uses, which are introspected only once for all the model classes
+ * listed in the <tt>jaxb.index</tt> files of the {@link Constants#JAXB_CONTEXT_PACKAGES} packages (and the classes
+ * they refer to). The properties are set the same way as JAXB does, for example by setting the fields directly when
+ * the class uses {@link XmlAccessType#FIELD}, so the parser creates the same model as JAXB.
+ * <p/>
+ * The parser only supports the subset of JAXB which is used by the model. If the XML uses anything else,
+ * such as unknown elements, <tt>xsi:type</tt> attributes or values which JAXB would report as invalid, then a
+ * {@link XMLStreamException} is thrown, and the caller should unmarshal the XML using JAXB instead.
+ * <p/>
+ * <b>Important:</b> the parser is only used when loading routes and rests from XML using the
+ * {@link ModelCamelContext} API and {@link ModelHelper#createModelFromXml(CamelContext, String, Class)}.
+ * The <tt>camelContext</tt> and <tt>routeContext</tt> elements in Spring and Blueprint XML files are still unmarshalled
+ * using the JAXB binder of their namespace handlers. These elements use the factory beans of camel-spring and
+ * camel-blueprint, which are not part of the model, and the namespace handlers need the binder to look up the XML
+ * node of the expressions to resolve their namespaces.
+ */
+public final class ModelParser {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ModelParser.class);
+    private static final String DEFAULT = "##default";
+    private static ModelParser instance;
+    private static boolean unavailable;
+
+    private final Map<Class<?>, ClassInfo> classes = new LinkedHashMap<Class<?>, ClassInfo>();
+    private final Map<QName, ClassInfo> rootElements = new HashMap<QName, ClassInfo>();
+    private final XMLInputFactory factory;
+
+    private ModelParser(ClassLoader classLoader, String packages) throws IOException, ClassNotFoundException {
+        // introspect all the model classes the same as JAXB will do when creating the JAXB context
+        Deque<Class<?>> queue = new ArrayDeque<Class<?>>();
+        for (String packageName : packages.split(":")) {
+            for (String name : loadIndex(classLoader, packageName)) {
+                queue.add(classLoader.loadClass(packageName + "." + name));
+            }
+        }
+        while (!queue.isEmpty()) {
+            Class<?> type = queue.poll();
+            // the JDK classes are not model classes
+            if (!classes.containsKey(type) && !isLeafType(type) && !type.getName().startsWith("java")) {
+                ClassInfo info = new ClassInfo(type);
+                classes.put(type, info);
+                info.introspect(queue);
+                if (info.rootElement != null && rootElements.put(info.rootElement, info) != null) {
+                    throw new IllegalStateException("Duplicate root element " + info.rootElement);
+                }
+            }
+        }
+        // and then resolve the properties which refers to other classes
+        for (ClassInfo info : classes.values()) {
+            info.resolve();
+        }
+
+        factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    }
+
+    /**
+     * Gets the parser for the Camel model.
+     *
+     * @return the parser, or <tt>null</tt> if the model classes could not be introspected, in which case JAXB
+     * must be used instead
+     */
+    public static synchronized ModelParser getInstance() {
+        if (instance == null && !unavailable) {
+            try {
+                // must use classloader from CamelContext the same way as the JAXB context
+                instance = new ModelParser(CamelContext.class.getClassLoader(), Constants.JAXB_CONTEXT_PACKAGES);
+            } catch (Exception e) {
+                setUnavailable(e);
+            } catch (LinkageError e) {
+                setUnavailable(e);
+            }
+        }
+        return instance;
+    }
+
+    private static void setUnavailable(Throwable cause) {
+        // only try and log once, as JAXB works without the parser
+        unavailable = true;
+        LOG.warn("Cannot introspect the model classes, will use JAXB to unmarshal the xml instead. Reason: " + cause.getMessage(), cause);
+    }
+
+    /**
+     * Whether the parser can be used instead of JAXB for the given {@link CamelContext}, which is only the case
+     * if the {@link org.apache.camel.spi.ModelJAXBContextFactory} is the default, as a custom factory can add
+     * other classes to the JAXB context, and the parser could be created.
+     *
+     * @param context the CamelContext, can be <tt>null</tt> when the default JAXB context is used
+     */
+    public static boolean isSupported(CamelContext context) {
+        boolean defaultFactory = context == null || context.getModelJAXBContextFactory().getClass() == DefaultModelJAXBContextFactory.class;
+        return defaultFactory && getInstance() != null;
+    }
+
+    /**
+     * Parses the XML.
+     *
+     * @param is the XML
+     * @return the model, such as {@link RoutesDefinition} or {@link RouteDefinition}
+     * @throws XMLStreamException is thrown if the XML is invalid, or uses XML which is not supported by this parser
+     */
+    public Object parse(InputStream is) throws XMLStreamException {
+        return parse(factory.createXMLStreamReader(is));
+    }
+
+    /**
+     * Parses the XML.
+     *
+     * @param reader the XML
+     * @return the model, such as {@link RoutesDefinition} or {@link RouteDefinition}
+     * @throws XMLStreamException is thrown if the XML is invalid, or uses XML which is not supported by this parser
+     */
+    public Object parse(Reader reader) throws XMLStreamException {
+        return parse(factory.createXMLStreamReader(reader));
+    }
+
+    private Object parse(XMLStreamReader reader) throws XMLStreamException {
+        try {
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    ClassInfo info = rootElements.get(reader.getName());
+                    if (info == null) {
+                        throw failure(reader, "Unknown root element " + reader.getName());
+                    }
+                    return info.parse(reader);
+                } else if (event == XMLStreamConstants.DTD) {
+                    throw failure(reader, "DTD is not supported");
+                }
+            }
+            throw new XMLStreamException("No root element");
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static List<String> loadIndex(ClassLoader classLoader, String packageName) throws IOException {
+        List<String> answer = new ArrayList<String>();
+        URL url = classLoader.getResource(packageName.replace('.', '/') + "/jaxb.index");
+        if (url == null) {
+            return answer;
+        }
+        BufferedReader reader = IOHelper.buffered(new InputStreamReader(url.openStream(), "UTF-8"));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    answer.add(line);
+                }
+            }
+        } finally {
+            IOHelper.close(reader);
+        }
+        return answer;
+    }
+
+    private static XMLStreamException failure(XMLStreamReader reader, String message) {
+        return new XMLStreamException(message, reader.getLocation());
+    }
+
+    private static boolean isLeafType(Class<?> type) {
+        return type.isPrimitive() || type.isEnum() || type == String.class || type == Boolean.class
+                || type == Integer.class || type == Long.class || type == Short.class || type == Byte.class
+                || type == Double.class || type == Float.class;
+    }
+
+    private static boolean hasBindingAnnotation(AnnotatedElement... elements) {
+        for (AnnotatedElement element : elements) {
+            if (element != null) {
+                for (Annotation annotation : element.getDeclaredAnnotations()) {
+                    String name = annotation.annotationType().getName();
+                    if (name.startsWith("javax.xml.bind.annotation.") && !(annotation instanceof XmlTransient)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static <A extends Annotation> A annotation(Class<A> type, AnnotatedElement... elements) {
+        for (AnnotatedElement element : elements) {
+            if (element != null && element.getAnnotation(type) != null) {
+                return element.getAnnotation(type);
+            }
+        }
+        return null;
+    }
+
+    private static Class<?> rawType(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        } else if (type instanceof ParameterizedType) {
+            return rawType(((ParameterizedType) type).getRawType());
+        } else if (type instanceof WildcardType) {
+            return rawType(((WildcardType) type).getUpperBounds()[0]);
+        } else if (type instanceof GenericArrayType) {
+            return Object[].class;
+        }
+        // type variables are not supported
+        return null;
+    }
+
+    private static String namespace(Class<?> type) {
+        XmlSchema schema = type.getPackage() != null ? type.getPackage().getAnnotation(XmlSchema.class) : null;
+        return schema != null ? schema.namespace() : "";
+    }
+
+    private static String elementNamespace(Class<?> declaringClass, String namespace) {
+        if (!DEFAULT.equals(namespace)) {
+            return namespace;
+        }
+        XmlSchema schema = declaringClass.getPackage() != null ? declaringClass.getPackage().getAnnotation(XmlSchema.class) : null;
+        return schema != null && schema.elementFormDefault() == XmlNsForm.QUALIFIED ? schema.namespace() : "";
+    }
+
+    /**
+     * The binding of a model class.
+     */
+    private final class ClassInfo {
+        private final Class<?> type;
+        private QName rootElement;
+        private Constructor<?> constructor;
+        private final List<Property> properties = new ArrayList<Property>();
+        private final Map<String, Property> attributes = new HashMap<String, Property>();
+        private final Map<QName, Binding> elements = new HashMap<QName, Binding>();
+        private Property value;
+        private Property anyAttribute;
+        // the reason why this class cannot be parsed
+        private String unsupported;
+
+        ClassInfo(Class<?> type) {
+            this.type = type;
+        }
+
+        void introspect(Deque<Class<?>> queue) {
+            XmlRootElement root = type.getAnnotation(XmlRootElement.class);
+            if (root != null) {
+                String name = root.name();
+                if (DEFAULT.equals(name)) {
+                    String simpleName = type.getSimpleName();
+                    if (simpleName.length() > 1 && Character.isUpperCase(simpleName.charAt(1))) {
+                        unsupported("Cannot compute the default root element name of " + type.getName());
+                    }
+                    name = Introspector.decapitalize(simpleName);
+                }
+                String namespace = DEFAULT.equals(root.namespace()) ? namespace(type) : root.namespace();
+                rootElement = new QName(namespace, name);
+            }
+
+            if (!Modifier.isAbstract(type.getModifiers()) && !type.isInterface()) {
+                try {
+                    constructor = type.getDeclaredConstructor();
+                    constructor.setAccessible(true);
+                } catch (NoSuchMethodException e) {
+                    unsupported("No default constructor");
+                }
+            }
+
+            for (Class<?> clazz = type; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+                introspect(clazz, queue);
+                queue.add(clazz);
+            }
+        }
+
+        private void introspect(Class<?> clazz, Deque<Class<?>> queue) {
+            XmlAccessorType accessorType = clazz.getAnnotation(XmlAccessorType.class);
+            XmlAccessType access = accessorType != null ? accessorType.value() : XmlAccessType.PUBLIC_MEMBER;
+
+            for (Field field : clazz.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || field.isSynthetic() || field.isAnnotationPresent(XmlTransient.class)) {
+                    continue;
+                }
+                AnnotatedElement annotated = field;
+                boolean bound = hasBindingAnnotation(annotated);
+                if (!bound && !Modifier.isTransient(modifiers)) {
+                    bound = access == XmlAccessType.FIELD || (access == XmlAccessType.PUBLIC_MEMBER && Modifier.isPublic(modifiers));
+                }
+                if (bound) {
+                    field.setAccessible(true);
+                    addProperty(field.getName(), field.getGenericType(), new Accessor(field, null, null), queue, annotated);
+                }
+            }
+
+            // the getter/setter pairs are only bound if they are annotated
+            Map<String, Boolean> done = new HashMap<String, Boolean>();
+            for (Method method : clazz.getDeclaredMethods()) {
+                if (Modifier.isStatic(method.getModifiers()) || method.isBridge() || method.isSynthetic()) {
+                    continue;
+                }
+                String name = propertyName(method);
+                if (name == null || done.containsKey(name)) {
+                    continue;
+                }
+                Method getter = findGetter(clazz, name);
+                Method setter = findSetter(clazz, name, getter != null ? getter.getReturnType() : null);
+                AnnotatedElement annotatedGetter = getter;
+                AnnotatedElement annotatedSetter = setter;
+                if (hasBindingAnnotation(annotatedGetter, annotatedSetter)
+                        && annotation(XmlTransient.class, annotatedGetter, annotatedSetter) == null) {
+                    done.put(name, Boolean.TRUE);
+                    Type genericType = getter != null ? getter.getGenericReturnType() : setter.getGenericParameterTypes()[0];
+                    if (getter != null) {
+                        getter.setAccessible(true);
+                    }
+                    if (setter != null) {
+                        setter.setAccessible(true);
+                    }
+                    addProperty(name, genericType, new Accessor(null, getter, setter), queue, annotatedSetter, annotatedGetter);
+                }
+            }
+        }
+
+        private void addProperty(String name, Type genericType, Accessor accessor, Deque<Class<?>> queue, AnnotatedElement... annotated) {
+            Property property = new Property(this, name, accessor);
+            properties.add(property);
+
+            Class<?> rawType = rawType(genericType);
+            if (rawType == null) {
+                property.unsupported = "Property " + name + " has unsupported type " + genericType;
+                return;
+            }
+            Type itemType = genericType;
+            if (Collection.class.isAssignableFrom(rawType)) {
+                property.collection = true;
+                itemType = genericType instanceof ParameterizedType ? ((ParameterizedType) genericType).getActualTypeArguments()[0] : Object.class;
+            }
+            property.type = rawType(itemType);
+
+            XmlJavaTypeAdapter adapter = annotation(XmlJavaTypeAdapter.class, annotated);
+            if (adapter != null) {
+                property.adapt(adapter.value(), rawType);
+                if (property.adapter != null) {
+                    queue.add(property.type);
+                }
+            }
+
+            if (annotation(XmlAnyAttribute.class, annotated) != null) {
+                if (!Map.class.isAssignableFrom(rawType)) {
+                    property.unsupported = "Property " + name + " must be a Map";
+                }
+                anyAttribute = property;
+            } else if (annotation(XmlValue.class, annotated) != null) {
+                value = property;
+            } else if (annotation(XmlAttribute.class, annotated) != null) {
+                XmlAttribute attribute = annotation(XmlAttribute.class, annotated);
+                String attributeName = DEFAULT.equals(attribute.name()) ? name : attribute.name();
+                if (!DEFAULT.equals(attribute.namespace()) && !attribute.namespace().isEmpty()) {
+                    property.unsupported = "Attribute " + attributeName + " uses a namespace";
+                }
+                if (property.collection && annotation(XmlList.class, annotated) == null) {
+                    property.unsupported = "Attribute " + attributeName + " must be a list";
+                }
+                property.list = property.collection;
+                attributes.put(attributeName, property);
+            } else if (annotation(XmlElementRef.class, annotated) != null) {
+                XmlElementRef ref = annotation(XmlElementRef.class, annotated);
+                if (!DEFAULT.equals(ref.name())) {
+                    property.unsupported = "Element reference by name is not supported";
+                }
+                if (ref.type() != XmlElementRef.DEFAULT.class) {
+                    property.type = ref.type();
+                }
+                property.reference = true;
+            } else if (annotation(XmlElements.class, annotated) != null) {
+                for (XmlElement element : annotation(XmlElements.class, annotated).value()) {
+                    Class<?> elementType = element.type() != XmlElement.DEFAULT.class ? element.type() : property.type;
+                    String elementName = DEFAULT.equals(element.name()) ? name : element.name();
+                    QName qname = new QName(elementNamespace(accessor.declaringClass(), element.namespace()), elementName);
+                    addElement(qname, new Binding(property, elementType, null));
+                    queue.add(elementType);
+                }
+            } else {
+                XmlElement element = annotation(XmlElement.class, annotated);
+                String elementName = element == null || DEFAULT.equals(element.name()) ? name : element.name();
+                String namespace = element != null ? element.namespace() : DEFAULT;
+                Class<?> elementType = element != null && element.type() != XmlElement.DEFAULT.class ? element.type() : property.type;
+                QName qname = new QName(elementNamespace(accessor.declaringClass(), namespace), elementName);
+                XmlElementWrapper wrapper = annotation(XmlElementWrapper.class, annotated);
+                if (wrapper != null) {
+                    String wrapperName = DEFAULT.equals(wrapper.name()) ? name : wrapper.name();
+                    QName wrapperQName = new QName(elementNamespace(accessor.declaringClass(), wrapper.namespace()), wrapperName);
+                    Binding binding = new Binding(property, null, null);
+                    binding.wrapped = new Binding(property, elementType, qname);
+                    addElement(wrapperQName, binding);
+                } else {
+                    addElement(qname, new Binding(property, elementType, null));
+                }
+                if (elementType != null) {
+                    queue.add(elementType);
+                }
+            }
+        }
+
+        private void addElement(QName name, Binding binding) {
+            if (elements.put(name, binding) != null) {
+                unsupported("Duplicate element " + name);
+            }
+        }
+
+        private String propertyName(Method method) {
+            String name = method.getName();
+            int params = method.getParameterTypes().length;
+            if (name.startsWith("get") && name.length() > 3 && params == 0 && method.getReturnType() != Void.TYPE) {
+                return Introspector.decapitalize(name.substring(3));
+            } else if (name.startsWith("is") && name.length() > 2 && params == 0 && method.getReturnType() != Void.TYPE) {
+                return Introspector.decapitalize(name.substring(2));
+            } else if (name.startsWith("set") && name.length() > 3 && params == 1) {
+                return Introspector.decapitalize(name.substring(3));
+            }
+            return null;
+        }
+
+        private Method findGetter(Class<?> clazz, String name) {
+            String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+            for (Method method : clazz.getDeclaredMethods()) {
+                if (!method.isBridge() && method.getParameterTypes().length == 0 && method.getReturnType() != Void.TYPE
+                        && (method.getName().equals("get" + capitalized) || method.getName().equals("is" + capitalized))) {
+                    return method;
+                }
+            }
+            return null;
+        }
+
+        private Method findSetter(Class<?> clazz, String name, Class<?> type) {
+            String setterName = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+            Method answer = null;
+            for (Method method : clazz.getDeclaredMethods()) {
+                if (!method.isBridge() && method.getName().equals(setterName) && method.getParameterTypes().length == 1
+                        && (type == null || method.getParameterTypes()[0] == type)) {
+                    answer = method;
+                }
+            }
+            return answer;
+        }
+
+        void resolve() {
+            for (Property property : properties) {
+                if (property.reference) {
+                    // an element reference accepts all the root elements of the model classes of the type
+                    for (ClassInfo info : classes.values()) {
+                        if (info.rootElement != null && property.type != null && property.type.isAssignableFrom(info.type)) {
+                            addElement(info.rootElement, new Binding(property, info.type, null));
+                        }
+                    }
+                }
+            }
+            for (Binding binding : elements.values()) {
+                binding.resolve();
+                if (binding.wrapped != null) {
+                    binding.wrapped.resolve();
+                }
+            }
+            if (value != null) {
+                value.leaf = true;
+            }
+        }
+
+        private void unsupported(String reason) {
+            if (unsupported == null) {
+                unsupported = reason;
+            }
+        }
+
+        Object parse(XMLStreamReader reader) throws XMLStreamException {
+            if (unsupported != null || constructor == null) {
+                throw failure(reader, "Cannot parse " + type.getName() + ": " + (unsupported != null ? unsupported : "abstract class"));
+            }
+            Object bean;
+            try {
+                bean = constructor.newInstance();
+            } catch (Exception e) {
+                throw new XMLStreamException("Cannot create " + type.getName(), reader.getLocation(), e);
+            }
+
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                String namespace = reader.getAttributeNamespace(i);
+                String localName = reader.getAttributeLocalName(i);
+                if (XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI.equals(namespace)) {
+                    if ("type".equals(localName) || "nil".equals(localName)) {
+                        throw failure(reader, "Attribute xsi:" + localName + " is not supported");
+                    }
+                    // other xsi attributes are not for the model
+                    continue;
+                }
+                Property property = namespace == null || namespace.isEmpty() ? attributes.get(localName) : null;
+                if (property != null) {
+                    property.set(reader, bean, property.convert(reader, reader.getAttributeValue(i)));
+                } else if (anyAttribute != null) {
+                    anyAttribute.check(reader);
+                    Map<QName, Object> map = anyAttribute.getMap(bean);
+                    String prefix = reader.getAttributePrefix(i);
+                    map.put(new QName(namespace != null ? namespace : "", localName, prefix != null ? prefix : ""), reader.getAttributeValue(i));
+                } else {
+                    throw failure(reader, "Unknown attribute " + localName + " in " + type.getName());
+                }
+            }
+
+            Map<Property, Collection<Object>> collections = null;
+            StringBuilder text = null;
+            while (true) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    Binding binding = elements.get(reader.getName());
+                    if (binding == null) {
+                        throw failure(reader, "Unknown element " + reader.getName() + " in " + type.getName());
+                    }
+                    if (binding.wrapped != null) {
+                        // the wrapper element is where the collection starts
+                        collections = binding.property.collection(reader, bean, collections);
+                        parseWrapped(reader, bean, binding.wrapped, collections);
+                    } else {
+                        Object child = binding.parse(reader);
+                        binding.property.add(reader, bean, child, collections = binding.property.collection(reader, bean, collections));
+                    }
+                } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                        || event == XMLStreamConstants.SPACE) {
+                    if (value != null) {
+                        if (text == null) {
+                            text = new StringBuilder();
+                        }
+                        text.append(reader.getText());
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if (value != null) {
+                        // JAXB sets the value even if there is no text
+                        value.set(reader, bean, value.convert(reader, text != null ? text.toString() : ""));
+                    }
+                    return bean;
+                } else if (event == XMLStreamConstants.ENTITY_REFERENCE || event == XMLStreamConstants.DTD) {
+                    throw failure(reader, "Entity references are not supported");
+                }
+            }
+        }
+
+        private void parseWrapped(XMLStreamReader reader, Object bean, Binding binding, Map<Property, Collection<Object>> collections)
+            throws XMLStreamException {
+            while (true) {
+                int event = reader.nextTag();
+                if (event == XMLStreamConstants.END_ELEMENT) {
+                    return;
+                }
+                if (!binding.name.equals(reader.getName())) {
+                    throw failure(reader, "Unknown element " + reader.getName() + " in " + type.getName());
+                }
+                binding.property.add(reader, bean, binding.parse(reader), collections);
+            }
+        }
+    }
+
+    /**
+     * The binding of an element to a property.
+     */
+    private final class Binding {
+        private final Property property;
+        private final Class<?> type;
+        // the element name of the items in a wrapper element
+        private final QName name;
+        private Binding wrapped;
+        private ClassInfo info;
+
+        Binding(Property property, Class<?> type, QName name) {
+            this.property = property;
+            this.type = type;
+            this.name = name;
+        }
+
+        void resolve() {
+            Class<?> elementType = property.adapter != null ? property.type : type;
+            if (elementType != null && !isLeafType(elementType)) {
+                info = classes.get(elementType);
+            }
+        }
+
+        Object parse(XMLStreamReader reader) throws XMLStreamException {
+            Object answer;
+            if (info != null) {
+                answer = info.parse(reader);
+            } else {
+                Class<?> elementType = property.adapter != null ? property.type : type;
+                if (elementType == null || !isLeafType(elementType)) {
+                    throw failure(reader, "Cannot parse element " + reader.getName() + " of type " + elementType);
+                }
+                answer = convertLeaf(reader, elementType, reader.getElementText());
+            }
+            return property.adapt(reader, answer);
+        }
+    }
+
+    /**
+     * A bound property of a model class.
+     */
+    private final class Property {
+        private final ClassInfo owner;
+        private final String name;
+        private final Accessor accessor;
+        // the type of the property, or the items if the property is a collection, or the value type of the adapter
+        private Class<?> type;
+        private boolean collection;
+        private boolean list;
+        private boolean reference;
+        private boolean leaf;
+        private XmlAdapter<Object, Object> adapter;
+        private String unsupported;
+
+        Property(ClassInfo owner, String name, Accessor accessor) {
+            this.owner = owner;
+            this.name = name;
+            this.accessor = accessor;
+        }
+
+        @SuppressWarnings("unchecked")
+        void adapt(Class<? extends XmlAdapter> adapterType, Class<?> rawType) {
+            // find the value type and bound type of the adapter
+            Type valueType = null;
+            Type boundType = null;
+            for (Type t = adapterType; t != null && t != Object.class;) {
+                if (t instanceof ParameterizedType && ((ParameterizedType) t).getRawType() == XmlAdapter.class) {
+                    valueType = ((ParameterizedType) t).getActualTypeArguments()[0];
+                    boundType = ((ParameterizedType) t).getActualTypeArguments()[1];
+                    break;
+                }
+                Class<?> raw = rawType(t);
+                t = raw != null ? raw.getGenericSuperclass() : null;
+            }
+            if (valueType == null || rawType(valueType) == null || rawType(boundType) == null) {
+                unsupported = "Cannot resolve the types of the adapter " + adapterType.getName();
+                return;
+            }
+            if (collection && !rawType(boundType).isAssignableFrom(rawType)) {
+                unsupported = "Adapters of the items of a collection is not supported";
+                return;
+            }
+            try {
+                Constructor<? extends XmlAdapter> constructor = adapterType.getDeclaredConstructor();
+                constructor.setAccessible(true);
+                adapter = constructor.newInstance();
+            } catch (Exception e) {
+                unsupported = "Cannot create the adapter " + adapterType.getName();
+                return;
+            }
+            // the adapter converts the whole property
+            collection = false;
+            type = rawType(valueType);
+        }
+
+        Object adapt(XMLStreamReader reader, Object value) throws XMLStreamException {
+            if (adapter == null) {
+                return value;
+            }
+            try {
+                return adapter.unmarshal(value);
+            } catch (Exception e) {
+                throw new XMLStreamException("Cannot adapt the value of " + name, reader.getLocation(), e);
+            }
+        }
+
+        void check(XMLStreamReader reader) throws XMLStreamException {
+            if (unsupported != null) {
+                throw failure(reader, "Cannot parse " + owner.type.getName() + ": " + unsupported);
+            }
+        }
+
+        Object convert(XMLStreamReader reader, String text) throws XMLStreamException {
+            check(reader);
+            if (list) {
+                List<Object> answer = new ArrayList<Object>();
+                for (String token : text.trim().split("\\s+")) {
+                    if (!token.isEmpty()) {
+                        answer.add(convertLeaf(reader, type, token));
+                    }
+                }
+                return answer;
+            }
+            if (adapter != null) {
+                return adapt(reader, convertLeaf(reader, type, text));
+            }
+            return convertLeaf(reader, type, text);
+        }
+
+        void set(XMLStreamReader reader, Object bean, Object value) throws XMLStreamException {
+            check(reader);
+            try {
+                accessor.set(bean, value);
+            } catch (Exception e) {
+                throw new XMLStreamException("Cannot set property " + name + " on " + owner.type.getName(), reader.getLocation(), e);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<QName, Object> getMap(Object bean) throws XMLStreamException {
+            try {
+                Map<QName, Object> map = (Map<QName, Object>) accessor.get(bean);
+                if (map == null) {
+                    map = new HashMap<QName, Object>();
+                    accessor.set(bean, map);
+                }
+                return map;
+            } catch (Exception e) {
+                throw new XMLStreamException("Cannot get property " + name + " on " + owner.type.getName(), e);
+            }
+        }
+
+        /**
+         * Starts the collection the first time an element of the property is parsed, which clears the existing
+         * collection the same way as JAXB.
+         */
+        @SuppressWarnings("unchecked")
+        Map<Property, Collection<Object>> collection(XMLStreamReader reader, Object bean, Map<Property, Collection<Object>> collections)
+            throws XMLStreamException {
+            check(reader);
+            if (!collection || (collections != null && collections.containsKey(this))) {
+                return collections;
+            }
+            Map<Property, Collection<Object>> answer = collections != null ? collections : new IdentityHashMap<Property, Collection<Object>>();
+            try {
+                Collection<Object> value = (Collection<Object>) accessor.get(bean);
+                if (value == null) {
+                    value = new ArrayList<Object>();
+                    accessor.set(bean, value);
+                }
+                value.clear();
+                answer.put(this, value);
+            } catch (Exception e) {
+                throw new XMLStreamException("Cannot get property " + name + " on " + owner.type.getName(), reader.getLocation(), e);
+            }
+            return answer;
+        }
+
+        void add(XMLStreamReader reader, Object bean, Object value, Map<Property, Collection<Object>> collections) throws XMLStreamException {
+            if (collection) {
+                collections.get(this).add(value);
+            } else {
+                set(reader, bean, value);
+            }
+        }
+    }
+
+    /**
+     * Accesses a property using the field, or the getter and setter methods.
+     */
+    private static final class Accessor {
+        private final Field field;
+        private final Method getter;
+        private final Method setter;
+
+        Accessor(Field field, Method getter, Method setter) {
+            this.field = field;
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        Class<?> declaringClass() {
+            AccessibleObject member = field != null ? field : getter != null ? getter : setter;
+            return member instanceof Field ? ((Field) member).getDeclaringClass() : ((Method) member).getDeclaringClass();
+        }
+
+        Object get(Object bean) throws Exception {
+            if (field != null) {
+                return field.get(bean);
+            } else if (getter != null) {
+                return getter.invoke(bean);
+            }
+            throw new IllegalStateException("No getter");
+        }
+
+        void set(Object bean, Object value) throws Exception {
+            if (field != null) {
+                field.set(bean, value);
+            } else if (setter != null) {
+                setter.invoke(bean, value);
+            } else {
+                throw new IllegalStateException("No setter");
+            }
+        }
+    }
+
+    /**
+     * Converts the text to the leaf type the same way as JAXB, and fails if JAXB would consider the value invalid.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object convertLeaf(XMLStreamReader reader, Class<?> type, String text) throws XMLStreamException {
+        if (type == String.class) {
+            return text;
+        }
+        String value = text.trim();
+        try {
+            if (type == Boolean.class || type == boolean.class) {
+                if ("true".equals(value) || "1".equals(value)) {
+                    return Boolean.TRUE;
+                } else if ("false".equals(value) || "0".equals(value)) {
+                    return Boolean.FALSE;
+                }
+            } else if (type == Integer.class || type == int.class) {
+                return Integer.valueOf(value);
+            } else if (type == Long.class || type == long.class) {
+                return Long.valueOf(value);
+            } else if (type == Short.class || type == short.class) {
+                return Short.valueOf(value);
+            } else if (type == Byte.class || type == byte.class) {
+                return Byte.valueOf(value);
+            } else if ((type == Double.class || type == double.class) && value.matches("[-+]?[0-9]*\\.?[0-9]+([eE][-+]?[0-9]+)?")) {
+                return Double.valueOf(value);
+            } else if ((type == Float.class || type == float.class) && value.matches("[-+]?[0-9]*\\.?[0-9]+([eE][-+]?[0-9]+)?")) {
+                return Float.valueOf(value);
+            } else if (type.isEnum()) {
+                for (Object constant : type.getEnumConstants()) {
+                    Enum e = (Enum) constant;
+                    XmlEnumValue enumValue = type.getField(e.name()).getAnnotation(XmlEnumValue.class);
+                    if (value.equals(enumValue != null ? enumValue.value() : e.name())) {
+                        return e;
+                    }
+                }
+            }
+        } catch (NumberFormatException e) {
+            // invalid value
+        } catch (NoSuchFieldException e) {
+            // cannot happen for enum constants
+        }
+        throw failure(reader, "Invalid value " + text + " for type " + type.getName());
+    }
+
+}
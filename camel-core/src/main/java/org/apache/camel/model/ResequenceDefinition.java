@@ -197,6 +197,36 @@ public class ResequenceDefinition extends ProcessorDefinition<ResequenceDefiniti
 
     }
 
+    /**
+     * Resequences the messages per group for the stream resequencer, such as per customer, where the
+     * messages of each group are resequenced independently of the other groups.
+     *
+     * @param groupExpression  the expression to evaluate the group
+     * @return the builder
+     */
+    public ResequenceDefinition groupExpression(Expression groupExpression) {
+        if (streamConfig == null) {
+            throw new IllegalStateException("groupExpression() only supported for stream resequencer");
+        }
+        streamConfig.setGroupExpression(new ExpressionSubElementDefinition(groupExpression));
+        return this;
+    }
+
+    /**
+     * Sets the number of threads which delivers the resequenced messages for the stream resequencer,
+     * when resequencing per group.
+     *
+     * @param deliveryThreads  the number of threads
+     * @return the builder
+     */
+    public ResequenceDefinition deliveryThreads(int deliveryThreads) {
+        if (streamConfig == null) {
+            throw new IllegalStateException("deliveryThreads() only supported for stream resequencer");
+        }
+        streamConfig.setDeliveryThreads(deliveryThreads);
+        return this;
+    }
+
     /**
      * Enables duplicates for the batch resequencer mode
      * @return the builder
@@ -410,6 +440,12 @@ public class ResequenceDefinition extends ProcessorDefinition<ResequenceDefiniti
         if (config.getIgnoreInvalidExchanges() != null) {
             resequencer.setIgnoreInvalidExchanges(config.getIgnoreInvalidExchanges());
         }
+        if (config.getGroupExpression() != null) {
+            resequencer.setGroupExpression(config.getGroupExpression().createExpression(routeContext));
+        }
+        if (config.getDeliveryThreads() != null) {
+            resequencer.setDeliveryThreads(config.getDeliveryThreads());
+        }
         return resequencer;
     }
 
@@ -73,6 +73,10 @@ public class SplitDefinition extends ExpressionNode implements ExecutorServiceAw
     private Boolean shareUnitOfWork;
     @XmlAttribute
     private Boolean parallelAggregate;
+    @XmlAttribute
+    private Integer maxInflightExchanges;
+    @XmlAttribute
+    private Boolean streamingOrdered;
 
     public SplitDefinition() {
     }
@@ -111,6 +115,10 @@ public class SplitDefinition extends ExpressionNode implements ExecutorServiceAw
         if (timeout > 0 && !isParallelProcessing) {
             throw new IllegalArgumentException("Timeout is used but ParallelProcessing has not been enabled.");
         }
+        int maxInflight = getMaxInflightExchanges() != null ? getMaxInflightExchanges() : 0;
+        if (maxInflight > 0 && !isParallelProcessing) {
+            throw new IllegalArgumentException("MaxInflightExchanges is used but ParallelProcessing has not been enabled.");
+        }
         if (onPrepareRef != null) {
             onPrepare = CamelContextHelper.mandatoryLookup(routeContext.getCamelContext(), onPrepareRef, Processor.class);
         }
@@ -120,6 +128,8 @@ public class SplitDefinition extends ExpressionNode implements ExecutorServiceAw
         Splitter answer = new Splitter(routeContext.getCamelContext(), exp, childProcessor, aggregationStrategy,
                             isParallelProcessing, threadPool, shutdownThreadPool, isStreaming, isStopOnException(),
                             timeout, onPrepare, isShareUnitOfWork, isParallelAggregate);
+        answer.setMaxInflightExchanges(maxInflight);
+        answer.setStreamingOrdered(getStreamingOrdered() != null && getStreamingOrdered());
         return answer;
     }
 
@@ -253,6 +263,38 @@ public class SplitDefinition extends ExpressionNode implements ExecutorServiceAw
         return this;
     }
     
+    /**
+     * When in streaming mode with parallel processing, then the replies are aggregated in the same order as the
+     * messages was splitted, instead of the order they come back.
+     * <p/>
+     * Use this together with {@link #maxInflightExchanges(int)} to keep the memory bounded, as the replies
+     * which come back before their predecessors must be kept in memory until they can be aggregated.
+     *
+     * @return the builder
+     */
+    public SplitDefinition streamingOrdered() {
+        setStreamingOrdered(true);
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of splitted messages which can be in-flight at the same time when using parallel
+     * processing, which is the messages being processed and the replies waiting to be aggregated.
+     * <p/>
+     * When the limit is reached then the splitter does not split any more messages until a reply has been aggregated.
+     * This applies back-pressure on the splitting, which together with streaming mode allows to split very big
+     * messages in parallel using bounded memory.
+     * <p/>
+     * By default there is no limit.
+     *
+     * @param maxInflightExchanges the maximum number of in-flight messages
+     * @return the builder
+     */
+    public SplitDefinition maxInflightExchanges(int maxInflightExchanges) {
+        setMaxInflightExchanges(maxInflightExchanges);
+        return this;
+    }
+
     /**
      * Will now stop further processing if an exception or failure occurred during processing of an
      * {@link org.apache.camel.Exchange} and the caused exception will be thrown.
@@ -392,6 +434,22 @@ public class SplitDefinition extends ExpressionNode implements ExecutorServiceAw
         this.parallelAggregate = parallelAggregate;
     }
 
+    public Integer getMaxInflightExchanges() {
+        return maxInflightExchanges;
+    }
+
+    public void setMaxInflightExchanges(Integer maxInflightExchanges) {
+        this.maxInflightExchanges = maxInflightExchanges;
+    }
+
+    public Boolean getStreamingOrdered() {
+        return streamingOrdered;
+    }
+
+    public void setStreamingOrdered(Boolean streamingOrdered) {
+        this.streamingOrdered = streamingOrdered;
+    }
+
     public Boolean getStopOnException() {
         return stopOnException;
     }
@@ -21,6 +21,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.XmlTransient;
 
@@ -43,6 +44,8 @@ import org.apache.camel.spi.RouteContext;
 public class ThrottleDefinition extends ExpressionNode implements ExecutorServiceAwareDefinition<ThrottleDefinition> {
     // TODO: Camel 3.0 Should not support outputs
 
+    @XmlElement(name = "correlationExpression")
+    private ExpressionSubElementDefinition correlationExpression;
     @XmlTransient
     private ExecutorService executorService;
     @XmlAttribute
@@ -55,7 +58,9 @@ public class ThrottleDefinition extends ExpressionNode implements ExecutorServic
     private Boolean callerRunsWhenRejected;
     @XmlAttribute
     private Boolean rejectExecution;
-    
+    @XmlAttribute @Metadata(defaultValue = "1000")
+    private Integer maximumCorrelationKeys;
+
     public ThrottleDefinition() {
     }
 
@@ -83,7 +88,11 @@ public class ThrottleDefinition extends ExpressionNode implements ExecutorServic
 
         boolean async = getAsyncDelayed() != null && getAsyncDelayed();
         boolean shutdownThreadPool = ProcessorDefinitionHelper.willCreateNewThreadPool(routeContext, this, async);
-        ScheduledExecutorService threadPool = ProcessorDefinitionHelper.getConfiguredScheduledExecutorService(routeContext, "Throttle", this, async);
+        ScheduledExecutorService threadPool = ProcessorDefinitionHelper.getConfiguredScheduledExecutorService(routeContext, "Throttle", this, false);
+        if (threadPool == null && async) {
+            // the default thread pool uses a timer as it can have many delayed exchanges
+            threadPool = routeContext.getCamelContext().getExecutorServiceManager().newDefaultTimerScheduledThreadPool(this, "Throttle");
+        }
         
         // should be default 1000 millis
         long period = getTimePeriodMillis() != null ? getTimePeriodMillis() : 1000L;
@@ -104,6 +113,12 @@ public class ThrottleDefinition extends ExpressionNode implements ExecutorServic
         } else {
             answer.setCallerRunsWhenRejected(getCallerRunsWhenRejected());
         }
+        if (getCorrelationExpression() != null) {
+            answer.setCorrelationExpression(getCorrelationExpression().createExpression(routeContext));
+        }
+        if (getMaximumCorrelationKeys() != null) {
+            answer.setMaximumCorrelationKeys(getMaximumCorrelationKeys());
+        }
         return answer;
     }
 
@@ -175,6 +190,33 @@ public class ThrottleDefinition extends ExpressionNode implements ExecutorServic
         return this;
     }
 
+    /**
+     * To throttle per correlation key, such as per tenant, where each key has its own throttle rate.
+     * <p/>
+     * Exchanges which have no correlation key are throttled together.
+     *
+     * @param correlationExpression the expression to evaluate the correlation key
+     * @return the builder
+     */
+    public ThrottleDefinition correlationExpression(Expression correlationExpression) {
+        setCorrelationExpression(new ExpressionSubElementDefinition(correlationExpression));
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of correlation keys to keep track of when throttling per correlation key.
+     * When there are more keys, then the idle keys are evicted first.
+     * <p/>
+     * Is by default <tt>1000</tt>
+     *
+     * @param maximumCorrelationKeys the maximum number of keys
+     * @return the builder
+     */
+    public ThrottleDefinition maximumCorrelationKeys(int maximumCorrelationKeys) {
+        setMaximumCorrelationKeys(maximumCorrelationKeys);
+        return this;
+    }
+
     /**
      * Sets the ExecutorService which could be used by throttle definition
      *
@@ -256,4 +298,24 @@ public class ThrottleDefinition extends ExpressionNode implements ExecutorServic
     public void setRejectExecution(Boolean rejectExecution) {
         this.rejectExecution = rejectExecution;
     }
+
+    public ExpressionSubElementDefinition getCorrelationExpression() {
+        return correlationExpression;
+    }
+
+    /**
+     * The expression used to calculate the correlation key to use for throttle grouping.
+     * The Exchange which has the same correlation key is throttled together.
+     */
+    public void setCorrelationExpression(ExpressionSubElementDefinition correlationExpression) {
+        this.correlationExpression = correlationExpression;
+    }
+
+    public Integer getMaximumCorrelationKeys() {
+        return maximumCorrelationKeys;
+    }
+
+    public void setMaximumCorrelationKeys(Integer maximumCorrelationKeys) {
+        this.maximumCorrelationKeys = maximumCorrelationKeys;
+    }
 }
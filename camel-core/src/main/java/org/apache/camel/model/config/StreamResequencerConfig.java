@@ -19,9 +19,11 @@ package org.apache.camel.model.config;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.XmlTransient;
 
+import org.apache.camel.model.ExpressionSubElementDefinition;
 import org.apache.camel.processor.resequencer.DefaultExchangeComparator;
 import org.apache.camel.processor.resequencer.ExpressionResultComparator;
 import org.apache.camel.spi.Metadata;
@@ -45,6 +47,10 @@ public class StreamResequencerConfig extends ResequencerConfig {
     private String comparatorRef;
     @XmlAttribute
     private Boolean rejectOld;
+    @XmlElement(name = "groupExpression")
+    private ExpressionSubElementDefinition groupExpression;
+    @XmlAttribute @Metadata(defaultValue = "1")
+    private Integer deliveryThreads;
 
     /**
      * Creates a new {@link StreamResequencerConfig} instance using default
@@ -192,4 +198,29 @@ public class StreamResequencerConfig extends ResequencerConfig {
         return rejectOld;
     }
 
+    public ExpressionSubElementDefinition getGroupExpression() {
+        return groupExpression;
+    }
+
+    /**
+     * To resequence the messages per group, such as per customer, where the messages of each group are
+     * resequenced independently of the other groups. The messages which has no group are resequenced together.
+     */
+    public void setGroupExpression(ExpressionSubElementDefinition groupExpression) {
+        this.groupExpression = groupExpression;
+    }
+
+    public Integer getDeliveryThreads() {
+        return deliveryThreads;
+    }
+
+    /**
+     * The number of threads which delivers the resequenced messages, when resequencing per group.
+     * The groups are spread among the delivery threads, so the messages of a group are always delivered
+     * in sequence by the same thread.
+     */
+    public void setDeliveryThreads(Integer deliveryThreads) {
+        this.deliveryThreads = deliveryThreads;
+    }
+
 }
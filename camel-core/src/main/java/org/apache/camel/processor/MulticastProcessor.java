@@ -31,6 +31,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -159,6 +160,8 @@ public class MulticastProcessor extends ServiceSupport implements AsyncProcessor
     private final long timeout;
     private final ConcurrentMap<PreparedErrorHandler, Processor> errorHandlers = new ConcurrentHashMap<PreparedErrorHandler, Processor>();
     private final boolean shareUnitOfWork;
+    private int maxInflightExchanges;
+    private boolean streamingOrdered;
 
     public MulticastProcessor(CamelContext camelContext, Collection<Processor> processors) {
         this(camelContext, processors, null);
@@ -265,7 +268,7 @@ public class MulticastProcessor extends ServiceSupport implements AsyncProcessor
         ObjectHelper.notNull(aggregateExecutorService, "AggregateExecutorService", this);
 
         final CompletionService<Exchange> completion;
-        if (streaming) {
+        if (streaming && !streamingOrdered) {
             // execute tasks in parallel+streaming and aggregate in the order they are finished (out of order sequence)
             completion = new ExecutorCompletionService<Exchange>(executorService);
         } else {
@@ -275,6 +278,8 @@ public class MulticastProcessor extends ServiceSupport implements AsyncProcessor
 
         final AtomicInteger total = new AtomicInteger(0);
         final Iterator<ProcessorExchangePair> it = pairs.iterator();
+        // the window of exchanges which can be in-flight (processing or waiting to be aggregated) at the same time
+        final Semaphore inflight = maxInflightExchanges > 0 ? new Semaphore(maxInflightExchanges) : null;
 
         if (it.hasNext()) {
             // when parallel then aggregate on the fly
@@ -287,15 +292,29 @@ public class MulticastProcessor extends ServiceSupport implements AsyncProcessor
             // while we submit new tasks, and those tasks complete concurrently
             // this allows us to optimize work and reduce memory consumption
             final AggregateOnTheFlyTask aggregateOnTheFlyTask = new AggregateOnTheFlyTask(result, original, total, completion, running,
-                    aggregationOnTheFlyDone, allTasksSubmitted, executionException);
+                    aggregationOnTheFlyDone, allTasksSubmitted, executionException, inflight);
             final AtomicBoolean aggregationTaskSubmitted = new AtomicBoolean();
 
             LOG.trace("Starting to submit parallel tasks");
 
             while (it.hasNext()) {
+                if (inflight != null) {
+                    // apply back-pressure on the iterator so we do not split more exchanges than the window allows,
+                    // as the permit is first released when the exchange has been aggregated
+                    inflight.acquire();
+                    if (aggregationOnTheFlyDone.getCount() == 0) {
+                        // the aggregation stopped early (timeout or stop on exception) so do not submit any more tasks
+                        LOG.trace("Aggregation on the fly is done so no more tasks will be submitted");
+                        break;
+                    }
+                }
+
                 final ProcessorExchangePair pair = it.next();
                 // in case the iterator returns null then continue to next
                 if (pair == null) {
+                    if (inflight != null) {
+                        inflight.release();
+                    }
                     continue;
                 }
 
@@ -388,11 +407,12 @@ public class MulticastProcessor extends ServiceSupport implements AsyncProcessor
         private final CountDownLatch aggregationOnTheFlyDone;
         private final AtomicBoolean allTasksSubmitted;
         private final AtomicException executionException;
+        private final Semaphore inflight;
 
         private AggregateOnTheFlyTask(AtomicExchange result, Exchange original, AtomicInteger total,
                                       CompletionService<Exchange> completion, AtomicBoolean running,
                                       CountDownLatch aggregationOnTheFlyDone, AtomicBoolean allTasksSubmitted,
-                                      AtomicException executionException) {
+                                      AtomicException executionException, Semaphore inflight) {
             this.result = result;
             this.original = original;
             this.total = total;
@@ -401,6 +421,7 @@ public class MulticastProcessor extends ServiceSupport implements AsyncProcessor
             this.aggregationOnTheFlyDone = aggregationOnTheFlyDone;
             this.allTasksSubmitted = allTasksSubmitted;
             this.executionException = executionException;
+            this.inflight = inflight;
         }
 
         public void run() {
@@ -419,6 +440,10 @@ public class MulticastProcessor extends ServiceSupport implements AsyncProcessor
                 LOG.debug("Signaling we are done aggregating on the fly for exchangeId: {}", original.getExchangeId());
                 LOG.trace("Aggregate on the fly task done for exchangeId: {}", original.getExchangeId());
                 aggregationOnTheFlyDone.countDown();
+                if (inflight != null) {
+                    // wake up the submitting thread in case it waits for a permit, so it can see we are done
+                    inflight.release(maxInflightExchanges);
+                }
             }
         }
 
@@ -460,7 +485,7 @@ public class MulticastProcessor extends ServiceSupport implements AsyncProcessor
                 }
 
                 if (future == null) {
-                    ParallelAggregateTimeoutTask task = new ParallelAggregateTimeoutTask(original, result, completion, aggregated, total, timedOut);
+                    ParallelAggregateTimeoutTask task = new ParallelAggregateTimeoutTask(original, result, completion, aggregated, total, timedOut, inflight);
                     if (parallelAggregate) {
                         aggregateExecutorService.submit(task);
                     } else {
@@ -484,7 +509,7 @@ public class MulticastProcessor extends ServiceSupport implements AsyncProcessor
                     }
 
                     // we got a result so aggregate it
-                    ParallelAggregateTask task = new ParallelAggregateTask(result, subExchange, aggregated);
+                    ParallelAggregateTask task = new ParallelAggregateTask(result, subExchange, aggregated, inflight);
                     if (parallelAggregate) {
                         aggregateExecutorService.submit(task);
                     } else {
@@ -515,11 +540,13 @@ public class MulticastProcessor extends ServiceSupport implements AsyncProcessor
         private final AtomicExchange result;
         private final Exchange subExchange;
         private final AtomicInteger aggregated;
+        private final Semaphore inflight;
 
-        private ParallelAggregateTask(AtomicExchange result, Exchange subExchange, AtomicInteger aggregated) {
+        private ParallelAggregateTask(AtomicExchange result, Exchange subExchange, AtomicInteger aggregated, Semaphore inflight) {
             this.result = result;
             this.subExchange = subExchange;
             this.aggregated = aggregated;
+            this.inflight = inflight;
         }
 
         @Override
@@ -535,6 +562,9 @@ public class MulticastProcessor extends ServiceSupport implements AsyncProcessor
                 subExchange.setException(new CamelExchangeException("Parallel processing failed for number " + aggregated.get(), subExchange, e));
             } finally {
                 aggregated.incrementAndGet();
+                if (inflight != null) {
+                    inflight.release();
+                }
             }
         }
     }
@@ -550,15 +580,17 @@ public class MulticastProcessor extends ServiceSupport implements AsyncProcessor
         private final AtomicInteger aggregated;
         private final AtomicInteger total;
         private final AtomicBoolean timedOut;
+        private final Semaphore inflight;
 
         private ParallelAggregateTimeoutTask(Exchange original, AtomicExchange result, CompletionService<Exchange> completion,
-                                             AtomicInteger aggregated, AtomicInteger total, AtomicBoolean timedOut) {
+                                             AtomicInteger aggregated, AtomicInteger total, AtomicBoolean timedOut, Semaphore inflight) {
             this.original = original;
             this.result = result;
             this.completion = completion;
             this.aggregated = aggregated;
             this.total = total;
             this.timedOut = timedOut;
+            this.inflight = inflight;
         }
 
         @Override
@@ -590,6 +622,9 @@ public class MulticastProcessor extends ServiceSupport implements AsyncProcessor
 
             // we timed out so increment the counter
             aggregated.incrementAndGet();
+            if (inflight != null) {
+                inflight.release();
+            }
         }
     }
 
@@ -1297,6 +1332,36 @@ public class MulticastProcessor extends ServiceSupport implements AsyncProcessor
         return shareUnitOfWork;
     }
 
+    /**
+     * The maximum number of exchanges which can be in-flight at the same time when using parallel processing,
+     * which is the exchanges being processed and the exchanges waiting to be aggregated.
+     * <p/>
+     * When the limit is reached then no more exchanges are created (eg the splitter does not read more from
+     * its iterator) until an exchange has been aggregated. This keeps the memory bounded when splitting
+     * big messages in streaming mode.
+     *
+     * @return the maximum, or <tt>0</tt> if unbounded
+     */
+    public int getMaxInflightExchanges() {
+        return maxInflightExchanges;
+    }
+
+    public void setMaxInflightExchanges(int maxInflightExchanges) {
+        this.maxInflightExchanges = maxInflightExchanges;
+    }
+
+    /**
+     * Whether to aggregate the exchanges in the same order as they were created when using streaming and
+     * parallel processing. By default the exchanges are aggregated in the order they complete.
+     */
+    public boolean isStreamingOrdered() {
+        return streamingOrdered;
+    }
+
+    public void setStreamingOrdered(boolean streamingOrdered) {
+        this.streamingOrdered = streamingOrdered;
+    }
+
     public List<Processor> next() {
         if (!hasNext()) {
             return null;
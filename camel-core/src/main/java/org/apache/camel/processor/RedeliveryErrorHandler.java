@@ -49,6 +49,8 @@ import org.apache.camel.util.MessageHelper;
 import org.apache.camel.util.ObjectHelper;
 import org.apache.camel.util.ServiceHelper;
 import org.apache.camel.util.URISupport;
+import org.apache.camel.util.concurrent.HashedWheelScheduledExecutorService;
+import org.apache.camel.util.concurrent.SizedScheduledExecutorService;
 
 /**
  * Base redeliverable error handler that also supports a final dead letter queue in case
@@ -1362,7 +1364,12 @@ public abstract class RedeliveryErrorHandler extends ErrorHandlerSupport impleme
      */
     public int getPendingRedeliveryCount() {
         int answer = redeliverySleepCounter.get();
-        if (executorService != null && executorService instanceof ThreadPoolExecutor) {
+        if (executorService instanceof HashedWheelScheduledExecutorService) {
+            HashedWheelScheduledExecutorService timer = (HashedWheelScheduledExecutorService) executorService;
+            answer += timer.getPendingTasks() + timer.getQueueSize();
+        } else if (executorService instanceof SizedScheduledExecutorService) {
+            answer += ((SizedScheduledExecutorService) executorService).getScheduledThreadPoolExecutor().getQueue().size();
+        } else if (executorService instanceof ThreadPoolExecutor) {
             answer += ((ThreadPoolExecutor) executorService).getQueue().size();
         }
 
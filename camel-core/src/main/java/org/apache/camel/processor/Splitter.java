@@ -286,7 +286,8 @@ public class Splitter extends MulticastProcessor implements AsyncProcessor, Trac
         // we do not want attachments for the splitted sub-messages
         answer.getIn().setAttachments(null);
         // we do not want to copy the message history for splitted sub-messages
-        answer.getProperties().remove(Exchange.MESSAGE_HISTORY);
+        // (the copy has its own message history which is removed without copying the shared properties)
+        answer.removeProperty(Exchange.MESSAGE_HISTORY);
         return answer;
     }
 }
@@ -18,7 +18,12 @@ package org.apache.camel.processor;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -42,6 +47,7 @@ import org.apache.camel.support.ServiceSupport;
 import org.apache.camel.util.AsyncProcessorHelper;
 import org.apache.camel.util.ObjectHelper;
 import org.apache.camel.util.ServiceHelper;
+import org.apache.camel.util.concurrent.HashedWheelTimer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -62,6 +68,14 @@ import org.slf4j.LoggerFactory;
  * Instances of this class poll for {@link Exchange}s from a given
  * <code>endpoint</code>. Resequencing work and the delivery of messages to
  * the next <code>processor</code> is done within the single polling thread.
+ * <p>
+ * If a <code>groupExpression</code> is configured then the messages are
+ * resequenced per group, where each group has its own sequence and is resequenced
+ * independently of the other groups. The groups are spread among a number of
+ * delivery threads, which allows to insert and deliver messages of different
+ * groups concurrently, while the messages of a group are always delivered in
+ * sequence by the same thread. The timeouts of all the groups are scheduled
+ * on a single {@link HashedWheelTimer}.
  * 
  * @version 
  * 
@@ -71,15 +85,23 @@ public class StreamResequencer extends ServiceSupport implements SequenceSender<
 
     private static final long DELIVERY_ATTEMPT_INTERVAL = 1000L;
     private static final Logger LOG = LoggerFactory.getLogger(StreamResequencer.class);
+    // the key of the group for exchanges which has no group
+    private static final Object DEFAULT_GROUP = new Object();
 
     private String id;
     private final CamelContext camelContext;
     private final ExceptionHandler exceptionHandler;
-    private final ResequencerEngine<Exchange> engine;
+    private final SequenceElementComparator<Exchange> comparator;
+    private final ConcurrentMap<Object, Group> groups = new ConcurrentHashMap<Object, Group>();
     private final Processor processor;
     private final Expression expression;
-    private Delivery delivery;
+    private Expression groupExpression;
+    private HashedWheelTimer timer;
+    private volatile Delivery[] deliveries;
+    private int deliveryThreads = 1;
     private int capacity;
+    private long timeout = 2000L;
+    private Boolean rejectOld;
     private boolean ignoreInvalidExchanges;
     
     /**
@@ -91,8 +113,7 @@ public class StreamResequencer extends ServiceSupport implements SequenceSender<
     public StreamResequencer(CamelContext camelContext, Processor processor, SequenceElementComparator<Exchange> comparator, Expression expression) {
         ObjectHelper.notNull(camelContext, "CamelContext");
         this.camelContext = camelContext;
-        this.engine = new ResequencerEngine<Exchange>(comparator);
-        this.engine.setSequenceSender(this);
+        this.comparator = comparator;
         this.processor = processor;
         this.expression = expression;
         this.exceptionHandler = new LoggingExceptionHandler(camelContext, getClass());
@@ -102,6 +123,35 @@ public class StreamResequencer extends ServiceSupport implements SequenceSender<
         return expression;
     }
 
+    public Expression getGroupExpression() {
+        return groupExpression;
+    }
+
+    /**
+     * Sets an expression to resequence the exchanges per group, where the exchanges
+     * of each group are resequenced independently of the other groups.
+     * <p/>
+     * Notice the number of groups should be bounded, as the resequencer keeps track
+     * of the last delivered exchange of each group.
+     */
+    public void setGroupExpression(Expression groupExpression) {
+        this.groupExpression = groupExpression;
+    }
+
+    public int getDeliveryThreads() {
+        return deliveryThreads;
+    }
+
+    /**
+     * Sets the number of threads which delivers the resequenced exchanges. The groups are spread
+     * among the threads, so the exchanges of a group are always delivered by the same thread.
+     * <p/>
+     * Default is <tt>1</tt>.
+     */
+    public void setDeliveryThreads(int deliveryThreads) {
+        this.deliveryThreads = deliveryThreads;
+    }
+
     /**
      * Returns this resequencer's exception handler.
      */
@@ -122,6 +172,8 @@ public class StreamResequencer extends ServiceSupport implements SequenceSender<
      * time. If the capacity if reached, polling from the endpoint will be
      * skipped for <code>timeout</code> milliseconds giving exchanges the
      * possibility to time out and to be delivered after the waiting period.
+     * <p/>
+     * When resequencing per group then the capacity is per group.
      * 
      * @return this resequencer's capacity.
      */
@@ -138,7 +190,7 @@ public class StreamResequencer extends ServiceSupport implements SequenceSender<
      * @see ResequencerEngine#setTimeout(long)
      */
     public long getTimeout() {
-        return engine.getTimeout();
+        return timeout;
     }
 
     public void setCapacity(int capacity) {
@@ -146,7 +198,10 @@ public class StreamResequencer extends ServiceSupport implements SequenceSender<
     }
 
     public void setTimeout(long timeout) {
-        engine.setTimeout(timeout);
+        this.timeout = timeout;
+        for (Group group : groups.values()) {
+            group.engine.setTimeout(timeout);
+        }
     }
 
     public boolean isIgnoreInvalidExchanges() {
@@ -154,11 +209,14 @@ public class StreamResequencer extends ServiceSupport implements SequenceSender<
     }
 
     public void setRejectOld(Boolean rejectOld) {
-        engine.setRejectOld(rejectOld);
+        this.rejectOld = rejectOld;
+        for (Group group : groups.values()) {
+            group.engine.setRejectOld(rejectOld);
+        }
     }
 
     public boolean isRejectOld() {
-        return engine.getRejectOld() != null && engine.getRejectOld();
+        return rejectOld != null && rejectOld;
     }
 
     /**
@@ -171,6 +229,57 @@ public class StreamResequencer extends ServiceSupport implements SequenceSender<
         this.ignoreInvalidExchanges = ignoreInvalidExchanges;
     }
 
+    /**
+     * Returns the number of groups which are being resequenced.
+     */
+    public int getGroupCount() {
+        return groups.size();
+    }
+
+    /**
+     * Returns the number of exchanges which are currently waiting in the resequencer.
+     */
+    public int getPendingExchanges() {
+        int answer = 0;
+        for (Group group : groups.values()) {
+            answer += group.engine.size();
+        }
+        return answer;
+    }
+
+    /**
+     * Returns the number of exchanges which arrived out of sequence, and therefore had to wait
+     * for a missing exchange.
+     */
+    public long getGapCount() {
+        long answer = 0;
+        for (Group group : groups.values()) {
+            answer += group.engine.getGapCount();
+        }
+        return answer;
+    }
+
+    /**
+     * Returns the number of exchanges which was delivered after the timeout, as the missing
+     * exchange did not arrive in time.
+     */
+    public long getTimeoutCount() {
+        long answer = 0;
+        for (Group group : groups.values()) {
+            answer += group.engine.getTimeoutCount();
+        }
+        return answer;
+    }
+
+    /**
+     * Resets the gap and timeout statistics.
+     */
+    public void resetStatistics() {
+        for (Group group : groups.values()) {
+            group.engine.resetStatistics();
+        }
+    }
+
     @Override
     public String toString() {
         return "StreamResequencer[to: " + processor + "]";
@@ -191,16 +300,27 @@ public class StreamResequencer extends ServiceSupport implements SequenceSender<
     @Override
     protected void doStart() throws Exception {
         ServiceHelper.startServices(processor);
-        delivery = new Delivery();
-        engine.start();
-        delivery.start();
+        timer = ResequencerEngine.createTimer();
+        for (Group group : groups.values()) {
+            group.engine.setTimer(timer);
+        }
+        int threads = groupExpression != null ? Math.max(1, deliveryThreads) : 1;
+        deliveries = new Delivery[threads];
+        for (int i = 0; i < threads; i++) {
+            deliveries[i] = new Delivery(i);
+        }
+        for (Delivery delivery : deliveries) {
+            delivery.start();
+        }
     }
 
     @Override
     protected void doStop() throws Exception {
         // let's stop everything in the reverse order
         // no need to stop the worker thread -- it will stop automatically when this service is stopped
-        engine.stop();
+        if (timer != null) {
+            timer.stop();
+        }
         ServiceHelper.stopServices(processor);
     }
 
@@ -218,7 +338,16 @@ public class StreamResequencer extends ServiceSupport implements SequenceSender<
     }
 
     public boolean process(Exchange exchange, AsyncCallback callback) {
-        while (engine.size() >= capacity) {
+        Group group;
+        try {
+            group = getGroup(exchange);
+        } catch (Exception e) {
+            exchange.setException(new CamelExchangeException("Error evaluating group expression in StreamResequencer", exchange, e));
+            callback.done(true);
+            return true;
+        }
+
+        while (group.engine.size() >= capacity) {
             try {
                 Thread.sleep(getTimeout());
             } catch (InterruptedException e) {
@@ -230,8 +359,8 @@ public class StreamResequencer extends ServiceSupport implements SequenceSender<
         }
 
         try {
-            engine.insert(exchange);
-            delivery.request();
+            group.engine.insert(exchange);
+            group.getDelivery().request(group);
         } catch (Exception e) {
             if (isIgnoreInvalidExchanges()) {
                 LOG.debug("Invalid Exchange. This Exchange will be ignored: {}", exchange);
@@ -257,34 +386,118 @@ public class StreamResequencer extends ServiceSupport implements SequenceSender<
         return answer;
     }
 
+    private Group getGroup(Exchange exchange) {
+        Object key = null;
+        if (groupExpression != null) {
+            key = groupExpression.evaluate(exchange, Object.class);
+        }
+        if (key == null) {
+            key = DEFAULT_GROUP;
+        }
+
+        Group group = groups.get(key);
+        if (group == null) {
+            Group created = new Group(key);
+            group = groups.putIfAbsent(key, created);
+            if (group == null) {
+                group = created;
+            }
+        }
+        return group;
+    }
+
+    /**
+     * A group of exchanges which is resequenced by its own {@link ResequencerEngine}.
+     */
+    private final class Group implements Runnable {
+
+        private final ResequencerEngine<Exchange> engine;
+        private final int hash;
+        // whether the group is queued for delivery
+        private final AtomicBoolean requested = new AtomicBoolean();
+
+        Group(Object key) {
+            this.hash = key.hashCode() & Integer.MAX_VALUE;
+            this.engine = new ResequencerEngine<Exchange>(comparator);
+            this.engine.setSequenceSender(StreamResequencer.this);
+            this.engine.setTimeout(timeout);
+            this.engine.setRejectOld(rejectOld);
+            this.engine.setTimer(timer);
+            // deliver the timed out exchanges right away
+            this.engine.setDeliveryRequestHandler(this);
+        }
+
+        Delivery getDelivery() {
+            // the delivery threads may be changed when restarting
+            Delivery[] current = deliveries;
+            return current[hash % current.length];
+        }
+
+        public void run() {
+            getDelivery().request(this);
+        }
+    }
+
     class Delivery extends Thread {
 
+        private final int index;
+        private final Queue<Group> requests = new ConcurrentLinkedQueue<Group>();
         private Lock deliveryRequestLock = new ReentrantLock();
         private Condition deliveryRequestCondition = deliveryRequestLock.newCondition();
+        private volatile boolean waiting;
         
-        Delivery() {
+        Delivery(int index) {
             super(camelContext.getExecutorServiceManager().resolveThreadName("Resequencer Delivery"));
+            this.index = index;
         }
         
         @Override
         public void run() {
             while (isRunAllowed()) {
-                try {
-                    deliveryRequestLock.lock();
+                Group group = requests.poll();
+                if (group == null) {
+                    boolean requested;
                     try {
-                        deliveryRequestCondition.await(DELIVERY_ATTEMPT_INTERVAL, TimeUnit.MILLISECONDS);
-                    } finally {
-                        deliveryRequestLock.unlock();
+                        requested = await();
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                    if (!requested) {
+                        // deliver all the groups of this thread from time to time as a fail safe
+                        for (Group g : groups.values()) {
+                            if (g.getDelivery() == this) {
+                                deliver(g);
+                            }
+                        }
                     }
-                } catch (InterruptedException e) {
-                    break;
+                } else {
+                    group.requested.set(false);
+                    deliver(group);
                 }
-                try {
-                    engine.deliver();
-                } catch (Throwable t) {
-                    // a fail safe to handle all exceptions being thrown
-                    getExceptionHandler().handleException(t);
+            }
+        }
+
+        private boolean await() throws InterruptedException {
+            deliveryRequestLock.lock();
+            try {
+                // must set waiting before checking for requests, so we do not miss a signal
+                waiting = true;
+                if (!requests.isEmpty()) {
+                    return true;
                 }
+                return deliveryRequestCondition.await(DELIVERY_ATTEMPT_INTERVAL, TimeUnit.MILLISECONDS);
+            } finally {
+                waiting = false;
+                deliveryRequestLock.unlock();
+            }
+        }
+
+        private void deliver(Group group) {
+            try {
+                group.engine.deliver();
+            } catch (Throwable t) {
+                // a fail safe to handle all exceptions being thrown
+                getExceptionHandler().handleException(t);
             }
         }
 
@@ -300,7 +513,20 @@ public class StreamResequencer extends ServiceSupport implements SequenceSender<
                 deliveryRequestLock.unlock();
             }
         }
-        
+
+        void request(Group group) {
+            if (group.requested.compareAndSet(false, true)) {
+                requests.add(group);
+                if (waiting) {
+                    request();
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Delivery[" + index + "]";
+        }
     }
     
 }
@@ -16,11 +16,17 @@
  */
 package org.apache.camel.processor;
 
-import java.util.concurrent.DelayQueue;
-import java.util.concurrent.Delayed;
+import java.util.Collections;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.camel.AsyncCallback;
 import org.apache.camel.CamelContext;
@@ -47,13 +53,20 @@ import org.slf4j.LoggerFactory;
  * This throttle implementation is thread-safe and is therefore safe to be used
  * by multiple concurrent threads in a single route.
  *
- * The throttling mechanism is a DelayQueue with maxRequestsPerPeriod permits on
- * it. Each permit is set to be delayed by timePeriodMillis (except when the
- * throttler is initialized or the throttle rate increased, then there is no delay
- * for those permits). Callers trying to acquire a permit from the DelayQueue will
- * block if necessary. The end result is a rolling window of time. Where from the
- * callers point of view in the last timePeriodMillis no more than
- * maxRequestsPerPeriod have been allowed to be acquired.
+ * The throttling mechanism is a lock-free token bucket (implemented as the generic
+ * cell rate algorithm) which holds up to maxRequestsPerPeriod permits, and where a
+ * new permit is added every timePeriodMillis / maxRequestsPerPeriod. The state of the
+ * bucket is a single timestamp which is updated using compare and set, so callers
+ * never contend on a lock. Callers which cannot acquire a permit right away reserve
+ * the next permit and then wait until it is due. The end result is that on average
+ * no more than maxRequestsPerPeriod are allowed within timePeriodMillis, with bursts of
+ * up to maxRequestsPerPeriod when the throttler has been idle.
+ *
+ * If a correlation expression is configured then the exchanges are throttled
+ * per correlation key (such as per tenant), where each key has its own bucket. The
+ * number of keys is bounded by maximumCorrelationKeys, and when the limit is exceeded
+ * then idle keys are evicted first, as an idle bucket is the same as a new bucket. Keys
+ * with exchanges waiting for a permit are never evicted.
  *
  * @version
  */
@@ -61,12 +74,19 @@ public class Throttler extends DelegateAsyncProcessor implements Traceable, IdAw
 
     private static final String PROPERTY_EXCHANGE_QUEUED_TIMESTAMP = "CamelThrottlerExchangeQueuedTimestamp";
     private static final String PROPERTY_EXCHANGE_STATE = "CamelThrottlerExchangeState";
+    private static final String PROPERTY_EXCHANGE_PERMIT_RESERVED = "CamelThrottlerExchangePermitReserved";
+    // the number of keys to look at for an idle bucket to evict, so adding a key does not scan all the keys
+    private static final int EVICTION_PROBES = 16;
 
     private enum State { SYNC, ASYNC, ASYNC_REJECTED }
 
     private final Logger log = LoggerFactory.getLogger(Throttler.class);
     private final CamelContext camelContext;
-    private final DelayQueue<ThrottlePermit> delayQueue = new DelayQueue<>();
+    private final ThrottleBucket defaultBucket = new ThrottleBucket();
+    private final ConcurrentHashMap<Object, ThrottleBucket> buckets = new ConcurrentHashMap<Object, ThrottleBucket>();
+    // the correlation keys in the order to look at when evicting buckets
+    private final Queue<Object> evictionOrder = new ConcurrentLinkedQueue<Object>();
+    private final AtomicInteger queuedExchanges = new AtomicInteger();
     private final ExecutorService asyncExecutor;
     private final boolean shutdownAsyncExecutor;
 
@@ -74,6 +94,8 @@ public class Throttler extends DelegateAsyncProcessor implements Traceable, IdAw
     private volatile int throttleRate;
     private String id;
     private Expression maxRequestsPerPeriodExpression;
+    private Expression correlationExpression;
+    private int maximumCorrelationKeys = 1000;
     private boolean rejectExecution;
     private boolean asyncDelayed;
     private boolean callerRunsWhenRejected = true;
@@ -105,23 +127,30 @@ public class Throttler extends DelegateAsyncProcessor implements Traceable, IdAw
         State state = exchange.getProperty(PROPERTY_EXCHANGE_STATE, State.SYNC, State.class);
         exchange.removeProperty(PROPERTY_EXCHANGE_STATE);
         boolean doneSync = state == State.SYNC || state == State.ASYNC_REJECTED;
+        boolean permitReserved = exchange.removeProperty(PROPERTY_EXCHANGE_PERMIT_RESERVED) != null;
 
         try {
             if (!isRunAllowed()) {
                 throw new RejectedExecutionException("Run is not allowed");
             }
 
-            calculateAndSetMaxRequestsPerPeriod(exchange);
-            ThrottlePermit permit = delayQueue.poll();
+            ThrottleBucket bucket = getBucket(exchange);
+            int rate = calculateAndSetMaxRequestsPerPeriod(bucket, exchange);
+            long periodNanos = TimeUnit.MILLISECONDS.toNanos(timePeriodMillis);
+            // the permit may have been reserved up front when the exchange was scheduled asynchronously
+            long delay = permitReserved ? 0 : bucket.reserve(rate, periodNanos, false);
 
-            if (permit == null) {
+            if (delay < 0) {
                 if (isRejectExecution()) {
                     throw new ThrottlerRejectedExecutionException("Exceeded the max throttle rate of "
-                            + throttleRate + " within " + timePeriodMillis + "ms");
+                            + rate + " within " + timePeriodMillis + "ms");
                 } else {
                     // delegate to async pool
                     if (isAsyncDelayed() && !exchange.isTransacted() && state == State.SYNC) {
                         log.debug("Throttle rate exceeded but AsyncDelayed enabled, so queueing for async processing, exchangeId: {}", exchange.getExchangeId());
+                        if (rate > 0 && asyncExecutor instanceof ScheduledExecutorService) {
+                            return scheduleAsynchronously(exchange, callback, bucket, rate);
+                        }
                         return processAsynchronously(exchange, callback);
                     }
 
@@ -131,11 +160,10 @@ public class Throttler extends DelegateAsyncProcessor implements Traceable, IdAw
                     if (log.isTraceEnabled()) {
                         start = System.currentTimeMillis();
                     }
-                    permit = delayQueue.take();
+                    awaitPermit(bucket, rate, exchange);
                     if (log.isTraceEnabled()) {
                         elapsed = System.currentTimeMillis() - start;
                     }
-                    enqueuePermit(permit, exchange);
 
                     if (state == State.ASYNC) {
                         if (log.isTraceEnabled()) {
@@ -147,8 +175,6 @@ public class Throttler extends DelegateAsyncProcessor implements Traceable, IdAw
                     }
                 }
             } else {
-                enqueuePermit(permit, exchange);
-
                 if (state == State.ASYNC) {
                     if (log.isTraceEnabled()) {
                         long queuedTime = System.currentTimeMillis() - queuedStart;
@@ -193,7 +219,7 @@ public class Throttler extends DelegateAsyncProcessor implements Traceable, IdAw
     }
 
     /**
-     * Delegate blocking on the DelayQueue to an asyncExecutor. Except if the executor rejects the submission
+     * Delegate blocking for a permit to an asyncExecutor. Except if the executor rejects the submission
      * and isCallerRunsWhenRejected() is enabled, then this method will delegate back to process(), but not
      * before changing the exchange state to stop any recursion.
      */
@@ -221,62 +247,172 @@ public class Throttler extends DelegateAsyncProcessor implements Traceable, IdAw
     }
 
     /**
-     * Returns a permit to the DelayQueue, first resetting it's delay to be relative to now.
+     * Reserves the next permit from the bucket and schedules the exchange to continue when the permit is due,
+     * so no thread is blocked while the exchange is waiting for the permit. If the executor rejects the task
+     * and isCallerRunsWhenRejected() is enabled, then the current thread waits for the permit instead.
      */
-    protected void enqueuePermit(final ThrottlePermit permit, final Exchange exchange) {
-        permit.setDelayMs(getTimePeriodMillis());
-        delayQueue.put(permit);
-        // try and incur the least amount of overhead while releasing permits back to the queue
+    protected boolean scheduleAsynchronously(final Exchange exchange, final AsyncCallback callback,
+                                             final ThrottleBucket bucket, int rate) throws InterruptedException {
+        long delay = bucket.reserve(rate, TimeUnit.MILLISECONDS.toNanos(timePeriodMillis), true);
         if (log.isTraceEnabled()) {
-            log.trace("Permit released, for exchangeId: {}", exchange.getExchangeId());
+            exchange.setProperty(PROPERTY_EXCHANGE_QUEUED_TIMESTAMP, System.currentTimeMillis());
+        }
+        exchange.setProperty(PROPERTY_EXCHANGE_STATE, State.ASYNC);
+        exchange.setProperty(PROPERTY_EXCHANGE_PERMIT_RESERVED, Boolean.TRUE);
+
+        queuedExchanges.incrementAndGet();
+        bucket.queued.incrementAndGet();
+        try {
+            ((ScheduledExecutorService) asyncExecutor).schedule(new Runnable() {
+                @Override
+                public void run() {
+                    bucket.queued.decrementAndGet();
+                    queuedExchanges.decrementAndGet();
+                    process(exchange, callback);
+                }
+            }, delay, TimeUnit.NANOSECONDS);
+            return false;
+        } catch (final RejectedExecutionException e) {
+            bucket.queued.decrementAndGet();
+            queuedExchanges.decrementAndGet();
+            if (isCallerRunsWhenRejected()) {
+                log.debug("AsyncExecutor is full, rejected exchange will run in the current thread, exchangeId: {}", exchange.getExchangeId());
+                exchange.setProperty(PROPERTY_EXCHANGE_STATE, State.ASYNC_REJECTED);
+                if (delay > 0) {
+                    TimeUnit.NANOSECONDS.sleep(delay);
+                }
+                return process(exchange, callback);
+            }
+            // give the permit back as the exchange will not use it
+            bucket.release(rate, TimeUnit.MILLISECONDS.toNanos(timePeriodMillis));
+            exchange.removeProperty(PROPERTY_EXCHANGE_PERMIT_RESERVED);
+            throw e;
+        }
+    }
+
+    /**
+     * Reserves the next permit from the bucket and blocks until the permit is due.
+     */
+    protected void awaitPermit(final ThrottleBucket bucket, int rate, final Exchange exchange) throws Exception {
+        queuedExchanges.incrementAndGet();
+        bucket.queued.incrementAndGet();
+        try {
+            while (rate == 0) {
+                // no permits at all so wait for the throttle rate to be increased
+                Thread.sleep(timePeriodMillis);
+                rate = calculateAndSetMaxRequestsPerPeriod(bucket, exchange);
+            }
+            long delay = bucket.reserve(rate, TimeUnit.MILLISECONDS.toNanos(timePeriodMillis), true);
+            if (delay > 0) {
+                TimeUnit.NANOSECONDS.sleep(delay);
+            }
+        } finally {
+            bucket.queued.decrementAndGet();
+            queuedExchanges.decrementAndGet();
         }
     }
 
     /**
-     * Evaluates the maxRequestsPerPeriodExpression and adjusts the throttle rate up or down.
+     * Evaluates the maxRequestsPerPeriodExpression and adjusts the throttle rate of the bucket up or down.
+     *
+     * @return the throttle rate to use for the exchange
      */
-    protected void calculateAndSetMaxRequestsPerPeriod(final Exchange exchange) throws Exception {
+    protected int calculateAndSetMaxRequestsPerPeriod(final ThrottleBucket bucket, final Exchange exchange) throws Exception {
         Integer newThrottle = maxRequestsPerPeriodExpression.evaluate(exchange, Integer.class);
 
         if (newThrottle != null && newThrottle < 0) {
             throw new IllegalStateException("The maximumRequestsPerPeriod must be a positive number, was: " + newThrottle);
         }
 
-        synchronized (this) {
-            if (newThrottle == null && throttleRate == 0) {
+        int current = bucket.throttleRate;
+        if (newThrottle == null) {
+            if (current < 0) {
                 throw new RuntimeExchangeException("The maxRequestsPerPeriodExpression was evaluated as null: " + maxRequestsPerPeriodExpression, exchange);
             }
+            return current;
+        }
 
-            if (newThrottle != null) {
-                if (newThrottle != throttleRate) {
-                    // decrease
-                    if (throttleRate > newThrottle) {
-                        int delta = throttleRate - newThrottle;
-
-                        // discard any permits that are needed to decrease throttling
-                        while (delta > 0) {
-                            delayQueue.take();
-                            delta--;
-                            log.trace("Permit discarded due to throttling rate decrease, triggered by ExchangeId: {}", exchange.getExchangeId());
-                        }
-                        log.debug("Throttle rate decreased from {} to {}, triggered by ExchangeId: {}", throttleRate, newThrottle, exchange.getExchangeId());
+        if (newThrottle != current) {
+            // the permits are computed from the rate so changing the rate is just a matter of setting it
+            bucket.throttleRate = newThrottle;
+            if (current < 0) {
+                log.debug("Initial throttle rate set to {}, triggered by ExchangeId: {}", newThrottle, exchange.getExchangeId());
+            } else if (newThrottle < current) {
+                log.debug("Throttle rate decreased from {} to {}, triggered by ExchangeId: {}", current, newThrottle, exchange.getExchangeId());
+            } else {
+                log.debug("Throttle rate increase from {} to {}, triggered by ExchangeId: {}", current, newThrottle, exchange.getExchangeId());
+            }
+        }
+        throttleRate = newThrottle;
+        return newThrottle;
+    }
 
-                    // increase
-                    } else if (newThrottle > throttleRate) {
-                        int delta = newThrottle - throttleRate;
-                        for (int i = 0; i < delta; i++) {
-                            delayQueue.put(new ThrottlePermit(-1));
-                        }
-                        if (throttleRate == 0) {
-                            log.debug("Initial throttle rate set to {}, triggered by ExchangeId: {}", newThrottle, exchange.getExchangeId());
-                        } else {
-                            log.debug("Throttle rate increase from {} to {}, triggered by ExchangeId: {}", throttleRate, newThrottle, exchange.getExchangeId());
-                        }
-                    }
-                    throttleRate = newThrottle;
+    /**
+     * Gets the bucket to use for the exchange, which is the bucket of its correlation key if
+     * a correlation expression has been configured.
+     */
+    protected ThrottleBucket getBucket(final Exchange exchange) {
+        if (correlationExpression == null) {
+            return defaultBucket;
+        }
+        Object key = correlationExpression.evaluate(exchange, Object.class);
+        if (key == null) {
+            // exchanges without a correlation key shares the default bucket
+            return defaultBucket;
+        }
+
+        ThrottleBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            ThrottleBucket newBucket = new ThrottleBucket();
+            bucket = buckets.putIfAbsent(key, newBucket);
+            if (bucket == null) {
+                bucket = newBucket;
+                evictionOrder.offer(key);
+                if (buckets.size() > maximumCorrelationKeys) {
+                    evictBucket(key);
+                }
+            }
+        }
+        return bucket;
+    }
+
+    /**
+     * Evicts a bucket when there are more than maximumCorrelationKeys. The keys are looked at from the oldest,
+     * and the first idle bucket is evicted, as an idle bucket has all its permits and therefore is the same as
+     * a new bucket. If none of the buckets looked at is idle, then the oldest bucket without any exchanges
+     * waiting for a permit is evicted. The buckets which are kept are moved to the back of the eviction order.
+     */
+    private void evictBucket(final Object newKey) {
+        long now = System.nanoTime();
+        Object candidateKey = null;
+        ThrottleBucket candidate = null;
+        for (int i = 0; i < EVICTION_PROBES; i++) {
+            Object key = evictionOrder.poll();
+            if (key == null) {
+                break;
+            }
+            ThrottleBucket bucket = buckets.get(key);
+            if (bucket == null) {
+                // already removed
+                continue;
+            }
+            if (!key.equals(newKey) && bucket.isIdle(now)) {
+                buckets.remove(key, bucket);
+                if (candidate != null) {
+                    evictionOrder.offer(candidateKey);
                 }
+                return;
+            } else if (candidate == null && !key.equals(newKey) && bucket.queued.get() == 0) {
+                candidateKey = key;
+                candidate = bucket;
+            } else {
+                evictionOrder.offer(key);
             }
         }
+        if (candidate != null) {
+            log.debug("Evicting throttle correlation key {} as there are more than {} keys", candidateKey, maximumCorrelationKeys);
+            buckets.remove(candidateKey, candidate);
+        }
     }
 
     @Override
@@ -284,9 +420,19 @@ public class Throttler extends DelegateAsyncProcessor implements Traceable, IdAw
         if (isAsyncDelayed()) {
             ObjectHelper.notNull(asyncExecutor, "executorService", this);
         }
+        if (maximumCorrelationKeys <= 0) {
+            throw new IllegalArgumentException("MaximumCorrelationKeys should be a positive number, was: " + maximumCorrelationKeys);
+        }
         super.doStart();
     }
 
+    @Override
+    protected void doStop() throws Exception {
+        super.doStop();
+        buckets.clear();
+        evictionOrder.clear();
+    }
+
     @Override
     protected void doShutdown() throws Exception {
         if (shutdownAsyncExecutor && asyncExecutor != null) {
@@ -296,27 +442,81 @@ public class Throttler extends DelegateAsyncProcessor implements Traceable, IdAw
     }
 
     /**
-     * Permit that implements the Delayed interface needed by DelayQueue.
+     * A lock-free token bucket implemented using the generic cell rate algorithm, where the state is the
+     * theoretical arrival time of the next permit.
+     * <p/>
+     * A permit is emitted every <tt>period / rate</tt> nanos, and a permit can be acquired up to
+     * <tt>period - (period / rate)</tt> nanos ahead of its theoretical arrival time, which allows a burst
+     * of up to <tt>rate</tt> permits.
      */
-    private class ThrottlePermit implements Delayed {
-        private volatile long scheduledTime;
-
-        ThrottlePermit(final long delayMs) {
-            setDelayMs(delayMs);
+    protected static final class ThrottleBucket {
+        private final AtomicLong theoreticalArrivalTime = new AtomicLong(System.nanoTime());
+        private final AtomicInteger queued = new AtomicInteger();
+        // the rate is unknown until the max requests expression has been evaluated the first time
+        private volatile int throttleRate = -1;
+
+        /**
+         * Reserves a permit.
+         *
+         * @param rate          the throttle rate
+         * @param periodNanos   the time period
+         * @param delayed       whether to reserve the permit even if its not due yet
+         * @return the nanos to wait until the reserved permit is due, or <tt>-1</tt> if no permit was
+         *         reserved as no permit is due and <tt>delayed</tt> was <tt>false</tt>
+         */
+        long reserve(int rate, long periodNanos, boolean delayed) {
+            if (rate <= 0) {
+                return -1;
+            }
+            long interval = Math.max(1, periodNanos / rate);
+            long tolerance = periodNanos - interval;
+            while (true) {
+                long now = System.nanoTime();
+                long tat = theoreticalArrivalTime.get();
+                long start = tat - now > 0 ? tat : now;
+                long wait = start - tolerance - now;
+                if (wait > 0 && !delayed) {
+                    return -1;
+                }
+                if (theoreticalArrivalTime.compareAndSet(tat, start + interval)) {
+                    return wait > 0 ? wait : 0;
+                }
+            }
         }
 
-        public void setDelayMs(final long delayMs) {
-            this.scheduledTime = System.currentTimeMillis() + delayMs;
+        /**
+         * Releases a permit which was reserved but will not be used.
+         *
+         * @param rate          the throttle rate the permit was reserved with
+         * @param periodNanos   the time period
+         */
+        void release(int rate, long periodNanos) {
+            if (rate > 0) {
+                theoreticalArrivalTime.addAndGet(-Math.max(1, periodNanos / rate));
+            }
         }
 
-        @Override
-        public long getDelay(final TimeUnit unit) {
-            return unit.convert(scheduledTime - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        /**
+         * Gets the number of permits which can be acquired right now.
+         */
+        int getAvailablePermits(long periodNanos) {
+            int rate = throttleRate;
+            if (rate <= 0) {
+                return 0;
+            }
+            long interval = Math.max(1, periodNanos / rate);
+            long credit = System.nanoTime() + periodNanos - theoreticalArrivalTime.get();
+            if (credit <= 0) {
+                return 0;
+            }
+            return (int) Math.min(rate, credit / interval);
         }
 
-        @Override
-        public int compareTo(final Delayed o) {
-            return (int)(getDelay(TimeUnit.MILLISECONDS) - o.getDelay(TimeUnit.MILLISECONDS));
+        /**
+         * Whether the bucket is full and no exchanges are waiting for a permit.
+         */
+        boolean isIdle(long now) {
+            return queued.get() == 0 && theoreticalArrivalTime.get() - now <= 0;
         }
     }
 
@@ -363,6 +563,32 @@ public class Throttler extends DelegateAsyncProcessor implements Traceable, IdAw
         return maxRequestsPerPeriodExpression;
     }
 
+    public Expression getCorrelationExpression() {
+        return correlationExpression;
+    }
+
+    /**
+     * Sets the expression which evaluates the correlation key to throttle by, which means each
+     * correlation key has its own throttle rate.
+     */
+    public void setCorrelationExpression(Expression correlationExpression) {
+        this.correlationExpression = correlationExpression;
+    }
+
+    public int getMaximumCorrelationKeys() {
+        return maximumCorrelationKeys;
+    }
+
+    /**
+     * Sets the maximum number of correlation keys to keep track of. The number of keys can exceed the maximum
+     * when the keys have exchanges waiting for a permit, as their buckets are not evicted.
+     * <p/>
+     * Is by default <tt>1000</tt>
+     */
+    public void setMaximumCorrelationKeys(int maximumCorrelationKeys) {
+        this.maximumCorrelationKeys = maximumCorrelationKeys;
+    }
+
     /**
      * Gets the current maximum request per period value.
      */
@@ -370,6 +596,54 @@ public class Throttler extends DelegateAsyncProcessor implements Traceable, IdAw
         return throttleRate;
     }
 
+    /**
+     * Gets the current maximum request per period value of the given correlation key.
+     *
+     * @return the value, or <tt>0</tt> if the correlation key is not currently being throttled
+     */
+    public int getCurrentMaximumRequestsPerPeriod(Object key) {
+        ThrottleBucket bucket = key != null ? buckets.get(key) : defaultBucket;
+        return bucket != null ? Math.max(0, bucket.throttleRate) : 0;
+    }
+
+    /**
+     * Gets the number of permits which can currently be acquired without being throttled.
+     */
+    public int getAvailablePermits() {
+        return defaultBucket.getAvailablePermits(TimeUnit.MILLISECONDS.toNanos(timePeriodMillis));
+    }
+
+    /**
+     * Gets the number of permits of the given correlation key which can currently be acquired without being throttled.
+     */
+    public int getAvailablePermits(Object key) {
+        ThrottleBucket bucket = key != null ? buckets.get(key) : defaultBucket;
+        // a key which is not tracked has all its permits
+        return bucket != null ? bucket.getAvailablePermits(TimeUnit.MILLISECONDS.toNanos(timePeriodMillis)) : getCurrentMaximumRequestsPerPeriod();
+    }
+
+    /**
+     * Gets the number of exchanges which are currently waiting for a permit.
+     */
+    public int getQueuedExchanges() {
+        return queuedExchanges.get();
+    }
+
+    /**
+     * Gets the number of exchanges of the given correlation key which are currently waiting for a permit.
+     */
+    public int getQueuedExchanges(Object key) {
+        ThrottleBucket bucket = key != null ? buckets.get(key) : defaultBucket;
+        return bucket != null ? bucket.queued.get() : 0;
+    }
+
+    /**
+     * Gets the correlation keys which are currently being throttled.
+     */
+    public Set<Object> getCorrelationKeys() {
+        return Collections.unmodifiableSet(buckets.keySet());
+    }
+
     /**
      * Sets the time period during which the maximum number of requests apply
      */
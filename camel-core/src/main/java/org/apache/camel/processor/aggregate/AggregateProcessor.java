@@ -90,6 +90,8 @@ public class AggregateProcessor extends ServiceSupport implements AsyncProcessor
     private static final Logger LOG = LoggerFactory.getLogger(AggregateProcessor.class);
 
     private final Lock lock = new ReentrantLock();
+    // striped locks used instead of the shared lock when lock striping is enabled
+    private Lock[] stripedLocks;
     private final CamelContext camelContext;
     private final Processor processor;
     private String id;
@@ -193,6 +195,7 @@ public class AggregateProcessor extends ServiceSupport implements AsyncProcessor
     private Integer closeCorrelationKeyOnCompletion;
     private boolean parallelProcessing;
     private boolean optimisticLocking;
+    private int lockStripes;
 
     // different ways to have completion triggered
     private boolean eagerCheckCompletion;
@@ -340,11 +343,12 @@ public class AggregateProcessor extends ServiceSupport implements AsyncProcessor
             // bound such as JPA etc then concurrent aggregation per correlation key could
             // improve performance as we can run aggregation repository get/add in parallel
             List<Exchange> aggregated = null;
-            lock.lock();
+            Lock keyLock = getLock(key);
+            keyLock.lock();
             try {
                 aggregated = doAggregation(key, copy);
             } finally {
-                lock.unlock();
+                keyLock.unlock();
             }
 
             // we are completed so do that work outside the lock
@@ -477,6 +481,44 @@ public class AggregateProcessor extends ServiceSupport implements AsyncProcessor
         return list;
     }
 
+    /**
+     * Gets the lock to use for aggregating the given correlation key.
+     */
+    private Lock getLock(String key) {
+        Lock[] locks = stripedLocks;
+        if (locks == null) {
+            return lock;
+        }
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return locks[hash & (locks.length - 1)];
+    }
+
+    /**
+     * Acquires the shared lock, or all the striped locks (always in the same order) when lock striping is in use.
+     */
+    private void lockAll() {
+        Lock[] locks = stripedLocks;
+        if (locks == null) {
+            lock.lock();
+        } else {
+            for (Lock stripe : locks) {
+                stripe.lock();
+            }
+        }
+    }
+
+    private void unlockAll() {
+        Lock[] locks = stripedLocks;
+        if (locks == null) {
+            lock.unlock();
+        } else {
+            for (int i = locks.length - 1; i >= 0; i--) {
+                locks[i].unlock();
+            }
+        }
+    }
+
     protected void doAggregationComplete(String complete, List<Exchange> list, String key, Exchange originalExchange, Exchange answer) {
         if ("consumer".equals(complete)) {
             for (String batchKey : batchConsumerCorrelationKeys) {
@@ -945,6 +987,21 @@ public class AggregateProcessor extends ServiceSupport implements AsyncProcessor
         this.optimisticLocking = optimisticLocking;
     }
 
+    public int getLockStripes() {
+        return lockStripes;
+    }
+
+    /**
+     * Sets the number of locks to stripe the correlation keys over, which allows exchanges with different
+     * correlation keys to be aggregated in parallel. The value is rounded up to a power of two.
+     * By default a single shared lock is used.
+     * <p/>
+     * Lock striping is not in use when optimistic locking or completion from batch consumer is enabled.
+     */
+    public void setLockStripes(int lockStripes) {
+        this.lockStripes = lockStripes;
+    }
+
     public AggregationRepository getAggregationRepository() {
         return aggregationRepository;
     }
@@ -1062,21 +1119,22 @@ public class AggregateProcessor extends ServiceSupport implements AsyncProcessor
     private final class AggregationTimeoutMap extends DefaultTimeoutMap<String, String> {
 
         private AggregationTimeoutMap(ScheduledExecutorService executor, long requestMapPollTimeMillis) {
-            // do NOT use locking on the timeout map as this aggregator has its own shared lock we will use instead
-            super(executor, requestMapPollTimeMillis, optimisticLocking);
+            // do NOT use locking on the timeout map as this aggregator has its own shared lock we will use instead,
+            // however when using striped locks then correlation keys in different stripes update the map concurrently
+            super(executor, requestMapPollTimeMillis, optimisticLocking || stripedLocks != null);
         }
 
         @Override
         public void purge() {
             // must acquire the shared aggregation lock to be able to purge
             if (!optimisticLocking) {
-                lock.lock();
+                lockAll();
             }
             try {
                 super.purge();
             } finally {
                 if (!optimisticLocking) {
-                    lock.unlock();
+                    unlockAll();
                 }
             }
         }
@@ -1137,7 +1195,7 @@ public class AggregateProcessor extends ServiceSupport implements AsyncProcessor
             if (keys != null && !keys.isEmpty()) {
                 // must acquire the shared aggregation lock to be able to trigger interval completion
                 if (!optimisticLocking) {
-                    lock.lock();
+                    lockAll();
                 }
                 try {
                     for (String key : keys) {
@@ -1164,7 +1222,7 @@ public class AggregateProcessor extends ServiceSupport implements AsyncProcessor
                     }
                 } finally {
                     if (!optimisticLocking) {
-                        lock.unlock();
+                        unlockAll();
                     }
                 }
             }
@@ -1314,6 +1372,19 @@ public class AggregateProcessor extends ServiceSupport implements AsyncProcessor
             LOG.info("Optimistic locking is enabled");
         }
 
+        // batch consumer completion completes all the correlation keys at once so it must use the shared lock
+        if (lockStripes > 1 && !optimisticLocking && !isCompletionFromBatchConsumer()) {
+            int size = Integer.highestOneBit(lockStripes - 1) << 1;
+            Lock[] locks = new Lock[size];
+            for (int i = 0; i < size; i++) {
+                locks[i] = new ReentrantLock();
+            }
+            stripedLocks = locks;
+            LOG.info("Using {} striped locks for aggregating correlation keys in parallel", size);
+        } else {
+            stripedLocks = null;
+        }
+
         ServiceHelper.startServices(aggregationStrategy, processor, aggregationRepository);
 
         // should we use recover checker
@@ -1355,7 +1426,7 @@ public class AggregateProcessor extends ServiceSupport implements AsyncProcessor
         if (getCompletionInterval() > 0) {
             LOG.info("Using CompletionInterval to run every " + getCompletionInterval() + " millis.");
             if (getTimeoutCheckerExecutorService() == null) {
-                setTimeoutCheckerExecutorService(camelContext.getExecutorServiceManager().newScheduledThreadPool(this, AGGREGATE_TIMEOUT_CHECKER, 1));
+                setTimeoutCheckerExecutorService(camelContext.getExecutorServiceManager().newTimerScheduledThreadPool(this, AGGREGATE_TIMEOUT_CHECKER, 1));
                 shutdownTimeoutCheckerExecutorService = true;
             }
             // trigger completion based on interval
@@ -1366,7 +1437,7 @@ public class AggregateProcessor extends ServiceSupport implements AsyncProcessor
         if (getCompletionTimeout() > 0 || getCompletionTimeoutExpression() != null) {
             LOG.info("Using CompletionTimeout to trigger after " + getCompletionTimeout() + " millis of inactivity.");
             if (getTimeoutCheckerExecutorService() == null) {
-                setTimeoutCheckerExecutorService(camelContext.getExecutorServiceManager().newScheduledThreadPool(this, AGGREGATE_TIMEOUT_CHECKER, 1));
+                setTimeoutCheckerExecutorService(camelContext.getExecutorServiceManager().newTimerScheduledThreadPool(this, AGGREGATE_TIMEOUT_CHECKER, 1));
                 shutdownTimeoutCheckerExecutorService = true;
             }
             // check for timed out aggregated messages once every second
@@ -1478,8 +1549,9 @@ public class AggregateProcessor extends ServiceSupport implements AsyncProcessor
         // must acquire the shared aggregation lock to be able to trigger force completion
         int total = 0;
 
+        Lock keyLock = getLock(key);
         if (!optimisticLocking) {
-            lock.lock();
+            keyLock.lock();
         }
         try {
             Exchange exchange = aggregationRepository.get(camelContext, key);
@@ -1495,7 +1567,7 @@ public class AggregateProcessor extends ServiceSupport implements AsyncProcessor
             }
         } finally {
             if (!optimisticLocking) {
-                lock.unlock(); 
+                keyLock.unlock();
             }
         }
         LOG.trace("Completed force completion of group {}", key);
@@ -1524,7 +1596,7 @@ public class AggregateProcessor extends ServiceSupport implements AsyncProcessor
         if (keys != null && !keys.isEmpty()) {
             // must acquire the shared aggregation lock to be able to trigger force completion
             if (!optimisticLocking) {
-                lock.lock(); 
+                lockAll();
             }
             total = keys.size();
             try {
@@ -1542,7 +1614,7 @@ public class AggregateProcessor extends ServiceSupport implements AsyncProcessor
                 }
             } finally {
                 if (!optimisticLocking) {
-                    lock.unlock();
+                    unlockAll();
                 }
             }
         }
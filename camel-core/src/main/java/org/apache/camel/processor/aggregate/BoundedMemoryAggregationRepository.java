@@ -0,0 +1,915 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.processor.aggregate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.Endpoint;
+import org.apache.camel.Exchange;
+import org.apache.camel.Message;
+import org.apache.camel.StreamCache;
+import org.apache.camel.WrappedFile;
+import org.apache.camel.api.management.ManagedAttribute;
+import org.apache.camel.api.management.ManagedResource;
+import org.apache.camel.impl.DefaultExchange;
+import org.apache.camel.impl.DefaultExchangeHolder;
+import org.apache.camel.spi.OptimisticLockingAggregationRepository;
+import org.apache.camel.spi.RecoverableAggregationRepository;
+import org.apache.camel.support.ServiceSupport;
+import org.apache.camel.util.FileUtil;
+import org.apache.camel.util.IOHelper;
+import org.apache.camel.util.ExchangeHelper;
+import org.apache.camel.util.ObjectHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A memory based {@link org.apache.camel.spi.AggregationRepository} which is bounded by a budget of retained bytes,
+ * and which spills the least recently used aggregated exchanges to files on local disk when the budget is exceeded.
+ * <p/>
+ * Unlike {@link MemoryAggregationRepository} this repository protects against running out of memory when there is a
+ * large number of correlation keys which are never completed. The retained bytes of each aggregated exchange are
+ * estimated when its added to the repository, and the repository is split into shards which each has its own lock,
+ * least recently used order, share of the budget and spill file. A spilled exchange is loaded back into memory
+ * when its accessed again.
+ * <p/>
+ * The exchanges are spilled using {@link DefaultExchangeHolder}, which means that only the message bodies, the
+ * headers and the aggregation properties are kept, the same as the persistent aggregation repositories. Exchanges
+ * which cannot be serialized, such as exchanges with a file body or grouped exchanges, are kept in memory.
+ * The spill files are temporary and are deleted when the repository is stopped.
+ * <p/>
+ * Supports both optimistic locking and non-optimistic locking modes. Defaults to non-optimistic locking mode.
+ * When recovery is enabled (default) then a copy of the completed exchanges are kept until they are confirmed, and
+ * they are also subject to the budget. Notice the recovery state is only kept in memory and in the temporary spill
+ * files, and is therefore lost when the JVM is stopped. This repository only recovers exchanges which failed while
+ * the JVM is running, and a persistent repository must be used to recover exchanges after a restart.
+ *
+ * @version 
+ */
+@ManagedResource(description = "Bounded memory aggregation repository")
+public class BoundedMemoryAggregationRepository extends ServiceSupport
+        implements RecoverableAggregationRepository, OptimisticLockingAggregationRepository {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BoundedMemoryAggregationRepository.class);
+
+    // rough estimates of the retained bytes of the objects
+    private static final long EXCHANGE_SIZE = 256;
+    private static final long MESSAGE_SIZE = 64;
+    private static final long OBJECT_SIZE = 64;
+    private static final long ENTRY_SIZE = 32;
+    private static final int MAX_DEPTH = 3;
+    private static final int MAX_SAMPLES = 100;
+    // compact a spill file when it has at least 1mb of dead bytes, and more dead than live bytes
+    private static final long COMPACT_DEAD_BYTES = 1024 * 1024;
+
+    private final boolean optimisticLocking;
+    private Shard[] shards;
+    private int shardCount = 16;
+    private long maxRetainedBytes = 64 * 1024 * 1024;
+    private File directory;
+    private File spillDirectory;
+    private boolean allowSerializedHeaders;
+    private long recoveryInterval = 5000;
+    private boolean useRecovery = true;
+    private int maximumRedeliveries;
+    private String deadLetterUri;
+
+    public BoundedMemoryAggregationRepository() {
+        this(false);
+    }
+
+    public BoundedMemoryAggregationRepository(boolean optimisticLocking) {
+        this.optimisticLocking = optimisticLocking;
+    }
+
+    public BoundedMemoryAggregationRepository(long maxRetainedBytes) {
+        this(false);
+        setMaxRetainedBytes(maxRetainedBytes);
+    }
+
+    public Exchange add(CamelContext camelContext, String key, Exchange exchange) {
+        if (optimisticLocking) {
+            throw new UnsupportedOperationException();
+        }
+        long size = estimateSize(exchange);
+        Shard shard = shardFor(key);
+        shard.lock.lock();
+        try {
+            // read a spilled old exchange before its freed, as putting the new exchange may compact the spill file
+            Entry old = shard.aggregates.get(key);
+            Exchange answer = old != null ? shard.toExchange(camelContext, old) : null;
+            shard.put(shard.aggregates, key, exchange, size);
+            return answer;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    public Exchange add(CamelContext camelContext, String key, Exchange oldExchange, Exchange newExchange) {
+        if (!optimisticLocking) {
+            throw new UnsupportedOperationException();
+        }
+        long size = estimateSize(newExchange);
+        Shard shard = shardFor(key);
+        shard.lock.lock();
+        try {
+            Entry current = shard.aggregates.get(key);
+            if (oldExchange == null ? current != null : current == null || current.exchange != oldExchange) {
+                // a spilled exchange is never the same instance as the old exchange
+                throw new OptimisticLockingException();
+            }
+            shard.put(shard.aggregates, key, newExchange, size);
+            return oldExchange;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    public Exchange get(CamelContext camelContext, String key) {
+        Shard shard = shardFor(key);
+        shard.lock.lock();
+        try {
+            return shard.load(camelContext, shard.aggregates, key);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    public void remove(CamelContext camelContext, String key, Exchange exchange) {
+        Shard shard = shardFor(key);
+        shard.lock.lock();
+        try {
+            if (optimisticLocking) {
+                Entry current = shard.aggregates.get(key);
+                if (current == null || current.exchange != exchange) {
+                    throw new OptimisticLockingException();
+                }
+            }
+            shard.remove(shard.aggregates, key);
+        } finally {
+            shard.lock.unlock();
+        }
+
+        if (useRecovery) {
+            // keep a copy of the completed exchange until its confirmed, as the exchange is changed
+            // when its routed after its completed
+            String exchangeId = exchange.getExchangeId();
+            Exchange copy = ExchangeHelper.createCopy(exchange, true);
+            Shard completed = shardFor(exchangeId);
+            long size = estimateSize(copy);
+            completed.lock.lock();
+            try {
+                completed.put(completed.completed, exchangeId, copy, size);
+            } finally {
+                completed.lock.unlock();
+            }
+        }
+    }
+
+    public void confirm(CamelContext camelContext, String exchangeId) {
+        if (!useRecovery) {
+            return;
+        }
+        Shard shard = shardFor(exchangeId);
+        shard.lock.lock();
+        try {
+            shard.remove(shard.completed, exchangeId);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    public Set<String> getKeys() {
+        Set<String> answer = new LinkedHashSet<String>();
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                shard.aggregates.addKeys(answer);
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        // do not allow edits to the set
+        return Collections.unmodifiableSet(answer);
+    }
+
+    public Set<String> scan(CamelContext camelContext) {
+        Set<String> answer = new LinkedHashSet<String>();
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                shard.completed.addKeys(answer);
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        LOG.trace("Scanned and found {} exchange(s) to recover", answer.size());
+        return answer;
+    }
+
+    public Exchange recover(CamelContext camelContext, String exchangeId) {
+        Shard shard = shardFor(exchangeId);
+        shard.lock.lock();
+        try {
+            Entry entry = shard.completed.get(exchangeId);
+            if (entry == null) {
+                return null;
+            }
+            // return a copy so the completed exchange is not changed by the recovery
+            return entry.exchange != null ? entry.exchange.copy() : shard.toExchange(camelContext, entry);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Estimates the retained bytes of the exchange, which is the sum of rough estimates of the exchange, its messages,
+     * bodies, headers and properties. Collections are estimated by sampling their first elements.
+     *
+     * @param exchange the exchange
+     * @return the estimated retained bytes
+     */
+    protected long estimateSize(Exchange exchange) {
+        return estimateExchange(exchange, 0);
+    }
+
+    /**
+     * Whether the exchange can be spilled to disk without losing any data.
+     *
+     * @param exchange the exchange
+     * @return <tt>true</tt> if the exchange can be spilled
+     */
+    protected boolean isSpillable(Exchange exchange) {
+        if (exchange.getProperty(Exchange.GROUPED_EXCHANGE) != null) {
+            return false;
+        }
+        if (!isSerializableBody(exchange.getIn().getBody())) {
+            return false;
+        }
+        return !exchange.hasOut() || isSerializableBody(exchange.getOut().getBody());
+    }
+
+    /**
+     * Marshals the exchange to the bytes which are spilled to disk.
+     */
+    protected byte[] marshalExchange(Exchange exchange) throws IOException {
+        DefaultExchangeHolder pe = DefaultExchangeHolder.marshal(exchange, false, allowSerializedHeaders);
+        // add the aggregation properties as the only properties we want to retain
+        DefaultExchangeHolder.addProperty(pe, Exchange.AGGREGATED_SIZE, exchange.getProperty(Exchange.AGGREGATED_SIZE, Integer.class));
+        DefaultExchangeHolder.addProperty(pe, Exchange.AGGREGATED_TIMEOUT, exchange.getProperty(Exchange.AGGREGATED_TIMEOUT, Long.class));
+        DefaultExchangeHolder.addProperty(pe, Exchange.AGGREGATED_COMPLETED_BY, exchange.getProperty(Exchange.AGGREGATED_COMPLETED_BY, String.class));
+        DefaultExchangeHolder.addProperty(pe, Exchange.AGGREGATED_CORRELATION_KEY, exchange.getProperty(Exchange.AGGREGATED_CORRELATION_KEY, String.class));
+        DefaultExchangeHolder.addProperty(pe, Exchange.AGGREGATED_COLLECTION_GUARD, exchange.getProperty(Exchange.AGGREGATED_COLLECTION_GUARD, String.class));
+        if (exchange.getFromEndpoint() != null) {
+            DefaultExchangeHolder.addProperty(pe, "CamelAggregatedFromEndpoint", exchange.getFromEndpoint().getEndpointUri());
+        }
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(bos);
+        try {
+            oos.writeObject(pe);
+        } finally {
+            IOHelper.close(oos);
+        }
+        return bos.toByteArray();
+    }
+
+    /**
+     * Unmarshals the exchange from the bytes which was spilled to disk.
+     */
+    protected Exchange unmarshalExchange(CamelContext camelContext, byte[] data) throws IOException {
+        DefaultExchangeHolder pe;
+        ObjectInputStream ois = new ClassResolverObjectInputStream(camelContext, new ByteArrayInputStream(data));
+        try {
+            pe = (DefaultExchangeHolder) ois.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Cannot unmarshal spilled exchange due " + e.getMessage(), e);
+        } finally {
+            IOHelper.close(ois);
+        }
+
+        Exchange answer = new DefaultExchange(camelContext);
+        DefaultExchangeHolder.unmarshal(answer, pe);
+        String fromEndpointUri = (String) answer.removeProperty("CamelAggregatedFromEndpoint");
+        if (fromEndpointUri != null) {
+            Endpoint fromEndpoint = camelContext.hasEndpoint(fromEndpointUri);
+            if (fromEndpoint != null) {
+                answer.setFromEndpoint(fromEndpoint);
+            }
+        }
+        return answer;
+    }
+
+    private static boolean isSerializableBody(Object body) {
+        return body == null || (body instanceof Serializable && !(body instanceof File) && !(body instanceof WrappedFile));
+    }
+
+    private long estimateExchange(Exchange exchange, int depth) {
+        long size = EXCHANGE_SIZE + estimateMessage(exchange.getIn(), depth);
+        if (exchange.hasOut()) {
+            size += estimateMessage(exchange.getOut(), depth);
+        }
+        if (exchange.hasProperties()) {
+            // avoid taking a copy of the properties which are shared with the copies of the exchange
+            Map<String, Object> properties = exchange instanceof DefaultExchange
+                    ? ((DefaultExchange) exchange).getReadOnlyProperties() : exchange.getProperties();
+            size += estimateMap(properties, depth);
+        }
+        return size;
+    }
+
+    private long estimateMessage(Message message, int depth) {
+        long size = MESSAGE_SIZE + estimateObject(message.getBody(), depth);
+        if (message.hasHeaders()) {
+            size += estimateMap(message.getHeaders(), depth);
+        }
+        return size;
+    }
+
+    private long estimateMap(Map<?, ?> map, int depth) {
+        long size = ENTRY_SIZE;
+        if (depth >= MAX_DEPTH) {
+            return size + map.size() * OBJECT_SIZE;
+        }
+        int count = 0;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (count == MAX_SAMPLES) {
+                // extrapolate from the samples
+                return size + size * (map.size() - count) / count;
+            }
+            size += ENTRY_SIZE + estimateObject(entry.getKey(), depth + 1) + estimateObject(entry.getValue(), depth + 1);
+            count++;
+        }
+        return size;
+    }
+
+    private long estimateCollection(Collection<?> collection, int depth) {
+        long size = ENTRY_SIZE;
+        if (depth >= MAX_DEPTH) {
+            return size + collection.size() * OBJECT_SIZE;
+        }
+        int count = 0;
+        for (Object element : collection) {
+            if (count == MAX_SAMPLES) {
+                return size + size * (collection.size() - count) / count;
+            }
+            size += estimateObject(element, depth + 1);
+            count++;
+        }
+        return size;
+    }
+
+    private long estimateObject(Object value, int depth) {
+        if (value == null) {
+            return 0;
+        } else if (value instanceof byte[]) {
+            return 16 + ((byte[]) value).length;
+        } else if (value instanceof CharSequence) {
+            return 40 + 2 * ((CharSequence) value).length();
+        } else if (value instanceof Number || value instanceof Boolean || value instanceof Character || value instanceof Enum) {
+            return 16;
+        } else if (value instanceof StreamCache) {
+            return OBJECT_SIZE + Math.max(0, ((StreamCache) value).length());
+        } else if (value instanceof Exchange) {
+            return depth >= MAX_DEPTH ? EXCHANGE_SIZE : estimateExchange((Exchange) value, depth + 1);
+        } else if (value instanceof Collection) {
+            return estimateCollection((Collection<?>) value, depth);
+        } else if (value instanceof Map) {
+            return estimateMap((Map<?, ?>) value, depth);
+        } else if (value instanceof Object[]) {
+            return estimateCollection(Arrays.asList((Object[]) value), depth);
+        }
+        return OBJECT_SIZE;
+    }
+
+    private Shard shardFor(String key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return shards[h & (shards.length - 1)];
+    }
+
+    // Properties
+    // -------------------------------------------------------------------------
+
+    public boolean isOptimisticLocking() {
+        return optimisticLocking;
+    }
+
+    @ManagedAttribute(description = "Number of shards")
+    public int getShards() {
+        return shardCount;
+    }
+
+    /**
+     * Sets the number of shards, which is rounded up to a power of two. Default is 16.
+     */
+    public void setShards(int shards) {
+        this.shardCount = shards;
+    }
+
+    @ManagedAttribute(description = "Maximum retained bytes in memory before spilling to disk")
+    public long getMaxRetainedBytes() {
+        return maxRetainedBytes;
+    }
+
+    /**
+     * Sets the budget of retained bytes in memory, before the least recently used exchanges are spilled to disk.
+     * The budget is split evenly among the shards. Default is 64mb.
+     */
+    public void setMaxRetainedBytes(long maxRetainedBytes) {
+        this.maxRetainedBytes = maxRetainedBytes;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Sets the directory to use for the spill files. Default is the temporary directory.
+     */
+    public void setDirectory(File directory) {
+        this.directory = directory;
+    }
+
+    public boolean isAllowSerializedHeaders() {
+        return allowSerializedHeaders;
+    }
+
+    /**
+     * Whether headers which are serializable objects are spilled, otherwise only primitive headers are spilled.
+     */
+    public void setAllowSerializedHeaders(boolean allowSerializedHeaders) {
+        this.allowSerializedHeaders = allowSerializedHeaders;
+    }
+
+    public void setRecoveryInterval(long interval, TimeUnit timeUnit) {
+        this.recoveryInterval = timeUnit.toMillis(interval);
+    }
+
+    public void setRecoveryInterval(long interval) {
+        this.recoveryInterval = interval;
+    }
+
+    public long getRecoveryIntervalInMillis() {
+        return recoveryInterval;
+    }
+
+    public boolean isUseRecovery() {
+        return useRecovery;
+    }
+
+    public void setUseRecovery(boolean useRecovery) {
+        this.useRecovery = useRecovery;
+    }
+
+    public int getMaximumRedeliveries() {
+        return maximumRedeliveries;
+    }
+
+    public void setMaximumRedeliveries(int maximumRedeliveries) {
+        this.maximumRedeliveries = maximumRedeliveries;
+    }
+
+    public String getDeadLetterUri() {
+        return deadLetterUri;
+    }
+
+    public void setDeadLetterUri(String deadLetterUri) {
+        this.deadLetterUri = deadLetterUri;
+    }
+
+    @ManagedAttribute(description = "Number of aggregated exchanges")
+    public int getSize() {
+        int answer = 0;
+        for (Shard shard : shards) {
+            answer += shard.aggregates.size();
+        }
+        return answer;
+    }
+
+    @ManagedAttribute(description = "Number of completed exchanges which are not yet confirmed")
+    public int getCompletedSize() {
+        int answer = 0;
+        for (Shard shard : shards) {
+            answer += shard.completed.size();
+        }
+        return answer;
+    }
+
+    @ManagedAttribute(description = "Number of exchanges which are spilled to disk")
+    public int getSpilledSize() {
+        int answer = 0;
+        for (Shard shard : shards) {
+            answer += shard.aggregates.spilled.size() + shard.completed.spilled.size();
+        }
+        return answer;
+    }
+
+    @ManagedAttribute(description = "Estimated retained bytes in memory")
+    public long getRetainedBytes() {
+        long answer = 0;
+        for (Shard shard : shards) {
+            answer += shard.retainedBytes;
+        }
+        return answer;
+    }
+
+    /**
+     * Gets the estimated retained bytes in memory of the aggregated exchange with the given correlation key.
+     *
+     * @param key the correlation key
+     * @return the estimated retained bytes, or <tt>0</tt> if the exchange does not exist or is spilled to disk
+     */
+    public long getRetainedBytes(String key) {
+        Shard shard = shardFor(key);
+        shard.lock.lock();
+        try {
+            Entry entry = shard.aggregates.get(key);
+            return entry != null && entry.exchange != null ? entry.size : 0;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    @ManagedAttribute(description = "Number of times exchanges has been spilled to disk")
+    public long getSpillCount() {
+        long answer = 0;
+        for (Shard shard : shards) {
+            answer += shard.spillCount;
+        }
+        return answer;
+    }
+
+    @ManagedAttribute(description = "Size in bytes of the spill files")
+    public long getSpillFileSize() {
+        long answer = 0;
+        for (Shard shard : shards) {
+            SpillFile file = shard.file;
+            if (file != null) {
+                answer += file.end;
+            }
+        }
+        return answer;
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shards must be a positive number, was: " + shardCount);
+        }
+        if (maxRetainedBytes <= 0) {
+            throw new IllegalArgumentException("MaxRetainedBytes must be a positive number, was: " + maxRetainedBytes);
+        }
+        if (shards == null) {
+            int size = shardCount == 1 ? 1 : Integer.highestOneBit(shardCount - 1) << 1;
+            Shard[] answer = new Shard[size];
+            for (int i = 0; i < size; i++) {
+                answer[i] = new Shard(i, Math.max(1, maxRetainedBytes / size));
+            }
+            shards = answer;
+        }
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        if (shards != null) {
+            for (Shard shard : shards) {
+                shard.lock.lock();
+                try {
+                    shard.clear();
+                } finally {
+                    shard.lock.unlock();
+                }
+            }
+        }
+        if (spillDirectory != null) {
+            FileUtil.removeDir(spillDirectory);
+            spillDirectory = null;
+        }
+    }
+
+    private synchronized File getSpillDirectory() throws IOException {
+        if (spillDirectory == null) {
+            File parent = directory != null ? directory : new File(System.getProperty("java.io.tmpdir"));
+            parent.mkdirs();
+            spillDirectory = Files.createTempDirectory(parent.toPath(), "camel-aggregation").toFile();
+            LOG.debug("Using spill directory: {}", spillDirectory);
+        }
+        return spillDirectory;
+    }
+
+    /**
+     * An aggregated or completed exchange, which is either in memory or spilled to disk.
+     */
+    private static final class Entry {
+        // the exchange when in memory
+        Exchange exchange;
+        long size;
+        // the location in the spill file when spilled
+        long offset;
+        int length;
+
+        Entry(Exchange exchange, long size) {
+            this.exchange = exchange;
+            this.size = size;
+        }
+    }
+
+    /**
+     * The exchanges of a shard, where the exchanges in memory are kept in least recently used order.
+     */
+    private static final class Region {
+        final LinkedHashMap<String, Entry> memory = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+        final Map<String, Entry> spilled = new HashMap<String, Entry>();
+
+        Entry get(String key) {
+            Entry answer = memory.get(key);
+            return answer != null ? answer : spilled.get(key);
+        }
+
+        int size() {
+            return memory.size() + spilled.size();
+        }
+
+        void addKeys(Set<String> keys) {
+            keys.addAll(memory.keySet());
+            keys.addAll(spilled.keySet());
+        }
+    }
+
+    private final class Shard {
+        final ReentrantLock lock = new ReentrantLock();
+        final Region aggregates = new Region();
+        final Region completed = new Region();
+        final int index;
+        final long maxRetainedBytes;
+        volatile long retainedBytes;
+        volatile long spillCount;
+        SpillFile file;
+
+        Shard(int index, long maxRetainedBytes) {
+            this.index = index;
+            this.maxRetainedBytes = maxRetainedBytes;
+        }
+
+        /**
+         * Gets the exchange, which is loaded into memory if its spilled.
+         */
+        Exchange load(CamelContext camelContext, Region region, String key) {
+            Entry entry = region.memory.get(key);
+            if (entry != null) {
+                return entry.exchange;
+            }
+            entry = region.spilled.get(key);
+            if (entry == null) {
+                return null;
+            }
+
+            Exchange exchange = toExchange(camelContext, entry);
+            region.spilled.remove(key);
+            file.free(entry.length);
+            compactIfNeeded();
+            entry.exchange = exchange;
+            entry.size = estimateSize(exchange);
+            region.memory.put(key, entry);
+            retainedBytes += entry.size;
+            spillIfNeeded(entry);
+            return exchange;
+        }
+
+        Entry put(Region region, String key, Exchange exchange, long size) {
+            Entry old = remove(region, key);
+            Entry entry = new Entry(exchange, size);
+            region.memory.put(key, entry);
+            retainedBytes += size;
+            spillIfNeeded(entry);
+            return old;
+        }
+
+        Entry remove(Region region, String key) {
+            Entry old = region.memory.remove(key);
+            if (old != null) {
+                retainedBytes -= old.size;
+            } else {
+                old = region.spilled.remove(key);
+                if (old != null) {
+                    file.free(old.length);
+                    compactIfNeeded();
+                }
+            }
+            return old;
+        }
+
+        Exchange toExchange(CamelContext camelContext, Entry entry) {
+            if (entry.exchange != null) {
+                return entry.exchange;
+            }
+            try {
+                return unmarshalExchange(camelContext, file.read(entry.offset, entry.length));
+            } catch (IOException e) {
+                throw ObjectHelper.wrapRuntimeCamelException(e);
+            }
+        }
+
+        /**
+         * Spills the least recently used exchanges until the retained bytes are within the budget. The aggregated
+         * exchanges are spilled before the completed exchanges, as they are usually confirmed soon.
+         */
+        void spillIfNeeded(Entry keep) {
+            if (retainedBytes <= maxRetainedBytes) {
+                return;
+            }
+            spill(aggregates, keep);
+            if (retainedBytes > maxRetainedBytes) {
+                spill(completed, keep);
+            }
+        }
+
+        private void spill(Region region, Entry keep) {
+            List<Map.Entry<String, Entry>> unspillable = null;
+            Iterator<Map.Entry<String, Entry>> it = region.memory.entrySet().iterator();
+            while (retainedBytes > maxRetainedBytes && it.hasNext()) {
+                Map.Entry<String, Entry> next = it.next();
+                Entry entry = next.getValue();
+                if (entry == keep) {
+                    continue;
+                }
+                if (!isSpillable(entry.exchange)) {
+                    // move to the end so we do not check it again and again
+                    if (unspillable == null) {
+                        unspillable = new ArrayList<Map.Entry<String, Entry>>();
+                    }
+                    unspillable.add(next);
+                    it.remove();
+                    continue;
+                }
+
+                try {
+                    byte[] data = marshalExchange(entry.exchange);
+                    if (file == null) {
+                        file = new SpillFile(new File(getSpillDirectory(), "shard-" + index + ".dat"));
+                    }
+                    entry.offset = file.write(data);
+                    entry.length = data.length;
+                } catch (Exception e) {
+                    LOG.warn("Cannot spill exchange with key " + next.getKey() + " to disk, will keep it in memory. This exception is ignored.", e);
+                    break;
+                }
+
+                it.remove();
+                region.spilled.put(next.getKey(), entry);
+                retainedBytes -= entry.size;
+                entry.exchange = null;
+                entry.size = 0;
+                spillCount++;
+            }
+            if (unspillable != null) {
+                for (Map.Entry<String, Entry> entry : unspillable) {
+                    region.memory.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        void compactIfNeeded() {
+            if (file == null || file.deadBytes < COMPACT_DEAD_BYTES || file.deadBytes <= file.liveBytes) {
+                return;
+            }
+            SpillFile target = null;
+            try {
+                target = new SpillFile(new File(getSpillDirectory(), "shard-" + index + "-" + System.nanoTime() + ".dat"));
+                for (Region region : new Region[]{aggregates, completed}) {
+                    for (Entry entry : region.spilled.values()) {
+                        byte[] data = file.read(entry.offset, entry.length);
+                        entry.offset = target.write(data);
+                    }
+                }
+            } catch (IOException e) {
+                // the offsets may have been updated so we cannot continue using the old file
+                throw ObjectHelper.wrapRuntimeCamelException(e);
+            }
+            LOG.debug("Compacted spill file of shard {} from {} to {} bytes", new Object[]{index, file.end, target.end});
+            file.delete();
+            file = target;
+        }
+
+        void clear() {
+            aggregates.memory.clear();
+            aggregates.spilled.clear();
+            completed.memory.clear();
+            completed.spilled.clear();
+            retainedBytes = 0;
+            if (file != null) {
+                file.delete();
+                file = null;
+            }
+        }
+    }
+
+    /**
+     * An append only file with the spilled exchanges, where the space of the removed exchanges is reclaimed by compaction.
+     */
+    private static final class SpillFile {
+        final File file;
+        final RandomAccessFile raf;
+        final FileChannel channel;
+        long end;
+        long liveBytes;
+        long deadBytes;
+
+        SpillFile(File file) throws IOException {
+            this.file = file;
+            this.raf = new RandomAccessFile(file, "rw");
+            this.channel = raf.getChannel();
+        }
+
+        long write(byte[] data) throws IOException {
+            long offset = end;
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, offset + buffer.position());
+            }
+            end += data.length;
+            liveBytes += data.length;
+            return offset;
+        }
+
+        byte[] read(long offset, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of spill file " + file);
+                }
+            }
+            return buffer.array();
+        }
+
+        void free(int length) {
+            liveBytes -= length;
+            deadBytes += length;
+        }
+
+        void delete() {
+            IOHelper.close(channel, raf);
+            FileUtil.deleteFile(file);
+        }
+    }
+
+    /**
+     * Resolves the classes of the spilled objects using the {@link org.apache.camel.spi.ClassResolver}.
+     */
+    private static final class ClassResolverObjectInputStream extends ObjectInputStream {
+        private final CamelContext camelContext;
+
+        ClassResolverObjectInputStream(CamelContext camelContext, InputStream in) throws IOException {
+            super(in);
+            this.camelContext = camelContext;
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            Class<?> answer = camelContext.getClassResolver().resolveClass(desc.getName());
+            return answer != null ? answer : super.resolveClass(desc);
+        }
+    }
+
+}
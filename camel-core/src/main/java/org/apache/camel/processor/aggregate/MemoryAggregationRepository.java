@@ -30,6 +30,8 @@ import org.apache.camel.support.ServiceSupport;
  * A memory based {@link org.apache.camel.spi.AggregationRepository} which stores {@link Exchange}s in memory only.
  *
  * Supports both optimistic locking and non-optimistic locking modes. Defaults to non-optimistic locking mode.
+ * <p/>
+ * The repository is unbounded, use {@link BoundedMemoryAggregationRepository} to limit the memory used.
  *
  * @version 
  */
@@ -40,6 +40,9 @@ import org.slf4j.LoggerFactory;
  * <p/>
  * Care should be taken to use a suitable underlying {@link java.util.Map} to avoid this class being a
  * memory leak.
+ * <p/>
+ * Use the {@link MemoryMappedIdempotentRepository} to keep all the keys on disk, when there are more keys
+ * than can be kept in the 1st level cache.
  *
  * @version 
  */
@@ -0,0 +1,1067 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.processor.idempotent;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.camel.api.management.ManagedAttribute;
+import org.apache.camel.api.management.ManagedOperation;
+import org.apache.camel.api.management.ManagedResource;
+import org.apache.camel.spi.IdempotentRepository;
+import org.apache.camel.support.ServiceSupport;
+import org.apache.camel.util.FileUtil;
+import org.apache.camel.util.IOHelper;
+import org.apache.camel.util.ObjectHelper;
+import org.apache.camel.util.concurrent.CamelThreadFactory;
+import org.apache.camel.util.concurrent.ThreadHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A file based implementation of {@link org.apache.camel.spi.IdempotentRepository} which keeps all the keys
+ * on disk, so the number of keys is not limited by the heap size as with the 1st level cache of the
+ * {@link FileIdempotentRepository}.
+ * <p/>
+ * The keys are stored in a memory mapped append-only log file, which is mapped in segments of
+ * {@link #setSegmentSize(int) segmentSize} bytes, and a memory mapped index file, which is an open addressing
+ * hash table of the 64 bit hash code of the key and the offset of the key in the log. A lookup always compares
+ * the key with the key in the log, so the repository never reports false positives. The index is grown
+ * automatically when it becomes full, and the {@link #setIndexCapacity(long) indexCapacity} can be used to size
+ * it up front for the expected number of keys.
+ * <p/>
+ * Removing a key appends a remove record to the log, and when the removed records exceed the
+ * {@link #setCompactionThreshold(double) compactionThreshold} of the log then the log is compacted in the background.
+ * <p/>
+ * The {@link #contains(String)} operation does not use any locks, whereas adding and removing keys are serialized.
+ * When the repository is started the index file is reused, and any records in the log which were appended after
+ * the index was last updated are replayed. If the index file is missing or does not match the log file, then the
+ * index is rebuilt from the log.
+ * <p/>
+ * The files are closed when the repository is stopped, after which it can not be used until its started again.
+ * <p/>
+ * The log and index files are replaced by renaming new files on top of them when compacting the log and growing
+ * the index, which requires a file system which allows renaming files which are memory mapped.
+ *
+ * @version 
+ */
+@ManagedResource(description = "Memory mapped file based idempotent repository")
+public class MemoryMappedIdempotentRepository extends ServiceSupport implements IdempotentRepository<String> {
+    private static final Logger LOG = LoggerFactory.getLogger(MemoryMappedIdempotentRepository.class);
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final int VERSION = 1;
+    private static final int LOG_MAGIC = 0x43494C47;
+    private static final int INDEX_MAGIC = 0x43494958;
+
+    // log header: magic, version, segment size, reserved, log id
+    private static final int LOG_HEADER = 32;
+    // record: length of key plus one (so a zeroed header marks the end of the log), type, key
+    private static final int RECORD_HEADER = 5;
+    private static final byte ADD = 1;
+    private static final byte REMOVE = 2;
+    private static final int PADDING = -1;
+    private static final long CORRUPTED = -2;
+
+    // index header: magic, version, slots, reserved, log id, log end, size, used slots, dead bytes
+    private static final int INDEX_HEADER = 64;
+    // slot: hash of key, offset of key in the log
+    private static final int SLOT_SIZE = 16;
+    private static final long REMOVED = -1;
+    private static final int CHUNK_SHIFT = 20;
+    private static final int CHUNK_SLOTS = 1 << CHUNK_SHIFT;
+    private static final int MIN_SLOTS = 1024;
+    private static final int MAX_SLOTS = 1 << 30;
+
+    private static final long MIN_COMPACTION_SIZE = 64 * 1024L;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock compactionLock = new ReentrantLock();
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+    private final Random random = new Random();
+    private volatile Store store;
+    private File fileStore;
+    private int segmentSize = 16 * 1024 * 1024;
+    private long indexCapacity = 64 * 1024L;
+    private double compactionThreshold = 0.5d;
+    private volatile long compactionCount;
+    private ExecutorService compactor;
+
+    public MemoryMappedIdempotentRepository() {
+    }
+
+    public MemoryMappedIdempotentRepository(File fileStore) {
+        this.fileStore = fileStore;
+    }
+
+    /**
+     * Creates a new memory mapped file based repository.
+     *
+     * @param fileStore  the file store
+     */
+    public static IdempotentRepository<String> memoryMappedIdempotentRepository(File fileStore) {
+        return new MemoryMappedIdempotentRepository(fileStore);
+    }
+
+    /**
+     * Creates a new memory mapped file based repository.
+     *
+     * @param fileStore  the file store
+     * @param indexCapacity  the expected number of keys to size the index for
+     */
+    public static IdempotentRepository<String> memoryMappedIdempotentRepository(File fileStore, long indexCapacity) {
+        MemoryMappedIdempotentRepository repository = new MemoryMappedIdempotentRepository(fileStore);
+        repository.setIndexCapacity(indexCapacity);
+        return repository;
+    }
+
+    @ManagedOperation(description = "Adds the key to the store")
+    public boolean add(String key) {
+        byte[] bytes = key.getBytes(UTF8);
+        long hash = hash(bytes);
+        lock.lock();
+        try {
+            Store s = openStore();
+            if (bytes.length > s.segmentSize - LOG_HEADER - RECORD_HEADER) {
+                throw new IllegalArgumentException("The key is too long for the segment size " + s.segmentSize + " bytes: " + key);
+            }
+            if (s.find(bytes, hash, s.writeEnd) >= 0) {
+                return false;
+            }
+            ensureIndexCapacity(s, getIndexFile());
+            long offset = s.append(ADD, bytes);
+            s.insert(hash, offset);
+            s.size++;
+            s.publish();
+            return true;
+        } catch (IOException e) {
+            throw ObjectHelper.wrapRuntimeCamelException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @ManagedOperation(description = "Does the store contain the given key")
+    public boolean contains(String key) {
+        byte[] bytes = key.getBytes(UTF8);
+        Store s = store;
+        if (s == null) {
+            s = openStoreLocked();
+        }
+        // read the end of the log before the index, as this makes the records and index slots
+        // which were written before the end of the log was published visible
+        long end = s.logEnd;
+        return s.find(bytes, hash(bytes), end) >= 0;
+    }
+
+    @ManagedOperation(description = "Remove the key from the store")
+    public boolean remove(String key) {
+        byte[] bytes = key.getBytes(UTF8);
+        long hash = hash(bytes);
+        Store s;
+        lock.lock();
+        try {
+            s = openStore();
+            int slot = s.find(bytes, hash, s.writeEnd);
+            if (slot < 0) {
+                return false;
+            }
+            s.append(REMOVE, bytes);
+            s.index.setOffset(slot, REMOVED);
+            s.size--;
+            // both the add and the remove record are now dead
+            s.deadBytes += 2 * (RECORD_HEADER + bytes.length);
+            s.publish();
+        } catch (IOException e) {
+            throw ObjectHelper.wrapRuntimeCamelException(e);
+        } finally {
+            lock.unlock();
+        }
+
+        if (isCompactionNeeded(s)) {
+            scheduleCompaction();
+        }
+        return true;
+    }
+
+    public boolean confirm(String key) {
+        // noop
+        return true;
+    }
+
+    @ManagedOperation(description = "Clear the store")
+    public void clear() {
+        lock.lock();
+        try {
+            Store s = store;
+            if (s != null) {
+                s.close();
+                store = null;
+            }
+            FileUtil.deleteFile(fileStore);
+            FileUtil.deleteFile(getIndexFile());
+            // do not reopen the files of a stopped repository
+            if (!isStopping() && !isStopped()) {
+                store = load();
+            }
+        } catch (IOException e) {
+            throw ObjectHelper.wrapRuntimeCamelException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Compacts the log by rewriting it without the removed keys.
+     * <p/>
+     * Keys can be added and removed while the log is being compacted, as the lock is only held while the
+     * compacted log replaces the current log.
+     */
+    @ManagedOperation(description = "Compacts the file store by removing the removed keys")
+    public void compact() {
+        compactionLock.lock();
+        try {
+            Store s = store;
+            if (s != null) {
+                doCompact(s);
+            }
+        } catch (IOException e) {
+            throw ObjectHelper.wrapRuntimeCamelException(e);
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    public File getFileStore() {
+        return fileStore;
+    }
+
+    public void setFileStore(File fileStore) {
+        this.fileStore = fileStore;
+    }
+
+    /**
+     * Gets the index file, which is the file store with the <tt>.idx</tt> extension appended.
+     */
+    public File getIndexFile() {
+        return new File(fileStore.getPath() + ".idx");
+    }
+
+    @ManagedAttribute(description = "The file path for the store")
+    public String getFilePath() {
+        return fileStore.getPath();
+    }
+
+    @ManagedAttribute(description = "The size of the segments the log file is mapped in")
+    public int getSegmentSize() {
+        Store s = store;
+        return s != null ? s.segmentSize : segmentSize;
+    }
+
+    /**
+     * Sets the size in bytes of the segments the log file is mapped in, which is also the maximum size of a key.
+     * <p/>
+     * The segment size is stored in the log file, and is only used when a new log file is created.
+     * The default is 16mb.
+     */
+    public void setSegmentSize(int segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    @ManagedAttribute(description = "The number of keys the index can hold before its grown")
+    public long getIndexCapacity() {
+        Store s = store;
+        return s != null ? maxUsed(s.index.slots) : indexCapacity;
+    }
+
+    /**
+     * Sets the expected number of keys, which is used to size the index when its created.
+     * <p/>
+     * The index is grown automatically when it becomes full. The default is 65536.
+     */
+    public void setIndexCapacity(long indexCapacity) {
+        this.indexCapacity = indexCapacity;
+    }
+
+    @ManagedAttribute(description = "The ratio of removed records in the log which triggers compaction")
+    public double getCompactionThreshold() {
+        return compactionThreshold;
+    }
+
+    /**
+     * Sets the ratio of removed records in the log which triggers a compaction of the log in the background.
+     * <p/>
+     * The default is 0.5. Use 0 or a negative value to only compact the log using the {@link #compact()} operation.
+     */
+    @ManagedAttribute(description = "The ratio of removed records in the log which triggers compaction")
+    public void setCompactionThreshold(double compactionThreshold) {
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    @ManagedAttribute(description = "The number of keys in the store")
+    public long getSize() {
+        Store s = store;
+        return s != null ? s.size : 0;
+    }
+
+    @ManagedAttribute(description = "The number of bytes used by the log")
+    public long getLogSize() {
+        Store s = store;
+        return s != null ? s.logEnd : 0;
+    }
+
+    @ManagedAttribute(description = "The number of bytes used by removed records in the log")
+    public long getDeadBytes() {
+        Store s = store;
+        return s != null ? s.deadBytes : 0;
+    }
+
+    @ManagedAttribute(description = "The number of times the log has been compacted")
+    public long getCompactionCount() {
+        return compactionCount;
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        ObjectHelper.notNull(fileStore, "fileStore", this);
+
+        lock.lock();
+        try {
+            if (store == null) {
+                store = load();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (compactor == null) {
+            compactor = Executors.newSingleThreadExecutor(
+                    new CamelThreadFactory(ThreadHelper.DEFAULT_PATTERN, "MemoryMappedIdempotentRepository", true));
+        }
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        if (compactor != null) {
+            compactor.shutdown();
+            compactor = null;
+        }
+
+        lock.lock();
+        try {
+            Store s = store;
+            if (s != null) {
+                s.force();
+                s.close();
+                store = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Computes the 64 bit hash code of the key using FNV-1a with the finalizer of murmur3 to spread the bits.
+     */
+    static long hash(byte[] key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        // zero is used for free slots
+        return h == 0 ? 1 : h;
+    }
+
+    private static int keyLength(ByteBuffer segment, int pos) {
+        return segment.getInt(pos) - 1;
+    }
+
+    private static long maxUsed(int slots) {
+        // keep the load factor of the index at 0.75
+        return (long) slots * 3 / 4;
+    }
+
+    private static int slotsFor(long capacity) {
+        int slots = MIN_SLOTS;
+        while (maxUsed(slots) < capacity && slots < MAX_SLOTS) {
+            slots <<= 1;
+        }
+        return slots;
+    }
+
+    private Store openStoreLocked() {
+        lock.lock();
+        try {
+            return openStore();
+        } catch (IOException e) {
+            throw ObjectHelper.wrapRuntimeCamelException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Store openStore() throws IOException {
+        Store s = store;
+        if (s == null) {
+            if (isStopping() || isStopped()) {
+                throw new IllegalStateException("The idempotent repository is stopped: " + fileStore);
+            }
+            s = load();
+            store = s;
+        }
+        return s;
+    }
+
+    /**
+     * Opens the log file and its index, which is rebuilt from the log if its missing or does not match the log.
+     */
+    private Store load() throws IOException {
+        File parent = fileStore.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            LOG.debug("Creating parent directory of filestore: {}", fileStore);
+            parent.mkdirs();
+        }
+
+        Store s = openLog(fileStore, segmentSize);
+        Index index = openIndex(getIndexFile(), s);
+        if (index != null) {
+            s.index = index;
+            s.writeEnd = index.header.getLong(24);
+            s.size = index.header.getLong(32);
+            s.used = index.header.getLong(40);
+            s.deadBytes = index.header.getLong(48);
+        } else {
+            LOG.debug("Creating index for idempotent filestore: {}", fileStore);
+            s.index = createIndex(getIndexFile(), slotsFor(indexCapacity), s.logId);
+        }
+
+        // replay the records which were appended after the index was last updated
+        long replayed = 0;
+        long offset = s.writeEnd;
+        while (true) {
+            long next = s.next(offset);
+            if (next < 0) {
+                if (next == CORRUPTED) {
+                    LOG.warn("Discarding corrupted records from offset {} in idempotent filestore: {}", offset, fileStore);
+                    s.truncate(offset);
+                }
+                break;
+            }
+            byte type = s.type(next);
+            byte[] key = s.key(next);
+            long hash = hash(key);
+            int slot = s.find(key, hash, next);
+            if (type == ADD && slot < 0) {
+                ensureIndexCapacity(s, getIndexFile());
+                s.insert(hash, next);
+                s.size++;
+            } else if (type == REMOVE && slot >= 0) {
+                s.index.setOffset(slot, REMOVED);
+                s.size--;
+                s.deadBytes += 2 * (RECORD_HEADER + key.length);
+            } else {
+                s.deadBytes += RECORD_HEADER + key.length;
+            }
+            // account for any padding which was skipped
+            s.deadBytes += next - offset;
+            offset = next + RECORD_HEADER + key.length;
+            s.writeEnd = offset;
+            replayed++;
+        }
+        s.publish();
+
+        LOG.debug("Loaded {} keys ({} replayed records) from idempotent filestore: {}", new Object[]{s.size, replayed, fileStore});
+        return s;
+    }
+
+    private Store openLog(File file, int defaultSegmentSize) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            Store s;
+            if (raf.length() < LOG_HEADER) {
+                raf.setLength(0);
+                s = new Store(raf, defaultSegmentSize, random.nextLong());
+                MappedByteBuffer segment = s.segment(0);
+                segment.putLong(16, s.logId);
+                segment.putInt(8, s.segmentSize);
+                segment.putInt(4, VERSION);
+                segment.putInt(0, LOG_MAGIC);
+                s.writeEnd = LOG_HEADER;
+                return s;
+            }
+
+            raf.seek(0);
+            int magic = raf.readInt();
+            int version = raf.readInt();
+            int size = raf.readInt();
+            raf.readInt();
+            long logId = raf.readLong();
+            if (magic != LOG_MAGIC || version != VERSION || size < LOG_HEADER + RECORD_HEADER) {
+                throw new IOException("File is not a memory mapped idempotent filestore: " + file);
+            }
+            if (size != defaultSegmentSize) {
+                LOG.debug("Using segment size {} of existing idempotent filestore: {}", size, file);
+            }
+            s = new Store(raf, size, logId);
+            // map the existing segments
+            long segments = (raf.length() + size - 1) / size;
+            for (long i = 0; i < segments; i++) {
+                s.segment(i * size);
+            }
+            s.writeEnd = LOG_HEADER;
+            return s;
+        } catch (IOException e) {
+            IOHelper.close(raf);
+            throw e;
+        }
+    }
+
+    private Index openIndex(File file, Store s) throws IOException {
+        if (!file.exists()) {
+            return null;
+        }
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        boolean valid = false;
+        try {
+            if (raf.length() < INDEX_HEADER) {
+                return null;
+            }
+            MappedByteBuffer header = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, INDEX_HEADER);
+            int slots = header.getInt(8);
+            long logEnd = header.getLong(24);
+            if (header.getInt(0) != INDEX_MAGIC || header.getInt(4) != VERSION || header.getLong(16) != s.logId
+                    || slots < MIN_SLOTS || slots > MAX_SLOTS || Integer.bitCount(slots) != 1
+                    || raf.length() != INDEX_HEADER + (long) slots * SLOT_SIZE
+                    || logEnd < LOG_HEADER || logEnd > (long) s.segments.length * s.segmentSize) {
+                LOG.info("Index does not match the idempotent filestore and will be rebuilt: {}", fileStore);
+                return null;
+            }
+            valid = true;
+            return new Index(raf, header, slots);
+        } finally {
+            if (!valid) {
+                IOHelper.close(raf);
+            }
+        }
+    }
+
+    private static Index createIndex(File file, int slots, long logId) throws IOException {
+        FileUtil.deleteFile(file);
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(INDEX_HEADER + (long) slots * SLOT_SIZE);
+            MappedByteBuffer header = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, INDEX_HEADER);
+            header.putLong(16, logId);
+            header.putInt(8, slots);
+            header.putInt(4, VERSION);
+            header.putInt(0, INDEX_MAGIC);
+            return new Index(raf, header, slots);
+        } catch (IOException e) {
+            IOHelper.close(raf);
+            throw e;
+        }
+    }
+
+    /**
+     * Grows the index, or rehashes it to get rid of the removed slots, when there is no more room for a new key.
+     */
+    private void ensureIndexCapacity(Store s, File indexFile) throws IOException {
+        Index old = s.index;
+        if (s.used < maxUsed(old.slots)) {
+            return;
+        }
+
+        int slots = old.slots;
+        // only grow if at least half of the used slots are live keys
+        if (s.size >= maxUsed(slots) / 2) {
+            if (slots >= MAX_SLOTS) {
+                throw new IllegalStateException("The index of the idempotent filestore is full: " + fileStore);
+            }
+            slots <<= 1;
+        }
+        LOG.debug("Growing index of idempotent filestore {} from {} to {} slots", new Object[]{fileStore, old.slots, slots});
+
+        File tmp = new File(indexFile.getPath() + ".tmp");
+        Index index = createIndex(tmp, slots, s.logId);
+        long used = 0;
+        for (int i = 0; i < old.slots; i++) {
+            long hash = old.hash(i);
+            long offset = old.offset(i);
+            if (hash != 0 && offset != REMOVED) {
+                index.insert(hash, offset);
+                used++;
+            }
+        }
+        move(tmp, indexFile);
+
+        // readers may still be using the old index which stays mapped after its closed
+        s.index = index;
+        s.used = used;
+        s.writeHeader();
+        old.close();
+    }
+
+    private boolean isCompactionNeeded(Store s) {
+        return compactionThreshold > 0 && s.deadBytes >= MIN_COMPACTION_SIZE
+                && s.deadBytes > (s.writeEnd - LOG_HEADER) * compactionThreshold;
+    }
+
+    private void scheduleCompaction() {
+        ExecutorService executor = compactor;
+        if (executor != null && compactionScheduled.compareAndSet(false, true)) {
+            executor.submit(new Runnable() {
+                public void run() {
+                    try {
+                        compact();
+                    } catch (Throwable e) {
+                        LOG.warn("Error compacting idempotent filestore: " + fileStore + ". This exception is ignored.", e);
+                    } finally {
+                        compactionScheduled.set(false);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Compacts the log by copying the live records to a new log and index, which then replaces the current files.
+     * <p/>
+     * The live records are copied without holding the lock, and the index is read the same way as by
+     * {@link #contains(String)}. The records which were appended in the meantime are then replayed on the new log
+     * while holding the lock, before the new log replaces the current log.
+     */
+    private void doCompact(Store s) throws IOException {
+        LOG.debug("Compacting idempotent filestore: {}", fileStore);
+        long start = System.currentTimeMillis();
+
+        long end;
+        long size;
+        lock.lock();
+        try {
+            end = s.writeEnd;
+            size = s.size;
+        } finally {
+            lock.unlock();
+        }
+
+        File logTmp = new File(fileStore.getPath() + ".compact");
+        File indexTmp = new File(getIndexFile().getPath() + ".compact");
+        FileUtil.deleteFile(logTmp);
+        Store target = openLog(logTmp, s.segmentSize);
+        Store compacted;
+        boolean replaced = false;
+        try {
+            target.index = createIndex(indexTmp, slotsFor(Math.max(indexCapacity, size)), target.logId);
+            for (long offset = s.next(LOG_HEADER); offset >= 0 && offset < end; offset = s.next(offset)) {
+                byte[] key = s.key(offset);
+                if (s.type(offset) == ADD) {
+                    long hash = hash(key);
+                    // only copy the record if its the live record of the key, and a key which is removed
+                    // concurrently is either not copied or removed again when replaying the remove record
+                    if (s.offsetOf(key, hash, end) == offset) {
+                        target.insert(hash, target.append(ADD, key));
+                        target.size++;
+                    }
+                }
+                offset += RECORD_HEADER + key.length;
+            }
+
+            lock.lock();
+            try {
+                if (store != s) {
+                    LOG.debug("Discarding compaction of idempotent filestore as it was cleared or stopped: {}", fileStore);
+                    return;
+                }
+                // replay the records which were appended while copying
+                for (long offset = s.next(end); offset >= 0 && offset < s.writeEnd; offset = s.next(offset)) {
+                    byte[] key = s.key(offset);
+                    long hash = hash(key);
+                    int slot = target.find(key, hash, target.writeEnd);
+                    if (s.type(offset) == ADD && slot < 0) {
+                        ensureIndexCapacity(target, indexTmp);
+                        target.insert(hash, target.append(ADD, key));
+                        target.size++;
+                    } else if (s.type(offset) == REMOVE && slot >= 0) {
+                        target.append(REMOVE, key);
+                        target.index.setOffset(slot, REMOVED);
+                        target.size--;
+                        target.deadBytes += 2 * (RECORD_HEADER + key.length);
+                    }
+                    offset += RECORD_HEADER + key.length;
+                }
+                target.writeHeader();
+                target.force();
+                target.close();
+
+                // replace the log before the index, as the index is rebuilt if it does not match the log
+                move(logTmp, fileStore);
+                move(indexTmp, getIndexFile());
+                replaced = true;
+                try {
+                    compacted = load();
+                } catch (IOException e) {
+                    store = null;
+                    s.close();
+                    throw e;
+                }
+                // readers may still be using the old store which stays mapped after its closed
+                store = compacted;
+                s.close();
+                compactionCount++;
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            if (!replaced) {
+                target.close();
+                FileUtil.deleteFile(logTmp);
+                FileUtil.deleteFile(indexTmp);
+            }
+        }
+
+        LOG.debug("Compacted idempotent filestore {} from {} to {} bytes took {} millis",
+                new Object[]{fileStore, s.writeEnd, compacted.writeEnd, System.currentTimeMillis() - start});
+    }
+
+    private static void move(File from, File to) throws IOException {
+        Files.move(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * The memory mapped hash index of the keys in the log.
+     */
+    private static final class Index {
+        private final RandomAccessFile file;
+        private final MappedByteBuffer header;
+        private final MappedByteBuffer[] chunks;
+        private final int slots;
+        private final int mask;
+
+        Index(RandomAccessFile file, MappedByteBuffer header, int slots) throws IOException {
+            this.file = file;
+            this.header = header;
+            this.slots = slots;
+            this.mask = slots - 1;
+            // map the slots in chunks as a mapped buffer is limited to 2gb
+            int chunkSlots = Math.min(slots, CHUNK_SLOTS);
+            this.chunks = new MappedByteBuffer[slots / chunkSlots];
+            for (int i = 0; i < chunks.length; i++) {
+                long position = INDEX_HEADER + (long) i * chunkSlots * SLOT_SIZE;
+                chunks[i] = file.getChannel().map(FileChannel.MapMode.READ_WRITE, position, (long) chunkSlots * SLOT_SIZE);
+            }
+        }
+
+        long hash(int slot) {
+            return chunks[slot >>> CHUNK_SHIFT].getLong((slot & (CHUNK_SLOTS - 1)) * SLOT_SIZE);
+        }
+
+        long offset(int slot) {
+            return chunks[slot >>> CHUNK_SHIFT].getLong((slot & (CHUNK_SLOTS - 1)) * SLOT_SIZE + 8);
+        }
+
+        void setOffset(int slot, long offset) {
+            chunks[slot >>> CHUNK_SHIFT].putLong((slot & (CHUNK_SLOTS - 1)) * SLOT_SIZE + 8, offset);
+        }
+
+        /**
+         * Inserts the key in the first free or removed slot, and returns whether a free slot was used.
+         */
+        boolean insert(long hash, long offset) {
+            int slot = (int) hash & mask;
+            while (true) {
+                long h = hash(slot);
+                if (h == 0 || offset(slot) == REMOVED) {
+                    // write the offset before the hash, so readers never match a slot without its offset
+                    MappedByteBuffer chunk = chunks[slot >>> CHUNK_SHIFT];
+                    int pos = (slot & (CHUNK_SLOTS - 1)) * SLOT_SIZE;
+                    chunk.putLong(pos + 8, offset);
+                    chunk.putLong(pos, hash);
+                    return h == 0;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        void force() {
+            header.force();
+            for (MappedByteBuffer chunk : chunks) {
+                chunk.force();
+            }
+        }
+
+        void close() {
+            IOHelper.close(file);
+        }
+    }
+
+    /**
+     * The memory mapped log and its index.
+     * <p/>
+     * The fields are only updated by the writer while holding the lock, and the end of the log is published
+     * using a volatile write after the records and index slots have been written.
+     */
+    private static final class Store {
+        private final RandomAccessFile file;
+        private final int segmentSize;
+        private final long logId;
+        private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+        private volatile Index index;
+        private volatile long logEnd;
+        private volatile long size;
+        private volatile long deadBytes;
+        private long writeEnd;
+        private long used;
+
+        Store(RandomAccessFile file, int segmentSize, long logId) {
+            this.file = file;
+            this.segmentSize = segmentSize;
+            this.logId = logId;
+        }
+
+        int position(long offset) {
+            return (int) (offset % segmentSize);
+        }
+
+        /**
+         * Gets the segment for the given offset, which maps a new segment if needed.
+         */
+        MappedByteBuffer segment(long offset) throws IOException {
+            int index = (int) (offset / segmentSize);
+            MappedByteBuffer[] current = segments;
+            if (index < current.length) {
+                return current[index];
+            }
+            long length = (long) (index + 1) * segmentSize;
+            if (file.length() < length) {
+                file.setLength(length);
+            }
+            MappedByteBuffer[] answer = Arrays.copyOf(current, index + 1);
+            for (int i = current.length; i <= index; i++) {
+                answer[i] = file.getChannel().map(FileChannel.MapMode.READ_WRITE, (long) i * segmentSize, segmentSize);
+            }
+            segments = answer;
+            return answer[index];
+        }
+
+        /**
+         * Finds the slot of the key which was added before the given end of the log.
+         *
+         * @return the slot, or <tt>-1</tt> if not found
+         */
+        int find(byte[] key, long hash, long end) {
+            return find(index, key, hash, end);
+        }
+
+        private int find(Index idx, byte[] key, long hash, long end) {
+            int slot = (int) hash & idx.mask;
+            for (int i = 0; i < idx.slots; i++) {
+                long h = idx.hash(slot);
+                if (h == 0) {
+                    return -1;
+                }
+                if (h == hash) {
+                    long offset = idx.offset(slot);
+                    // the offset is checked against the end of the log as we may race with the writer
+                    if (offset >= LOG_HEADER && offset < end && matches(offset, key)) {
+                        return slot;
+                    }
+                }
+                slot = (slot + 1) & idx.mask;
+            }
+            return -1;
+        }
+
+        /**
+         * Gets the offset of the key which was added before the given end of the log.
+         *
+         * @return the offset, or <tt>-1</tt> if not found
+         */
+        long offsetOf(byte[] key, long hash, long end) {
+            // use the same index to find the slot and read its offset, as the index may be grown concurrently
+            Index idx = index;
+            int slot = find(idx, key, hash, end);
+            return slot >= 0 ? idx.offset(slot) : -1;
+        }
+
+        byte type(long offset) {
+            return segments[(int) (offset / segmentSize)].get(position(offset) + 4);
+        }
+
+        byte[] key(long offset) {
+            MappedByteBuffer segment = segments[(int) (offset / segmentSize)];
+            int pos = position(offset);
+            byte[] key = new byte[keyLength(segment, pos)];
+            ByteBuffer buffer = segment.duplicate();
+            buffer.position(pos + RECORD_HEADER);
+            buffer.get(key);
+            return key;
+        }
+
+        private boolean matches(long offset, byte[] key) {
+            MappedByteBuffer segment = segments[(int) (offset / segmentSize)];
+            int pos = position(offset);
+            if (keyLength(segment, pos) != key.length || segment.get(pos + 4) != ADD) {
+                return false;
+            }
+            pos += RECORD_HEADER;
+            for (int i = 0; i < key.length; i++) {
+                if (segment.get(pos + i) != key[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Gets the offset of the next record at or after the given offset, skipping any padding.
+         *
+         * @return the offset, <tt>-1</tt> if there are no more records, or <tt>-2</tt> if the record is corrupted
+         */
+        long next(long offset) {
+            while (true) {
+                int index = (int) (offset / segmentSize);
+                if (index >= segments.length) {
+                    return -1;
+                }
+                int pos = position(offset);
+                if (pos + RECORD_HEADER > segmentSize) {
+                    offset += segmentSize - pos;
+                    continue;
+                }
+                MappedByteBuffer segment = segments[index];
+                int length = segment.getInt(pos);
+                if (length == PADDING) {
+                    offset += segmentSize - pos;
+                    continue;
+                }
+                if (length == 0) {
+                    return -1;
+                }
+                byte type = segment.get(pos + 4);
+                if (length < 0 || pos + RECORD_HEADER + length - 1 > segmentSize || (type != ADD && type != REMOVE)) {
+                    return CORRUPTED;
+                }
+                return offset;
+            }
+        }
+
+        /**
+         * Appends the record to the log, but does not publish it.
+         *
+         * @return the offset of the record
+         */
+        long append(byte type, byte[] key) throws IOException {
+            int length = RECORD_HEADER + key.length;
+            long offset = writeEnd;
+            int pos = position(offset);
+            if (pos + length > segmentSize) {
+                // the record does not fit in the current segment so pad it and use the next segment
+                if (pos + 4 <= segmentSize) {
+                    segment(offset).putInt(pos, PADDING);
+                }
+                deadBytes += segmentSize - pos;
+                offset += segmentSize - pos;
+                pos = 0;
+            }
+            MappedByteBuffer segment = segment(offset);
+            ByteBuffer buffer = segment.duplicate();
+            buffer.position(pos + RECORD_HEADER);
+            buffer.put(key);
+            segment.put(pos + 4, type);
+            segment.putInt(pos, key.length + 1);
+            writeEnd = offset + length;
+            return offset;
+        }
+
+        void insert(long hash, long offset) {
+            if (index.insert(hash, offset)) {
+                used++;
+            }
+        }
+
+        /**
+         * Discards anything in the log after the given offset, such as corrupted records.
+         */
+        void truncate(long offset) throws IOException {
+            MappedByteBuffer[] current = segments;
+            int index = (int) (offset / segmentSize);
+            if (index >= current.length) {
+                return;
+            }
+            ByteBuffer buffer = current[index].duplicate();
+            buffer.position(position(offset));
+            byte[] zeros = new byte[Math.min(buffer.remaining(), 8192)];
+            while (buffer.hasRemaining()) {
+                buffer.put(zeros, 0, Math.min(zeros.length, buffer.remaining()));
+            }
+            if (index + 1 < current.length) {
+                segments = Arrays.copyOf(current, index + 1);
+                file.setLength((long) (index + 1) * segmentSize);
+            }
+        }
+
+        void writeHeader() {
+            MappedByteBuffer header = index.header;
+            header.putLong(24, writeEnd);
+            header.putLong(32, size);
+            header.putLong(40, used);
+            header.putLong(48, deadBytes);
+        }
+
+        /**
+         * Publishes the records and index slots written by the writer to the readers.
+         */
+        void publish() {
+            writeHeader();
+            logEnd = writeEnd;
+        }
+
+        void force() {
+            for (MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+            index.force();
+        }
+
+        void close() {
+            // the mapped buffers are still valid after closing the files, so readers can still use them
+            IOHelper.close(file);
+            if (index != null) {
+                index.close();
+            }
+        }
+    }
+
+}
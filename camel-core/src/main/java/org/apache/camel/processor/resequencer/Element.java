@@ -16,24 +16,33 @@
  */
 package org.apache.camel.processor.resequencer;
 
+import java.util.concurrent.TimeUnit;
+
+import org.apache.camel.util.concurrent.HashedWheelTimer;
+
 /**
  * A container for objects to be resequenced. This container can be scheduled
  * for timing out. Non-scheduled objects or already timed-out objects are ready
  * for being released by the {@link ResequencerEngine}.
  */
-class Element<E> implements TimeoutHandler {
+class Element<E> implements Runnable {
 
     /**
      * The contained object.
      */
-    private E object;
+    private final E object;
 
     /**
      * Not <code>null</code> if this element is currently beeing scheduled for
      * timing out.
      */
-    private Timeout timeout;
-    
+    private volatile HashedWheelTimer.Timeout timeout;
+
+    /**
+     * Notified when this element times out.
+     */
+    private volatile Runnable timeoutHandler;
+
     /**
      * Creates a new container instance.
      * 
@@ -59,41 +68,48 @@ class Element<E> implements TimeoutHandler {
      * @return <code>true</code> if scheduled or <code>false</code> if not
      *         scheduled or already timed-out.
      */
-    public synchronized boolean scheduled() {
-        return timeout != null;
+    public boolean scheduled() {
+        HashedWheelTimer.Timeout t = timeout;
+        return t != null && t.isPending();
     }
     
     /**
-     * Schedules the given timeout task. Before this methods calls the
-     * {@link Timeout#schedule()} method it sets this element as timeout
-     * listener.
+     * Schedules this element for timing out.
      * 
-     * @param t a timeout task.
+     * @param timer the timer.
+     * @param delay the timeout in milliseconds.
+     * @param handler notified when this element times out, may be <code>null</code>.
      */
-    public synchronized void schedule(Timeout t) {
-        this.timeout = t;
-        this.timeout.setTimeoutHandler(this);
-        this.timeout.schedule();
+    public void schedule(HashedWheelTimer timer, long delay, Runnable handler) {
+        this.timeoutHandler = handler;
+        this.timeout = timer.newTimeout(this, delay, TimeUnit.MILLISECONDS);
     }
     
     /**
      * Cancels the scheduled timeout for this element. If this element is not
      * scheduled or has already timed-out this method has no effect.
      */
-    public synchronized void cancel() {
-        if (timeout != null) {
-            timeout.cancel();
+    public void cancel() {
+        HashedWheelTimer.Timeout t = timeout;
+        if (t != null) {
+            t.cancel();
+            timeout = null;
         }
-        timeout(null);
     }
 
     /**
-     * Marks this element as timed-out.
-     * 
-     * @param t timeout task that caused the notification.
+     * Marks this element as timed-out, which is invoked by the timer.
      */
-    public synchronized void timeout(Timeout t) {
-        this.timeout = null;
+    public void run() {
+        Runnable handler = timeoutHandler;
+        if (handler != null) {
+            handler.run();
+        }
     }
-    
+
+    @Override
+    public String toString() {
+        return "Element[" + object + "]";
+    }
+
 }
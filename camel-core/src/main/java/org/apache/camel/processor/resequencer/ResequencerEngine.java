@@ -16,9 +16,11 @@
  */
 package org.apache.camel.processor.resequencer;
 
-import java.util.Timer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
-import org.apache.camel.util.concurrent.ThreadHelper;
+import org.apache.camel.util.concurrent.CamelThreadFactory;
+import org.apache.camel.util.concurrent.HashedWheelTimer;
 
 /**
  * Resequences elements based on a given {@link SequenceElementComparator}.
@@ -55,6 +57,11 @@ import org.apache.camel.util.concurrent.ThreadHelper;
  * element needs <code>timeout</code> milliseconds in any case for becoming
  * <i>ready-for-delivery</i>.
  * <p>
+ * The timeouts are scheduled on a {@link HashedWheelTimer} which can be shared
+ * by many resequencer engines, such as when resequencing many groups of elements
+ * concurrently. Inserting elements and delivering elements uses separate locks,
+ * so elements can be inserted while the delivery thread is sending elements.
+ * <p>
  *
  * @version 
  */
@@ -64,7 +71,7 @@ public class ResequencerEngine<E> {
      * The element that most recently hash been delivered or <code>null</code>
      * if no element has been delivered yet.
      */
-    private Element<E> lastDelivered;
+    private volatile Element<E> lastDelivered;
 
     /**
      * Minimum amount of time to wait for out-of-sequence elements.
@@ -79,7 +86,38 @@ public class ResequencerEngine<E> {
     /**
      * A timer for scheduling timeout notifications.
      */
-    private Timer timer;
+    private HashedWheelTimer timer;
+
+    /**
+     * Whether the timer is created (and therefore stopped) by this resequencer.
+     */
+    private boolean internalTimer;
+
+    /**
+     * Lock which ensures the elements are delivered in sequence.
+     */
+    private final Object deliveryLock = new Object();
+
+    /**
+     * Notified when an element times out and therefore is ready for delivery.
+     */
+    private Runnable deliveryRequestHandler;
+
+    /**
+     * Handles the timeout of the elements.
+     */
+    private final Runnable timeoutHandler = new Runnable() {
+        public void run() {
+            timeoutCount.incrementAndGet();
+            Runnable handler = deliveryRequestHandler;
+            if (handler != null) {
+                handler.run();
+            }
+        }
+    };
+
+    private final AtomicLong gapCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
 
     /**
      * A strategy for sending sequence elements.
@@ -104,14 +142,32 @@ public class ResequencerEngine<E> {
     }
 
     public void start() {
-        timer = new Timer(ThreadHelper.resolveThreadName("Camel Thread ${counter} - ${name}", "Stream Resequencer Timer"), true);
+        if (timer == null) {
+            timer = createTimer();
+            internalTimer = true;
+        }
     }
 
     /**
-     * Stops this resequencer (i.e. this resequencer's {@link Timer} instance).
+     * Stops this resequencer (i.e. this resequencer's {@link HashedWheelTimer} instance
+     * if the timer was created by this resequencer).
      */
     public void stop() {
-        timer.cancel();
+        if (internalTimer && timer != null) {
+            timer.stop();
+            timer = null;
+            internalTimer = false;
+        }
+    }
+
+    /**
+     * Creates a timer which is suitable for scheduling the timeouts of resequencer engines.
+     *
+     * @return a new timer which is started on first use.
+     */
+    public static HashedWheelTimer createTimer() {
+        return new HashedWheelTimer(new CamelThreadFactory("Camel Thread ${counter} - ${name}", "Stream Resequencer Timer", true),
+                10, TimeUnit.MILLISECONDS, 512);
     }
 
     /**
@@ -149,6 +205,63 @@ public class ResequencerEngine<E> {
         this.rejectOld = rejectOld;
     }
 
+    public HashedWheelTimer getTimer() {
+        return timer;
+    }
+
+    /**
+     * Sets a timer to use for scheduling timeout notifications, which can be shared
+     * with other resequencer engines. The timer is not stopped by this resequencer.
+     *
+     * @param timer a timer.
+     */
+    public void setTimer(HashedWheelTimer timer) {
+        this.timer = timer;
+        this.internalTimer = false;
+    }
+
+    public Runnable getDeliveryRequestHandler() {
+        return deliveryRequestHandler;
+    }
+
+    /**
+     * Sets a handler which is notified when an element has timed out, and therefore is
+     * ready for delivery.
+     *
+     * @param deliveryRequestHandler the handler.
+     */
+    public void setDeliveryRequestHandler(Runnable deliveryRequestHandler) {
+        this.deliveryRequestHandler = deliveryRequestHandler;
+    }
+
+    /**
+     * Returns the number of elements which arrived out of sequence, and therefore
+     * had to wait for a missing predecessor.
+     *
+     * @return the number of gaps detected.
+     */
+    public long getGapCount() {
+        return gapCount.get();
+    }
+
+    /**
+     * Returns the number of elements which timed out, i.e. the missing predecessor
+     * did not arrive within the timeout.
+     *
+     * @return the number of timeouts.
+     */
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    /**
+     * Resets the gap and timeout statistics.
+     */
+    public void resetStatistics() {
+        gapCount.set(0);
+        timeoutCount.set(0);
+    }
+
     /**
      * Returns the sequence sender.
      *
@@ -229,7 +342,10 @@ public class ResequencerEngine<E> {
         } else if (sequence.predecessor(element) != null) {
             // nothing to schedule
         } else {
-            element.schedule(defineTimeout());
+            if (lastDelivered != null) {
+                gapCount.incrementAndGet();
+            }
+            element.schedule(timer, timeout, timeoutHandler);
         }
     }
 
@@ -240,9 +356,11 @@ public class ResequencerEngine<E> {
      *
      * @see ResequencerEngine#deliverNext() 
      */
-    public synchronized void deliver() throws Exception {
-        while (deliverNext()) {
-            // do nothing here
+    public void deliver() throws Exception {
+        synchronized (deliveryLock) {
+            while (deliverNext()) {
+                // do nothing here
+            }
         }
     }
 
@@ -259,15 +377,36 @@ public class ResequencerEngine<E> {
      *
      */
     public boolean deliverNext() throws Exception {
+        synchronized (deliveryLock) {
+            Element<E> element = nextDeliverable();
+            if (element == null) {
+                return false;
+            }
+
+            // deliver the sequence element outside the insert lock so new elements
+            // can be inserted while the element is being sent
+            sequenceSender.sendElement(element.getObject());
+
+            // element has been delivered
+            return true;
+        }
+    }
+
+    /**
+     * Removes the element with the lowest sequence value if its ready for delivery.
+     *
+     * @return the element or <code>null</code> if no element is ready for delivery.
+     */
+    private synchronized Element<E> nextDeliverable() {
         if (sequence.size() == 0) {
-            return false;
+            return null;
         }
         // inspect element with lowest sequence value
         Element<E> element = sequence.first();
 
         // if element is scheduled do not deliver and return
         if (element.scheduled()) {
-            return false;
+            return null;
         }
 
         // remove deliverable element from sequence
@@ -275,12 +414,7 @@ public class ResequencerEngine<E> {
 
         // set the delivered element to last delivered element
         lastDelivered = element;
-
-        // deliver the sequence element
-        sequenceSender.sendElement(element.getObject());
-
-        // element has been delivered
-        return true;
+        return element;
     }
 
     /**
@@ -317,15 +451,6 @@ public class ResequencerEngine<E> {
         return false;
     }
 
-    /**
-     * Creates a timeout task based on the timeout setting of this resequencer.
-     *
-     * @return a new timeout task.
-     */
-    private Timeout defineTimeout() {
-        return new Timeout(timer, timeout);
-    }
-
     private static <E> Sequence<Element<E>> createSequence(SequenceElementComparator<E> comparator) {
         return new Sequence<Element<E>>(new ElementComparator<E>(comparator));
     }
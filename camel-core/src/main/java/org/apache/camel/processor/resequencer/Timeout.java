@@ -26,7 +26,10 @@ import java.util.TimerTask;
  * @see TimerTask
  * 
  * @version 
+ * @deprecated the {@link ResequencerEngine} schedules timeouts using a
+ *             {@link org.apache.camel.util.concurrent.HashedWheelTimer}
  */
+@Deprecated
 public class Timeout extends TimerTask {
     
     private TimeoutHandler timeoutHandler;
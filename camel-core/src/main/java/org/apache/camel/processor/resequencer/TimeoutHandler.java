@@ -20,7 +20,10 @@ package org.apache.camel.processor.resequencer;
  * Implemented by classes that handle timeout notifications.
  * 
  * @version 
+ * @deprecated the {@link ResequencerEngine} schedules timeouts using a
+ *             {@link org.apache.camel.util.concurrent.HashedWheelTimer}
  */
+@Deprecated
 public interface TimeoutHandler {
 
     /**
@@ -0,0 +1,47 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.spi;
+
+import java.util.EventObject;
+
+/**
+ * An {@link EventNotifier} which can be notified asynchronously, so the events are not
+ * notified on the routing threads.
+ *
+ * @see org.apache.camel.support.EventNotifierSupport
+ * @version 
+ */
+public interface AsyncEventNotifier extends EventNotifier {
+
+    /**
+     * Whether the events should be notified asynchronously using {@link #notifyAsync(java.util.EventObject)}
+     *
+     * @return <tt>true</tt> to notify asynchronously, <tt>false</tt> to notify using {@link #notify(java.util.EventObject)}
+     */
+    boolean isAsync();
+
+    /**
+     * Queues the given event to be notified asynchronously.
+     * <p/>
+     * The notifier must check whether its enabled for the event using {@link #isEnabled(java.util.EventObject)}
+     * before it notifies the event.
+     *
+     * @param event the event
+     */
+    void notifyAsync(EventObject event);
+
+}
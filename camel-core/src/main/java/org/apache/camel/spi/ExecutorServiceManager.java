@@ -146,6 +146,25 @@ public interface ExecutorServiceManager extends ShutdownableService, StaticServi
      */
     long getShutdownAwaitTermination();
 
+    /**
+     * Sets whether the timer scheduled thread pools should use a timer which is optimized for scheduling a large
+     * number of delayed tasks, or use regular scheduled thread pools.
+     * <p/>
+     * The default value is <tt>true</tt>.
+     *
+     * @param useTimerWheel <tt>true</tt> to use a timer, <tt>false</tt> to use regular scheduled thread pools
+     * @see #newTimerScheduledThreadPool(Object, String, ThreadPoolProfile)
+     */
+    void setUseTimerWheel(boolean useTimerWheel);
+
+    /**
+     * Whether the timer scheduled thread pools should use a timer which is optimized for scheduling a large
+     * number of delayed tasks, or use regular scheduled thread pools.
+     *
+     * @return <tt>true</tt> to use a timer, <tt>false</tt> to use regular scheduled thread pools
+     */
+    boolean isUseTimerWheel();
+
     /**
      * Creates a new daemon thread with the given name.
      *
@@ -280,6 +299,45 @@ public interface ExecutorServiceManager extends ShutdownableService, StaticServi
      */
     ScheduledExecutorService newScheduledThreadPool(Object source, String name, String profileId);
 
+    /**
+     * Creates a new timer scheduled thread pool using the default thread pool profile.
+     *
+     * @param source the source object, usually it should be <tt>this</tt> passed in as parameter
+     * @param name   name which is appended to the thread name
+     * @return the created thread pool
+     * @see #newTimerScheduledThreadPool(Object, String, ThreadPoolProfile)
+     */
+    ScheduledExecutorService newDefaultTimerScheduledThreadPool(Object source, String name);
+
+    /**
+     * Creates a new timer scheduled thread pool.
+     *
+     * @param source      the source object, usually it should be <tt>this</tt> passed in as parameter
+     * @param name        name which is appended to the thread name
+     * @param poolSize    the core pool size
+     * @return the created thread pool
+     * @see #newTimerScheduledThreadPool(Object, String, ThreadPoolProfile)
+     */
+    ScheduledExecutorService newTimerScheduledThreadPool(Object source, String name, int poolSize);
+
+    /**
+     * Creates a new timer scheduled thread pool using a profile.
+     * <p/>
+     * The timer scheduled thread pool is optimized for scheduling a large number of delayed tasks, such as
+     * redeliveries by the error handler and delayed exchanges by the delayer and throttler EIPs. The delayed
+     * tasks are kept in a timer which schedules and cancels tasks in constant time, and the tasks are
+     * executed by the thread pool when they are due, at the price of lower precision of the delays.
+     * The timer thread is shared by all the timer scheduled thread pools.
+     * If {@link #isUseTimerWheel()} is <tt>false</tt> then a regular scheduled thread pool is created.
+     *
+     * @param source      the source object, usually it should be <tt>this</tt> passed in as parameter
+     * @param name        name which is appended to the thread name
+     * @param profile     the profile with the thread pool settings to use
+     * @return created thread pool
+     * @see ThreadPoolFactory#newTimerScheduledThreadPool(ThreadPoolProfile, java.util.concurrent.ThreadFactory, org.apache.camel.util.concurrent.HashedWheelTimer)
+     */
+    ScheduledExecutorService newTimerScheduledThreadPool(Object source, String name, ThreadPoolProfile profile);
+
     /**
      * Shutdown the given executor service (<b>not</b> graceful).
      * <p/>
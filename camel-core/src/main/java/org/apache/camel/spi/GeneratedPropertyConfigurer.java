@@ -0,0 +1,44 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.spi;
+
+import org.apache.camel.CamelContext;
+
+/**
+ * A configurer which is generated by the <tt>camel-apt</tt> annotation processor for endpoints annotated with
+ * {@link UriEndpoint}, which sets the {@link UriParam} options by calling the setter methods directly
+ * instead of using reflection.
+ * <p/>
+ * The generated configurers are listed in <tt>META-INF/services/org/apache/camel/configurer/</tt> using the
+ * fully qualified class name of the endpoint as the key.
+ *
+ * @see org.apache.camel.support.PropertyConfigurerSupport
+ */
+public interface GeneratedPropertyConfigurer {
+
+    /**
+     * Configures the property.
+     *
+     * @param camelContext the camel context
+     * @param target       the target instance such as an endpoint
+     * @param name         the property name
+     * @param value        the property value, which is converted to the type of the setter method if needed
+     * @return <tt>true</tt> if the property was configured, or <tt>false</tt> if the property is unknown to this configurer
+     * @throws Exception is thrown if the value could not be converted, or the setter method failed
+     */
+    boolean configure(CamelContext camelContext, Object target, String name, Object value) throws Exception;
+}
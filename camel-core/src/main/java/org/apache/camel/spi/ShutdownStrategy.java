@@ -202,6 +202,26 @@ public interface ShutdownStrategy extends StaticService {
      */
     boolean isShutdownRoutesInReverseOrder();
 
+    /**
+     * Sets whether the routes which have no {@link org.apache.camel.model.RouteDefinition#startupOrder(int) startup order}
+     * configured should be shutdown or suspended in parallel, which can speedup shutting down many routes where the
+     * consumers are slow to stop.
+     * <p/>
+     * Routes which have a startup order configured are still shutdown one by one in the (reverse) startup order.
+     *
+     * @param parallelRouteShutdown <tt>true</tt> to shutdown the routes in parallel
+     */
+    void setParallelRouteShutdown(boolean parallelRouteShutdown);
+
+    /**
+     * Whether to shutdown the routes which have no startup order configured in parallel.
+     * <p/>
+     * This option is by default set to <tt>false</tt>.
+     *
+     * @return <tt>true</tt> if routes should be shutdown in parallel.
+     */
+    boolean isParallelRouteShutdown();
+
     /**
      * Sets whether to log information about the inflight {@link org.apache.camel.Exchange}s which are still running
      * during a shutdown which didn't complete without the given timeout.
@@ -17,6 +17,7 @@
 package org.apache.camel.spi;
 
 import java.io.File;
+import java.nio.ByteBuffer;
 
 import org.apache.camel.Exchange;
 import org.apache.camel.StaticService;
@@ -62,6 +63,27 @@ public interface StreamCachingStrategy extends StaticService {
          */
         long getCacheSpoolAverageSize();
 
+        /**
+         * Gets the number of bytes of off-heap memory currently used by spooled stream caches.
+         */
+        long getSpoolOffHeapMemoryUsed();
+
+        /**
+         * Gets the number of bytes of off-heap memory which are pooled and free to be reused.
+         */
+        long getSpoolOffHeapMemoryPooled();
+
+        /**
+         * Gets the counter for number of times a pooled off-heap chunk has been reused.
+         */
+        long getSpoolOffHeapChunkReuseCounter();
+
+        /**
+         * Gets the counter for number of times the off-heap memory limit was reached, and the stream cache
+         * was spooled to disk instead.
+         */
+        long getSpoolOffHeapExhaustedCounter();
+
         /**
          * Reset the counters
          */
@@ -87,6 +109,48 @@ public interface StreamCachingStrategy extends StaticService {
         Committed, Max
     }
 
+    /**
+     * Used for selecting where to spool stream caches which are not kept in-memory.
+     * <ul>
+     *     <li>File - spool to temporary files in the spool directory (default)</li>
+     *     <li>OffHeap - spool to chunks of off-heap (direct) memory which are pooled and reused.
+     *     If the off-heap memory limit is reached, then the stream cache is spooled to a temporary file.</li>
+     *     <li>MemoryMapped - spool to temporary files, which are memory mapped when reading, so the file
+     *     is not opened again for each read.</li>
+     * </ul>
+     */
+    enum SpoolMode {
+        File, OffHeap, MemoryMapped
+    }
+
+    /**
+     * A pool of fixed size chunks of off-heap memory, used for spooling stream caches when using {@link SpoolMode#OffHeap}.
+     */
+    interface OffHeapChunkPool {
+
+        /**
+         * Acquires a chunk, which is either a pooled chunk or a newly allocated chunk.
+         *
+         * @return the cleared chunk, or <tt>null</tt> if the memory limit has been reached
+         */
+        ByteBuffer acquire();
+
+        /**
+         * Returns the chunk to the pool when the stream cache is done with it.
+         */
+        void release(ByteBuffer chunk);
+
+        /**
+         * The size in bytes of the chunks.
+         */
+        int getChunkSize();
+
+        /**
+         * The maximum number of bytes of off-heap memory allocated by the pool.
+         */
+        long getMemoryLimit();
+    }
+
     /**
      * Rule for determine if stream caching should be spooled to disk or kept in-memory.
      */
@@ -164,6 +228,41 @@ public interface StreamCachingStrategy extends StaticService {
 
     int getBufferSize();
 
+    /**
+     * Sets where to spool stream caches which are not kept in-memory.
+     * <p/>
+     * The default mode is {@link SpoolMode#File}.
+     */
+    void setSpoolMode(SpoolMode spoolMode);
+
+    SpoolMode getSpoolMode();
+
+    /**
+     * Sets the maximum number of bytes of off-heap memory to use for all the stream caches
+     * when using {@link SpoolMode#OffHeap}.
+     * <p/>
+     * The default limit is 64mb.
+     */
+    void setSpoolOffHeapMemoryLimit(long limit);
+
+    long getSpoolOffHeapMemoryLimit();
+
+    /**
+     * Sets the size in bytes of the chunks of off-heap memory when using {@link SpoolMode#OffHeap}.
+     * <p/>
+     * The default size is 64kb.
+     */
+    void setSpoolOffHeapChunkSize(int chunkSize);
+
+    int getSpoolOffHeapChunkSize();
+
+    /**
+     * Gets the pool of off-heap memory chunks, which is only in use when using {@link SpoolMode#OffHeap}.
+     *
+     * @return the pool, or <tt>null</tt> if not in use
+     */
+    OffHeapChunkPool getOffHeapChunkPool();
+
     /**
      * Sets a chiper name to use when spooling to disk to write with encryption.
      * <p/>
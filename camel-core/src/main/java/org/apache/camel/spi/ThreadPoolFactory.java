@@ -20,6 +20,8 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 
+import org.apache.camel.util.concurrent.HashedWheelTimer;
+
 /**
  * Creates ExecutorService and ScheduledExecutorService objects that work with a thread pool for a given ThreadPoolProfile and ThreadFactory.
  * 
@@ -55,4 +57,19 @@ public interface ThreadPoolFactory {
      * @return the created thread pool
      */
     ScheduledExecutorService newScheduledThreadPool(ThreadPoolProfile profile, ThreadFactory threadFactory);
+
+    /**
+     * Create a scheduled thread pool using the given thread pool profile, which is optimized for scheduling
+     * a large number of delayed tasks, such as redeliveries and delayed exchanges.
+     * <p/>
+     * The delayed tasks are kept in the hashed wheel timer, which schedules tasks in constant time,
+     * and the tasks are executed by a thread pool when they are due.
+     *
+     * @param profile parameters of the thread pool
+     * @param threadFactory factory for creating threads
+     * @param timer the timer for the delayed tasks, which is shared by the thread pools of the CamelContext
+     *              and therefore must not be stopped when the thread pool is shutdown
+     * @return the created thread pool
+     */
+    ScheduledExecutorService newTimerScheduledThreadPool(ThreadPoolProfile profile, ThreadFactory threadFactory, HashedWheelTimer timer);
 }
\ No newline at end of file
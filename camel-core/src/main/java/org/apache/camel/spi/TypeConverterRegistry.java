@@ -64,6 +64,12 @@ public interface TypeConverterRegistry extends StaticService {
          */
         long getFailedCounter();
 
+        /**
+         * Gets the utilization statistics per pair of types (from -> to) which has been attempted to be converted
+         * while statistics was enabled.
+         */
+        List<TypeConversionStatistics> getTypeConversionStatistics();
+
         /**
          * Reset the counters
          */
@@ -82,6 +88,48 @@ public interface TypeConverterRegistry extends StaticService {
         void setStatisticsEnabled(boolean statisticsEnabled);
     }
 
+    /**
+     * Utilization statistics of converting from one type to another type.
+     */
+    interface TypeConversionStatistics {
+
+        /**
+         * The type to convert from
+         */
+        Class<?> getFromType();
+
+        /**
+         * The type to convert to
+         */
+        Class<?> getToType();
+
+        /**
+         * The type converter in use, or <tt>null</tt> if no type converter is known for the types
+         * and the fallback type converters is in use instead
+         */
+        TypeConverter getTypeConverter();
+
+        /**
+         * Number of type conversion attempts
+         */
+        long getAttemptCounter();
+
+        /**
+         * Number of successful conversions using a known type converter
+         */
+        long getHitCounter();
+
+        /**
+         * Number of successful conversions using a fallback type converter (slow path)
+         */
+        long getFallbackCounter();
+
+        /**
+         * Number of attempts which cannot be converted as no suitable type converter exists
+         */
+        long getMissCounter();
+    }
+
     /**
      * Registers a new type converter.
      * <p/>
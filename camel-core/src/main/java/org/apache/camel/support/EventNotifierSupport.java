@@ -16,16 +16,40 @@
  */
 package org.apache.camel.support;
 
+import java.util.EventObject;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.camel.spi.AsyncEventNotifier;
 import org.apache.camel.spi.EventNotifier;
+import org.apache.camel.util.concurrent.CamelThreadFactory;
+import org.apache.camel.util.concurrent.RingBufferBlockingQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Base class to extend for custom {@link EventNotifier} implementations.
+ * <p/>
+ * The notifier can be configured to be notified asynchronously by setting <tt>async=true</tt>, where the
+ * events are queued in a bounded ring buffer and notified by a dedicated thread, so the routing threads do not
+ * wait for the notifier. When the queue is full then the event is either dropped or the routing thread blocks
+ * until there is room in the queue, depending on the {@link AsyncOverflowPolicy}. Events emitted by the notifier
+ * itself while notifying are notified right away by the dispatcher thread. The number of dropped events
+ * and the lag between an event was queued until it was notified are kept as statistics.
  *
  * @version 
  */
-public abstract class EventNotifierSupport extends ServiceSupport implements EventNotifier {
+public abstract class EventNotifierSupport extends ServiceSupport implements AsyncEventNotifier {
+
+    /**
+     * What to do with an event when the queue of asynchronous events is full.
+     */
+    public enum AsyncOverflowPolicy {
+        Block, Drop
+    }
+
     protected Logger log = LoggerFactory.getLogger(getClass());
     private boolean ignoreCamelContextEvents;
     private boolean ignoreRouteEvents;
@@ -37,6 +61,16 @@ public abstract class EventNotifierSupport extends ServiceSupport implements Eve
     private boolean ignoreExchangeRedeliveryEvents;
     private boolean ignoreExchangeSendingEvents;
     private boolean ignoreExchangeSentEvents;
+    private boolean async;
+    private int asyncQueueSize = 1024;
+    private AsyncOverflowPolicy asyncOverflowPolicy = AsyncOverflowPolicy.Drop;
+    private volatile BlockingQueue<QueuedEvent> queue;
+    private volatile Thread dispatcher;
+    private final LongAdder dispatchedEvents = new LongAdder();
+    private final LongAdder droppedEvents = new LongAdder();
+    private final LongAdder totalDispatchLag = new LongAdder();
+    private final AtomicLong maxDispatchLag = new AtomicLong();
+    private volatile long lastDispatchLag;
 
     public boolean isIgnoreCamelContextEvents() {
         return ignoreCamelContextEvents;
@@ -118,6 +152,169 @@ public abstract class EventNotifierSupport extends ServiceSupport implements Eve
         this.ignoreExchangeSendingEvents = ignoreExchangeSendingEvents;
     }
 
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * Whether to notify the events asynchronously using a dedicated thread.
+     * <p/>
+     * Notice the exchange of an exchange event may have been changed by the routing engine by the time the event
+     * is notified.
+     */
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
+
+    public int getAsyncQueueSize() {
+        return asyncQueueSize;
+    }
+
+    /**
+     * The maximum number of events waiting to be notified asynchronously. Is default <tt>1024</tt>.
+     */
+    public void setAsyncQueueSize(int asyncQueueSize) {
+        this.asyncQueueSize = asyncQueueSize;
+    }
+
+    public AsyncOverflowPolicy getAsyncOverflowPolicy() {
+        return asyncOverflowPolicy;
+    }
+
+    /**
+     * What to do when the queue of asynchronous events is full. Is default to drop the event.
+     */
+    public void setAsyncOverflowPolicy(AsyncOverflowPolicy asyncOverflowPolicy) {
+        this.asyncOverflowPolicy = asyncOverflowPolicy;
+    }
+
+    public void notifyAsync(EventObject event) {
+        // filter the event by the calling thread, so events which are not enabled are not queued
+        if (!isEnabled(event)) {
+            log.trace("Notifier: {} is not enabled for the event: {}", this, event);
+            return;
+        }
+
+        BlockingQueue<QueuedEvent> current = queue;
+        if (current == null || Thread.currentThread() == dispatcher) {
+            // not started in async mode, or the event is emitted while notifying another event, which would
+            // deadlock if the queue is full and the overflow policy is to block, so notify right away
+            doNotify(event);
+            return;
+        }
+
+        QueuedEvent queued = new QueuedEvent(event, System.nanoTime());
+        boolean added = current.offer(queued);
+        if (!added && asyncOverflowPolicy == AsyncOverflowPolicy.Block) {
+            try {
+                // keep trying until there is room, unless the notifier is being stopped
+                while (!added && queue == current) {
+                    added = current.offer(queued, 100, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // if the notifier was stopped in the meantime then the dispatcher may have drained the queue
+        // already, so the event is dropped unless the dispatcher took it
+        if (added && (queue == current || !current.remove(queued))) {
+            return;
+        }
+        droppedEvents.increment();
+        log.trace("Dropped event {} as the queue is full or the notifier is stopped", event);
+    }
+
+    /**
+     * Gets the number of events waiting to be notified asynchronously
+     */
+    public int getPendingEvents() {
+        BlockingQueue<QueuedEvent> current = queue;
+        return current != null ? current.size() : 0;
+    }
+
+    /**
+     * Gets the number of events which has been notified asynchronously
+     */
+    public long getDispatchedEvents() {
+        return dispatchedEvents.sum();
+    }
+
+    /**
+     * Gets the number of events which has been dropped as the queue was full
+     */
+    public long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+
+    /**
+     * Gets the time in millis the last event waited in the queue before it was notified
+     */
+    public long getLastDispatchLag() {
+        return TimeUnit.NANOSECONDS.toMillis(lastDispatchLag);
+    }
+
+    /**
+     * Gets the maximum time in millis an event waited in the queue before it was notified
+     */
+    public long getMaxDispatchLag() {
+        return TimeUnit.NANOSECONDS.toMillis(maxDispatchLag.get());
+    }
+
+    /**
+     * Gets the mean time in millis the events waited in the queue before they were notified
+     */
+    public long getMeanDispatchLag() {
+        long count = dispatchedEvents.sum();
+        return count > 0 ? TimeUnit.NANOSECONDS.toMillis(totalDispatchLag.sum() / count) : 0;
+    }
+
+    /**
+     * Resets the statistics of the asynchronous notifications
+     */
+    public void resetStatistics() {
+        dispatchedEvents.reset();
+        droppedEvents.reset();
+        totalDispatchLag.reset();
+        maxDispatchLag.set(0);
+        lastDispatchLag = 0;
+    }
+
+    /**
+     * Starts the notifier, and then the dispatcher thread when notifying asynchronously.
+     * <p/>
+     * The dispatcher is started here, so subclasses implementing {@link #doStart()} do not need to take care of it.
+     */
+    @Override
+    public void start() throws Exception {
+        super.start();
+        if (async && dispatcher == null && isStarted()) {
+            queue = new RingBufferBlockingQueue<QueuedEvent>(asyncQueueSize);
+            dispatcher = new CamelThreadFactory("Camel Thread ${counter} - ${name}", "EventNotifier " + getClass().getSimpleName(), true)
+                    .newThread(new Dispatcher(queue));
+            dispatcher.start();
+        }
+    }
+
+    /**
+     * Stops the dispatcher thread, which notifies the events still in the queue before it terminates, and then
+     * stops the notifier.
+     * <p/>
+     * The dispatcher is stopped here, so subclasses implementing {@link #doStop()} do not need to take care of it.
+     */
+    @Override
+    public void stop() throws Exception {
+        Thread thread = dispatcher;
+        if (thread != null) {
+            BlockingQueue<QueuedEvent> events = queue;
+            queue = null;
+            dispatcher = null;
+            // wakeup the dispatcher if its waiting for events
+            events.offer(QueuedEvent.STOP);
+            thread.join(10000);
+        }
+        super.stop();
+    }
+
     protected void doStart() throws Exception {
         // noop
     }
@@ -125,4 +322,63 @@ public abstract class EventNotifierSupport extends ServiceSupport implements Eve
     protected void doStop() throws Exception {
         // noop
     }
+
+    private void doNotify(EventObject event) {
+        try {
+            notify(event);
+        } catch (Throwable e) {
+            log.warn("Error notifying event " + event + ". This exception will be ignored. ", e);
+        }
+    }
+
+    private static final class QueuedEvent {
+        static final QueuedEvent STOP = new QueuedEvent(null, 0);
+
+        private final EventObject event;
+        private final long queued;
+
+        QueuedEvent(EventObject event, long queued) {
+            this.event = event;
+            this.queued = queued;
+        }
+    }
+
+    private final class Dispatcher implements Runnable {
+
+        private final BlockingQueue<QueuedEvent> events;
+
+        Dispatcher(BlockingQueue<QueuedEvent> events) {
+            this.events = events;
+        }
+
+        public void run() {
+            while (queue == events) {
+                try {
+                    dispatch(events.take());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            QueuedEvent remaining;
+            while ((remaining = events.poll()) != null) {
+                dispatch(remaining);
+            }
+        }
+
+        private void dispatch(QueuedEvent queued) {
+            if (queued == QueuedEvent.STOP) {
+                return;
+            }
+            long lag = System.nanoTime() - queued.queued;
+            lastDispatchLag = lag;
+            totalDispatchLag.add(lag);
+            long max = maxDispatchLag.get();
+            while (lag > max && !maxDispatchLag.compareAndSet(max, lag)) {
+                max = maxDispatchLag.get();
+            }
+            dispatchedEvents.increment();
+            doNotify(queued.event);
+        }
+    }
 }
@@ -0,0 +1,60 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.support;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.NoTypeConversionAvailableException;
+import org.apache.camel.spi.GeneratedPropertyConfigurer;
+import org.apache.camel.util.ObjectHelper;
+
+/**
+ * Base class for {@link GeneratedPropertyConfigurer} implementations.
+ */
+public abstract class PropertyConfigurerSupport implements GeneratedPropertyConfigurer {
+
+    /**
+     * Converts the property value to the given type, which is used by the generated configurers to convert
+     * the value to the parameter type of the setter method.
+     *
+     * @param camelContext the camel context
+     * @param type         the parameter type of the setter method
+     * @param value        the property value
+     * @return the value, converted to the given type if needed
+     * @throws NoTypeConversionAvailableException is thrown if the value could not be converted, which is the only
+     *                                            checked exception thrown by the generated configurers
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T property(CamelContext camelContext, Class<T> type, Object value) throws NoTypeConversionAvailableException {
+        if (value == null) {
+            if (type.isPrimitive()) {
+                throw new NoTypeConversionAvailableException(value, type);
+            }
+            return null;
+        }
+        // must use the wrapper type as the setter method may use a primitive type
+        if (ObjectHelper.convertPrimitiveTypeToWrapperType(type).isInstance(value)) {
+            return (T) value;
+        }
+        try {
+            return camelContext.getTypeConverter().mandatoryConvertTo(type, value);
+        } catch (IllegalArgumentException e) {
+            // so the caller can tell a conversion failure apart from an exception thrown by the setter method
+            throw new NoTypeConversionAvailableException(value, type, e);
+        }
+    }
+
+}
@@ -253,6 +253,34 @@ public final class CamelContextHelper {
         return 1000;
     }
 
+    /**
+     * Gets the maximum simple cache size.
+     * <p/>
+     * Will use the property set on CamelContext with the key {@link Exchange#MAXIMUM_SIMPLE_CACHE_SIZE}.
+     * If no property has been set, then it will fallback to return a size of 1000.
+     * Use a value of 0 or negative to disable the cache.
+     *
+     * @param camelContext the camel context
+     * @return the maximum cache size
+     * @throws IllegalArgumentException is thrown if the property is illegal
+     */
+    public static int getMaximumSimpleCacheSize(CamelContext camelContext) throws IllegalArgumentException {
+        if (camelContext != null) {
+            String s = camelContext.getProperty(Exchange.MAXIMUM_SIMPLE_CACHE_SIZE);
+            if (s != null) {
+                // we cannot use Camel type converters as they may not be ready this early
+                try {
+                    return Integer.valueOf(s);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Property " + Exchange.MAXIMUM_SIMPLE_CACHE_SIZE + " must be a number, was: " + s, e);
+                }
+            }
+        }
+
+        // 1000 is the default fallback
+        return 1000;
+    }
+
     /**
      * Parses the given text and handling property placeholders as well
      *
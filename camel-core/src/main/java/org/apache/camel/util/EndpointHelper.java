@@ -36,11 +36,13 @@ import org.apache.camel.Endpoint;
 import org.apache.camel.Exchange;
 import org.apache.camel.ExchangePattern;
 import org.apache.camel.Message;
+import org.apache.camel.NoTypeConversionAvailableException;
 import org.apache.camel.PollingConsumer;
 import org.apache.camel.Processor;
 import org.apache.camel.ResolveEndpointFailedException;
 import org.apache.camel.Route;
 import org.apache.camel.spi.BrowsableEndpoint;
+import org.apache.camel.spi.GeneratedPropertyConfigurer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -255,6 +257,43 @@ public final class EndpointHelper {
         IntrospectionSupport.setProperties(context.getTypeConverter(), bean, parameters);
     }
 
+    /**
+     * Sets the regular properties on the given bean using the generated configurer, which calls the setter methods
+     * directly without using reflection.
+     * <p/>
+     * Properties which are unknown to the configurer, or which it could not configure, such as when the value could not be
+     * converted to the type of the setter method, are set using reflection the same way as
+     * {@link #setProperties(CamelContext, Object, Map)}.
+     *
+     * @param context    the camel context
+     * @param configurer the generated configurer for the bean
+     * @param bean       the bean
+     * @param parameters parameters
+     * @throws Exception is thrown if setting property fails
+     */
+    public static void setProperties(CamelContext context, GeneratedPropertyConfigurer configurer, Object bean, Map<String, Object> parameters) throws Exception {
+        Iterator<Map.Entry<String, Object>> it = parameters.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Object> entry = it.next();
+            String name = entry.getKey();
+            Object value = entry.getValue();
+            boolean hit;
+            try {
+                hit = configurer.configure(context, bean, name, value);
+            } catch (NoTypeConversionAvailableException e) {
+                // the configurer could not convert the value, so let the reflection based setter deal with the value
+                // which may find another setter, or fails the same way, whereas exceptions from the setter are rethrown
+                hit = false;
+            }
+            if (!hit) {
+                hit = IntrospectionSupport.setProperty(null, context.getTypeConverter(), bean, name, value);
+            }
+            if (hit) {
+                it.remove();
+            }
+        }
+    }
+
     /**
      * Sets the reference properties on the given bean
      * <p/>
@@ -25,6 +25,7 @@ import org.apache.camel.Exchange;
 import org.apache.camel.Processor;
 import org.apache.camel.Route;
 import org.apache.camel.StatefulService;
+import org.apache.camel.spi.AsyncEventNotifier;
 import org.apache.camel.spi.EventFactory;
 import org.apache.camel.spi.EventNotifier;
 import org.apache.camel.spi.ManagementStrategy;
@@ -33,6 +34,10 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Helper for easily sending event notifications in a single line of code
+ * <p/>
+ * The event is only created if at least one of the {@link EventNotifier}s does not ignore the kind of event,
+ * and the same event is then notified to all the notifiers. Notifiers which implements
+ * {@link AsyncEventNotifier} can be configured to receive the events asynchronously.
  *
  * @version 
  */
@@ -54,18 +59,21 @@ public final class EventHelper {
             return;
         }
 
+        EventObject event = null;
         for (EventNotifier notifier : notifiers) {
             if (notifier.isIgnoreCamelContextEvents()) {
                 continue;
             }
 
-            EventFactory factory = management.getEventFactory();
-            if (factory == null) {
-                return;
-            }
-            EventObject event = factory.createCamelContextStartingEvent(context);
             if (event == null) {
-                return;
+                EventFactory factory = management.getEventFactory();
+                if (factory == null) {
+                    return;
+                }
+                event = factory.createCamelContextStartingEvent(context);
+                if (event == null) {
+                    return;
+                }
             }
             doNotifyEvent(notifier, event);
         }
@@ -82,18 +90,21 @@ public final class EventHelper {
             return;
         }
 
+        EventObject event = null;
         for (EventNotifier notifier : notifiers) {
             if (notifier.isIgnoreCamelContextEvents()) {
                 continue;
             }
 
-            EventFactory factory = management.getEventFactory();
-            if (factory == null) {
-                return;
-            }
-            EventObject event = factory.createCamelContextStartedEvent(context);
             if (event == null) {
-                return;
+                EventFactory factory = management.getEventFactory();
+                if (factory == null) {
+                    return;
+                }
+                event = factory.createCamelContextStartedEvent(context);
+                if (event == null) {
+                    return;
+                }
             }
             doNotifyEvent(notifier, event);
         }
@@ -110,18 +121,21 @@ public final class EventHelper {
             return;
         }
 
+        EventObject event = null;
         for (EventNotifier notifier : notifiers) {
             if (notifier.isIgnoreCamelContextEvents()) {
                 continue;
             }
 
-            EventFactory factory = management.getEventFactory();
-            if (factory == null) {
-                return;
-            }
-            EventObject event = factory.createCamelContextStartupFailureEvent(context, cause);
             if (event == null) {
-                return;
+                EventFactory factory = management.getEventFactory();
+                if (factory == null) {
+                    return;
+                }
+                event = factory.createCamelContextStartupFailureEvent(context, cause);
+                if (event == null) {
+                    return;
+                }
             }
             doNotifyEvent(notifier, event);
         }
@@ -138,18 +152,21 @@ public final class EventHelper {
             return;
         }
 
+        EventObject event = null;
         for (EventNotifier notifier : notifiers) {
             if (notifier.isIgnoreCamelContextEvents()) {
                 continue;
             }
 
-            EventFactory factory = management.getEventFactory();
-            if (factory == null) {
-                return;
-            }
-            EventObject event = factory.createCamelContextStoppingEvent(context);
             if (event == null) {
-                return;
+                EventFactory factory = management.getEventFactory();
+                if (factory == null) {
+                    return;
+                }
+                event = factory.createCamelContextStoppingEvent(context);
+                if (event == null) {
+                    return;
+                }
             }
             doNotifyEvent(notifier, event);
         }
@@ -166,18 +183,21 @@ public final class EventHelper {
             return;
         }
 
+        EventObject event = null;
         for (EventNotifier notifier : notifiers) {
             if (notifier.isIgnoreCamelContextEvents()) {
                 continue;
             }
 
-            EventFactory factory = management.getEventFactory();
-            if (factory == null) {
-                return;
-            }
-            EventObject event = factory.createCamelContextStoppedEvent(context);
             if (event == null) {
-                return;
+                EventFactory factory = management.getEventFactory();
+                if (factory == null) {
+                    return;
+                }
+                event = factory.createCamelContextStoppedEvent(context);
+                if (event == null) {
+                    return;
+                }
             }
             doNotifyEvent(notifier, event);
         }
@@ -194,18 +214,21 @@ public final class EventHelper {
             return;
         }
 
+        EventObject event = null;
         for (EventNotifier notifier : notifiers) {
             if (notifier.isIgnoreCamelContextEvents()) {
                 continue;
             }
 
-            EventFactory factory = management.getEventFactory();
-            if (factory == null) {
-                return;
-            }
-            EventObject event = factory.createCamelContextStopFailureEvent(context, cause);
             if (event == null) {
-                return;
+                EventFactory factory = management.getEventFactory();
+                if (factory == null) {
+                    return;
+                }
+                event = factory.createCamelContextStopFailureEvent(context, cause);
+                if (event == null) {
+                    return;
+                }
             }
             doNotifyEvent(notifier, event);
         }
@@ -222,18 +245,21 @@ public final class EventHelper {
             return;
         }
 
+        EventObject event = null;
         for (EventNotifier notifier : notifiers) {
             if (notifier.isIgnoreServiceEvents()) {
                 continue;
             }
 
-            EventFactory factory = management.getEventFactory();
-            if (factory == null) {
-                return;
-            }
-            EventObject event = factory.createServiceStopFailureEvent(context, service, cause);
             if (event == null) {
-                return;
+                EventFactory factory = management.getEventFactory();
+                if (factory == null) {
+                    return;
+                }
+                event = factory.createServiceStopFailureEvent(context, service, cause);
+                if (event == null) {
+                    return;
+                }
             }
             doNotifyEvent(notifier, event);
         }
@@ -250,18 +276,21 @@ public final class EventHelper {
             return;
         }
 
+        EventObject event = null;
         for (EventNotifier notifier : notifiers) {
             if (notifier.isIgnoreServiceEvents()) {
                 continue;
             }
 
-            EventFactory factory = management.getEventFactory();
-            if (factory == null) {
-                return;
-            }
-            EventObject event = factory.createServiceStartupFailureEvent(context, service, cause);
             if (event == null) {
-                return;
+                EventFactory factory = management.getEventFactory();
+                if (factory == null) {
+                    return;
+                }
+                event = factory.createServiceStartupFailureEvent(context, service, cause);
+                if (event == null) {
+                    return;
+                }
             }
             doNotifyEvent(notifier, event);
         }
@@ -278,18 +307,21 @@ public final class EventHelper {
             return;
         }
 
+        EventObject event = null;
         for (EventNotifier notifier : notifiers) {
             if (notifier.isIgnoreRouteEvents()) {
                 continue;
             }
 
-            EventFactory factory = management.getEventFactory();
-            if (factory == null) {
-                return;
-            }
-            EventObject event = factory.createRouteStartedEvent(route);
             if (event == null) {
-                return;
+                EventFactory factory = management.getEventFactory();
+                if (factory == null) {
+                    return;
+                }
+                event = factory.createRouteStartedEvent(route);
+                if (event == null) {
+                    return;
+                }
             }
             doNotifyEvent(notifier, event);
         }
@@ -306,18 +338,21 @@ public final class EventHelper {
             return;
         }
 
+        EventObject event = null;
         for (EventNotifier notifier : notifiers) {
             if (notifier.isIgnoreRouteEvents()) {
                 continue;
             }
 
-            EventFactory factory = management.getEventFactory();
-            if (factory == null) {
-                return;
-            }
-            EventObject event = factory.createRouteStoppedEvent(route);
             if (event == null) {
-                return;
+                EventFactory factory = management.getEventFactory();
+                if (factory == null) {
+                    return;
+                }
+                event = factory.createRouteStoppedEvent(route);
+                if (event == null) {
+                    return;
+                }
             }
             doNotifyEvent(notifier, event);
         }
@@ -334,18 +369,21 @@ public final class EventHelper {
             return;
         }
 
+        EventObject event = null;
         for (EventNotifier notifier : notifiers) {
             if (notifier.isIgnoreRouteEvents()) {
                 continue;
             }
 
-            EventFactory factory = management.getEventFactory();
-            if (factory == null) {
-                return;
-            }
-            EventObject event = factory.createRouteAddedEvent(route);
             if (event == null) {
-                return;
+                EventFactory factory = management.getEventFactory();
+                if (factory == null) {
+                    return;
+                }
+                event = factory.createRouteAddedEvent(route);
+                if (event == null) {
+                    return;
+                }
             }
             doNotifyEvent(notifier, event);
         }
@@ -362,29 +400,27 @@ public final class EventHelper {
             return;
         }
 
+        EventObject event = null;
         for (EventNotifier notifier : notifiers) {
             if (notifier.isIgnoreRouteEvents()) {
                 continue;
             }
 
-            EventFactory factory = management.getEventFactory();
-            if (factory == null) {
-                return;
-            }
-            EventObject event = factory.createRouteRemovedEvent(route);
             if (event == null) {
-                return;
+                EventFactory factory = management.getEventFactory();
+                if (factory == null) {
+                    return;
+                }
+                event = factory.createRouteRemovedEvent(route);
+                if (event == null) {
+                    return;
+                }
             }
             doNotifyEvent(notifier, event);
         }
     }
 
     public static void notifyExchangeCreated(CamelContext context, Exchange exchange) {
-        if (exchange.getProperty(Exchange.NOTIFY_EVENT, false, Boolean.class)) {
-            // do not generate events for an notify event
-            return;
-        }
-
         ManagementStrategy management = context.getManagementStrategy();
         if (management == null) {
             return;
@@ -395,29 +431,32 @@ public final class EventHelper {
             return;
         }
 
+        if (exchange.getProperty(Exchange.NOTIFY_EVENT, false, Boolean.class)) {
+            // do not generate events for an notify event
+            return;
+        }
+
+        EventObject event = null;
         for (EventNotifier notifier : notifiers) {
             if (notifier.isIgnoreExchangeEvents() || notifier.isIgnoreExchangeCreatedEvent()) {
                 continue;
             }
 
-            EventFactory factory = management.getEventFactory();
-            if (factory == null) {
-                return;
-            }
-            EventObject event = factory.createExchangeCreatedEvent(exchange);
             if (event == null) {
-                return;
+                EventFactory factory = management.getEventFactory();
+                if (factory == null) {
+                    return;
+                }
+                event = factory.createExchangeCreatedEvent(exchange);
+                if (event == null) {
+                    return;
+                }
             }
             doNotifyEvent(notifier, event);
         }
     }
 
     public static void notifyExchangeDone(CamelContext context, Exchange exchange) {
-        if (exchange.getProperty(Exchange.NOTIFY_EVENT, false, Boolean.class)) {
-            // do not generate events for an notify event
-            return;
-        }
-
         ManagementStrategy management = context.getManagementStrategy();
         if (management == null) {
             return;
@@ -428,29 +467,32 @@ public final class EventHelper {
             return;
         }
 
+        if (exchange.getProperty(Exchange.NOTIFY_EVENT, false, Boolean.class)) {
+            // do not generate events for an notify event
+            return;
+        }
+
+        EventObject event = null;
         for (EventNotifier notifier : notifiers) {
             if (notifier.isIgnoreExchangeEvents() || notifier.isIgnoreExchangeCompletedEvent()) {
                 continue;
             }
 
-            EventFactory factory = management.getEventFactory();
-            if (factory == null) {
-                return;
-            }
-            EventObject event = factory.createExchangeCompletedEvent(exchange);
             if (event == null) {
-                return;
+                EventFactory factory = management.getEventFactory();
+                if (factory == null) {
+                    return;
+                }
+                event = factory.createExchangeCompletedEvent(exchange);
+                if (event == null) {
+                    return;
+                }
             }
             doNotifyEvent(notifier, event);
         }
     }
 
     public static void notifyExchangeFailed(CamelContext context, Exchange exchange) {
-        if (exchange.getProperty(Exchange.NOTIFY_EVENT, false, Boolean.class)) {
-            // do not generate events for an notify event
-            return;
-        }
-
         ManagementStrategy management = context.getManagementStrategy();
         if (management == null) {
             return;
@@ -461,18 +503,26 @@ public final class EventHelper {
             return;
         }
 
+        if (exchange.getProperty(Exchange.NOTIFY_EVENT, false, Boolean.class)) {
+            // do not generate events for an notify event
+            return;
+        }
+
+        EventObject event = null;
         for (EventNotifier notifier : notifiers) {
             if (notifier.isIgnoreExchangeEvents() || notifier.isIgnoreExchangeFailedEvents()) {
                 continue;
             }
 
-            EventFactory factory = management.getEventFactory();
-            if (factory == null) {
-                return;
-            }
-            EventObject event = factory.createExchangeFailedEvent(exchange);
             if (event == null) {
-                return;
+                EventFactory factory = management.getEventFactory();
+                if (factory == null) {
+                    return;
+                }
+                event = factory.createExchangeFailedEvent(exchange);
+                if (event == null) {
+                    return;
+                }
             }
             doNotifyEvent(notifier, event);
         }
@@ -480,11 +530,6 @@ public final class EventHelper {
 
     public static void notifyExchangeFailureHandling(CamelContext context, Exchange exchange, Processor failureHandler,
                                                      boolean deadLetterChannel, String deadLetterUri) {
-        if (exchange.getProperty(Exchange.NOTIFY_EVENT, false, Boolean.class)) {
-            // do not generate events for an notify event
-            return;
-        }
-
         ManagementStrategy management = context.getManagementStrategy();
         if (management == null) {
             return;
@@ -495,18 +540,26 @@ public final class EventHelper {
             return;
         }
 
+        if (exchange.getProperty(Exchange.NOTIFY_EVENT, false, Boolean.class)) {
+            // do not generate events for an notify event
+            return;
+        }
+
+        EventObject event = null;
         for (EventNotifier notifier : notifiers) {
             if (notifier.isIgnoreExchangeEvents() || notifier.isIgnoreExchangeFailedEvents()) {
                 continue;
             }
 
-            EventFactory factory = management.getEventFactory();
-            if (factory == null) {
-                return;
-            }
-            EventObject event = factory.createExchangeFailureHandlingEvent(exchange, failureHandler, deadLetterChannel, deadLetterUri);
             if (event == null) {
-                return;
+                EventFactory factory = management.getEventFactory();
+                if (factory == null) {
+                    return;
+                }
+                event = factory.createExchangeFailureHandlingEvent(exchange, failureHandler, deadLetterChannel, deadLetterUri);
+                if (event == null) {
+                    return;
+                }
             }
             doNotifyEvent(notifier, event);
         }
@@ -514,11 +567,6 @@ public final class EventHelper {
 
     public static void notifyExchangeFailureHandled(CamelContext context, Exchange exchange, Processor failureHandler,
                                                     boolean deadLetterChannel, String deadLetterUri) {
-        if (exchange.getProperty(Exchange.NOTIFY_EVENT, false, Boolean.class)) {
-            // do not generate events for an notify event
-            return;
-        }
-
         ManagementStrategy management = context.getManagementStrategy();
         if (management == null) {
             return;
@@ -529,29 +577,32 @@ public final class EventHelper {
             return;
         }
 
+        if (exchange.getProperty(Exchange.NOTIFY_EVENT, false, Boolean.class)) {
+            // do not generate events for an notify event
+            return;
+        }
+
+        EventObject event = null;
         for (EventNotifier notifier : notifiers) {
             if (notifier.isIgnoreExchangeEvents() || notifier.isIgnoreExchangeFailedEvents()) {
                 continue;
             }
 
-            EventFactory factory = management.getEventFactory();
-            if (factory == null) {
-                return;
-            }
-            EventObject event = factory.createExchangeFailureHandledEvent(exchange, failureHandler, deadLetterChannel, deadLetterUri);
             if (event == null) {
-                return;
+                EventFactory factory = management.getEventFactory();
+                if (factory == null) {
+                    return;
+                }
+                event = factory.createExchangeFailureHandledEvent(exchange, failureHandler, deadLetterChannel, deadLetterUri);
+                if (event == null) {
+                    return;
+                }
             }
             doNotifyEvent(notifier, event);
         }
     }
 
     public static void notifyExchangeRedelivery(CamelContext context, Exchange exchange, int attempt) {
-        if (exchange.getProperty(Exchange.NOTIFY_EVENT, false, Boolean.class)) {
-            // do not generate events for an notify event
-            return;
-        }
-
         ManagementStrategy management = context.getManagementStrategy();
         if (management == null) {
             return;
@@ -562,29 +613,32 @@ public final class EventHelper {
             return;
         }
 
+        if (exchange.getProperty(Exchange.NOTIFY_EVENT, false, Boolean.class)) {
+            // do not generate events for an notify event
+            return;
+        }
+
+        EventObject event = null;
         for (EventNotifier notifier : notifiers) {
             if (notifier.isIgnoreExchangeEvents() || notifier.isIgnoreExchangeFailedEvents()) {
                 continue;
             }
 
-            EventFactory factory = management.getEventFactory();
-            if (factory == null) {
-                return;
-            }
-            EventObject event = factory.createExchangeRedeliveryEvent(exchange, attempt);
             if (event == null) {
-                return;
+                EventFactory factory = management.getEventFactory();
+                if (factory == null) {
+                    return;
+                }
+                event = factory.createExchangeRedeliveryEvent(exchange, attempt);
+                if (event == null) {
+                    return;
+                }
             }
             doNotifyEvent(notifier, event);
         }
     }
 
     public static void notifyExchangeSending(CamelContext context, Exchange exchange, Endpoint endpoint) {
-        if (exchange.getProperty(Exchange.NOTIFY_EVENT, false, Boolean.class)) {
-            // do not generate events for an notify event
-            return;
-        }
-
         ManagementStrategy management = context.getManagementStrategy();
         if (management == null) {
             return;
@@ -595,29 +649,32 @@ public final class EventHelper {
             return;
         }
 
+        if (exchange.getProperty(Exchange.NOTIFY_EVENT, false, Boolean.class)) {
+            // do not generate events for an notify event
+            return;
+        }
+
+        EventObject event = null;
         for (EventNotifier notifier : notifiers) {
             if (notifier.isIgnoreExchangeEvents() || notifier.isIgnoreExchangeSentEvents()) {
                 continue;
             }
 
-            EventFactory factory = management.getEventFactory();
-            if (factory == null) {
-                return;
-            }
-            EventObject event = factory.createExchangeSendingEvent(exchange, endpoint);
             if (event == null) {
-                return;
+                EventFactory factory = management.getEventFactory();
+                if (factory == null) {
+                    return;
+                }
+                event = factory.createExchangeSendingEvent(exchange, endpoint);
+                if (event == null) {
+                    return;
+                }
             }
             doNotifyEvent(notifier, event);
         }
     }
 
     public static void notifyExchangeSent(CamelContext context, Exchange exchange, Endpoint endpoint, long timeTaken) {
-        if (exchange.getProperty(Exchange.NOTIFY_EVENT, false, Boolean.class)) {
-            // do not generate events for an notify event
-            return;
-        }
-
         ManagementStrategy management = context.getManagementStrategy();
         if (management == null) {
             return;
@@ -628,18 +685,26 @@ public final class EventHelper {
             return;
         }
 
+        if (exchange.getProperty(Exchange.NOTIFY_EVENT, false, Boolean.class)) {
+            // do not generate events for an notify event
+            return;
+        }
+
+        EventObject event = null;
         for (EventNotifier notifier : notifiers) {
             if (notifier.isIgnoreExchangeEvents() || notifier.isIgnoreExchangeSentEvents()) {
                 continue;
             }
 
-            EventFactory factory = management.getEventFactory();
-            if (factory == null) {
-                return;
-            }
-            EventObject event = factory.createExchangeSentEvent(exchange, endpoint, timeTaken);
             if (event == null) {
-                return;
+                EventFactory factory = management.getEventFactory();
+                if (factory == null) {
+                    return;
+                }
+                event = factory.createExchangeSentEvent(exchange, endpoint, timeTaken);
+                if (event == null) {
+                    return;
+                }
             }
             doNotifyEvent(notifier, event);
         }
@@ -656,18 +721,21 @@ public final class EventHelper {
             return;
         }
 
+        EventObject event = null;
         for (EventNotifier notifier : notifiers) {
             if (notifier.isIgnoreCamelContextEvents()) {
                 continue;
             }
 
-            EventFactory factory = management.getEventFactory();
-            if (factory == null) {
-                return;
-            }
-            EventObject event = factory.createCamelContextSuspendingEvent(context);
             if (event == null) {
-                return;
+                EventFactory factory = management.getEventFactory();
+                if (factory == null) {
+                    return;
+                }
+                event = factory.createCamelContextSuspendingEvent(context);
+                if (event == null) {
+                    return;
+                }
             }
             doNotifyEvent(notifier, event);
         }
@@ -684,18 +752,21 @@ public final class EventHelper {
             return;
         }
 
+        EventObject event = null;
         for (EventNotifier notifier : notifiers) {
             if (notifier.isIgnoreCamelContextEvents()) {
                 continue;
             }
 
-            EventFactory factory = management.getEventFactory();
-            if (factory == null) {
-                return;
-            }
-            EventObject event = factory.createCamelContextSuspendedEvent(context);
             if (event == null) {
-                return;
+                EventFactory factory = management.getEventFactory();
+                if (factory == null) {
+                    return;
+                }
+                event = factory.createCamelContextSuspendedEvent(context);
+                if (event == null) {
+                    return;
+                }
             }
             doNotifyEvent(notifier, event);
         }
@@ -712,18 +783,21 @@ public final class EventHelper {
             return;
         }
 
+        EventObject event = null;
         for (EventNotifier notifier : notifiers) {
             if (notifier.isIgnoreCamelContextEvents()) {
                 continue;
             }
 
-            EventFactory factory = management.getEventFactory();
-            if (factory == null) {
-                return;
-            }
-            EventObject event = factory.createCamelContextResumingEvent(context);
             if (event == null) {
-                return;
+                EventFactory factory = management.getEventFactory();
+                if (factory == null) {
+                    return;
+                }
+                event = factory.createCamelContextResumingEvent(context);
+                if (event == null) {
+                    return;
+                }
             }
             doNotifyEvent(notifier, event);
         }
@@ -740,18 +814,21 @@ public final class EventHelper {
             return;
         }
 
+        EventObject event = null;
         for (EventNotifier notifier : notifiers) {
             if (notifier.isIgnoreCamelContextEvents()) {
                 continue;
             }
 
-            EventFactory factory = management.getEventFactory();
-            if (factory == null) {
-                return;
-            }
-            EventObject event = factory.createCamelContextResumedEvent(context);
             if (event == null) {
-                return;
+                EventFactory factory = management.getEventFactory();
+                if (factory == null) {
+                    return;
+                }
+                event = factory.createCamelContextResumedEvent(context);
+                if (event == null) {
+                    return;
+                }
             }
             doNotifyEvent(notifier, event);
         }
@@ -768,18 +845,21 @@ public final class EventHelper {
             return;
         }
 
+        EventObject event = null;
         for (EventNotifier notifier : notifiers) {
             if (notifier.isIgnoreCamelContextEvents()) {
                 continue;
             }
 
-            EventFactory factory = management.getEventFactory();
-            if (factory == null) {
-                return;
-            }
-            EventObject event = factory.createCamelContextResumeFailureEvent(context, cause);
             if (event == null) {
-                return;
+                EventFactory factory = management.getEventFactory();
+                if (factory == null) {
+                    return;
+                }
+                event = factory.createCamelContextResumeFailureEvent(context, cause);
+                if (event == null) {
+                    return;
+                }
             }
             doNotifyEvent(notifier, event);
         }
@@ -796,6 +876,12 @@ public final class EventHelper {
             return;
         }
 
+        if (notifier instanceof AsyncEventNotifier && ((AsyncEventNotifier) notifier).isAsync()) {
+            // the notifier checks whether its enabled for the event before its queued
+            ((AsyncEventNotifier) notifier).notifyAsync(event);
+            return;
+        }
+
         if (!notifier.isEnabled(event)) {
             LOG.trace("Notifier: {} is not enabled for the event: {}", notifier, event);
             return;
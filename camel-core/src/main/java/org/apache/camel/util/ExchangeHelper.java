@@ -323,7 +323,7 @@ public final class ExchangeHelper {
             }
 
             if (source.hasProperties()) {
-                result.getProperties().putAll(source.getProperties());
+                copyProperties(result, source);
             }
         }
     }
@@ -368,6 +368,18 @@ public final class ExchangeHelper {
 
         // copy properties
         if (source.hasProperties()) {
+            copyProperties(result, source);
+        }
+    }
+
+    /**
+     * Copies the properties of the <code>source</code> exchange to the <code>result</code> exchange, which
+     * keeps sharing the properties between the exchanges when possible.
+     */
+    private static void copyProperties(Exchange result, Exchange source) {
+        if (result instanceof DefaultExchange) {
+            ((DefaultExchange) result).copyPropertiesFrom(source);
+        } else {
             result.getProperties().putAll(source.getProperties());
         }
     }
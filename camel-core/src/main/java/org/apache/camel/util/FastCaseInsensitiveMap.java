@@ -0,0 +1,455 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.util;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A map that uses case insensitive keys, but preserves the original key cases, which is optimized for
+ * storing message headers.
+ * <p/>
+ * Unlike {@link CaseInsensitiveMap} this map does not allocate any objects when looking up keys. The keys are
+ * hashed using a case folded hash code which is stored together with the entry, and the entries are kept in an
+ * open addressing table. The entries are iterated in insertion order.
+ * <p/>
+ * When creating a new map from an existing {@link FastCaseInsensitiveMap} using the
+ * {@link #FastCaseInsensitiveMap(java.util.Map)} constructor, then the two maps share the same storage until
+ * either of them is modified (copy on write). This makes copying exchanges cheap as the copies often do not
+ * change the headers.
+ * <p/>
+ * This map is <b>not</b> designed to be thread safe as concurrent access to it is not supposed to be performed
+ * by the Camel routing engine. However a map which is shared with its copies is never modified, so the copies
+ * can safely be used by other threads.
+ *
+ * @see CaseInsensitiveMap
+ */
+public class FastCaseInsensitiveMap extends AbstractMap<String, Object> implements Serializable {
+
+    private static final long serialVersionUID = 2954396458466710937L;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private Table table;
+    private transient int modCount;
+    private transient Set<Map.Entry<String, Object>> entrySet;
+
+    public FastCaseInsensitiveMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public FastCaseInsensitiveMap(int initialCapacity) {
+        this.table = new Table(Math.max(4, initialCapacity));
+    }
+
+    public FastCaseInsensitiveMap(Map<? extends String, ?> map) {
+        if (map instanceof FastCaseInsensitiveMap) {
+            // share the storage until one of the maps is modified
+            Table source = ((FastCaseInsensitiveMap) map).table;
+            source.shared = true;
+            this.table = source;
+        } else {
+            this.table = new Table(Math.max(DEFAULT_CAPACITY, map.size() + map.size() / 2));
+            putAll(map);
+        }
+    }
+
+    @Override
+    public int size() {
+        return table.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return table.size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (key instanceof String) {
+            String name = (String) key;
+            return table.indexOf(name, hash(name)) >= 0;
+        }
+        return false;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (key instanceof String) {
+            String name = (String) key;
+            int index = table.indexOf(name, hash(name));
+            return index >= 0 ? table.values[index] : null;
+        }
+        return null;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        if (key == null) {
+            throw new NullPointerException("key");
+        }
+        int hash = hash(key);
+        int index = table.indexOf(key, hash);
+        if (index >= 0) {
+            // existing key so keep the original key case and only replace the value
+            Table t = writable();
+            Object old = t.values[index];
+            t.values[index] = value;
+            return old;
+        }
+
+        Table t = writable();
+        if (t.used == t.keys.length) {
+            t = rehash(t.size + 1);
+        }
+        t.add(key, value, hash);
+        modCount++;
+        return null;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (key instanceof String) {
+            String name = (String) key;
+            int hash = hash(name);
+            int slot = table.slotOf(name, hash);
+            if (slot >= 0) {
+                Table t = writable();
+                Object old = t.values[t.slots[slot] - 1];
+                t.removeAt(slot);
+                modCount++;
+                return old;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void clear() {
+        if (table.shared) {
+            table = new Table(DEFAULT_CAPACITY);
+        } else {
+            table.clear();
+        }
+        modCount++;
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    /**
+     * Computes the case folded hash code of the key.
+     */
+    static int hash(String key) {
+        int h = 0;
+        for (int i = 0; i < key.length(); i++) {
+            h = 31 * h + fold(key.charAt(i));
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Folds the character the same way as {@link String#equalsIgnoreCase(String)} compares characters.
+     */
+    private static char fold(char ch) {
+        if (ch < 128) {
+            return ch >= 'A' && ch <= 'Z' ? (char) (ch + 32) : ch;
+        }
+        return Character.toLowerCase(Character.toUpperCase(ch));
+    }
+
+    /**
+     * Gets the table to modify, which creates a private copy if the table is currently shared.
+     */
+    private Table writable() {
+        if (table.shared) {
+            table = table.duplicate();
+        }
+        return table;
+    }
+
+    private Table rehash(int minSize) {
+        int capacity = table.keys.length;
+        // only grow if the table is at least half full with live entries, otherwise just compact it
+        if (minSize > capacity / 2) {
+            capacity = capacity * 2;
+        }
+        table = table.copy(capacity);
+        return table;
+    }
+
+    /**
+     * The storage of the map.
+     * <p/>
+     * The entries are stored in insertion order in the keys, values and hashes arrays, and the slots array is an
+     * open addressing (linear probing) index into the entries, where <tt>0</tt> is a free slot, <tt>-1</tt>
+     * is a removed slot, and otherwise the entry index plus one.
+     */
+    private static final class Table implements Serializable {
+
+        private static final long serialVersionUID = -2471812305613788237L;
+
+        String[] keys;
+        Object[] values;
+        int[] hashes;
+        int[] slots;
+        // number of live entries
+        int size;
+        // number of used entries (including removed)
+        int used;
+        // whether this table is shared by more maps and therefore must not be modified
+        volatile boolean shared;
+
+        Table(int capacity) {
+            keys = new String[capacity];
+            values = new Object[capacity];
+            hashes = new int[capacity];
+            slots = new int[slotsFor(capacity)];
+        }
+
+        private static int slotsFor(int capacity) {
+            // keep the load factor of the slots below 0.5
+            int n = Integer.highestOneBit(capacity) << 1;
+            return n < capacity * 2 ? n << 1 : n;
+        }
+
+        int slotOf(String key, int hash) {
+            int mask = slots.length - 1;
+            int i = hash & mask;
+            while (true) {
+                int s = slots[i];
+                if (s == 0) {
+                    return -1;
+                }
+                if (s > 0) {
+                    int e = s - 1;
+                    String k = keys[e];
+                    if (hashes[e] == hash && (k == key || k.equalsIgnoreCase(key))) {
+                        return i;
+                    }
+                }
+                i = (i + 1) & mask;
+            }
+        }
+
+        int indexOf(String key, int hash) {
+            int slot = slotOf(key, hash);
+            return slot >= 0 ? slots[slot] - 1 : -1;
+        }
+
+        void add(String key, Object value, int hash) {
+            int e = used++;
+            keys[e] = key;
+            values[e] = value;
+            hashes[e] = hash;
+            size++;
+
+            int mask = slots.length - 1;
+            int i = hash & mask;
+            while (slots[i] > 0) {
+                i = (i + 1) & mask;
+            }
+            slots[i] = e + 1;
+        }
+
+        void removeAt(int slot) {
+            int e = slots[slot] - 1;
+            keys[e] = null;
+            values[e] = null;
+            slots[slot] = -1;
+            size--;
+            if (size == 0) {
+                clear();
+            }
+        }
+
+        void clear() {
+            Arrays.fill(keys, 0, used, null);
+            Arrays.fill(values, 0, used, null);
+            Arrays.fill(slots, 0);
+            size = 0;
+            used = 0;
+        }
+
+        /**
+         * Creates an unshared copy of this table with the exact same layout.
+         */
+        Table duplicate() {
+            Table answer = new Table(keys.length);
+            System.arraycopy(keys, 0, answer.keys, 0, used);
+            System.arraycopy(values, 0, answer.values, 0, used);
+            System.arraycopy(hashes, 0, answer.hashes, 0, used);
+            System.arraycopy(slots, 0, answer.slots, 0, slots.length);
+            answer.size = size;
+            answer.used = used;
+            return answer;
+        }
+
+        /**
+         * Creates an unshared copy of this table with the given capacity, which also compacts away removed entries.
+         */
+        Table copy(int capacity) {
+            Table answer = new Table(capacity);
+            for (int e = 0; e < used; e++) {
+                if (keys[e] != null) {
+                    answer.add(keys[e], values[e], hashes[e]);
+                }
+            }
+            return answer;
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<String, Object>> {
+
+        @Override
+        public Iterator<Map.Entry<String, Object>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return table.size;
+        }
+
+        @Override
+        public void clear() {
+            FastCaseInsensitiveMap.this.clear();
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+
+        private int next;
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        EntryIterator() {
+            advance();
+        }
+
+        private void advance() {
+            Table t = table;
+            while (next < t.used && t.keys[next] == null) {
+                next++;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < table.used;
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = next++;
+            advance();
+            return new Entry(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            // removing does not move the entries so the iterator position is still valid
+            FastCaseInsensitiveMap.this.remove(table.keys[last]);
+            expectedModCount = modCount;
+            last = -1;
+        }
+    }
+
+    private final class Entry implements Map.Entry<String, Object> {
+
+        private final int index;
+        private final String key;
+
+        Entry(int index) {
+            this.index = index;
+            this.key = table.keys[index];
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public Object getValue() {
+            Table t = table;
+            // the entry may have been removed or the table compacted
+            if (index < t.used && t.keys[index] == key) {
+                return t.values[index];
+            }
+            return get(key);
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            Table t = table;
+            if (index < t.used && t.keys[index] == key) {
+                t = writable();
+                Object old = t.values[index];
+                t.values[index] = value;
+                return old;
+            }
+            return put(key, value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            Object value = getValue();
+            return key.equals(e.getKey()) && (value == null ? e.getValue() == null : value.equals(e.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            Object value = getValue();
+            return key.hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+
+}
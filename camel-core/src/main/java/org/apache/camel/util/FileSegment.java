@@ -0,0 +1,120 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A segment of a file which can be transferred to another channel using {@link FileChannel#transferTo(long, long, WritableByteChannel)},
+ * which lets the operating system copy the bytes directly from the file system cache to the target file or socket
+ * (zero copy), without copying the bytes through the heap.
+ * <p/>
+ * Transport components can convert a file based message body to a {@link FileSegment} using the type converter, to send it
+ * using their own zero copy support.
+ * <p/>
+ * The segment owns the file channel, which is closed when the segment is closed.
+ */
+public final class FileSegment implements Closeable {
+
+    private final FileChannel channel;
+    private final long position;
+    private final long count;
+
+    public FileSegment(FileChannel channel, long position, long count) {
+        ObjectHelper.notNull(channel, "channel");
+        this.channel = channel;
+        this.position = position;
+        this.count = count;
+    }
+
+    /**
+     * Opens a segment for the entire file
+     *
+     * @param file  the file
+     * @return the segment
+     * @throws IOException is thrown if the file cannot be opened
+     */
+    public static FileSegment open(File file) throws IOException {
+        FileChannel channel = new FileInputStream(file).getChannel();
+        try {
+            return new FileSegment(channel, 0, channel.size());
+        } catch (IOException e) {
+            IOHelper.close(channel);
+            throw e;
+        }
+    }
+
+    /**
+     * Creates a segment for the remainder of the file channel from its current position
+     *
+     * @param channel  the file channel
+     * @return the segment
+     * @throws IOException is thrown if the position or size cannot be read
+     */
+    public static FileSegment remainderOf(FileChannel channel) throws IOException {
+        long position = channel.position();
+        return new FileSegment(channel, position, Math.max(0, channel.size() - position));
+    }
+
+    public FileChannel getChannel() {
+        return channel;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Transfers the segment to the target channel
+     *
+     * @param target  the target channel
+     * @return the number of bytes transferred, which is less than the count if the file was truncated in the meantime,
+     *         or if the target is a non blocking channel which cannot accept more bytes right now
+     * @throws IOException is thrown if error transferring the bytes
+     */
+    public long transferTo(WritableByteChannel target) throws IOException {
+        long transferred = 0;
+        while (transferred < count) {
+            // the channel may transfer fewer bytes than requested, so continue until it transfers nothing
+            long n = channel.transferTo(position + transferred, count - transferred, target);
+            if (n <= 0) {
+                break;
+            }
+            transferred += n;
+        }
+        return transferred;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return "FileSegment[position=" + position + ", count=" + count + "]";
+    }
+}
@@ -0,0 +1,402 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.util.concurrent;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link ScheduledExecutorService} which uses a {@link HashedWheelTimer} for keeping track of the delayed tasks,
+ * and a worker {@link ExecutorService} for executing the tasks when they are due.
+ * <p/>
+ * The {@link java.util.concurrent.ScheduledThreadPoolExecutor} keeps the delayed tasks in a priority queue which is
+ * guarded by a lock, which becomes a bottleneck when a large number of tasks are scheduled, such as when the error
+ * handler has many exchanges pending for redelivery. This implementation schedules and cancels tasks in constant
+ * time without any locks, at the price of the tasks being executed on the first tick of the timer after they are due.
+ * <p/>
+ * Tasks without any delay are submitted directly to the worker. When shutting down, then the delayed tasks are
+ * still executed, but periodic tasks are cancelled, the same as {@link java.util.concurrent.ScheduledThreadPoolExecutor}
+ * does by default. The worker is shutdown when all the delayed tasks has been executed.
+ */
+public class HashedWheelScheduledExecutorService extends AbstractExecutorService implements ScheduledExecutorService {
+
+    private final HashedWheelTimer timer;
+    private final ExecutorService worker;
+    private final long maxPendingTasks;
+    private final boolean stopTimer;
+    private final AtomicLong pendingTasks = new AtomicLong();
+    private final Set<ScheduledTask<?>> periodicTasks = Collections.newSetFromMap(new ConcurrentHashMap<ScheduledTask<?>, Boolean>());
+    private final AtomicBoolean terminating = new AtomicBoolean();
+    private final CountDownLatch drained = new CountDownLatch(1);
+    private volatile boolean shutdown;
+
+    /**
+     * Creates a new scheduled executor service.
+     *
+     * @param timer            the timer to use for keeping track of the delayed tasks
+     * @param worker           the worker which executes the tasks when they are due
+     * @param maxPendingTasks  the maximum number of delayed tasks, use 0 or negative value for unlimited
+     */
+    public HashedWheelScheduledExecutorService(HashedWheelTimer timer, ExecutorService worker, long maxPendingTasks) {
+        this(timer, worker, maxPendingTasks, true);
+    }
+
+    /**
+     * Creates a new scheduled executor service.
+     *
+     * @param timer            the timer to use for keeping track of the delayed tasks
+     * @param worker           the worker which executes the tasks when they are due
+     * @param maxPendingTasks  the maximum number of delayed tasks, use 0 or negative value for unlimited
+     * @param stopTimer        whether to stop the timer when this executor service is terminated, use <tt>false</tt>
+     *                         if the timer is shared with other executor services
+     */
+    public HashedWheelScheduledExecutorService(HashedWheelTimer timer, ExecutorService worker, long maxPendingTasks, boolean stopTimer) {
+        this.timer = timer;
+        this.worker = worker;
+        this.maxPendingTasks = maxPendingTasks;
+        this.stopTimer = stopTimer;
+    }
+
+    /**
+     * Gets the timer which keeps track of the delayed tasks
+     */
+    public HashedWheelTimer getTimer() {
+        return timer;
+    }
+
+    /**
+     * Gets the worker which executes the tasks when they are due
+     */
+    public ExecutorService getWorker() {
+        return worker;
+    }
+
+    /**
+     * Gets the number of tasks which are waiting for their delay to expire
+     */
+    public long getPendingTasks() {
+        return pendingTasks.get();
+    }
+
+    /**
+     * Gets the number of tasks which are due and waiting in the task queue of the worker
+     */
+    public int getQueueSize() {
+        if (worker instanceof ThreadPoolExecutor) {
+            return ((ThreadPoolExecutor) worker).getQueue().size();
+        }
+        return 0;
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        if (command == null || unit == null) {
+            throw new NullPointerException();
+        }
+        ScheduledTask<Void> task = new ScheduledTask<Void>(command, null, triggerTime(delay, unit), 0);
+        delayedExecute(task);
+        return task;
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        if (callable == null || unit == null) {
+            throw new NullPointerException();
+        }
+        ScheduledTask<V> task = new ScheduledTask<V>(callable, triggerTime(delay, unit));
+        delayedExecute(task);
+        return task;
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        if (command == null || unit == null) {
+            throw new NullPointerException();
+        }
+        if (period <= 0) {
+            throw new IllegalArgumentException("Period must be positive, was: " + period);
+        }
+        ScheduledTask<Void> task = new ScheduledTask<Void>(command, null, triggerTime(initialDelay, unit), unit.toNanos(period));
+        delayedExecute(task);
+        return task;
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        if (command == null || unit == null) {
+            throw new NullPointerException();
+        }
+        if (delay <= 0) {
+            throw new IllegalArgumentException("Delay must be positive, was: " + delay);
+        }
+        ScheduledTask<Void> task = new ScheduledTask<Void>(command, null, triggerTime(initialDelay, unit), -unit.toNanos(delay));
+        delayedExecute(task);
+        return task;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        schedule(command, 0, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        // periodic tasks would run forever so they are cancelled
+        for (ScheduledTask<?> task : periodicTasks) {
+            task.cancel(false);
+        }
+        periodicTasks.clear();
+        if (pendingTasks.get() == 0) {
+            terminate();
+        }
+    }
+
+    /**
+     * Shutdown the executor service, which discards the tasks which are still delayed, and attempts to stop the tasks
+     * which are executing.
+     * <p/>
+     * If the timer is shared then the delayed tasks are discarded when they are due.
+     *
+     * @return the tasks which was waiting in the task queue of the worker, the delayed tasks are not returned
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        if (stopTimer) {
+            timer.stop();
+        }
+        periodicTasks.clear();
+        pendingTasks.set(0);
+        terminating.set(true);
+        drained.countDown();
+        return worker.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return drained.getCount() == 0 && worker.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        if (!drained.await(timeout, unit)) {
+            return false;
+        }
+        return worker.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    private long triggerTime(long delay, TimeUnit unit) {
+        return System.nanoTime() + unit.toNanos(Math.max(0, delay));
+    }
+
+    private void delayedExecute(ScheduledTask<?> task) {
+        if (shutdown) {
+            throw new RejectedExecutionException("Task rejected as executor service is shutdown");
+        }
+        if (task.isPeriodic()) {
+            periodicTasks.add(task);
+        }
+        long delay = task.getDelay(TimeUnit.NANOSECONDS);
+        if (delay <= 0) {
+            // no need to go through the timer
+            try {
+                worker.execute(task);
+            } catch (RejectedExecutionException e) {
+                periodicTasks.remove(task);
+                throw e;
+            }
+        } else {
+            if (maxPendingTasks > 0 && pendingTasks.get() >= maxPendingTasks) {
+                periodicTasks.remove(task);
+                throw new RejectedExecutionException("Task rejected due queue size limit reached");
+            }
+            pendingTasks.incrementAndGet();
+            try {
+                task.timeout = timer.newTimeout(new Trigger(task), delay, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                periodicTasks.remove(task);
+                taskDone();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Invoked when a delayed task is no longer pending, as its either due or cancelled
+     */
+    private void taskDone() {
+        if (pendingTasks.decrementAndGet() <= 0 && shutdown) {
+            terminate();
+        }
+    }
+
+    private void terminate() {
+        if (terminating.compareAndSet(false, true)) {
+            worker.shutdown();
+            if (stopTimer) {
+                timer.stop();
+            }
+            drained.countDown();
+        }
+    }
+
+    /**
+     * Executed by the timer thread when a task is due, which hands over the task to the worker.
+     */
+    private final class Trigger implements Runnable {
+
+        private final ScheduledTask<?> task;
+
+        Trigger(ScheduledTask<?> task) {
+            this.task = task;
+        }
+
+        public void run() {
+            if (terminating.get()) {
+                // the shared timer was not stopped by shutdownNow so discard the task
+                task.cancel(false);
+                return;
+            }
+            // the task is no longer pending, but the worker must not be terminated before its been handed over
+            pendingTasks.decrementAndGet();
+            try {
+                worker.execute(task);
+            } catch (RejectedExecutionException e) {
+                task.cancel(false);
+            } finally {
+                if (shutdown && pendingTasks.get() <= 0) {
+                    terminate();
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return task.toString();
+        }
+    }
+
+    private final class ScheduledTask<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+
+        private final Object task;
+        // positive is fixed rate, negative is fixed delay and zero is not periodic
+        private final long period;
+        private volatile long time;
+        private volatile HashedWheelTimer.Timeout timeout;
+
+        ScheduledTask(Runnable runnable, V result, long time, long period) {
+            super(runnable, result);
+            this.task = runnable;
+            this.time = time;
+            this.period = period;
+        }
+
+        ScheduledTask(Callable<V> callable, long time) {
+            super(callable);
+            this.task = callable;
+            this.time = time;
+            this.period = 0;
+        }
+
+        public boolean isPeriodic() {
+            return period != 0;
+        }
+
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(time - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        public int compareTo(Delayed other) {
+            if (other == this) {
+                return 0;
+            }
+            long diff = getDelay(TimeUnit.NANOSECONDS) - other.getDelay(TimeUnit.NANOSECONDS);
+            return diff < 0 ? -1 : diff > 0 ? 1 : 0;
+        }
+
+        @Override
+        public void run() {
+            if (!isPeriodic()) {
+                super.run();
+            } else if (super.runAndReset()) {
+                if (shutdown || isCancelled()) {
+                    periodicTasks.remove(this);
+                    super.cancel(false);
+                    return;
+                }
+                time = period > 0 ? time + period : System.nanoTime() - period;
+                try {
+                    delayedExecute(this);
+                } catch (RejectedExecutionException e) {
+                    periodicTasks.remove(this);
+                    super.cancel(false);
+                }
+            } else {
+                periodicTasks.remove(this);
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                if (isPeriodic()) {
+                    periodicTasks.remove(this);
+                }
+                HashedWheelTimer.Timeout t = timeout;
+                if (t != null && t.cancel()) {
+                    taskDone();
+                }
+            }
+            return cancelled;
+        }
+
+        @Override
+        public String toString() {
+            return "ScheduledTask[" + task + "]";
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "HashedWheelScheduledExecutorService[pendingTasks=" + pendingTasks.get() + ", timer=" + timer + ", worker=" + worker + "]";
+    }
+
+}
@@ -0,0 +1,385 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.util.concurrent;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A timer which is optimized for scheduling a large number of short lived timeouts, which are often
+ * cancelled before they expire.
+ * <p/>
+ * The timeouts are kept in a wheel of buckets, where the timer thread advances one bucket per tick and
+ * expires the timeouts which are due in the bucket. Scheduling and cancelling a timeout is therefore
+ * a constant time operation which does not need any locks, unlike {@link java.util.Timer} and
+ * {@link java.util.concurrent.ScheduledThreadPoolExecutor} which keeps the tasks in a priority queue.
+ * The price is that the timeouts are not expired exactly on time, but on the first tick after they are due.
+ * <p/>
+ * The timeout tasks are executed by the single timer thread, and should therefore be fast and not block.
+ * The timer thread is started on first use, or by calling {@link #start()}.
+ */
+public class HashedWheelTimer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HashedWheelTimer.class);
+
+    private static final int INIT = 0;
+    private static final int STARTED = 1;
+    private static final int SHUTDOWN = 2;
+
+    private final ThreadFactory threadFactory;
+    private final long tickDuration;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<Timeout> newTimeouts = new ConcurrentLinkedQueue<Timeout>();
+    private final AtomicInteger state = new AtomicInteger(INIT);
+    private final AtomicLong pendingTimeouts = new AtomicLong();
+    private final AtomicLong expiredTimeouts = new AtomicLong();
+    private final CountDownLatch startTimeInitialized = new CountDownLatch(1);
+    private volatile long startTime;
+    private volatile Thread workerThread;
+
+    /**
+     * Creates a new timer.
+     *
+     * @param threadFactory  the factory for creating the timer thread
+     * @param tickDuration   the duration of a tick, which is the precision of the timer
+     * @param unit           the time unit of the tick duration
+     * @param ticksPerWheel  the number of buckets in the wheel, which is rounded up to a power of two
+     */
+    public HashedWheelTimer(ThreadFactory threadFactory, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("TickDuration must be positive, was: " + tickDuration);
+        }
+        if (ticksPerWheel <= 0 || ticksPerWheel > 1 << 30) {
+            throw new IllegalArgumentException("TicksPerWheel must be a positive number up to " + (1 << 30) + ", was: " + ticksPerWheel);
+        }
+        this.threadFactory = threadFactory;
+        this.tickDuration = unit.toNanos(tickDuration);
+        int size = ticksPerWheel == 1 ? 1 : Integer.highestOneBit(ticksPerWheel - 1) << 1;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Starts the timer thread, which otherwise is started when the first timeout is scheduled.
+     */
+    public void start() {
+        if (state.compareAndSet(INIT, STARTED)) {
+            Thread thread = threadFactory.newThread(new Worker());
+            workerThread = thread;
+            thread.start();
+        } else if (state.get() == SHUTDOWN) {
+            throw new IllegalStateException("Cannot start timer as its already stopped");
+        }
+
+        // wait until the timer thread has initialized the start time
+        boolean interrupted = false;
+        while (startTime == 0) {
+            try {
+                startTimeInitialized.await();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stops the timer thread and discards all the timeouts which have not yet expired.
+     */
+    public void stop() {
+        if (state.getAndSet(SHUTDOWN) == STARTED) {
+            Thread thread = workerThread;
+            if (thread != null && thread != Thread.currentThread()) {
+                thread.interrupt();
+                boolean interrupted = false;
+                while (thread.isAlive()) {
+                    try {
+                        thread.join(100);
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        newTimeouts.clear();
+        for (Bucket bucket : wheel) {
+            bucket.clear();
+        }
+        pendingTimeouts.set(0);
+    }
+
+    /**
+     * Schedules the task to be executed by the timer thread after the given delay.
+     *
+     * @param task   the task
+     * @param delay  the delay
+     * @param unit   the time unit of the delay
+     * @return the timeout which can be used for cancelling the task
+     * @throws RejectedExecutionException is thrown if the timer has been stopped
+     */
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        // the timer may have been started by another thread which has not yet initialized the start time
+        if (state.get() != STARTED || startTime == 0) {
+            if (state.get() == SHUTDOWN) {
+                throw new RejectedExecutionException("Timer has been stopped");
+            }
+            start();
+        }
+
+        long deadline = System.nanoTime() + unit.toNanos(Math.max(0, delay)) - startTime;
+        Timeout timeout = new Timeout(this, task, deadline);
+        pendingTimeouts.incrementAndGet();
+        newTimeouts.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Gets the number of timeouts which are pending to expire.
+     */
+    public long getPendingTimeouts() {
+        return pendingTimeouts.get();
+    }
+
+    /**
+     * Gets the number of timeouts which has expired since the timer was created.
+     */
+    public long getExpiredTimeouts() {
+        return expiredTimeouts.get();
+    }
+
+    /**
+     * Gets the duration of a tick in millis
+     */
+    public long getTickDuration() {
+        return TimeUnit.NANOSECONDS.toMillis(tickDuration);
+    }
+
+    /**
+     * Gets the number of buckets in the wheel
+     */
+    public int getTicksPerWheel() {
+        return wheel.length;
+    }
+
+    @Override
+    public String toString() {
+        return "HashedWheelTimer[tickDuration=" + getTickDuration() + "ms, ticksPerWheel=" + wheel.length
+                + ", pendingTimeouts=" + pendingTimeouts.get() + "]";
+    }
+
+    private final class Worker implements Runnable {
+
+        // only accessed by the timer thread
+        private long tick;
+
+        public void run() {
+            long now = System.nanoTime();
+            // zero is used as not initialized
+            startTime = now == 0 ? 1 : now;
+            startTimeInitialized.countDown();
+
+            while (state.get() == STARTED) {
+                if (!waitForNextTick()) {
+                    break;
+                }
+                transferNewTimeouts();
+                wheel[(int) (tick & mask)].expireTimeouts();
+                tick++;
+            }
+        }
+
+        private boolean waitForNextTick() {
+            long deadline = tickDuration * (tick + 1);
+            while (true) {
+                long currentTime = System.nanoTime() - startTime;
+                long sleepMillis = (deadline - currentTime + 999999) / 1000000;
+                if (sleepMillis <= 0) {
+                    return true;
+                }
+                try {
+                    Thread.sleep(sleepMillis);
+                } catch (InterruptedException e) {
+                    if (state.get() == SHUTDOWN) {
+                        return false;
+                    }
+                }
+            }
+        }
+
+        private void transferNewTimeouts() {
+            Timeout timeout;
+            while ((timeout = newTimeouts.poll()) != null) {
+                if (timeout.isCancelled()) {
+                    continue;
+                }
+                long calculated = timeout.deadline / tickDuration;
+                timeout.remainingRounds = (calculated - tick) / wheel.length;
+                // the timeout may already be due, which then expires in the current tick
+                long ticks = Math.max(calculated, tick);
+                wheel[(int) (ticks & mask)].add(timeout);
+            }
+        }
+    }
+
+    /**
+     * A bucket in the wheel, which is a linked list of timeouts that is only accessed by the timer thread.
+     */
+    private static final class Bucket {
+
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.next = null;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        void expireTimeouts() {
+            Timeout previous = null;
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                boolean remove;
+                if (timeout.isCancelled()) {
+                    remove = true;
+                } else if (timeout.remainingRounds <= 0) {
+                    remove = true;
+                    timeout.expire();
+                } else {
+                    remove = false;
+                    timeout.remainingRounds--;
+                }
+
+                if (remove) {
+                    if (previous == null) {
+                        head = next;
+                    } else {
+                        previous.next = next;
+                    }
+                    if (timeout == tail) {
+                        tail = previous;
+                    }
+                    timeout.next = null;
+                } else {
+                    previous = timeout;
+                }
+                timeout = next;
+            }
+        }
+
+        void clear() {
+            head = null;
+            tail = null;
+        }
+    }
+
+    /**
+     * A handle to a task scheduled by a {@link HashedWheelTimer}.
+     */
+    public static final class Timeout {
+
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final HashedWheelTimer timer;
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        // only accessed by the timer thread
+        private long remainingRounds;
+        private Timeout next;
+
+        Timeout(HashedWheelTimer timer, Runnable task, long deadline) {
+            this.timer = timer;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        public Runnable getTask() {
+            return task;
+        }
+
+        /**
+         * Cancels the timeout, so the task is not executed.
+         *
+         * @return <tt>true</tt> if cancelled, or <tt>false</tt> if the timeout has already expired or been cancelled
+         */
+        public boolean cancel() {
+            if (state.compareAndSet(PENDING, CANCELLED)) {
+                // the timer thread removes the timeout from its bucket when its reached
+                timer.pendingTimeouts.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        public boolean isPending() {
+            return state.get() == PENDING;
+        }
+
+        void expire() {
+            if (!state.compareAndSet(PENDING, EXPIRED)) {
+                return;
+            }
+            timer.pendingTimeouts.decrementAndGet();
+            timer.expiredTimeouts.incrementAndGet();
+            try {
+                task.run();
+            } catch (Throwable e) {
+                LOG.warn("Error executing timeout task " + task + ". This exception is ignored.", e);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Timeout[" + task + "]";
+        }
+    }
+
+}
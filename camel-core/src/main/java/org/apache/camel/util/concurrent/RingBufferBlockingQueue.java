@@ -0,0 +1,447 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.util.concurrent;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded lock-free multi producer multi consumer {@link BlockingQueue} backed by a ring buffer.
+ * <p/>
+ * The queue is based on the bounded MPMC queue algorithm by Dmitry Vyukov, where each slot in the ring buffer
+ * has a sequence number which tells producers and consumers whether the slot is free or taken. Offering and
+ * polling only use compare and set operations, and a lock is only used to park and signal threads which are
+ * blocked waiting in the {@link #put(Object)}, {@link #take()} and timed offer/poll operations, when the queue
+ * is full or empty.
+ * <p/>
+ * Removing an element which is not at the head of the queue, such as {@link #remove(Object)}, marks its slot
+ * as removed, and the slot is freed when the consumers reach it. If the slot is at the head of the queue it is
+ * freed right away, and any blocked producers are signalled.
+ * <p/>
+ * The iterator returns a weakly consistent snapshot of the elements.
+ */
+public class RingBufferBlockingQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    // marks a slot whose element has been removed
+    private static final Object REMOVED = new Object();
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<Object> buffer;
+    private final AtomicLongArray sequences;
+    private final AtomicLong enqueuePosition = new AtomicLong();
+    private final AtomicLong dequeuePosition = new AtomicLong();
+    // the number of slots which are marked as removed but not yet freed
+    private final AtomicInteger removedCount = new AtomicInteger();
+
+    // used for blocking threads when the queue is full or empty
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private volatile int waitingConsumers;
+    private volatile int waitingProducers;
+
+    public RingBufferBlockingQueue(int capacity) {
+        if (capacity <= 0 || capacity > MAXIMUM_CAPACITY) {
+            throw new IllegalArgumentException("Capacity must be a positive number up to " + MAXIMUM_CAPACITY + ", was: " + capacity);
+        }
+        this.capacity = capacity;
+        // the ring buffer must have at least two slots as the sequence numbers of the slots
+        // must be different when the slot is published and when its free for the next round
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.buffer = new AtomicReferenceArray<Object>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    @Override
+    public boolean offer(E e) {
+        if (e == null) {
+            throw new NullPointerException();
+        }
+
+        long position = enqueuePosition.get();
+        int index;
+        while (true) {
+            index = (int) position & mask;
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                // the slot is free, but the capacity may be less than the size of the ring buffer
+                if (capacity <= mask && position - dequeuePosition.get() >= capacity) {
+                    return false;
+                }
+                if (enqueuePosition.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = enqueuePosition.get();
+            } else if (diff < 0) {
+                // the slot is still taken so the queue is full
+                return false;
+            } else {
+                // another producer took the slot
+                position = enqueuePosition.get();
+            }
+        }
+
+        buffer.lazySet(index, e);
+        // publish the element to the consumers
+        sequences.set(index, position + 1);
+
+        if (waitingConsumers > 0) {
+            signal(notEmpty);
+        }
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        while (true) {
+            Object answer = dequeue(false);
+            // skip the slots of removed elements
+            if (answer != REMOVED) {
+                return (E) answer;
+            }
+        }
+    }
+
+    /**
+     * Takes the element at the head of the queue and frees its slot.
+     *
+     * @param onlyRemoved whether to only free the slot if its element has been removed
+     * @return the element, {@link #REMOVED} if the element has been removed, or <tt>null</tt> if there is no
+     * element to take
+     */
+    private Object dequeue(boolean onlyRemoved) {
+        long position = dequeuePosition.get();
+        int index;
+        while (true) {
+            index = (int) position & mask;
+            long diff = sequences.get(index) - (position + 1);
+            if (diff == 0) {
+                if (onlyRemoved && buffer.get(index) != REMOVED) {
+                    return null;
+                }
+                if (dequeuePosition.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = dequeuePosition.get();
+            } else if (diff < 0) {
+                // the slot has not been published so the queue is empty
+                return null;
+            } else {
+                // another consumer took the slot
+                position = dequeuePosition.get();
+            }
+        }
+
+        // the element may be removed concurrently so we must get and clear it atomically
+        Object answer = buffer.getAndSet(index, null);
+        // free the slot for the next round of the producers
+        sequences.set(index, position + mask + 1);
+        if (answer == REMOVED) {
+            removedCount.decrementAndGet();
+        }
+
+        if (waitingProducers > 0) {
+            signal(notFull);
+        }
+        return answer;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        while (true) {
+            long position = dequeuePosition.get();
+            int index = (int) position & mask;
+            long diff = sequences.get(index) - (position + 1);
+            if (diff < 0) {
+                return null;
+            }
+            Object answer = buffer.get(index);
+            if (answer == REMOVED) {
+                // free the slot of the removed element and look at the next
+                dequeue(true);
+            } else if (answer != null && dequeuePosition.get() == position) {
+                // only return the element if the slot was not taken by a consumer in the meantime
+                return (E) answer;
+            }
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (o == null) {
+            return false;
+        }
+
+        boolean removed = false;
+        long position = dequeuePosition.get();
+        long end = enqueuePosition.get();
+        for (; position < end && !removed; position++) {
+            int index = (int) position & mask;
+            Object e = buffer.get(index);
+            // the element is atomically replaced, so either we remove it, or a consumer takes it
+            if (e != null && e != REMOVED && o.equals(e) && buffer.compareAndSet(index, e, REMOVED)) {
+                removedCount.incrementAndGet();
+                removed = true;
+            }
+        }
+
+        if (removed) {
+            // free the slots of removed elements at the head of the queue, which signals the blocked producers
+            while (dequeue(true) != null) {
+                // continue
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public void put(E e) throws InterruptedException {
+        if (offer(e)) {
+            return;
+        }
+
+        lock.lockInterruptibly();
+        try {
+            waitingProducers++;
+            try {
+                while (!offer(e)) {
+                    notFull.await();
+                }
+            } catch (InterruptedException ex) {
+                // pass on the signal we may have consumed
+                notFull.signal();
+                throw ex;
+            } finally {
+                waitingProducers--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+        if (offer(e)) {
+            return true;
+        }
+
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            waitingProducers++;
+            try {
+                while (!offer(e)) {
+                    if (nanos <= 0) {
+                        return false;
+                    }
+                    nanos = notFull.awaitNanos(nanos);
+                }
+                return true;
+            } catch (InterruptedException ex) {
+                // pass on the signal we may have consumed
+                notFull.signal();
+                throw ex;
+            } finally {
+                waitingProducers--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        E answer = poll();
+        if (answer != null) {
+            return answer;
+        }
+
+        lock.lockInterruptibly();
+        try {
+            waitingConsumers++;
+            try {
+                while ((answer = poll()) == null) {
+                    notEmpty.await();
+                }
+                return answer;
+            } catch (InterruptedException ex) {
+                // pass on the signal we may have consumed
+                notEmpty.signal();
+                throw ex;
+            } finally {
+                waitingConsumers--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        E answer = poll();
+        if (answer != null) {
+            return answer;
+        }
+
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            waitingConsumers++;
+            try {
+                while ((answer = poll()) == null) {
+                    if (nanos <= 0) {
+                        return null;
+                    }
+                    nanos = notEmpty.awaitNanos(nanos);
+                }
+                return answer;
+            } catch (InterruptedException ex) {
+                // pass on the signal we may have consumed
+                notEmpty.signal();
+                throw ex;
+            } finally {
+                waitingConsumers--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return capacity - size();
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        if (c == null) {
+            throw new NullPointerException();
+        }
+        if (c == this) {
+            throw new IllegalArgumentException();
+        }
+        int count = 0;
+        E e;
+        while (count < maxElements && (e = poll()) != null) {
+            c.add(e);
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public int size() {
+        while (true) {
+            long dequeue = dequeuePosition.get();
+            long enqueue = enqueuePosition.get();
+            // make sure we read a consistent pair of positions
+            if (dequeuePosition.get() == dequeue) {
+                long size = enqueue - dequeue - removedCount.get();
+                return (int) Math.max(0, Math.min(size, capacity));
+            }
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<E> iterator() {
+        List<E> answer = new ArrayList<E>();
+        long position = dequeuePosition.get();
+        long end = enqueuePosition.get();
+        for (; position < end; position++) {
+            int index = (int) position & mask;
+            if (sequences.get(index) == position + 1) {
+                Object e = buffer.get(index);
+                if (e != null && e != REMOVED) {
+                    answer.add((E) e);
+                }
+            }
+        }
+        final Iterator<E> it = answer.iterator();
+        // wrap so remove removes the element from this queue
+        return new Iterator<E>() {
+            private E last;
+
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            public E next() {
+                last = it.next();
+                return last;
+            }
+
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                RingBufferBlockingQueue.this.remove(last);
+                last = null;
+            }
+        };
+    }
+
+    /**
+     * Gets the capacity of this queue
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private void signal(Condition condition) {
+        lock.lock();
+        try {
+            condition.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RingBufferBlockingQueue[size=" + size() + ", capacity=" + capacity + "]";
+    }
+}
@@ -0,0 +1,201 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.builder.xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import javax.xml.stream.XMLStreamException;
+
+import org.w3c.dom.Document;
+
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.Exchange;
+import org.apache.camel.RuntimeCamelException;
+import org.apache.camel.converter.stream.InputStreamCache;
+
+/**
+ * @version
+ */
+public class StreamingXPathTest extends ContextTestSupport {
+
+    private static final String ORDERS = "<s:Envelope xmlns:s='http://s' xmlns:m='http://m'><s:Body><m:buy>"
+        + "<order id='1' type='buy'><symbol>IBM</symbol></order>"
+        + "<order id='2'><symbol>MS<![CDATA[FT]]></symbol><note>t<!-- comment -->u</note></order>"
+        + "</m:buy></s:Body></s:Envelope>";
+
+    private DefaultNamespaceContext namespaces;
+
+    @Override
+    public boolean isUseRouteBuilder() {
+        return false;
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        namespaces = new DefaultNamespaceContext();
+        namespaces.add("s", "http://s");
+        namespaces.add("m", "http://m");
+    }
+
+    public void testCompile() throws Exception {
+        assertNotNull(StreamingXPath.compile("/s:Envelope/s:Body/m:buy/order[1]/symbol = 'IBM'", namespaces));
+        assertNotNull(StreamingXPath.compile("/s:Envelope/*/m:buy/order[@type='buy'][1]/@id", namespaces));
+        assertNotNull(StreamingXPath.compile("/foo/bar/text()=\"cheese\"", namespaces));
+
+        assertNull(StreamingXPath.compile("//order", namespaces));
+        assertNull(StreamingXPath.compile("foo/bar", namespaces));
+        assertNull(StreamingXPath.compile("/foo/bar[last()]", namespaces));
+        assertNull(StreamingXPath.compile("/foo/bar[0]", namespaces));
+        assertNull(StreamingXPath.compile("/foo/bar = 1", namespaces));
+        assertNull(StreamingXPath.compile("/foo/x:bar", namespaces));
+        assertNull(StreamingXPath.compile("/foo/bar | /foo/baz", namespaces));
+        assertNull(StreamingXPath.compile("count(/foo/bar) > 1", namespaces));
+        assertNull(StreamingXPath.compile("$name = 'James'", namespaces));
+        assertNull(StreamingXPath.compile("/foo/", namespaces));
+    }
+
+    public void testMatchesSameAsXPath() throws Exception {
+        assertMatches("/s:Envelope/s:Body/m:buy/order[1]/symbol = 'IBM'", true);
+        assertMatches("/s:Envelope/s:Body/m:buy/order[2]/symbol = 'IBM'", false);
+        assertMatches("/s:Envelope/s:Body/m:buy/order/symbol = 'MSFT'", true);
+        assertMatches("/s:Envelope/*/m:buy/order[@type='buy']/symbol = 'IBM'", true);
+        assertMatches("/s:Envelope/*/m:buy/order[@type='sell']/symbol", false);
+        assertMatches("/s:Envelope/s:Body/m:buy/order/@id = '2'", true);
+        assertMatches("/s:Envelope/s:Body/m:buy/order[@id][2]/@type", false);
+        // comments are ignored when parsing into a DOM so they do not split the text node
+        assertMatches("/s:Envelope/s:Body/m:buy/order/note/text() = 'u'", false);
+        assertMatches("/s:Envelope/s:Body/m:buy/order/note/text() = 'tu'", true);
+        assertMatches("/s:Envelope/s:Body/m:buy/order/note/text()", true);
+        assertMatches("/s:Envelope/s:Body/m:buy/order/note = 'tu'", true);
+        assertMatches("/s:Envelope/s:Body/m:buy/order/symbol/text()", true);
+        assertMatches("/s:Envelope/m:Body", false);
+        assertMatches("/s:Envelope", true);
+    }
+
+    public void testInvalidDocument() throws Exception {
+        StreamingXPath streaming = StreamingXPath.compile("/foo", namespaces);
+        // the remainder of the document is not read when matched
+        assertTrue(streaming.matches(new StringReader("<foo></bar>")));
+        try {
+            // but the document must be well formed if not matched
+            StreamingXPath.compile("/bar", namespaces).matches(new StringReader("<foo></bar>"));
+            fail("Should have thrown an exception");
+        } catch (XMLStreamException e) {
+            // expected
+        }
+
+        try {
+            streaming.matches(new StringReader("<!DOCTYPE foo><foo/>"));
+            fail("Should have thrown an exception");
+        } catch (StreamingXPath.UnsupportedDocumentException e) {
+            // expected
+        }
+    }
+
+    public void testXPathBuilderUsesStreaming() throws Exception {
+        XPathBuilder builder = createXPathBuilder("/s:Envelope/s:Body/m:buy/order[1]/symbol = 'IBM'");
+        assertNotNull(builder.getStreamingXPath());
+
+        assertTrue(builder.matches(context, ORDERS));
+        assertTrue(builder.matches(context, ORDERS.getBytes()));
+        assertTrue(builder.matches(context, new ByteArrayInputStream(ORDERS.getBytes())));
+        assertFalse(builder.matches(context, "<foo/>"));
+
+        // the stream cache is reset so it can be read again
+        InputStreamCache cache = new InputStreamCache(ORDERS.getBytes());
+        assertTrue(builder.matches(context, cache));
+        assertTrue(builder.matches(context, cache));
+
+        // the DOM is not parsed again
+        Document dom = context.getTypeConverter().convertTo(Document.class, ORDERS);
+        assertFalse(builder.isStreamingXPathSupported(dom));
+        assertTrue(builder.matches(context, dom));
+    }
+
+    public void testXPathBuilderNotUsingStreaming() throws Exception {
+        assertNull(XPathBuilder.xpath("//symbol = 'IBM'").getStreamingXPath());
+        XPathBuilder builder = XPathBuilder.xpath("/foo/bar");
+        builder.setHeaderName("foo");
+        assertNull(builder.getStreamingXPath());
+        assertNull(XPathBuilder.xpath("/foo/bar").documentType(InputStream.class).getStreamingXPath());
+    }
+
+    public void testXPathBuilderFallbackOnDTD() throws Exception {
+        String xml = "<!DOCTYPE foo [<!ENTITY bar 'cheese'>]><foo><bar>&bar;</bar></foo>";
+
+        XPathBuilder builder = XPathBuilder.xpath("/foo/bar = 'cheese'");
+        assertNotNull(builder.getStreamingXPath());
+        assertTrue(builder.matches(context, xml));
+        assertTrue(builder.matches(context, new InputStreamCache(xml.getBytes())));
+        // the stream cannot be read again but the beginning of the stream is buffered
+        assertTrue(builder.matches(context, new ByteArrayInputStream(xml.getBytes())));
+    }
+
+    public void testXPathBuilderInvalidDocument() throws Exception {
+        String xml = "<foo><bar>cheese</bar></baz>";
+
+        // fails the same way as when not using streaming XPath
+        Exception expected = assertMatchesFails(XPathBuilder.xpath("//bar = 'cheese'"), xml);
+        assertNotNull(expected.getCause());
+
+        // the streaming XPath stops reading at the first match, so only fails if not matched
+        assertTrue(XPathBuilder.xpath("/foo/bar = 'cheese'").matches(context, xml));
+        XPathBuilder builder = XPathBuilder.xpath("/foo/bar = 'wine'");
+        assertNotNull(builder.getStreamingXPath());
+        assertEquals(expected.getClass(), assertMatchesFails(builder, xml).getClass());
+        assertEquals(expected.getClass(), assertMatchesFails(builder, xml.getBytes()).getClass());
+        assertEquals(expected.getClass(), assertMatchesFails(builder, new ByteArrayInputStream(xml.getBytes())).getClass());
+
+        // the stream has been read too far to fallback so the streaming XPath error is used
+        StringBuilder sb = new StringBuilder("<foo>");
+        for (int i = 0; i < 10000; i++) {
+            sb.append("<bar>").append(i).append("</bar>");
+        }
+        sb.append("</baz>");
+        Exception e = assertMatchesFails(builder, new ByteArrayInputStream(sb.toString().getBytes()));
+        assertEquals(expected.getClass(), e.getClass());
+        assertIsInstanceOf(XMLStreamException.class, e.getCause());
+    }
+
+    protected Exception assertMatchesFails(XPathBuilder builder, Object body) {
+        try {
+            builder.matches(context, body);
+            fail("Should have thrown an exception");
+            return null;
+        } catch (RuntimeCamelException e) {
+            return e;
+        }
+    }
+
+    protected void assertMatches(String xpath, boolean expected) throws Exception {
+        StreamingXPath streaming = StreamingXPath.compile(xpath, namespaces);
+        assertNotNull("Should be supported: " + xpath, streaming);
+        assertEquals("Streaming XPath: " + xpath, expected, streaming.matches(new StringReader(ORDERS)));
+        assertEquals("Streaming XPath: " + xpath, expected, streaming.matches(new ByteArrayInputStream(ORDERS.getBytes())));
+
+        // and it should be the same as evaluating using XPath on the DOM
+        XPathBuilder builder = createXPathBuilder(xpath);
+        Exchange exchange = createExchangeWithBody(context.getTypeConverter().convertTo(Document.class, ORDERS));
+        assertEquals("XPath: " + xpath, expected, builder.matches(exchange));
+    }
+
+    protected XPathBuilder createXPathBuilder(String xpath) {
+        return XPathBuilder.xpath(xpath).namespace("s", "http://s").namespace("m", "http://m");
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.bean;
+
+import org.apache.camel.CamelExecutionException;
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.builder.RouteBuilder;
+
+/**
+ * @version 
+ */
+public class BeanChosenMethodCacheTest extends ContextTestSupport {
+
+    public void testChooseMethodByBodyType() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals("String:Hello", template.requestBody("direct:start", "Hello"));
+            assertEquals("Integer:123", template.requestBody("direct:start", 123));
+            assertEquals("Bytes:3", template.requestBody("direct:start", new byte[]{1, 2, 3}));
+        }
+    }
+
+    public void testParameterValues() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals("Hello World " + i, template.requestBodyAndHeader("direct:parameters", "Hello", "name", "World " + i));
+        }
+        assertEquals("Hello null", template.requestBody("direct:parameters", "Hello"));
+    }
+
+    public void testExceptionThrownByBean() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            try {
+                template.requestBody("direct:start", "Kaboom");
+                fail("Should have thrown exception");
+            } catch (CamelExecutionException e) {
+                IllegalArgumentException cause = assertIsInstanceOf(IllegalArgumentException.class, e.getCause());
+                assertEquals("Forced", cause.getMessage());
+            }
+        }
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("direct:start")
+                    .bean(MyBean.class);
+
+                from("direct:parameters")
+                    .bean(MyGreeter.class, "greet(${body}, ${header.name})");
+            }
+        };
+    }
+
+    public static class MyBean {
+
+        public String hello(String body) {
+            if ("Kaboom".equals(body)) {
+                throw new IllegalArgumentException("Forced");
+            }
+            return "String:" + body;
+        }
+
+        public String hello(Integer body) {
+            return "Integer:" + body;
+        }
+
+        public String hello(byte[] body) {
+            return "Bytes:" + body.length;
+        }
+    }
+
+    public static class MyGreeter {
+
+        public String greet(String greeting, String name) {
+            return greeting + " " + name;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.file;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.Exchange;
+import org.apache.camel.builder.NotifyBuilder;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+
+/**
+ * Unit test for acquiring the exclusive read locks in parallel
+ */
+public class FileConsumerParallelReadLocksTest extends ContextTestSupport {
+
+    private String fileUrl = "file://target/parallelreadlocks";
+
+    @Override
+    protected void setUp() throws Exception {
+        deleteDirectory("target/parallelreadlocks");
+        super.setUp();
+    }
+
+    public void testParallelReadLocks() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            template.sendBodyAndHeader(fileUrl, "Hello " + i, Exchange.FILE_NAME, "hello" + i + ".txt");
+        }
+
+        MockEndpoint mock = getMockEndpoint("mock:result");
+        mock.expectedMessageCount(10);
+        // the files are still processed in order
+        for (int i = 0; i < 10; i++) {
+            mock.message(i).exchangeProperty(Exchange.BATCH_INDEX).isEqualTo(i);
+        }
+
+        NotifyBuilder notify = new NotifyBuilder(context).whenDone(10).create();
+
+        context.startRoute("foo");
+
+        assertMockEndpointsSatisfied();
+
+        // all files should be moved as done
+        assertTrue(notify.matches(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 10; i++) {
+            assertFileExists("target/parallelreadlocks/.camel/hello" + i + ".txt");
+        }
+    }
+
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            public void configure() throws Exception {
+                from(fileUrl + "?readLock=changed&readLockCheckInterval=100&readLockMinAge=0&parallelReadLocks=5&initialDelay=0&delay=10")
+                    .routeId("foo").noAutoStartup()
+                    .convertBodyTo(String.class).to("mock:result");
+            }
+        };
+    }
+
+}
@@ -0,0 +1,114 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.file;
+
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.Exchange;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+
+/**
+ * Unit test for dispatching the files in batches while walking the directory
+ */
+public class FileConsumerStreamingBatchTest extends ContextTestSupport {
+
+    private String fileUrl = "file://target/streaming";
+
+    @Override
+    protected void setUp() throws Exception {
+        deleteDirectory("target/streaming");
+        super.setUp();
+    }
+
+    public void testStreamingBatch() throws Exception {
+        for (int i = 0; i < 25; i++) {
+            template.sendBodyAndHeader(fileUrl, "Hello " + i, Exchange.FILE_NAME, "hello" + i + ".txt");
+        }
+
+        MockEndpoint mock = getMockEndpoint("mock:result");
+        mock.expectedMessageCount(25);
+        mock.message(0).exchangeProperty(Exchange.BATCH_SIZE).isEqualTo(10);
+        mock.message(9).exchangeProperty(Exchange.BATCH_COMPLETE).isEqualTo(true);
+        mock.message(19).exchangeProperty(Exchange.BATCH_SIZE).isEqualTo(10);
+        mock.message(24).exchangeProperty(Exchange.BATCH_SIZE).isEqualTo(5);
+        mock.message(24).exchangeProperty(Exchange.BATCH_COMPLETE).isEqualTo(true);
+
+        context.startRoute("streaming");
+
+        assertMockEndpointsSatisfied();
+    }
+
+    public void testStreamingBatchMaxMessagesPerPoll() throws Exception {
+        for (int i = 0; i < 25; i++) {
+            template.sendBodyAndHeader(fileUrl + "/max", "Hello " + i, Exchange.FILE_NAME, "hello" + i + ".txt");
+        }
+
+        MockEndpoint mock = getMockEndpoint("mock:max");
+        mock.expectedMessageCount(25);
+        // only 15 files per poll
+        mock.message(0).exchangeProperty(Exchange.BATCH_SIZE).isEqualTo(10);
+        mock.message(14).exchangeProperty(Exchange.BATCH_SIZE).isEqualTo(5);
+        mock.message(15).exchangeProperty(Exchange.BATCH_SIZE).isEqualTo(10);
+
+        context.startRoute("max");
+
+        assertMockEndpointsSatisfied();
+    }
+
+    public void testStreamingBatchDoneFile() throws Exception {
+        template.sendBodyAndHeader(fileUrl + "/done", "Hello World", Exchange.FILE_NAME, "hello.txt");
+        template.sendBodyAndHeader(fileUrl + "/done", "Bye World", Exchange.FILE_NAME, "bye.txt");
+        template.sendBodyAndHeader(fileUrl + "/done", "", Exchange.FILE_NAME, "hello.ready");
+
+        MockEndpoint mock = getMockEndpoint("mock:done");
+        mock.expectedBodiesReceived("Hello World");
+
+        context.startRoute("done");
+
+        assertMockEndpointsSatisfied();
+        // should not consume the file without a done file
+        assertFileExists("target/streaming/done/bye.txt");
+    }
+
+    public void testStreamingBatchCannotSort() throws Exception {
+        try {
+            context.getEndpoint(fileUrl + "?streamingBatchSize=10&shuffle=true").createConsumer(null);
+            fail("Should have thrown exception");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            public void configure() throws Exception {
+                from(fileUrl + "?streamingBatchSize=10&initialDelay=0&delay=10")
+                    .routeId("streaming").noAutoStartup()
+                    .convertBodyTo(String.class).to("mock:result");
+
+                from(fileUrl + "/max?streamingBatchSize=10&maxMessagesPerPoll=15&initialDelay=0&delay=10")
+                    .routeId("max").noAutoStartup()
+                    .convertBodyTo(String.class).to("mock:max");
+
+                from(fileUrl + "/done?streamingBatchSize=10&doneFileName=${file:name.noext}.ready&initialDelay=0&delay=10")
+                    .routeId("done").noAutoStartup()
+                    .convertBodyTo(String.class).to("mock:done");
+            }
+        };
+    }
+
+}
@@ -0,0 +1,86 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.file;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.Exchange;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.impl.JndiRegistry;
+
+/**
+ * Unit test for only walking the directory when the watch service has detected changes
+ */
+public class FileConsumerWatchDirectoryTest extends ContextTestSupport {
+
+    private String fileUrl = "file://target/watchdirectory";
+    private final AtomicInteger accepted = new AtomicInteger();
+
+    @Override
+    protected void setUp() throws Exception {
+        deleteDirectory("target/watchdirectory");
+        super.setUp();
+    }
+
+    @Override
+    protected JndiRegistry createRegistry() throws Exception {
+        JndiRegistry jndi = super.createRegistry();
+        jndi.bind("countingFilter", new GenericFileFilter<Object>() {
+            public boolean accept(GenericFile<Object> file) {
+                accepted.incrementAndGet();
+                return true;
+            }
+        });
+        return jndi;
+    }
+
+    public void testWatchDirectory() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:result");
+        mock.expectedBodiesReceived("Hello World");
+
+        template.sendBodyAndHeader(fileUrl, "Hello World", Exchange.FILE_NAME, "hello.txt");
+
+        assertMockEndpointsSatisfied();
+
+        // wait for the directory to be walked after the file was consumed, and then the directory should not be walked
+        Thread.sleep(500);
+        int count = accepted.get();
+        Thread.sleep(500);
+        assertEquals("Should not walk the directory when nothing has changed", count, accepted.get());
+
+        // but it should be walked when a new file is written
+        resetMocks();
+        mock.expectedBodiesReceived("Bye World");
+
+        template.sendBodyAndHeader(fileUrl, "Bye World", Exchange.FILE_NAME, "bye.txt");
+
+        assertMockEndpointsSatisfied();
+        assertTrue(accepted.get() > count);
+    }
+
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            public void configure() throws Exception {
+                from(fileUrl + "?watchDirectory=true&filter=#countingFilter&initialDelay=0&delay=10")
+                    .convertBodyTo(String.class).to("mock:result");
+            }
+        };
+    }
+
+}
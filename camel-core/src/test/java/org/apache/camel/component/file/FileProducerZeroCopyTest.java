@@ -0,0 +1,125 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.file;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+import org.apache.camel.CamelExecutionException;
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.Exchange;
+import org.apache.camel.util.FileSegment;
+
+/**
+ * Unit test for writing file based bodies using file channels
+ */
+public class FileProducerZeroCopyTest extends ContextTestSupport {
+
+    private File source = new File("target/zerocopy/source.txt");
+
+    @Override
+    protected void setUp() throws Exception {
+        deleteDirectory("target/zerocopy");
+        super.setUp();
+        template.sendBodyAndHeader("file://target/zerocopy", "Hello World", Exchange.FILE_NAME, "source.txt");
+    }
+
+    public void testFileBody() throws Exception {
+        template.sendBodyAndHeader("file://target/zerocopy/out", source, Exchange.FILE_NAME, "file.txt");
+
+        assertFileExists("target/zerocopy/out/file.txt");
+        assertEquals("Hello World", context.getTypeConverter().convertTo(String.class, new File("target/zerocopy/out/file.txt")));
+    }
+
+    public void testFileChannelBody() throws Exception {
+        FileChannel channel = new RandomAccessFile(source, "r").getChannel();
+        // skip the first 6 bytes
+        channel.position(6);
+
+        template.sendBodyAndHeader("file://target/zerocopy/out", channel, Exchange.FILE_NAME, "channel.txt");
+
+        assertFalse("The channel should be closed", channel.isOpen());
+        assertEquals("World", context.getTypeConverter().convertTo(String.class, new File("target/zerocopy/out/channel.txt")));
+    }
+
+    public void testFileInputStreamBody() throws Exception {
+        template.sendBodyAndHeader("file://target/zerocopy/out", new FileInputStream(source), Exchange.FILE_NAME, "stream.txt");
+
+        assertEquals("Hello World", context.getTypeConverter().convertTo(String.class, new File("target/zerocopy/out/stream.txt")));
+    }
+
+    public void testFileSegmentBodyAppend() throws Exception {
+        template.sendBodyAndHeader("file://target/zerocopy/out", "Hello ", Exchange.FILE_NAME, "append.txt");
+
+        FileSegment segment = context.getTypeConverter().convertTo(FileSegment.class, source);
+        assertEquals(0, segment.getPosition());
+        assertEquals(11, segment.getCount());
+
+        template.sendBodyAndHeader("file://target/zerocopy/out?fileExist=Append", segment, Exchange.FILE_NAME, "append.txt");
+
+        assertEquals("Hello Hello World", context.getTypeConverter().convertTo(String.class, new File("target/zerocopy/out/append.txt")));
+    }
+
+    public void testFileSegmentBodyTruncated() throws Exception {
+        // the segment is longer than the file, as if the file was truncated after the segment was created
+        FileSegment segment = new FileSegment(new RandomAccessFile(source, "r").getChannel(), 0, 100);
+
+        try {
+            template.sendBodyAndHeader("file://target/zerocopy/out", segment, Exchange.FILE_NAME, "truncated.txt");
+            fail("Should have thrown exception");
+        } catch (CamelExecutionException e) {
+            IOException cause = assertIsInstanceOf(IOException.class, e.getCause().getCause());
+            assertTrue(cause.getMessage(), cause.getMessage().contains("only 11 of 100 bytes"));
+        }
+        assertFalse("The channel should be closed", segment.getChannel().isOpen());
+    }
+
+    public void testFileSegmentTransferToFullChannel() throws Exception {
+        // a channel which accepts 5 bytes and then no more, like a non blocking socket which is not writable
+        final ByteBuffer accepted = ByteBuffer.allocate(5);
+        WritableByteChannel target = new WritableByteChannel() {
+            public int write(ByteBuffer src) {
+                int n = Math.min(src.remaining(), accepted.remaining());
+                for (int i = 0; i < n; i++) {
+                    accepted.put(src.get());
+                }
+                return n;
+            }
+
+            public boolean isOpen() {
+                return true;
+            }
+
+            public void close() {
+            }
+        };
+
+        FileSegment segment = FileSegment.open(source);
+        try {
+            assertEquals(5, segment.transferTo(target));
+            assertEquals("Hello", new String(accepted.array()));
+        } finally {
+            segment.close();
+        }
+    }
+
+}
@@ -0,0 +1,142 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.seda;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.impl.JndiRegistry;
+import org.apache.camel.util.concurrent.RingBufferBlockingQueue;
+
+/**
+ * @version 
+ */
+public class SedaBatchSizeTest extends ContextTestSupport {
+
+    @Override
+    protected JndiRegistry createRegistry() throws Exception {
+        JndiRegistry jndi = super.createRegistry();
+        jndi.bind("ringBufferQueueFactory", new RingBufferBlockingQueueFactory<Exchange>());
+        return jndi;
+    }
+
+    public void testBatchSize() throws Exception {
+        SedaEndpoint endpoint = context.getEndpoint("seda:foo?batchSize=10", SedaEndpoint.class);
+        assertEquals(10, endpoint.getBatchSize());
+
+        MockEndpoint mock = getMockEndpoint("mock:result");
+        mock.expectedMessageCount(100);
+
+        // suspend the consumer so the messages queue up and are taken in batches
+        context.suspendRoute("foo");
+        for (int i = 0; i < 100; i++) {
+            template.sendBody("seda:foo?batchSize=10", "Message " + i);
+        }
+        context.resumeRoute("foo");
+
+        assertMockEndpointsSatisfied();
+
+        // the order must be kept as there is only a single consumer
+        for (int i = 0; i < 100; i++) {
+            assertEquals("Message " + i, mock.getReceivedExchanges().get(i).getIn().getBody());
+        }
+    }
+
+    public void testBatchSizeInOut() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            assertEquals("Bye " + i, template.requestBody("seda:bar?batchSize=5", "" + i));
+        }
+    }
+
+    public void testRingBufferQueueConcurrentConsumers() throws Exception {
+        SedaEndpoint endpoint = context.getEndpoint("seda:ring?queueFactory=#ringBufferQueueFactory&size=100", SedaEndpoint.class);
+        RingBufferBlockingQueue<Exchange> queue = assertIsInstanceOf(RingBufferBlockingQueue.class, endpoint.getQueue());
+        assertEquals(100, queue.getCapacity());
+
+        MockEndpoint mock = getMockEndpoint("mock:ring");
+        mock.expectedMessageCount(1000);
+
+        for (int i = 0; i < 1000; i++) {
+            template.sendBody("seda:ring?queueFactory=#ringBufferQueueFactory&size=100&blockWhenFull=true", "Message " + i);
+        }
+
+        assertMockEndpointsSatisfied();
+    }
+
+    public void testInterruptedBatchPutBackAtHeadOfDeque() throws Exception {
+        SedaEndpoint endpoint = context.getEndpoint("seda:deque?batchSize=5", SedaEndpoint.class);
+        endpoint.setQueue(new LinkedBlockingDeque<Exchange>());
+        for (int i = 0; i < 10; i++) {
+            endpoint.getQueue().offer(createExchangeWithBody("Message " + i));
+        }
+
+        final List<Object> bodies = new CopyOnWriteArrayList<Object>();
+        final CountDownLatch latch = new CountDownLatch(9);
+        Processor processor = new Processor() {
+            public void process(Exchange exchange) throws Exception {
+                bodies.add(exchange.getIn().getBody());
+                latch.countDown();
+            }
+        };
+        SedaConsumer consumer = new SedaConsumer(endpoint, processor) {
+            @Override
+            protected void processExchange(Exchange exchange) {
+                if ("Message 2".equals(exchange.getIn().getBody())) {
+                    // interrupt the batch which the exception handler of the consumer deals with
+                    throw new Error("Forced");
+                }
+                super.processExchange(exchange);
+            }
+        };
+        consumer.start();
+        try {
+            assertTrue("Should process the exchanges", latch.await(10, TimeUnit.SECONDS));
+        } finally {
+            consumer.stop();
+        }
+
+        // the exchanges not processed in the interrupted batch must be put back before the following exchanges
+        assertEquals(9, bodies.size());
+        assertEquals("Message 0", bodies.get(0));
+        assertEquals("Message 1", bodies.get(1));
+        for (int i = 3; i < 10; i++) {
+            assertEquals("Message " + i, bodies.get(i - 1));
+        }
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("seda:foo?batchSize=10").routeId("foo").to("mock:result");
+
+                from("seda:bar?batchSize=5").transform(body().prepend("Bye "));
+
+                from("seda:ring?queueFactory=#ringBufferQueueFactory&size=100&batchSize=20&concurrentConsumers=4").to("mock:ring");
+            }
+        };
+    }
+}
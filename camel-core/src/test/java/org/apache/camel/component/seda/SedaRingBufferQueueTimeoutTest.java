@@ -0,0 +1,79 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.seda;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.apache.camel.CamelExecutionException;
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.Exchange;
+import org.apache.camel.ExchangeTimedOutException;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.impl.JndiRegistry;
+import org.apache.camel.util.concurrent.RingBufferBlockingQueue;
+
+/**
+ * @version 
+ */
+public class SedaRingBufferQueueTimeoutTest extends ContextTestSupport {
+
+    private static final String URI = "seda:foo?queueFactory=#ringBufferQueueFactory&size=10";
+
+    @Override
+    protected JndiRegistry createRegistry() throws Exception {
+        JndiRegistry jndi = super.createRegistry();
+        jndi.bind("ringBufferQueueFactory", new RingBufferBlockingQueueFactory<Exchange>());
+        return jndi;
+    }
+
+    public void testSedaNoTimeout() throws Exception {
+        Future<String> out = template.asyncRequestBody(URI, "World", String.class);
+        assertEquals("Bye World", out.get());
+    }
+
+    public void testSedaTimeoutWithStoppedRoute() throws Exception {
+        context.stopRoute("seda");
+
+        SedaEndpoint se = context.getEndpoint(URI, SedaEndpoint.class);
+        assertIsInstanceOf(RingBufferBlockingQueue.class, se.getQueue());
+
+        Future<String> out = template.asyncRequestBody(URI + "&timeout=200", "World", String.class);
+        try {
+            out.get();
+            fail("Should have thrown an exception");
+        } catch (ExecutionException e) {
+            assertIsInstanceOf(CamelExecutionException.class, e.getCause());
+            assertIsInstanceOf(ExchangeTimedOutException.class, e.getCause().getCause());
+
+            assertEquals("Timeout Exchanges should be removed from queue", 0, se.getCurrentQueueSize());
+            assertEquals(10, se.getQueue().remainingCapacity());
+        }
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from(URI).routeId("seda")
+                    .transform(body().prepend("Bye "))
+                    .to("mock:result");
+            }
+        };
+    }
+}
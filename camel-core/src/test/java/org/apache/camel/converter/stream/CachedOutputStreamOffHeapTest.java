@@ -0,0 +1,219 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.converter.stream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.Exchange;
+import org.apache.camel.StreamCache;
+import org.apache.camel.impl.DefaultExchange;
+import org.apache.camel.impl.DefaultUnitOfWork;
+import org.apache.camel.spi.StreamCachingStrategy;
+import org.apache.camel.util.IOHelper;
+
+/**
+ * @version 
+ */
+public class CachedOutputStreamOffHeapTest extends ContextTestSupport {
+
+    private static final String TEST_STRING = "This is a test string and it has enough"
+        + " aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa ";
+
+    @Override
+    protected CamelContext createCamelContext() throws Exception {
+        CamelContext context = super.createCamelContext();
+        context.setStreamCaching(true);
+        context.getStreamCachingStrategy().setSpoolDirectory("target/cachedir");
+        context.getStreamCachingStrategy().setSpoolThreshold(16);
+        context.getStreamCachingStrategy().setSpoolMode(StreamCachingStrategy.SpoolMode.OffHeap);
+        context.getStreamCachingStrategy().setSpoolOffHeapChunkSize(32);
+        context.getStreamCachingStrategy().setSpoolOffHeapMemoryLimit(256);
+        return context;
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        deleteDirectory("target/cachedir");
+        createDirectory("target/cachedir");
+        super.setUp();
+    }
+
+    @Override
+    public boolean isUseRouteBuilder() {
+        return false;
+    }
+
+    private Exchange createExchange() {
+        Exchange exchange = new DefaultExchange(context);
+        exchange.setUnitOfWork(new DefaultUnitOfWork(exchange));
+        return exchange;
+    }
+
+    public void testSpoolOffHeap() throws Exception {
+        context.start();
+        StreamCachingStrategy.Statistics statistics = context.getStreamCachingStrategy().getStatistics();
+
+        Exchange exchange = createExchange();
+        CachedOutputStream cos = new CachedOutputStream(exchange);
+        cos.write(TEST_STRING.getBytes("UTF-8"));
+        cos.close();
+
+        assertEquals("Should not spool to disk", 0, new File("target/cachedir").list().length);
+        // the string is 115 bytes which needs 4 chunks of 32 bytes
+        assertEquals(128, statistics.getSpoolOffHeapMemoryUsed());
+
+        StreamCache cache = cos.newStreamCache();
+        assertTrue("Should get the OffHeapInputStreamCache", cache instanceof OffHeapInputStreamCache);
+        assertFalse(cache.inMemory());
+        assertEquals(TEST_STRING.length(), cache.length());
+        assertEquals(TEST_STRING, context.getTypeConverter().convertTo(String.class, cache));
+
+        // read it again after reset and write it to a stream
+        cache.reset();
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        cache.writeTo(bos);
+        assertEquals(TEST_STRING, bos.toString("UTF-8"));
+
+        // the copy should read from the beginning
+        StreamCache copy = cache.copy(exchange);
+        assertEquals(TEST_STRING, context.getTypeConverter().convertTo(String.class, copy));
+
+        exchange.getUnitOfWork().done(exchange);
+        assertEquals("The chunks should be returned to the pool", 0, statistics.getSpoolOffHeapMemoryUsed());
+        assertEquals(128, statistics.getSpoolOffHeapMemoryPooled());
+
+        try {
+            cache.reset();
+            ((InputStream) cache).read();
+            fail("Should have thrown exception");
+        } catch (IOException e) {
+            // expected as the chunks has been released
+        }
+    }
+
+    public void testChunksNotReturnedWhileReading() throws Exception {
+        context.start();
+        final StreamCachingStrategy.Statistics statistics = context.getStreamCachingStrategy().getStatistics();
+
+        final Exchange exchange = createExchange();
+        CachedOutputStream cos = new CachedOutputStream(exchange);
+        cos.write(TEST_STRING.getBytes("UTF-8"));
+        cos.close();
+
+        StreamCache cache = cos.newStreamCache();
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        cache.writeTo(new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                bos.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                if (bos.size() == 0) {
+                    // the exchange is done while the stream cache is being read
+                    exchange.getUnitOfWork().done(exchange);
+                    assertEquals("The chunks should not be returned to the pool while reading",
+                            128, statistics.getSpoolOffHeapMemoryUsed());
+                }
+                bos.write(b, off, len);
+            }
+        });
+
+        assertEquals(TEST_STRING, bos.toString("UTF-8"));
+        assertEquals("The chunks should be returned to the pool when done reading", 0, statistics.getSpoolOffHeapMemoryUsed());
+        assertEquals(128, statistics.getSpoolOffHeapMemoryPooled());
+    }
+
+    public void testReuseChunks() throws Exception {
+        context.start();
+        StreamCachingStrategy.Statistics statistics = context.getStreamCachingStrategy().getStatistics();
+
+        for (int i = 0; i < 3; i++) {
+            Exchange exchange = createExchange();
+            CachedOutputStream cos = new CachedOutputStream(exchange);
+            cos.write(TEST_STRING.getBytes("UTF-8"));
+            cos.close();
+            assertEquals(TEST_STRING, context.getTypeConverter().convertTo(String.class, cos.newStreamCache()));
+            exchange.getUnitOfWork().done(exchange);
+        }
+
+        assertEquals(8, statistics.getSpoolOffHeapChunkReuseCounter());
+        assertEquals(0, statistics.getSpoolOffHeapMemoryUsed());
+        assertEquals(0, statistics.getSpoolOffHeapExhaustedCounter());
+    }
+
+    public void testSpoolToFileWhenMemoryLimitReached() throws Exception {
+        context.start();
+        StreamCachingStrategy.Statistics statistics = context.getStreamCachingStrategy().getStatistics();
+
+        Exchange exchange = createExchange();
+        CachedOutputStream first = new CachedOutputStream(exchange);
+        first.write(TEST_STRING.getBytes("UTF-8"));
+        first.close();
+
+        // the second stream only fits partly in the remaining memory so it should be spooled to disk
+        CachedOutputStream second = new CachedOutputStream(exchange);
+        second.write(TEST_STRING.getBytes("UTF-8"));
+        second.write(TEST_STRING.getBytes("UTF-8"));
+        second.close();
+
+        assertEquals(1, statistics.getSpoolOffHeapExhaustedCounter());
+        assertEquals("Should spool to disk", 1, new File("target/cachedir").list().length);
+        assertEquals(128, statistics.getSpoolOffHeapMemoryUsed());
+
+        StreamCache cache = second.newStreamCache();
+        assertTrue("Should get the FileInputStreamCache", cache instanceof FileInputStreamCache);
+        assertEquals(TEST_STRING + TEST_STRING, context.getTypeConverter().convertTo(String.class, cache));
+        assertEquals(TEST_STRING, context.getTypeConverter().convertTo(String.class, first.newStreamCache()));
+
+        exchange.getUnitOfWork().done(exchange);
+        assertEquals(0, statistics.getSpoolOffHeapMemoryUsed());
+        assertEquals("The temporary file should be deleted", 0, new File("target/cachedir").list().length);
+    }
+
+    public void testSpoolMemoryMapped() throws Exception {
+        context.getStreamCachingStrategy().setSpoolMode(StreamCachingStrategy.SpoolMode.MemoryMapped);
+        context.start();
+
+        Exchange exchange = createExchange();
+        CachedOutputStream cos = new CachedOutputStream(exchange);
+        cos.write(TEST_STRING.getBytes("UTF-8"));
+        cos.close();
+
+        assertEquals("Should spool to disk", 1, new File("target/cachedir").list().length);
+
+        StreamCache cache = cos.newStreamCache();
+        assertTrue("Should get the FileInputStreamCache", cache instanceof FileInputStreamCache);
+        InputStream is = (InputStream) cache;
+        assertEquals(TEST_STRING.length(), is.available());
+        assertEquals(TEST_STRING, context.getTypeConverter().convertTo(String.class, cache));
+
+        cache.reset();
+        assertEquals(TEST_STRING, context.getTypeConverter().convertTo(String.class, cache));
+        IOHelper.close(is);
+
+        exchange.getUnitOfWork().done(exchange);
+        assertEquals("The temporary file should be deleted", 0, new File("target/cachedir").list().length);
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.impl;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.TestCase;
+import org.apache.camel.util.StopWatch;
+import org.apache.camel.util.TimeUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class CompactUuidGeneratorTest extends TestCase {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CompactUuidGeneratorTest.class);
+
+    public void testGenerateUUID() {
+        CompactUuidGenerator uuidGenerator = new CompactUuidGenerator();
+
+        String firstUUID = uuidGenerator.generateUuid();
+        String secondUUID = uuidGenerator.generateUuid();
+
+        assertTrue(firstUUID.matches("^[0-9a-f]{16}-[0-9a-f]{16}$"));
+        assertTrue(secondUUID.matches("^[0-9a-f]{16}-[0-9a-f]{16}$"));
+        assertFalse(firstUUID.equals(secondUUID));
+        // monotonic
+        assertTrue(firstUUID.compareTo(secondUUID) < 0);
+    }
+
+    public void testGeneratorsAreUnique() {
+        CompactUuidGenerator first = new CompactUuidGenerator();
+        CompactUuidGenerator second = new CompactUuidGenerator();
+
+        assertTrue(first.getMostSignificantBits() != second.getMostSignificantBits());
+        assertFalse(first.generateUuid().equals(second.generateUuid()));
+    }
+
+    public void testLazyUUID() {
+        CompactUuidGenerator uuidGenerator = new CompactUuidGenerator();
+
+        long sequence = uuidGenerator.nextSequence();
+        String uuid = uuidGenerator.generateUuid();
+
+        assertEquals(uuidGenerator.toUuid(sequence + 1), uuid);
+        assertTrue(uuidGenerator.toUuid(sequence).compareTo(uuid) < 0);
+    }
+
+    public void testConcurrentUnique() throws Exception {
+        final CompactUuidGenerator uuidGenerator = new CompactUuidGenerator();
+        final Set<String> ids = new HashSet<String>();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                public void run() {
+                    Set<String> local = new HashSet<String>();
+                    for (int j = 0; j < 10000; j++) {
+                        local.add(uuidGenerator.generateUuid());
+                    }
+                    synchronized (ids) {
+                        ids.addAll(local);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40000, ids.size());
+    }
+
+    public void testPerformance() {
+        CompactUuidGenerator uuidGenerator = new CompactUuidGenerator();
+        StopWatch watch = new StopWatch();
+
+        LOG.info("First id: " + uuidGenerator.generateUuid());
+        for (int i = 0; i < 500000; i++) {
+            uuidGenerator.generateUuid();
+        }
+        LOG.info("Last id:  " + uuidGenerator.generateUuid());
+
+        LOG.info("Took " + TimeUtils.printDuration(watch.stop()));
+    }
+}
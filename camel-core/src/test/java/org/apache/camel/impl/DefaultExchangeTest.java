@@ -18,13 +18,21 @@ package org.apache.camel.impl;
 
 import java.io.IOException;
 import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.camel.Exchange;
 import org.apache.camel.ExchangeTestSupport;
 import org.apache.camel.InvalidPayloadException;
 import org.apache.camel.Message;
+import org.apache.camel.MessageHistory;
 import org.apache.camel.RuntimeCamelException;
 import org.apache.camel.TypeConversionException;
+import org.apache.camel.model.ToDefinition;
+import org.apache.camel.util.ExchangeHelper;
 import org.apache.camel.util.ObjectHelper;
 
 /**
@@ -216,6 +224,154 @@ public class DefaultExchangeTest extends ExchangeTestSupport {
                      sourceIn.getClass(), destIn.getClass());
     }
 
+    public void testCopyPropertiesCopyOnWrite() {
+        DefaultExchange sourceExchange = new DefaultExchange(context);
+        sourceExchange.setProperty("foo", "123");
+        sourceExchange.setProperty("bar", "456");
+
+        Exchange copy1 = sourceExchange.copy(true);
+        Exchange copy2 = sourceExchange.copy(true);
+        assertEquals("123", copy1.getProperty("foo"));
+        assertEquals("456", copy2.getProperty("bar"));
+
+        // changes in the copy must not affect the source or the other copies
+        copy1.setProperty("foo", "abc");
+        copy1.removeProperty("bar");
+        copy1.setProperty("baz", "789");
+        assertEquals("abc", copy1.getProperty("foo"));
+        assertNull(copy1.getProperty("bar"));
+        assertEquals(2, copy1.getProperties().size());
+
+        assertEquals("123", sourceExchange.getProperty("foo"));
+        assertEquals("456", sourceExchange.getProperty("bar"));
+        assertNull(sourceExchange.getProperty("baz"));
+        assertEquals("123", copy2.getProperty("foo"));
+        assertEquals("456", copy2.getProperty("bar"));
+
+        // changes in the source must not affect the copies
+        sourceExchange.setProperty("foo", "xyz");
+        sourceExchange.getProperties().remove("bar");
+        assertEquals(1, sourceExchange.getProperties().size());
+        assertEquals("123", copy2.getProperty("foo"));
+        assertEquals("456", copy2.getProperty("bar"));
+        assertEquals(2, copy2.getProperties().size());
+    }
+
+    public void testCopyDoesNotShareExposedProperties() {
+        DefaultExchange sourceExchange = new DefaultExchange(context);
+        sourceExchange.setProperty("foo", "123");
+        Map<String, Object> properties = sourceExchange.getProperties();
+
+        Exchange copy1 = sourceExchange.copy();
+        Exchange copy2 = sourceExchange.copy();
+
+        // changes using the map obtained before copying must only affect the source
+        properties.put("bar", "456");
+        properties.put("foo", "abc");
+        assertEquals("456", sourceExchange.getProperty("bar"));
+        assertEquals("abc", sourceExchange.getProperty("foo"));
+        assertSame(properties, sourceExchange.getProperties());
+        assertNull(copy1.getProperty("bar"));
+        assertEquals("123", copy1.getProperty("foo"));
+        assertNull(copy2.getProperty("bar"));
+        assertEquals("123", copy2.getProperty("foo"));
+    }
+
+    public void testCopyResultsSharesProperties() {
+        DefaultExchange sourceExchange = new DefaultExchange(context);
+        sourceExchange.setProperty("foo", "123");
+        sourceExchange.setProperty("bar", "456");
+
+        Exchange copy = sourceExchange.copy();
+        copy.setProperty("foo", "abc");
+        copy.setProperty("baz", "789");
+        ExchangeHelper.copyResults(sourceExchange, copy);
+
+        assertEquals("abc", sourceExchange.getProperty("foo"));
+        assertEquals("456", sourceExchange.getProperty("bar"));
+        assertEquals("789", sourceExchange.getProperty("baz"));
+        assertEquals(3, sourceExchange.getProperties().size());
+
+        // the copy is not affected by the source afterwards
+        sourceExchange.setProperty("bar", "xyz");
+        assertEquals("456", copy.getProperty("bar"));
+        assertEquals(3, copy.getProperties().size());
+
+        // and properties not in the source are kept
+        DefaultExchange other = new DefaultExchange(context);
+        other.setProperty("cheese", "gauda");
+        ExchangeHelper.copyResults(other, copy);
+        assertEquals("gauda", other.getProperty("cheese"));
+        assertEquals("abc", other.getProperty("foo"));
+        assertEquals(4, other.getProperties().size());
+    }
+
+    public void testReadOnlyProperties() {
+        DefaultExchange exchange = new DefaultExchange(context);
+        assertTrue(exchange.getReadOnlyProperties().isEmpty());
+        exchange.setProperty("foo", "123");
+        exchange.setProperty("bar", "456");
+
+        DefaultExchange copy = (DefaultExchange) exchange.copy();
+        assertEquals(2, copy.getReadOnlyProperties().size());
+        copy.setProperty("bar", "789");
+        copy.setProperty("baz", "000");
+
+        Map<String, Object> properties = copy.getReadOnlyProperties();
+        assertEquals(3, properties.size());
+        assertEquals("123", properties.get("foo"));
+        assertEquals("789", properties.get("bar"));
+        assertEquals("000", properties.get("baz"));
+        Map<String, Object> expected = new HashMap<String, Object>();
+        expected.put("foo", "123");
+        expected.put("bar", "789");
+        expected.put("baz", "000");
+        assertEquals(expected, new HashMap<String, Object>(properties));
+
+        try {
+            properties.put("qux", "111");
+            fail("Should have thrown exception");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            properties.entrySet().iterator().next().setValue("111");
+            fail("Should have thrown exception");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        // and the original is not changed
+        assertEquals("456", exchange.getProperty("bar"));
+    }
+
+    public void testCopyMessageHistory() {
+        DefaultExchange sourceExchange = new DefaultExchange(context);
+        List<MessageHistory> history = new ArrayList<MessageHistory>();
+        history.add(new DefaultMessageHistory("myRoute", new ToDefinition("mock:result"), new Date()));
+        sourceExchange.setProperty(Exchange.MESSAGE_HISTORY, history);
+        sourceExchange.setProperty("foo", "123");
+
+        // the copy has its own message history
+        Exchange copy = sourceExchange.copy();
+        List<?> copyHistory = copy.getProperty(Exchange.MESSAGE_HISTORY, List.class);
+        assertNotSame(history, copyHistory);
+        assertEquals(history, copyHistory);
+
+        // which can be removed such as the splitter does without affecting the source
+        copy.removeProperty(Exchange.MESSAGE_HISTORY);
+        copy.setProperty("bar", "456");
+        assertNull(copy.getProperty(Exchange.MESSAGE_HISTORY));
+        assertEquals("123", copy.getProperty("foo"));
+        assertSame(history, sourceExchange.getProperty(Exchange.MESSAGE_HISTORY));
+
+        // and the source keeps its message history when copying back the results
+        ExchangeHelper.copyResults(sourceExchange, copy);
+        assertSame(history, sourceExchange.getProperty(Exchange.MESSAGE_HISTORY));
+        assertEquals("123", sourceExchange.getProperty("foo"));
+        assertEquals("456", sourceExchange.getProperty("bar"));
+        assertEquals(3, sourceExchange.getProperties().size());
+    }
+
     public void testFaultCopy() {
         testFaultCopy(false);
     }
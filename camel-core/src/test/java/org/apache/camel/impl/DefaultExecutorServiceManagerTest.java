@@ -16,14 +16,18 @@
  */
 package org.apache.camel.impl;
 
+import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.camel.ContextTestSupport;
 import org.apache.camel.ThreadPoolRejectedPolicy;
 import org.apache.camel.spi.ThreadPoolProfile;
+import org.apache.camel.util.concurrent.HashedWheelScheduledExecutorService;
 import org.apache.camel.util.concurrent.SizedScheduledExecutorService;
 
 /**
@@ -440,6 +444,51 @@ public class DefaultExecutorServiceManagerTest extends ContextTestSupport {
         assertTrue(tp.isShutdown());
     }
 
+    public void testNewTimerScheduledThreadPool() throws Exception {
+        ExecutorService pool = context.getExecutorServiceManager().newTimerScheduledThreadPool(this, "Cool", 5);
+        assertNotNull(pool);
+
+        HashedWheelScheduledExecutorService tp = assertIsInstanceOf(HashedWheelScheduledExecutorService.class, pool);
+        ThreadPoolExecutor worker = assertIsInstanceOf(ThreadPoolExecutor.class, tp.getWorker());
+        assertEquals(5, worker.getCorePoolSize());
+        assertEquals(5, worker.getMaximumPoolSize());
+        assertEquals(10, tp.getTimer().getTickDuration());
+        assertFalse(tp.isShutdown());
+
+        context.stop();
+
+        assertTrue(tp.isShutdown());
+    }
+
+    public void testNewTimerScheduledThreadPoolSharedTimer() throws Exception {
+        ScheduledExecutorService foo = context.getExecutorServiceManager().newDefaultTimerScheduledThreadPool(this, "Foo");
+        ScheduledExecutorService bar = context.getExecutorServiceManager().newDefaultTimerScheduledThreadPool(this, "Bar");
+
+        HashedWheelScheduledExecutorService tp = assertIsInstanceOf(HashedWheelScheduledExecutorService.class, foo);
+        HashedWheelScheduledExecutorService tp2 = assertIsInstanceOf(HashedWheelScheduledExecutorService.class, bar);
+        assertSame(tp.getTimer(), tp2.getTimer());
+
+        // shutting down one of the thread pools must not stop the shared timer
+        context.getExecutorServiceManager().shutdownNow(foo);
+        assertTrue(foo.isShutdown());
+        Future<String> future = bar.schedule(new Callable<String>() {
+            public String call() throws Exception {
+                return "Bye World";
+            }
+        }, 50, TimeUnit.MILLISECONDS);
+        assertEquals("Bye World", future.get(5, TimeUnit.SECONDS));
+    }
+
+    public void testNewTimerScheduledThreadPoolNoTimerWheel() throws Exception {
+        context.getExecutorServiceManager().setUseTimerWheel(false);
+
+        ExecutorService pool = context.getExecutorServiceManager().newDefaultTimerScheduledThreadPool(this, "Cool");
+        assertNotNull(pool);
+
+        SizedScheduledExecutorService tp = assertIsInstanceOf(SizedScheduledExecutorService.class, pool);
+        assertEquals(10, tp.getCorePoolSize());
+    }
+
     public void testNewCachedThreadPool() throws Exception {
         ExecutorService pool = context.getExecutorServiceManager().newCachedThreadPool(this, "Cool");
         assertNotNull(pool);
@@ -44,4 +44,133 @@ public class DefaultInflightRepositoryTest extends ContextTestSupport {
         repo.remove(e1);
         assertEquals(0, repo.size());
     }
+
+    public void testDefaultInflightRepositoryOldest() throws Exception {
+        DefaultInflightRepository repo = new DefaultInflightRepository();
+        assertNull(repo.oldest(null));
+
+        Exchange e1 = new DefaultExchange(context);
+        e1.setFromRouteId("foo");
+        repo.add(e1);
+        Thread.sleep(5);
+        Exchange e2 = new DefaultExchange(context);
+        e2.setFromRouteId("bar");
+        repo.add(e2);
+        Thread.sleep(5);
+        Exchange e3 = new DefaultExchange(context);
+        repo.add(e3);
+        // adding again is ignored
+        repo.add(e1);
+        assertEquals(3, repo.size());
+
+        assertSame(e1, repo.oldest(null).getExchange());
+        assertSame(e1, repo.oldest("foo").getExchange());
+        assertSame(e2, repo.oldest("bar").getExchange());
+        assertNull(repo.oldest("baz"));
+
+        // the exchange was added before it was routed from the route
+        e3.setFromRouteId("baz");
+        assertSame(e3, repo.oldest("baz").getExchange());
+        assertEquals(1, repo.browse("baz").size());
+        assertEquals(1, repo.browse("foo").size());
+        assertEquals(3, repo.browse().size());
+
+        repo.remove(e1);
+        assertEquals(2, repo.size());
+        assertNull(repo.oldest("foo"));
+        assertNotSame(e1, repo.oldest(null).getExchange());
+
+        repo.remove(e2);
+        repo.remove(e3);
+        assertEquals(0, repo.size());
+        assertNull(repo.oldest(null));
+    }
+
+    public void testDefaultInflightRepositoryFromRouteChanged() throws Exception {
+        DefaultInflightRepository repo = new DefaultInflightRepository();
+
+        Exchange e1 = new DefaultExchange(context);
+        e1.setFromRouteId("foo");
+        repo.add(e1);
+        Thread.sleep(5);
+        Exchange e2 = new DefaultExchange(context);
+        e2.setFromRouteId("bar");
+        repo.add(e2);
+
+        // the exchange is moved to the route it now originates from, and is still the oldest
+        e1.setFromRouteId("bar");
+        assertEquals(0, repo.browse("foo").size());
+        assertNull(repo.oldest("foo"));
+        assertEquals(2, repo.browse("bar").size());
+        assertSame(e1, repo.oldest("bar").getExchange());
+        assertEquals(2, repo.size());
+
+        // the route can be removed as it has no exchanges anymore
+        repo.removeRoute("foo");
+        e2.setFromRouteId("foo");
+        assertSame(e2, repo.oldest("foo").getExchange());
+        assertSame(e1, repo.oldest("bar").getExchange());
+
+        repo.remove(e1);
+        repo.remove(e2);
+        assertEquals(0, repo.size());
+        assertNull(repo.oldest(null));
+    }
+
+    public void testDefaultInflightRepositoryRemoveRouteWithInflight() throws Exception {
+        DefaultInflightRepository repo = new DefaultInflightRepository();
+
+        Exchange e1 = new DefaultExchange(context);
+        e1.setFromRouteId("foo");
+        repo.add(e1);
+
+        // the route is not removed while it has inflight exchanges
+        repo.removeRoute("foo");
+        assertSame(e1, repo.oldest("foo").getExchange());
+
+        repo.remove(e1);
+        repo.removeRoute("foo");
+        Exchange e2 = new DefaultExchange(context);
+        e2.setFromRouteId("foo");
+        repo.add(e2);
+        assertSame(e2, repo.oldest("foo").getExchange());
+        assertEquals(1, repo.size());
+    }
+
+    public void testDefaultInflightRepositoryRouteCount() throws Exception {
+        InflightRepository repo = new DefaultInflightRepository();
+
+        Exchange e1 = new DefaultExchange(context);
+        Exchange e2 = new DefaultExchange(context);
+        repo.add(e1, "foo");
+        repo.add(e2, "foo");
+        repo.add(e2, "bar");
+        assertEquals(2, repo.size("foo"));
+        assertEquals(1, repo.size("bar"));
+
+        repo.remove(e2, "bar");
+        repo.remove(e2, "foo");
+        assertEquals(1, repo.size("foo"));
+        assertEquals(0, repo.size("bar"));
+
+        repo.removeRoute("foo");
+        assertEquals(0, repo.size("foo"));
+    }
+
+    public void testTwoInflightRepositories() throws Exception {
+        InflightRepository repo = new DefaultInflightRepository();
+        InflightRepository other = new DefaultInflightRepository();
+
+        Exchange e1 = new DefaultExchange(context);
+        repo.add(e1);
+        other.add(e1);
+        assertEquals(1, repo.size());
+        assertEquals(1, other.size());
+
+        other.remove(e1);
+        assertEquals(1, repo.size());
+        assertEquals(0, other.size());
+        repo.remove(e1);
+        assertEquals(0, repo.size());
+    }
 }
@@ -0,0 +1,85 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.impl;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.Exchange;
+import org.apache.camel.Message;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.util.FastCaseInsensitiveMap;
+
+public class FastHeadersMapFactoryTest extends ContextTestSupport {
+
+    @Override
+    protected CamelContext createCamelContext() throws Exception {
+        CamelContext context = super.createCamelContext();
+        context.setHeadersMapFactory(new FastHeadersMapFactory());
+        return context;
+    }
+
+    public void testFastHeadersMap() throws Exception {
+        getMockEndpoint("mock:result").expectedBodiesReceived("Hello World");
+        getMockEndpoint("mock:result").expectedHeaderReceived("foo", "123");
+        getMockEndpoint("mock:result").expectedHeaderReceived("BAR", "456");
+
+        template.sendBodyAndHeader("direct:start", "Hello World", "Foo", "123");
+
+        assertMockEndpointsSatisfied();
+
+        Exchange out = getMockEndpoint("mock:result").getReceivedExchanges().get(0);
+        assertIsInstanceOf(FastCaseInsensitiveMap.class, out.getIn().getHeaders());
+    }
+
+    public void testCopyDoesNotAffectOriginal() throws Exception {
+        Exchange exchange = new DefaultExchange(context);
+        exchange.getIn().setHeader("foo", "123");
+
+        Exchange copy = exchange.copy();
+        assertIsInstanceOf(FastCaseInsensitiveMap.class, copy.getIn().getHeaders());
+        assertEquals("123", copy.getIn().getHeader("FOO"));
+
+        copy.getIn().setHeader("FOO", "456");
+        copy.getIn().setHeader("bar", "789");
+        assertEquals("123", exchange.getIn().getHeader("foo"));
+        assertNull(exchange.getIn().getHeader("bar"));
+
+        exchange.getIn().removeHeader("foo");
+        assertEquals("456", copy.getIn().getHeader("foo"));
+    }
+
+    public void testMessageCopyUsesSameFactory() throws Exception {
+        Exchange exchange = new DefaultExchange(context);
+        exchange.getIn().setHeader("foo", "123");
+
+        Message copy = exchange.getIn().copy();
+        // the copy is not attached to the exchange
+        assertNull(copy.getExchange());
+        assertIsInstanceOf(FastCaseInsensitiveMap.class, copy.getHeaders());
+        assertEquals("123", copy.getHeader("FOO"));
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("direct:start").setHeader("bar", constant("456")).to("mock:result");
+            }
+        };
+    }
+}
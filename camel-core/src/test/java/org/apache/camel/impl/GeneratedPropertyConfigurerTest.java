@@ -0,0 +1,125 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.ExchangePattern;
+import org.apache.camel.ResolveEndpointFailedException;
+import org.apache.camel.TypeConversionException;
+import org.apache.camel.component.seda.SedaEndpoint;
+import org.apache.camel.component.timer.TimerComponent;
+import org.apache.camel.component.timer.TimerEndpoint;
+import org.apache.camel.component.timer.TimerEndpointConfigurer;
+import org.apache.camel.spi.GeneratedPropertyConfigurer;
+import org.apache.camel.util.EndpointHelper;
+
+/**
+ * Tests the endpoint options are set using the configurer generated by the annotation processor.
+ */
+public class GeneratedPropertyConfigurerTest extends ContextTestSupport {
+
+    public void testResolveConfigurer() throws Exception {
+        TimerComponent timer = context.getComponent("timer", TimerComponent.class);
+        GeneratedPropertyConfigurer configurer = timer.resolvePropertyConfigurer(new TimerEndpoint());
+        assertIsInstanceOf(TimerEndpointConfigurer.class, configurer);
+        // cached
+        assertSame(configurer, timer.resolvePropertyConfigurer(new TimerEndpoint()));
+
+        // no configurer for the subclass as it may have other setters
+        assertNull(timer.resolvePropertyConfigurer(new TimerEndpoint() { }));
+    }
+
+    public void testConfigureEndpoint() throws Exception {
+        TimerEndpoint endpoint = context.getEndpoint("timer:foo?period=250&delay=0&fixedRate=true&repeatCount=3&exchangePattern=InOut",
+                TimerEndpoint.class);
+        assertEquals("foo", endpoint.getTimerName());
+        assertEquals(250, endpoint.getPeriod());
+        assertEquals(0, endpoint.getDelay());
+        assertTrue(endpoint.isFixedRate());
+        assertEquals(3, endpoint.getRepeatCount());
+        assertEquals(ExchangePattern.InOut, endpoint.getExchangePattern());
+
+        SedaEndpoint seda = context.getEndpoint("seda:foo?size=20&concurrentConsumers=2&blockWhenFull=true", SedaEndpoint.class);
+        assertEquals(20, seda.getSize());
+        assertEquals(2, seda.getConcurrentConsumers());
+        assertTrue(seda.isBlockWhenFull());
+    }
+
+    public void testConfigureInvalidValue() throws Exception {
+        try {
+            context.getEndpoint("timer:foo?period=abc");
+            fail("Should have thrown exception");
+        } catch (ResolveEndpointFailedException e) {
+            // fails the same way as when using reflection
+            TypeConversionException cause = assertIsInstanceOf(TypeConversionException.class, e.getCause());
+            assertEquals(long.class, cause.getToType());
+            assertEquals("abc", cause.getValue());
+        }
+    }
+
+    public void testConfigureUnknownOption() throws Exception {
+        try {
+            context.getEndpoint("timer:foo?period=250&unknown=123");
+            fail("Should have thrown exception");
+        } catch (ResolveEndpointFailedException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("unknown=123"));
+        }
+    }
+
+    public void testSetterExceptionIsRethrown() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        TimerEndpoint endpoint = new TimerEndpoint() {
+            @Override
+            public void setPeriod(long period) {
+                calls.incrementAndGet();
+                throw new IllegalArgumentException("Period must be positive");
+            }
+        };
+        Map<String, Object> parameters = new LinkedHashMap<String, Object>();
+        parameters.put("period", "-1");
+
+        try {
+            EndpointHelper.setProperties(context, new TimerEndpointConfigurer(), endpoint, parameters);
+            fail("Should have thrown exception");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Period must be positive", e.getMessage());
+        }
+        // the setter must not be called again using reflection
+        assertEquals(1, calls.get());
+    }
+
+    public void testFallbackToReflection() throws Exception {
+        TimerEndpoint endpoint = new TimerEndpoint();
+        Map<String, Object> parameters = new LinkedHashMap<String, Object>();
+        parameters.put("period", "500");
+        // the camel context is not an option but can be set using reflection
+        parameters.put("camelContext", context);
+        parameters.put("unknown", "123");
+
+        EndpointHelper.setProperties(context, new TimerEndpointConfigurer(), endpoint, parameters);
+
+        assertEquals(500, endpoint.getPeriod());
+        assertSame(context, endpoint.getCamelContext());
+        assertEquals(1, parameters.size());
+        assertEquals("123", parameters.get("unknown"));
+    }
+
+}
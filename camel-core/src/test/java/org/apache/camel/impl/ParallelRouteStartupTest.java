@@ -0,0 +1,242 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.Consumer;
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.Endpoint;
+import org.apache.camel.Processor;
+import org.apache.camel.Producer;
+import org.apache.camel.Route;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.spi.RouteStartupOrder;
+
+/**
+ * @version 
+ */
+public class ParallelRouteStartupTest extends ContextTestSupport {
+
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+    // the number of consumers being started or stopped at the same time as the consumer of the route
+    private final Map<String, Integer> concurrentOnStart = new ConcurrentHashMap<String, Integer>();
+
+    @Override
+    protected CamelContext createCamelContext() throws Exception {
+        CamelContext context = super.createCamelContext();
+        context.setParallelRouteStartup(true);
+        context.getShutdownStrategy().setParallelRouteShutdown(true);
+        context.addComponent("slow", new SlowComponent());
+        return context;
+    }
+
+    public void testParallelRouteStartup() throws Exception {
+        assertTrue("Should start routes in parallel", maxConcurrent.get() > 1);
+
+        // the routes with a startup order are started alone
+        assertEquals(Integer.valueOf(1), concurrentOnStart.get("first"));
+        assertEquals(Integer.valueOf(1), concurrentOnStart.get("second"));
+
+        // and the routes are still registered in the startup order
+        List<String> ids = new ArrayList<String>();
+        for (RouteStartupOrder order : context.getRouteStartupOrder()) {
+            ids.add(order.getRoute().getId());
+        }
+        assertEquals(9, ids.size());
+        assertEquals("first", ids.get(0));
+        assertEquals("second", ids.get(1));
+        assertEquals("route0", ids.get(2));
+        assertEquals("route5", ids.get(7));
+        assertEquals("foo", ids.get(8));
+
+        for (String id : ids) {
+            assertTrue(context.getRouteStatus(id).isStarted());
+        }
+
+        getMockEndpoint("mock:result").expectedBodiesReceived("Hello World");
+        template.sendBody("direct:start", "Hello World");
+        assertMockEndpointsSatisfied();
+    }
+
+    public void testParallelRouteShutdown() throws Exception {
+        maxConcurrent.set(0);
+        context.stop();
+
+        assertTrue("Should shutdown routes in parallel", maxConcurrent.get() > 1);
+        for (RouteStartupOrder order : context.getRouteStartupOrder()) {
+            assertTrue(context.getRouteStatus(order.getRoute().getId()).isStopped());
+        }
+    }
+
+    public void testParallelRouteShutdownInterrupted() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        List<Route> routes = Arrays.asList(context.getRoute("first"), context.getRoute("route0"), context.getRoute("route1"));
+        List<Callable<String>> tasks = new ArrayList<Callable<String>>();
+        tasks.add(new Callable<String>() {
+            public String call() throws Exception {
+                // simulate the shutdown task being cancelled due timeout before the parallel batch
+                Thread.currentThread().interrupt();
+                return "first";
+            }
+        });
+        for (int i = 0; i < 2; i++) {
+            tasks.add(new Callable<String>() {
+                public String call() throws Exception {
+                    latch.await();
+                    return "parallel";
+                }
+            });
+        }
+
+        ExecutorService executor = context.getExecutorServiceManager().newFixedThreadPool(this, "RouteShutdown", 2);
+        try {
+            List<String> answer = createShutdownTask(executor).invokeAll(routes, tasks);
+            assertTrue(Thread.interrupted());
+
+            // the results of the interrupted batch are padded so they still line up with the routes
+            assertEquals(Arrays.asList("first", null, null), answer);
+        } finally {
+            latch.countDown();
+            context.getExecutorServiceManager().shutdownNow(executor);
+        }
+    }
+
+    public void testParallelRouteShutdownFailure() throws Exception {
+        List<Route> routes = Arrays.asList(context.getRoute("route0"), context.getRoute("route1"), context.getRoute("first"));
+        List<Callable<String>> tasks = new ArrayList<Callable<String>>();
+        tasks.add(new Callable<String>() {
+            public String call() throws Exception {
+                throw new IllegalStateException("Parallel failure");
+            }
+        });
+        tasks.add(new Callable<String>() {
+            public String call() throws Exception {
+                return "route1";
+            }
+        });
+        tasks.add(new Callable<String>() {
+            public String call() throws Exception {
+                throw new IllegalStateException("Sequential failure");
+            }
+        });
+
+        ExecutorService executor = context.getExecutorServiceManager().newFixedThreadPool(this, "RouteShutdown", 2);
+        try {
+            // the failure in the parallel batch is ignored
+            List<String> answer = createShutdownTask(executor).invokeAll(routes.subList(0, 2), tasks.subList(0, 2));
+            assertEquals(Arrays.asList(null, "route1"), answer);
+
+            // but the route with a startup order is still shutdown alone, and fails the shutdown
+            try {
+                createShutdownTask(executor).invokeAll(routes, tasks);
+                fail("Should have thrown exception");
+            } catch (IllegalStateException e) {
+                assertEquals("Sequential failure", e.getMessage());
+            }
+        } finally {
+            context.getExecutorServiceManager().shutdownNow(executor);
+        }
+    }
+
+    private DefaultShutdownStrategy.ShutdownTask createShutdownTask(ExecutorService executor) {
+        return new DefaultShutdownStrategy.ShutdownTask(context, new ArrayList<RouteStartupOrder>(), 10, TimeUnit.SECONDS,
+            false, false, new AtomicBoolean(), executor);
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("slow:first").routeId("first").startupOrder(1).to("mock:first");
+                from("slow:second").routeId("second").startupOrder(2).to("mock:second");
+
+                for (int i = 0; i < 6; i++) {
+                    from("slow:route" + i).routeId("route" + i).to("mock:route" + i);
+                }
+
+                from("direct:start").routeId("foo").to("mock:result");
+            }
+        };
+    }
+
+    private void enter(String routeId) throws InterruptedException {
+        int current = concurrent.incrementAndGet();
+        concurrentOnStart.put(routeId, current);
+        maxConcurrent.set(Math.max(maxConcurrent.get(), current));
+        // simulate a slow consumer, such as connecting to a remote system
+        Thread.sleep(200);
+        maxConcurrent.set(Math.max(maxConcurrent.get(), concurrent.get()));
+        concurrent.decrementAndGet();
+    }
+
+    private class SlowComponent extends DefaultComponent {
+
+        @Override
+        protected Endpoint createEndpoint(String uri, String remaining, Map<String, Object> parameters) throws Exception {
+            return new SlowEndpoint(uri, this);
+        }
+    }
+
+    private class SlowEndpoint extends DefaultEndpoint {
+
+        SlowEndpoint(String uri, SlowComponent component) {
+            super(uri, component);
+        }
+
+        public Producer createProducer() throws Exception {
+            throw new UnsupportedOperationException("Not supported");
+        }
+
+        public Consumer createConsumer(Processor processor) throws Exception {
+            return new DefaultConsumer(this, processor) {
+                @Override
+                protected void doStart() throws Exception {
+                    super.doStart();
+                    enter(getRouteId());
+                }
+
+                @Override
+                protected void doStop() throws Exception {
+                    enter(getRouteId());
+                    super.doStop();
+                }
+            };
+        }
+
+        public boolean isSingleton() {
+            return true;
+        }
+
+        private String getRouteId() {
+            return getEndpointUri().substring("slow://".length());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.impl;
+
+import junit.framework.TestCase;
+import org.apache.camel.spi.TypeConverterRegistry;
+import org.apache.camel.spi.TypeConverterRegistry.TypeConversionStatistics;
+
+/**
+ * @version 
+ */
+public class TypeConverterRegistryTypeConversionStatisticsTest extends TestCase {
+
+    public void testTypeConversionStatistics() throws Exception {
+        DefaultCamelContext context = new DefaultCamelContext();
+        context.setTypeConverterStatisticsEnabled(true);
+        context.start();
+
+        TypeConverterRegistry registry = context.getTypeConverterRegistry();
+
+        // known type converter
+        assertEquals(Integer.valueOf(3), context.getTypeConverter().convertTo(Integer.class, "3"));
+        assertEquals(Integer.valueOf(7), context.getTypeConverter().convertTo(Integer.class, "7"));
+
+        // fallback type converter (toString)
+        MyOrder order = new MyOrder();
+        assertEquals("MyOrder", context.getTypeConverter().convertTo(String.class, order));
+
+        // no type converter
+        assertNull(context.getTypeConverter().convertTo(MyOrder.class, "123"));
+        assertNull(context.getTypeConverter().convertTo(MyOrder.class, "456"));
+
+        TypeConversionStatistics hit = findStatistics(registry, String.class, Integer.class);
+        assertNotNull(hit.getTypeConverter());
+        assertEquals(2, hit.getAttemptCounter());
+        assertEquals(2, hit.getHitCounter());
+        assertEquals(0, hit.getFallbackCounter());
+        assertEquals(0, hit.getMissCounter());
+
+        TypeConversionStatistics fallback = findStatistics(registry, MyOrder.class, String.class);
+        assertNull(fallback.getTypeConverter());
+        assertEquals(1, fallback.getAttemptCounter());
+        assertEquals(0, fallback.getHitCounter());
+        assertEquals(1, fallback.getFallbackCounter());
+
+        TypeConversionStatistics miss = findStatistics(registry, String.class, MyOrder.class);
+        assertEquals(2, miss.getAttemptCounter());
+        assertEquals(0, miss.getHitCounter());
+        assertEquals(2, miss.getMissCounter());
+        assertEquals(2, registry.getStatistics().getMissCounter());
+
+        registry.getStatistics().reset();
+        assertEquals(0, hit.getAttemptCounter());
+        assertEquals(0, miss.getMissCounter());
+
+        context.stop();
+    }
+
+    private static TypeConversionStatistics findStatistics(TypeConverterRegistry registry, Class<?> from, Class<?> to) {
+        for (TypeConversionStatistics statistics : registry.getStatistics().getTypeConversionStatistics()) {
+            if (statistics.getFromType() == from && statistics.getToType() == to) {
+                return statistics;
+            }
+        }
+        fail("Cannot find type conversion statistics from: " + from + " to: " + to);
+        return null;
+    }
+
+    private static class MyOrder {
+
+        @Override
+        public String toString() {
+            return "MyOrder";
+        }
+    }
+
+}
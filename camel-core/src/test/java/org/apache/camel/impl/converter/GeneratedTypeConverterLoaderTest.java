@@ -0,0 +1,97 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.impl.converter;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.TestCase;
+import org.apache.camel.TypeConversionException;
+import org.apache.camel.TypeConverter;
+import org.apache.camel.converter.MyBean;
+import org.apache.camel.converter.PurchaseOrder;
+import org.apache.camel.impl.DefaultClassResolver;
+import org.apache.camel.impl.DefaultFactoryFinderResolver;
+import org.apache.camel.impl.DefaultPackageScanClassResolver;
+import org.apache.camel.util.ObjectHelper;
+import org.apache.camel.util.ReflectionInjector;
+
+/**
+ * Tests that the type converters of the test classes are loaded by the loader generated by the annotation processor,
+ * instead of scanning the packages listed in the <tt>META-INF/services/org/apache/camel/TypeConverter</tt> file.
+ */
+public class GeneratedTypeConverterLoaderTest extends TestCase {
+
+    public void testGeneratedLoaderPreferredOverScanning() throws Exception {
+        RecordingPackageScanClassResolver resolver = new RecordingPackageScanClassResolver();
+        DefaultTypeConverter registry = new DefaultTypeConverter(resolver, new ReflectionInjector(),
+                new DefaultFactoryFinderResolver().resolveDefaultFactoryFinder(new DefaultClassResolver()));
+
+        AnnotationTypeConverterLoader loader = new AnnotationTypeConverterLoader(resolver);
+        loader.load(registry);
+
+        // the test converters should not be scanned
+        assertFalse("Should not scan " + resolver.packages, resolver.packages.contains("org.apache.camel.converter.myconverter"));
+
+        TypeConverter converter = registry.lookup(PurchaseOrder.class, byte[].class);
+        assertNotNull(converter);
+        assertTrue(converter.toString(), converter.toString().startsWith("GeneratedTypeConverter"));
+        assertNotNull(registry.lookup(MyBean.class, String.class));
+        assertNotNull(registry.lookup(MyBean.class, String[].class));
+    }
+
+    public void testGeneratedConverters() throws Exception {
+        DefaultTypeConverter registry = new DefaultTypeConverter(new DefaultPackageScanClassResolver(), new ReflectionInjector(),
+                new DefaultFactoryFinderResolver().resolveDefaultFactoryFinder(new DefaultClassResolver()));
+        registry.start();
+        try {
+            // instance converter which is type converter aware
+            PurchaseOrder order = registry.convertTo(PurchaseOrder.class, "##START##AKC4433   179       3##END##".getBytes());
+            assertNotNull(order);
+            assertEquals("AKC4433", order.getName());
+            assertEquals(3, order.getAmount());
+
+            // static fallback converter
+            assertEquals("Time talks", registry.convertTo(String.class, java.util.TimeZone.getDefault()));
+
+            // exceptions thrown by the converter are wrapped the same way as when invoked using reflection
+            try {
+                registry.mandatoryConvertTo(PurchaseOrder.class, "too short".getBytes());
+                fail("Should have thrown exception");
+            } catch (TypeConversionException e) {
+                IllegalArgumentException cause = ObjectHelper.getException(IllegalArgumentException.class, e);
+                assertNotNull(cause);
+                assertEquals("data is invalid", cause.getMessage());
+            }
+        } finally {
+            registry.stop();
+        }
+    }
+
+    private static final class RecordingPackageScanClassResolver extends DefaultPackageScanClassResolver {
+        private final List<String> packages = new ArrayList<String>();
+
+        @Override
+        public Set<Class<?>> findAnnotated(Class<? extends Annotation> annotation, String... packageNames) {
+            packages.addAll(Arrays.asList(packageNames));
+            return super.findAnnotated(annotation, packageNames);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.language.simple;
+
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.Exchange;
+import org.apache.camel.Expression;
+import org.apache.camel.Predicate;
+import org.apache.camel.impl.DefaultExchange;
+
+public class SimpleLanguageCacheTest extends ContextTestSupport {
+
+    public void testExpressionCache() throws Exception {
+        SimpleLanguage simple = (SimpleLanguage) context.resolveLanguage("simple");
+        simple.clearCache();
+        assertEquals(0, simple.getExpressionCacheSize());
+
+        Expression exp = simple.createExpression("Hello ${body}");
+        assertSame(exp, simple.createExpression("Hello ${body}"));
+        assertEquals(1, simple.getExpressionCacheSize());
+
+        Exchange exchange = new DefaultExchange(context);
+        exchange.getIn().setBody("World");
+        assertEquals("Hello World", exp.evaluate(exchange, String.class));
+
+        exchange.getIn().setBody("Camel");
+        assertEquals("Hello Camel", simple.createExpression("Hello ${body}").evaluate(exchange, String.class));
+    }
+
+    public void testPredicateCache() throws Exception {
+        SimpleLanguage simple = (SimpleLanguage) context.resolveLanguage("simple");
+        simple.clearCache();
+        assertEquals(0, simple.getPredicateCacheSize());
+
+        Predicate pre = simple.createPredicate("${header.foo} == 123");
+        assertSame(pre, simple.createPredicate("${header.foo} == 123"));
+        assertEquals(1, simple.getPredicateCacheSize());
+
+        Exchange exchange = new DefaultExchange(context);
+        exchange.getIn().setHeader("foo", 123);
+        assertTrue(pre.matches(exchange));
+        exchange.getIn().setHeader("foo", 456);
+        assertFalse(pre.matches(exchange));
+    }
+
+    public void testChangeFunctionTokensClearsAllCaches() throws Exception {
+        SimpleLanguage simple = (SimpleLanguage) context.resolveLanguage("simple");
+        SimpleLanguage other = new SimpleLanguage();
+        other.setCamelContext(context);
+        other.start();
+
+        Exchange exchange = new DefaultExchange(context);
+        exchange.getIn().setBody("World");
+        assertEquals("Hello [[body]]", simple.createExpression("Hello [[body]]").evaluate(exchange, String.class));
+
+        try {
+            // the tokens are global so the expression cached by the other instance must be parsed again
+            other.setFunctionStartToken("[[");
+            other.setFunctionEndToken("]]");
+            assertEquals("Hello World", simple.createExpression("Hello [[body]]").evaluate(exchange, String.class));
+        } finally {
+            SimpleLanguage.changeFunctionStartToken("${", "$simple{");
+            SimpleLanguage.changeFunctionEndToken("}");
+        }
+        assertEquals("Hello [[body]]", simple.createExpression("Hello [[body]]").evaluate(exchange, String.class));
+    }
+
+    public void testCacheDisabled() throws Exception {
+        context.getProperties().put(Exchange.MAXIMUM_SIMPLE_CACHE_SIZE, "0");
+
+        SimpleLanguage simple = new SimpleLanguage();
+        simple.setCamelContext(context);
+        simple.start();
+
+        assertEquals(-1, simple.getExpressionCacheSize());
+        assertEquals(-1, simple.getPredicateCacheSize());
+        assertNotSame(simple.createExpression("${body}"), simple.createExpression("${body}"));
+    }
+
+}
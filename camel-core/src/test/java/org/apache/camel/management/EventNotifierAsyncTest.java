@@ -0,0 +1,221 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.management;
+
+import java.util.EventObject;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.Exchange;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.management.event.DefaultEventFactory;
+import org.apache.camel.management.event.ExchangeCompletedEvent;
+import org.apache.camel.support.EventNotifierSupport;
+
+/**
+ * @version 
+ */
+public class EventNotifierAsyncTest extends ContextTestSupport {
+
+    private final List<EventObject> events = new CopyOnWriteArrayList<EventObject>();
+    private final List<String> threads = new CopyOnWriteArrayList<String>();
+    private final List<String> enabledThreads = new CopyOnWriteArrayList<String>();
+    private final AtomicInteger createdEvents = new AtomicInteger();
+    private final CountDownLatch latch = new CountDownLatch(1);
+    private MyNotifier notifier;
+
+    @Override
+    protected CamelContext createCamelContext() throws Exception {
+        CamelContext context = super.createCamelContext();
+
+        notifier = new MyNotifier();
+        notifier.setIgnoreCamelContextEvents(true);
+        notifier.setIgnoreRouteEvents(true);
+        notifier.setIgnoreServiceEvents(true);
+        notifier.setIgnoreExchangeCreatedEvent(true);
+        notifier.setIgnoreExchangeSendingEvents(true);
+        notifier.setIgnoreExchangeSentEvents(true);
+        if (getName().equals("testAsync")) {
+            notifier.setAsync(true);
+        } else if (getName().equals("testAsyncDropWhenFull")) {
+            notifier.setAsync(true);
+            notifier.setAsyncQueueSize(2);
+            notifier.setBlock(true);
+        } else if (getName().equals("testAsyncNotifyFromDispatcher")) {
+            notifier.setAsync(true);
+            notifier.setAsyncQueueSize(2);
+            notifier.setAsyncOverflowPolicy(EventNotifierSupport.AsyncOverflowPolicy.Block);
+            notifier.setNested(true);
+        }
+        context.getManagementStrategy().addEventNotifier(notifier);
+        if (getName().equals("testEventCreatedOnce")) {
+            // another notifier which wants the created event
+            notifier.setIgnoreExchangeCreatedEvent(false);
+            MyNotifier other = new MyNotifier();
+            other.setIgnoreExchangeCreatedEvent(false);
+            context.getManagementStrategy().addEventNotifier(other);
+        }
+
+        context.getManagementStrategy().setEventFactory(new DefaultEventFactory() {
+            @Override
+            public EventObject createExchangeCreatedEvent(Exchange exchange) {
+                createdEvents.incrementAndGet();
+                return super.createExchangeCreatedEvent(exchange);
+            }
+        });
+        return context;
+    }
+
+    public void testAsync() throws Exception {
+        getMockEndpoint("mock:result").expectedMessageCount(10);
+
+        for (int i = 0; i < 10; i++) {
+            template.sendBody("direct:start", "Hello " + i);
+        }
+
+        assertMockEndpointsSatisfied();
+
+        // the events are notified asynchronously
+        for (int i = 0; i < 50 && events.size() < 10; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(10, events.size());
+        assertFalse(threads.contains(Thread.currentThread().getName()));
+        // the events are filtered by the routing thread before they are queued
+        assertTrue(enabledThreads.contains(Thread.currentThread().getName()));
+        for (String thread : threads) {
+            assertFalse(enabledThreads.contains(thread));
+        }
+        assertEquals(10, notifier.getDispatchedEvents());
+        assertEquals(0, notifier.getDroppedEvents());
+        assertEquals(0, notifier.getPendingEvents());
+        assertTrue(notifier.getMaxDispatchLag() >= notifier.getMeanDispatchLag());
+
+    }
+
+    public void testAsyncDropWhenFull() throws Exception {
+        assertEquals(EventNotifierSupport.AsyncOverflowPolicy.Drop, notifier.getAsyncOverflowPolicy());
+
+        getMockEndpoint("mock:result").expectedMessageCount(10);
+
+        for (int i = 0; i < 10; i++) {
+            template.sendBody("direct:start", "Hello " + i);
+        }
+
+        // the routing threads should not wait for the notifier which is blocked
+        assertMockEndpointsSatisfied();
+
+        // one event is being notified and two are queued
+        assertTrue("Should drop events, was: " + notifier.getDroppedEvents(), notifier.getDroppedEvents() >= 7);
+
+        latch.countDown();
+        for (int i = 0; i < 50 && notifier.getPendingEvents() > 0; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(10, notifier.getDispatchedEvents() + notifier.getDroppedEvents());
+    }
+
+    public void testAsyncNotifyFromDispatcher() throws Exception {
+        getMockEndpoint("mock:result").expectedMessageCount(10);
+
+        for (int i = 0; i < 10; i++) {
+            template.sendBody("direct:start", "Hello " + i);
+        }
+
+        assertMockEndpointsSatisfied();
+
+        // the events emitted while notifying are notified right away so the dispatcher does not wait for itself
+        for (int i = 0; i < 50 && events.size() < 40; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(40, events.size());
+        assertEquals(10, notifier.getDispatchedEvents());
+        assertEquals(0, notifier.getDroppedEvents());
+    }
+
+    public void testEventCreatedOnce() throws Exception {
+        getMockEndpoint("mock:result").expectedMessageCount(3);
+
+        for (int i = 0; i < 3; i++) {
+            template.sendBody("direct:start", "Hello " + i);
+        }
+
+        assertMockEndpointsSatisfied();
+
+        // more notifiers wants the exchange created event but it should only be created once per exchange
+        assertEquals(3, createdEvents.get());
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("direct:start").to("mock:result");
+            }
+        };
+    }
+
+    private final class MyNotifier extends EventNotifierSupport {
+
+        private boolean block;
+        private boolean nested;
+
+        public void setBlock(boolean block) {
+            this.block = block;
+        }
+
+        public void setNested(boolean nested) {
+            this.nested = nested;
+        }
+
+        public void notify(EventObject event) throws Exception {
+            if (block) {
+                latch.await(10, TimeUnit.SECONDS);
+            }
+            events.add(event);
+            threads.add(Thread.currentThread().getName());
+            if (nested && event instanceof ExchangeCompletedEvent) {
+                // fill up the queue from the dispatcher thread
+                for (int i = 0; i < 3; i++) {
+                    notifyAsync(new EventObject(this));
+                }
+            }
+        }
+
+        public boolean isEnabled(EventObject event) {
+            enabledThreads.add(Thread.currentThread().getName());
+            return event instanceof ExchangeCompletedEvent || event.getSource() == this;
+        }
+
+        @Override
+        protected void doStart() throws Exception {
+            // the dispatcher is started without calling super
+        }
+
+        @Override
+        protected void doStop() throws Exception {
+            // noop
+        }
+    }
+
+}
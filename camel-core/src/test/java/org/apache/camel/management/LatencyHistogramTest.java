@@ -0,0 +1,131 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.management;
+
+import java.util.concurrent.CountDownLatch;
+
+import junit.framework.TestCase;
+import org.apache.camel.management.mbean.LatencyHistogram;
+import org.apache.camel.management.mbean.Statistic;
+
+public class LatencyHistogramTest extends TestCase {
+
+    public void testEmpty() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.getTotalCount());
+        assertEquals(0, h.getValueAtPercentile(50));
+        assertEquals(0, h.getValueAtPercentile(99.9));
+    }
+
+    public void testExactSmallValues() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 1; i <= 10; i++) {
+            h.recordValue(i);
+        }
+        assertEquals(10, h.getTotalCount());
+        assertEquals(5, h.getValueAtPercentile(50));
+        assertEquals(10, h.getValueAtPercentile(99));
+        assertEquals(1, h.getValueAtPercentile(0));
+    }
+
+    public void testPercentiles() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            h.recordValue(i);
+        }
+        assertEquals(1000, h.getTotalCount());
+        assertWithinPrecision(500, h.getValueAtPercentile(50));
+        assertWithinPrecision(990, h.getValueAtPercentile(99));
+        assertWithinPrecision(999, h.getValueAtPercentile(99.9));
+        assertWithinPrecision(1000, h.getValueAtPercentile(100));
+    }
+
+    public void testOutliers() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 0; i < 999; i++) {
+            h.recordValue(2);
+        }
+        h.recordValue(5000);
+        assertEquals(2, h.getValueAtPercentile(50));
+        assertEquals(2, h.getValueAtPercentile(99.9));
+        assertWithinPrecision(5000, h.getValueAtPercentile(100));
+
+        // values out of range are recorded as the lowest or highest value
+        h.recordValue(-1);
+        h.recordValue(Long.MAX_VALUE);
+        assertEquals(1002, h.getTotalCount());
+        assertTrue(h.getValueAtPercentile(100) >= Integer.MAX_VALUE);
+    }
+
+    public void testReset() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.recordValue(100);
+        assertEquals(1, h.getTotalCount());
+        h.reset();
+        assertEquals(0, h.getTotalCount());
+        assertEquals(0, h.getValueAtPercentile(50));
+    }
+
+    public void testConcurrentUpdates() throws Exception {
+        final LatencyHistogram h = new LatencyHistogram();
+        final Statistic counter = new Statistic("counter", this, Statistic.UpdateMode.COUNTER);
+        final Statistic min = new Statistic("min", this, Statistic.UpdateMode.MINIMUM);
+        final Statistic max = new Statistic("max", this, Statistic.UpdateMode.MAXIMUM);
+        final CountDownLatch latch = new CountDownLatch(4);
+        for (int t = 0; t < 4; t++) {
+            final int offset = t;
+            new Thread(new Runnable() {
+                public void run() {
+                    for (int i = 1; i <= 10000; i++) {
+                        h.recordValue(i % 100);
+                        counter.increment();
+                        min.updateValue(i + offset);
+                        max.updateValue(i + offset);
+                    }
+                    latch.countDown();
+                }
+            }).start();
+        }
+        latch.await();
+
+        assertEquals(40000, h.getTotalCount());
+        assertEquals(40000, counter.getValue());
+        assertEquals(40000, counter.getUpdateCount());
+        assertEquals(1, min.getValue());
+        assertEquals(10003, max.getValue());
+    }
+
+    public void testDelta() {
+        Statistic delta = new Statistic("delta", this, Statistic.UpdateMode.DELTA);
+        assertEquals(0, delta.getValue());
+        delta.updateValue(5);
+        assertEquals(5, delta.getValue());
+        delta.updateValue(8);
+        assertEquals(3, delta.getValue());
+        delta.updateValue(2);
+        assertEquals(-6, delta.getValue());
+        delta.reset();
+        assertEquals(0, delta.getValue());
+        delta.updateValue(4);
+        assertEquals(4, delta.getValue());
+    }
+
+    private static void assertWithinPrecision(long expected, long actual) {
+        assertTrue("Expected " + expected + " but was " + actual, actual >= expected && actual <= expected * 1.07);
+    }
+
+}
@@ -65,6 +65,16 @@ public class ManagedInflightRepositoryTest extends ManagementTestSupport {
                                 assertNotNull(data);
 
                                 assertEquals(1, data.size());
+
+                                String oldest = (String) mbeanServer.getAttribute(name, "OldestExchangeId");
+                                assertEquals(exchange.getExchangeId(), oldest);
+                                Long duration = (Long) mbeanServer.getAttribute(name, "OldestDuration");
+                                assertNotNull(duration);
+
+                                oldest = (String) mbeanServer.invoke(name, "oldestExchangeId", new Object[]{"foo"}, new String[]{"java.lang.String"});
+                                assertEquals(exchange.getExchangeId(), oldest);
+                                oldest = (String) mbeanServer.invoke(name, "oldestExchangeId", new Object[]{"bar"}, new String[]{"java.lang.String"});
+                                assertNull(oldest);
                             }
                         }).id("myProcessor")
                         .to("mock:result");
@@ -0,0 +1,81 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.management;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.camel.builder.RouteBuilder;
+
+/**
+ * @version 
+ */
+public class ManagedProcessingTimePercentilesTest extends ManagementTestSupport {
+
+    public void testProcessingTimePercentiles() throws Exception {
+        // JMX tests dont work well on AIX CI servers (hangs them)
+        if (isPlatform("aix")) {
+            return;
+        }
+
+        MBeanServer mbeanServer = getMBeanServer();
+        ObjectName route = ObjectName.getInstance("org.apache.camel:context=camel-1,type=routes,name=\"route1\"");
+        ObjectName processor = ObjectName.getInstance("org.apache.camel:context=camel-1,type=processors,name=\"mydelay\"");
+
+        assertEquals(0L, mbeanServer.getAttribute(route, "P50ProcessingTime"));
+        assertEquals(0L, mbeanServer.getAttribute(route, "P99ProcessingTime"));
+
+        getMockEndpoint("mock:result").expectedMessageCount(10);
+
+        for (int i = 0; i < 9; i++) {
+            template.sendBodyAndHeader("direct:start", "Hello World", "delay", 0);
+        }
+        template.sendBodyAndHeader("direct:start", "Bye World", "delay", 500);
+
+        assertMockEndpointsSatisfied();
+
+        Long p50 = (Long) mbeanServer.getAttribute(route, "P50ProcessingTime");
+        Long p99 = (Long) mbeanServer.getAttribute(route, "P99ProcessingTime");
+        Long p999 = (Long) mbeanServer.getAttribute(route, "P999ProcessingTime");
+        Long max = (Long) mbeanServer.getAttribute(route, "MaxProcessingTime");
+        assertTrue("Should be fast: was " + p50, p50 < 400);
+        assertTrue("Should take around 0.5 sec: was " + p99, p99 >= 450);
+        assertTrue("Should not be less than max: was " + p999, p999 >= max);
+
+        String xml = (String) mbeanServer.invoke(route, "dumpStatsAsXml", new Object[]{false}, new String[]{"boolean"});
+        assertTrue(xml, xml.contains("p99ProcessingTime=\"" + p99));
+
+        p50 = (Long) mbeanServer.getAttribute(processor, "P50ProcessingTime");
+        p99 = (Long) mbeanServer.getAttribute(processor, "P99ProcessingTime");
+        assertTrue("Should be fast: was " + p50, p50 < 400);
+        assertTrue("Should take around 0.5 sec: was " + p99, p99 >= 450);
+
+        mbeanServer.invoke(route, "reset", null, null);
+        assertEquals(0L, mbeanServer.getAttribute(route, "P99ProcessingTime"));
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("direct:start").delay(header("delay")).id("mydelay").to("mock:result");
+            }
+        };
+    }
+
+}
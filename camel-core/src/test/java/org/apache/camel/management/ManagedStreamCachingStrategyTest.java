@@ -23,6 +23,7 @@ import javax.management.ObjectName;
 import org.apache.camel.StreamCache;
 import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.spi.StreamCachingStrategy;
 import org.apache.camel.util.IOHelper;
 
 import static org.apache.camel.util.FileUtil.normalizePath;
@@ -82,6 +83,12 @@ public class ManagedStreamCachingStrategyTest extends ManagementTestSupport {
 
         Boolean remove = (Boolean) mbeanServer.getAttribute(name, "RemoveSpoolDirectoryWhenStopping");
         assertEquals(Boolean.TRUE, remove);
+
+        StreamCachingStrategy.SpoolMode mode = (StreamCachingStrategy.SpoolMode) mbeanServer.getAttribute(name, "SpoolMode");
+        assertEquals(StreamCachingStrategy.SpoolMode.File, mode);
+
+        Long used = (Long) mbeanServer.getAttribute(name, "SpoolOffHeapMemoryUsed");
+        assertEquals(0, used.longValue());
     }
 
     @Override
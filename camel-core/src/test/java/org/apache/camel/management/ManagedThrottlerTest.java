@@ -24,6 +24,8 @@ import java.util.concurrent.TimeUnit;
 import javax.management.Attribute;
 import javax.management.MBeanServer;
 import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
 
 import org.apache.camel.Exchange;
 import org.apache.camel.Processor;
@@ -129,6 +131,9 @@ public class ManagedThrottlerTest extends ManagementTestSupport {
 
         NotifyBuilder notifier = new NotifyBuilder(context).
                 from("seda:throttleCount").whenReceived(5).create();
+        // the mock endpoint receives the last message before the route has completed it
+        NotifyBuilder done = new NotifyBuilder(context).
+                from("seda:throttleCount").whenCompleted(10).create();
 
         for (int i = 0; i < 10; i++) {
             template.sendBody("seda:throttleCount", "Message " + i);
@@ -136,11 +141,47 @@ public class ManagedThrottlerTest extends ManagementTestSupport {
 
         assertTrue(notifier.matches(2, TimeUnit.SECONDS));
         assertMockEndpointsSatisfied();
+        assertTrue(done.matches(10, TimeUnit.SECONDS));
 
         Long completed = (Long) mbeanServer.getAttribute(routeName, "ExchangesCompleted");
         assertEquals(10, completed.longValue());
     }
 
+    public void testThrottleCorrelationKeysViaJmx() throws Exception {
+        // JMX tests dont work well on AIX CI servers (hangs them)
+        if (isPlatform("aix")) {
+            return;
+        }
+
+        getMockEndpoint("mock:tenant").expectedMessageCount(5);
+
+        template.sendBodyAndHeader("direct:tenant", "Hello A", "tenant", "A");
+        template.sendBodyAndHeader("direct:tenant", "Bye A", "tenant", "A");
+        template.sendBodyAndHeader("direct:tenant", "Hello B", "tenant", "B");
+        template.sendBodyAndHeader("direct:tenant", "Hello C", "tenant", "C");
+        template.sendBodyAndHeader("direct:tenant", "Bye C", "tenant", "C");
+
+        assertMockEndpointsSatisfied();
+
+        MBeanServer mbeanServer = getMBeanServer();
+        ObjectName throttlerName = ObjectName.getInstance("org.apache.camel:context=camel-1,type=processors,name=\"mythrottler7\"");
+
+        Integer size = (Integer) mbeanServer.getAttribute(throttlerName, "CorrelationKeysSize");
+        assertEquals(3, size.intValue());
+        Integer max = (Integer) mbeanServer.getAttribute(throttlerName, "MaximumCorrelationKeys");
+        assertEquals(1000, max.intValue());
+        Integer queued = (Integer) mbeanServer.getAttribute(throttlerName, "QueuedExchanges");
+        assertEquals(0, queued.intValue());
+
+        TabularData data = (TabularData) mbeanServer.invoke(throttlerName, "listCorrelationKeys", null, null);
+        assertEquals(3, data.size());
+        CompositeData row = data.get(new Object[]{"B"});
+        assertNotNull(row);
+        assertEquals(5, row.get("maximumRequestsPerPeriod"));
+        assertEquals(4, row.get("availablePermits"));
+        assertEquals(0, row.get("queued"));
+    }
+
     public void testThrottleAsyncVisableViaJmx() throws Exception {
         // JMX tests dont work well on AIX CI servers (hangs them)
         if (isPlatform("aix")) {
@@ -168,6 +209,9 @@ public class ManagedThrottlerTest extends ManagementTestSupport {
         // that have been and reduces any race conditions to minimal...
         NotifyBuilder notifier = new NotifyBuilder(context).
                 from("seda:throttleCountAsync").whenReceived(5).create();
+        // the mock endpoint receives the last message before the route has completed it
+        NotifyBuilder done = new NotifyBuilder(context).
+                from("seda:throttleCountAsync").whenCompleted(10).create();
 
         for (int i = 0; i < 10; i++) {
             template.sendBody("seda:throttleCountAsync", "Message " + i);
@@ -175,6 +219,7 @@ public class ManagedThrottlerTest extends ManagementTestSupport {
 
         assertTrue(notifier.matches(2, TimeUnit.SECONDS));
         assertMockEndpointsSatisfied();
+        assertTrue(done.matches(10, TimeUnit.SECONDS));
 
         Long completed = (Long) mbeanServer.getAttribute(routeName, "ExchangesCompleted");
         assertEquals(10, completed.longValue());
@@ -345,6 +390,10 @@ public class ManagedThrottlerTest extends ManagementTestSupport {
                             .callerRunsWhenRejected(false)
                             .id("mythrottler6")
                         .to("mock:endAsyncReject");
+
+                from("direct:tenant")
+                        .throttle(5).timePeriodMillis(10000).correlationExpression(header("tenant")).id("mythrottler7")
+                        .to("mock:tenant");
             }
         };
     }
@@ -20,6 +20,7 @@ import java.util.Set;
 import javax.management.Attribute;
 import javax.management.MBeanServer;
 import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
 import javax.management.openmbean.TabularData;
 
 import org.apache.camel.builder.RouteBuilder;
@@ -103,6 +104,15 @@ public class ManagedTypeConverterRegistryTest extends ManagementTestSupport {
         // we have more than 150 converters out of the box
         TabularData data = (TabularData) mbeanServer.invoke(name, "listTypeConverters", null, null);
         assertTrue("Should be more than 150 converters, was: " + data.size(), data.size() >= 150);
+
+        template.sendBody("direct:start", "5");
+
+        data = (TabularData) mbeanServer.invoke(name, "listTypeConversionStatistics", null, null);
+        CompositeData row = data.get(new Object[]{"java.lang.String", "int"});
+        assertNotNull("Should have statistics for String -> int", row);
+        assertEquals(1L, row.get("attempts"));
+        assertEquals(1L, row.get("hits"));
+        assertEquals(0L, row.get("misses"));
     }
 
     @Override
@@ -0,0 +1,214 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLStreamException;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.model.rest.RestContainer;
+
+/**
+ * Tests that the {@link ModelParser} creates the same model as JAXB.
+ */
+public class ModelParserTest extends XmlTestSupport {
+
+    // uses elements which are not in the model, and which JAXB ignores
+    private static final List<String> UNSUPPORTED = Arrays.asList("routeWithInterceptor.xml");
+
+    public void testParseSameAsJaxb() throws Exception {
+        File dir = new File(getClass().getResource("simpleRoute.xml").toURI()).getParentFile();
+        String[] names = dir.list();
+        Arrays.sort(names);
+
+        int count = 0;
+        for (String name : names) {
+            if (!name.endsWith(".xml")) {
+                continue;
+            }
+            Object expected;
+            try {
+                expected = parseUri(name);
+            } catch (JAXBException e) {
+                // not a Camel model
+                continue;
+            }
+            if (!(expected instanceof RouteContainer) && !(expected instanceof RestContainer)) {
+                continue;
+            }
+            InputStream is = getClass().getResourceAsStream(name);
+            try {
+                Object actual = ModelParser.getInstance().parse(is);
+                assertSameModel(name, expected, actual);
+                assertFalse(name + " should not be supported", UNSUPPORTED.contains(name));
+            } catch (XMLStreamException e) {
+                assertTrue(name + " should be supported but failed: " + e.getMessage(), UNSUPPORTED.contains(name));
+            } finally {
+                is.close();
+            }
+            count++;
+        }
+        log.info("Parsed {} XML files", count);
+        assertTrue("Should parse the XML files", count > 50);
+    }
+
+    public void testDumpedRoutesSameAsJaxb() throws Exception {
+        CamelContext context = new DefaultCamelContext();
+        context.addRoutes(new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                onException(IllegalArgumentException.class).maximumRedeliveries(3).handled(true).to("mock:error");
+
+                from("direct:start").routeId("foo").startupOrder(2).autoStartup(false)
+                    .setHeader("foo", simple("${body}"))
+                    .choice()
+                        .when(header("foo").isEqualTo("bar")).to("mock:bar")
+                        .when(xpath("/foo/bar")).to("mock:xpath")
+                        .otherwise().to("log:other")
+                    .end()
+                    .split(body().tokenize(",")).streaming().parallelProcessing()
+                        .aggregate(header("id"), new org.apache.camel.processor.BodyInAggregatingStrategy())
+                            .completionSize(10).completionTimeout(1000)
+                            .to("mock:aggregated")
+                        .end()
+                    .end()
+                    .throttle(5).timePeriodMillis(2000)
+                    .loadBalance().failover(3, false, true, IllegalStateException.class).to("mock:a", "mock:b")
+                    .end()
+                    .wireTap("seda:tap")
+                    .marshal().json()
+                    .to("mock:result");
+
+                from("seda:tap").routeId("bar").delay(constant(100)).resequence(body()).batch().to("mock:tap");
+            }
+        });
+
+        for (RouteDefinition route : context.getRouteDefinitions()) {
+            String xml = ModelHelper.dumpModelAsXml(context, route);
+            Object expected = jaxbContext.createUnmarshaller().unmarshal(new ByteArrayInputStream(xml.getBytes("UTF-8")));
+            Object actual = ModelParser.getInstance().parse(new ByteArrayInputStream(xml.getBytes("UTF-8")));
+            assertSameModel(route.getId(), expected, actual);
+        }
+    }
+
+    public void testUnknownElementNotSupported() throws Exception {
+        String xml = "<routes xmlns=\"http://camel.apache.org/schema/spring\">"
+            + "<route><from uri=\"direct:start\"/><unknown/><to uri=\"mock:result\"/></route></routes>";
+        try {
+            ModelParser.getInstance().parse(new ByteArrayInputStream(xml.getBytes("UTF-8")));
+            fail("Should have thrown exception");
+        } catch (XMLStreamException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Unknown element"));
+        }
+
+        // but the routes can still be loaded as JAXB ignores the unknown element
+        CamelContext context = new DefaultCamelContext();
+        RoutesDefinition routes = context.loadRoutesDefinition(new ByteArrayInputStream(xml.getBytes("UTF-8")));
+        assertEquals(1, routes.getRoutes().size());
+        assertEquals(1, routes.getRoutes().get(0).getOutputs().size());
+    }
+
+    public void testInvalidValueNotSupported() throws Exception {
+        String xml = "<route xmlns=\"http://camel.apache.org/schema/spring\" startupOrder=\"abc\">"
+            + "<from uri=\"direct:start\"/><to uri=\"mock:result\"/></route>";
+        try {
+            ModelParser.getInstance().parse(new ByteArrayInputStream(xml.getBytes("UTF-8")));
+            fail("Should have thrown exception");
+        } catch (XMLStreamException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Invalid value abc"));
+        }
+    }
+
+    public void testLoadRoutesDefinition() throws Exception {
+        CamelContext context = new DefaultCamelContext();
+        InputStream is = getClass().getResourceAsStream("barRoute.xml");
+        RoutesDefinition routes = context.loadRoutesDefinition(is);
+        assertSameModel("barRoute.xml", parseUri("barRoute.xml"), routes);
+    }
+
+    private void assertSameModel(String name, Object expected, Object actual) throws Exception {
+        assertSame(name, "", expected, actual, new IdentityHashMap<Object, Object>());
+    }
+
+    private void assertSame(String name, String path, Object expected, Object actual, Map<Object, Object> visited) throws Exception {
+        if (expected == null || actual == null) {
+            assertEquals(name + ": " + path, expected, actual);
+            return;
+        }
+        assertEquals(name + ": " + path, expected.getClass(), actual.getClass());
+        if (visited.put(expected, actual) != null) {
+            return;
+        }
+
+        Class<?> type = expected.getClass();
+        if (expected instanceof Collection) {
+            List<Object> expectedItems = new ArrayList<Object>((Collection<?>) expected);
+            List<Object> actualItems = new ArrayList<Object>((Collection<?>) actual);
+            assertEquals(name + ": " + path + ".size", expectedItems.size(), actualItems.size());
+            for (int i = 0; i < expectedItems.size(); i++) {
+                assertSame(name, path + "[" + i + "]", expectedItems.get(i), actualItems.get(i), visited);
+            }
+        } else if (expected instanceof Map) {
+            Map<?, ?> expectedMap = (Map<?, ?>) expected;
+            Map<?, ?> actualMap = (Map<?, ?>) actual;
+            assertEquals(name + ": " + path + ".keys", expectedMap.keySet(), actualMap.keySet());
+            for (Iterator<?> it = expectedMap.keySet().iterator(); it.hasNext();) {
+                Object key = it.next();
+                assertSame(name, path + "[" + key + "]", expectedMap.get(key), actualMap.get(key), visited);
+            }
+        } else if (type.isArray()) {
+            assertEquals(name + ": " + path + ".length", Array.getLength(expected), Array.getLength(actual));
+            for (int i = 0; i < Array.getLength(expected); i++) {
+                assertSame(name, path + "[" + i + "]", Array.get(expected, i), Array.get(actual, i), visited);
+            }
+        } else if (type.getName().startsWith("java") || type.isEnum()) {
+            if (type.getMethod("equals", Object.class).getDeclaringClass() == Object.class) {
+                // such as AtomicBoolean
+                assertEquals(name + ": " + path, expected.toString(), actual.toString());
+            } else {
+                assertEquals(name + ": " + path, expected, actual);
+            }
+        } else {
+            for (Class<?> clazz = type; clazz != Object.class; clazz = clazz.getSuperclass()) {
+                for (Field field : clazz.getDeclaredFields()) {
+                    // the index is a counter of the created processors, and the log is created per instance
+                    if (Modifier.isStatic(field.getModifiers()) || field.getName().equals("index") || field.getName().equals("log")) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    assertSame(name, path + "." + field.getName(), field.get(expected), field.get(actual), visited);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,65 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.processor;
+
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.util.concurrent.HashedWheelScheduledExecutorService;
+
+/**
+ * Unit test to verify that asynchronous delayed redeliveries are scheduled using the timer.
+ */
+public class DeadLetterChannelAsyncDelayedRedeliveryTimerTest extends ContextTestSupport {
+
+    public void testPendingRedeliveries() throws Exception {
+        getMockEndpoint("mock:dead").expectedMessageCount(20);
+
+        for (int i = 0; i < 20; i++) {
+            template.sendBody("seda:start", "Hello " + i);
+        }
+
+        HashedWheelScheduledExecutorService executor = assertIsInstanceOf(HashedWheelScheduledExecutorService.class,
+                context.getErrorHandlerExecutorService());
+
+        // wait for all the exchanges to be pending for redelivery
+        long pending = 0;
+        for (int i = 0; i < 50 && pending < 20; i++) {
+            Thread.sleep(20);
+            pending = executor.getPendingTasks();
+        }
+        assertEquals(20, pending);
+
+        assertMockEndpointsSatisfied();
+
+        assertEquals(0, executor.getPendingTasks());
+        // 20 exchanges with 2 redeliveries each
+        assertEquals(40, executor.getTimer().getExpiredTimeouts());
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                errorHandler(deadLetterChannel("mock:dead").maximumRedeliveries(2).redeliveryDelay(500).asyncDelayedRedelivery());
+
+                from("seda:start")
+                    .throwException(new IllegalArgumentException("Damn"));
+            }
+        };
+    }
+}
@@ -0,0 +1,293 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.processor;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+import org.apache.camel.processor.idempotent.MemoryMappedIdempotentRepository;
+import org.apache.camel.util.FileUtil;
+
+/**
+ * @version 
+ */
+public class MemoryMappedIdempotentRepositoryTest extends TestCase {
+
+    private File store = new File("target/idempotent/mmap/store.dat");
+    private MemoryMappedIdempotentRepository repo;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        FileUtil.removeDir(new File("target/idempotent/mmap"));
+        repo = newRepository();
+        repo.start();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        repo.stop();
+        super.tearDown();
+    }
+
+    private MemoryMappedIdempotentRepository newRepository() {
+        MemoryMappedIdempotentRepository answer = new MemoryMappedIdempotentRepository(store);
+        answer.setSegmentSize(4096);
+        answer.setIndexCapacity(100);
+        return answer;
+    }
+
+    public void testAddContainsRemove() throws Exception {
+        assertFalse(repo.contains("1"));
+        assertTrue(repo.add("1"));
+        assertFalse(repo.add("1"));
+        assertTrue(repo.contains("1"));
+        assertTrue(repo.add("æøå"));
+        assertTrue(repo.contains("æøå"));
+        assertEquals(2, repo.getSize());
+
+        assertTrue(repo.remove("1"));
+        assertFalse(repo.remove("1"));
+        assertFalse(repo.contains("1"));
+        assertEquals(1, repo.getSize());
+
+        // can be added again after removed
+        assertTrue(repo.add("1"));
+        assertTrue(repo.contains("1"));
+        assertTrue(repo.confirm("1"));
+    }
+
+    public void testReopen() throws Exception {
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(repo.add("key-" + i));
+        }
+        for (int i = 0; i < 5000; i += 2) {
+            assertTrue(repo.remove("key-" + i));
+        }
+        repo.stop();
+
+        repo = newRepository();
+        repo.start();
+        assertEquals(2500, repo.getSize());
+        for (int i = 0; i < 5000; i++) {
+            assertEquals("key-" + i, i % 2 == 1, repo.contains("key-" + i));
+        }
+    }
+
+    public void testRebuildIndex() throws Exception {
+        for (int i = 0; i < 2000; i++) {
+            repo.add("key-" + i);
+        }
+        repo.remove("key-7");
+        repo.stop();
+
+        // corrupt the index which forces it to be rebuilt from the log
+        RandomAccessFile raf = new RandomAccessFile(repo.getIndexFile(), "rw");
+        try {
+            raf.writeInt(0);
+        } finally {
+            raf.close();
+        }
+
+        repo = newRepository();
+        repo.start();
+        assertEquals(1999, repo.getSize());
+        assertTrue(repo.contains("key-0"));
+        assertTrue(repo.contains("key-1999"));
+        assertFalse(repo.contains("key-7"));
+        assertFalse(repo.contains("key-2000"));
+    }
+
+    public void testGrowIndex() throws Exception {
+        long capacity = repo.getIndexCapacity();
+        for (int i = 0; i < capacity * 4; i++) {
+            assertTrue(repo.add("key-" + i));
+        }
+        assertTrue(repo.getIndexCapacity() >= capacity * 4);
+        for (int i = 0; i < capacity * 4; i++) {
+            assertTrue(repo.contains("key-" + i));
+        }
+        assertFalse(repo.contains("key-" + capacity * 4));
+    }
+
+    public void testCompact() throws Exception {
+        repo.setCompactionThreshold(0);
+        for (int i = 0; i < 1000; i++) {
+            repo.add("key-" + i);
+        }
+        for (int i = 0; i < 900; i++) {
+            repo.remove("key-" + i);
+        }
+        long size = repo.getLogSize();
+        assertTrue(repo.getDeadBytes() > 0);
+
+        repo.compact();
+
+        assertEquals(1, repo.getCompactionCount());
+        assertEquals(0, repo.getDeadBytes());
+        assertTrue(repo.getLogSize() < size / 5);
+        assertEquals(100, repo.getSize());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("key-" + i, i >= 900, repo.contains("key-" + i));
+        }
+
+        // and the compacted store can be reopened
+        repo.stop();
+        repo = newRepository();
+        repo.start();
+        assertEquals(100, repo.getSize());
+        assertTrue(repo.contains("key-999"));
+        assertFalse(repo.contains("key-0"));
+    }
+
+    public void testCompactWhileAddingAndRemoving() throws Exception {
+        repo.setCompactionThreshold(0);
+        for (int i = 0; i < 2000; i++) {
+            repo.add("key-" + i);
+        }
+        for (int i = 0; i < 2000; i += 2) {
+            repo.remove("key-" + i);
+        }
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        Thread writer = new Thread(new Runnable() {
+            public void run() {
+                latch.countDown();
+                for (int i = 2000; i < 4000; i++) {
+                    repo.add("key-" + i);
+                    // and remove some of the keys which were copied by the compaction
+                    repo.remove("key-" + (i - 1999));
+                }
+            }
+        });
+        writer.start();
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        while (writer.isAlive()) {
+            repo.compact();
+        }
+        writer.join();
+        repo.compact();
+
+        assertEquals(1999, repo.getSize());
+        for (int i = 0; i < 4000; i++) {
+            assertEquals("key-" + i, i > 2000, repo.contains("key-" + i));
+        }
+
+        repo.stop();
+        repo = newRepository();
+        repo.start();
+        assertEquals(1999, repo.getSize());
+        assertTrue(repo.contains("key-3999"));
+        assertFalse(repo.contains("key-2000"));
+    }
+
+    public void testCompactInBackground() throws Exception {
+        for (int i = 0; i < 5000; i++) {
+            repo.add("key-" + i);
+        }
+        for (int i = 0; i < 5000; i++) {
+            repo.remove("key-" + i);
+        }
+        for (int i = 0; i < 50 && repo.getCompactionCount() == 0; i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(repo.getCompactionCount() > 0);
+        assertFalse(repo.contains("key-1"));
+        assertTrue(repo.add("key-1"));
+        assertTrue(repo.contains("key-1"));
+    }
+
+    public void testEmptyKey() throws Exception {
+        assertTrue(repo.add(""));
+        assertTrue(repo.add("x"));
+        assertFalse(repo.add(""));
+        assertTrue(repo.contains(""));
+
+        // the keys after the empty key must not be lost when the log is replayed
+        repo.stop();
+        repo = newRepository();
+        repo.start();
+        assertEquals(2, repo.getSize());
+        assertTrue(repo.contains(""));
+        assertTrue(repo.contains("x"));
+
+        repo.setCompactionThreshold(0);
+        assertTrue(repo.remove(""));
+        repo.compact();
+        assertEquals(1, repo.getSize());
+        assertFalse(repo.contains(""));
+        assertTrue(repo.contains("x"));
+
+        assertTrue(repo.add(""));
+        repo.compact();
+        repo.stop();
+        repo = newRepository();
+        repo.start();
+        assertEquals(2, repo.getSize());
+        assertTrue(repo.contains(""));
+        assertTrue(repo.contains("x"));
+    }
+
+    public void testClear() throws Exception {
+        repo.add("1");
+        repo.add("2");
+        repo.clear();
+        assertEquals(0, repo.getSize());
+        assertFalse(repo.contains("1"));
+        assertTrue(repo.add("1"));
+    }
+
+    public void testStopped() throws Exception {
+        repo.add("1");
+        repo.stop();
+
+        // the files must not be reopened once stopped
+        try {
+            repo.contains("1");
+            fail("Should have thrown exception");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        try {
+            repo.add("2");
+            fail("Should have thrown exception");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        repo.start();
+        assertTrue(repo.contains("1"));
+        assertFalse(repo.contains("2"));
+    }
+
+    public void testKeyTooLong() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 4096; i++) {
+            sb.append('x');
+        }
+        try {
+            repo.add(sb.toString());
+            fail("Should have thrown exception");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+}
@@ -0,0 +1,179 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.processor;
+
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.Exchange;
+import org.apache.camel.FailedToCreateRouteException;
+import org.apache.camel.Processor;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.processor.aggregate.AggregationStrategy;
+
+/**
+ * Tests that splitting a big stream in parallel with a max in-flight window only keeps
+ * the window of splitted messages in memory.
+ *
+ * @version 
+ */
+public class SplitterParallelMaxInflightTest extends ContextTestSupport {
+
+    private static final int LINES = 100000;
+    private static final int GROUP = 100;
+    private static final int WINDOW = 5;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final AtomicInteger maxInflight = new AtomicInteger();
+    private final AtomicInteger lines = new AtomicInteger();
+    private final AtomicInteger lastIndex = new AtomicInteger(-1);
+    private final AtomicInteger outOfOrder = new AtomicInteger();
+
+    public void testMaxInflightUnordered() throws Exception {
+        getMockEndpoint("mock:result").expectedMessageCount(1);
+
+        template.sendBody("direct:unordered", new LinesInputStream(LINES));
+
+        assertMockEndpointsSatisfied();
+
+        assertEquals(LINES, lines.get());
+        assertEquals(0, inflight.get());
+        assertTrue("Should be at most " + WINDOW + " in-flight, was: " + maxInflight.get(), maxInflight.get() <= WINDOW);
+    }
+
+    public void testMaxInflightOrdered() throws Exception {
+        getMockEndpoint("mock:result").expectedMessageCount(1);
+
+        template.sendBody("direct:ordered", new LinesInputStream(LINES));
+
+        assertMockEndpointsSatisfied();
+
+        assertEquals(LINES, lines.get());
+        assertEquals(0, inflight.get());
+        assertTrue("Should be at most " + WINDOW + " in-flight, was: " + maxInflight.get(), maxInflight.get() <= WINDOW);
+        assertEquals("Should aggregate in the split order", 0, outOfOrder.get());
+        assertEquals(LINES / GROUP - 1, lastIndex.get());
+    }
+
+    public void testMaxInflightRequiresParallelProcessing() throws Exception {
+        try {
+            context.addRoutes(new RouteBuilder() {
+                @Override
+                public void configure() throws Exception {
+                    from("direct:invalid")
+                        .split().tokenize("\n", GROUP).streaming().maxInflightExchanges(WINDOW)
+                            .to("mock:invalid");
+                }
+            });
+            fail("Should have thrown exception");
+        } catch (FailedToCreateRouteException e) {
+            IllegalArgumentException cause = assertIsInstanceOf(IllegalArgumentException.class, e.getCause());
+            assertTrue(cause.getMessage().startsWith("MaxInflightExchanges is used but ParallelProcessing has not been enabled"));
+        }
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        final Processor onPrepare = new Processor() {
+            public void process(Exchange exchange) throws Exception {
+                int current = inflight.incrementAndGet();
+                while (true) {
+                    int max = maxInflight.get();
+                    if (current <= max || maxInflight.compareAndSet(max, current)) {
+                        break;
+                    }
+                }
+            }
+        };
+
+        final Processor slow = new Processor() {
+            public void process(Exchange exchange) throws Exception {
+                // let the later groups complete first now and then
+                int index = exchange.getProperty(Exchange.SPLIT_INDEX, Integer.class);
+                if (index % 3 == 0) {
+                    Thread.sleep(1);
+                }
+            }
+        };
+
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("direct:unordered")
+                    .split().tokenize("\n", GROUP).aggregationStrategy(new CountLinesAggregationStrategy())
+                        .streaming().parallelProcessing().maxInflightExchanges(WINDOW).onPrepare(onPrepare)
+                        .process(slow)
+                    .end()
+                    .to("mock:result");
+
+                from("direct:ordered")
+                    .split().tokenize("\n", GROUP).aggregationStrategy(new CountLinesAggregationStrategy())
+                        .streaming().streamingOrdered().parallelProcessing().maxInflightExchanges(WINDOW).onPrepare(onPrepare)
+                        .process(slow)
+                    .end()
+                    .to("mock:result");
+            }
+        };
+    }
+
+    private final class CountLinesAggregationStrategy implements AggregationStrategy {
+
+        public Exchange aggregate(Exchange oldExchange, Exchange newExchange) {
+            inflight.decrementAndGet();
+
+            String body = newExchange.getIn().getBody(String.class);
+            lines.addAndGet(body.split("\n").length);
+
+            int index = newExchange.getProperty(Exchange.SPLIT_INDEX, Integer.class);
+            if (index != lastIndex.get() + 1) {
+                outOfOrder.incrementAndGet();
+            }
+            lastIndex.set(index);
+
+            // only keep the last exchange so we do not hold on to the splitted messages
+            return newExchange;
+        }
+    }
+
+    /**
+     * An input stream which generates the lines on demand, so the test itself does not keep the data in memory.
+     */
+    private static final class LinesInputStream extends InputStream {
+
+        private final int count;
+        private int line;
+        private byte[] current = new byte[0];
+        private int pos;
+
+        LinesInputStream(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public int read() {
+            if (pos == current.length) {
+                if (line == count) {
+                    return -1;
+                }
+                current = ("Line " + line++ + "\n").getBytes();
+                pos = 0;
+            }
+            return current[pos++];
+        }
+    }
+}
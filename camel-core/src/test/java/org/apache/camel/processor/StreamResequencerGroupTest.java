@@ -0,0 +1,116 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.processor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.Exchange;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+
+/**
+ * @version 
+ */
+public class StreamResequencerGroupTest extends ContextTestSupport {
+
+    public void testResequencePerGroup() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:result");
+        mock.expectedMessageCount(8);
+
+        sendBody("A", 2);
+        sendBody("B", 3);
+        sendBody("A", 1);
+        sendBody("B", 1);
+        sendBody("A", 4);
+        sendBody("B", 2);
+        sendBody("A", 3);
+        sendBody("B", 4);
+
+        assertMockEndpointsSatisfied();
+
+        assertEquals("[A1, A2, A3, A4]", bodiesOfGroup(mock, "A").toString());
+        assertEquals("[B1, B2, B3, B4]", bodiesOfGroup(mock, "B").toString());
+
+        StreamResequencer resequencer = context.getProcessor("myreseq", StreamResequencer.class);
+        assertEquals(2, resequencer.getGroupCount());
+        assertEquals(2, resequencer.getDeliveryThreads());
+        assertEquals(0, resequencer.getPendingExchanges());
+    }
+
+    public void testGapAndTimeoutStatistics() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:result");
+        mock.expectedMessageCount(3);
+
+        sendBody("A", 1);
+        sendBody("A", 2);
+        sendBody("B", 1);
+
+        assertMockEndpointsSatisfied();
+        assertEquals("[A1, A2]", bodiesOfGroup(mock, "A").toString());
+
+        mock.reset();
+        mock.expectedBodiesReceived("A4");
+
+        // A3 is missing so A4 is delivered after the timeout
+        sendBody("A", 4);
+
+        assertMockEndpointsSatisfied();
+
+        StreamResequencer resequencer = context.getProcessor("myreseq", StreamResequencer.class);
+        assertEquals(1, resequencer.getGapCount());
+        // the first message of each group and A4 times out
+        assertEquals(3, resequencer.getTimeoutCount());
+
+        resequencer.resetStatistics();
+        assertEquals(0, resequencer.getGapCount());
+        assertEquals(0, resequencer.getTimeoutCount());
+    }
+
+    private void sendBody(String group, int seqnum) {
+        Map<String, Object> headers = new HashMap<String, Object>();
+        headers.put("seqnum", seqnum);
+        headers.put("group", group);
+        template.sendBodyAndHeaders("direct:start", group + seqnum, headers);
+    }
+
+    private static List<String> bodiesOfGroup(MockEndpoint mock, String group) {
+        List<String> answer = new ArrayList<String>();
+        for (Exchange exchange : mock.getReceivedExchanges()) {
+            if (group.equals(exchange.getIn().getHeader("group"))) {
+                answer.add(exchange.getIn().getBody(String.class));
+            }
+        }
+        return answer;
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("direct:start")
+                    .resequence(header("seqnum")).stream().timeout(500).groupExpression(header("group")).deliveryThreads(2).id("myreseq")
+                        .to("mock:result");
+            }
+        };
+    }
+
+}
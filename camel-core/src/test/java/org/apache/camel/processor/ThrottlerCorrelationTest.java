@@ -0,0 +1,180 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.processor;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.AsyncProcessor;
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.Exchange;
+import org.apache.camel.Producer;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.util.AsyncProcessorConverterHelper;
+import org.apache.camel.util.ServiceHelper;
+
+/**
+ * @version 
+ */
+public class ThrottlerCorrelationTest extends ContextTestSupport {
+
+    public void testThrottlePerCorrelationKey() throws Exception {
+        getMockEndpoint("mock:result").expectedMessageCount(4);
+        getMockEndpoint("mock:error").expectedBodiesReceived("A3", "B3");
+
+        for (int i = 1; i <= 3; i++) {
+            template.sendBodyAndHeader("direct:start", "A" + i, "tenant", "A");
+            template.sendBodyAndHeader("direct:start", "B" + i, "tenant", "B");
+        }
+
+        assertMockEndpointsSatisfied();
+
+        Throttler throttler = context.getProcessor("throttle", Throttler.class);
+        assertEquals(2, throttler.getCorrelationKeys().size());
+        assertEquals(2, throttler.getCurrentMaximumRequestsPerPeriod("A"));
+        assertEquals(0, throttler.getAvailablePermits("A"));
+        assertEquals(0, throttler.getAvailablePermits("B"));
+        assertEquals(0, throttler.getQueuedExchanges());
+    }
+
+    public void testNoCorrelationKeyUsesDefault() throws Exception {
+        getMockEndpoint("mock:result").expectedMessageCount(3);
+        getMockEndpoint("mock:error").expectedBodiesReceived("Bye World");
+
+        template.sendBodyAndHeader("direct:start", "A1", "tenant", "A");
+        template.sendBody("direct:start", "Hello World");
+        template.sendBody("direct:start", "Hi World");
+        template.sendBody("direct:start", "Bye World");
+
+        assertMockEndpointsSatisfied();
+
+        Throttler throttler = context.getProcessor("throttle", Throttler.class);
+        assertEquals(1, throttler.getCorrelationKeys().size());
+        assertEquals(1, throttler.getAvailablePermits("A"));
+    }
+
+    public void testMaximumCorrelationKeys() throws Exception {
+        getMockEndpoint("mock:result").expectedMessageCount(10);
+
+        for (int i = 0; i < 10; i++) {
+            template.sendBodyAndHeader("direct:start", "Hello " + i, "tenant", "T" + i);
+        }
+
+        assertMockEndpointsSatisfied();
+
+        Throttler throttler = context.getProcessor("throttle", Throttler.class);
+        assertEquals(5, throttler.getMaximumCorrelationKeys());
+        assertTrue("Should keep at most 5 keys, was: " + throttler.getCorrelationKeys().size(), throttler.getCorrelationKeys().size() <= 5);
+        // the newest key must be kept
+        assertTrue(throttler.getCorrelationKeys().contains("T9"));
+    }
+
+    public void testIdleCorrelationKeyEvictedFirst() throws Exception {
+        getMockEndpoint("mock:idle").expectedMessageCount(3);
+
+        // the bucket of A is in use for 10 seconds, but the bucket of B is idle after a milli second
+        sendWithRate("Hello A", "A", 1);
+        sendWithRate("Hello B", "B", 10000);
+        Thread.sleep(10);
+        sendWithRate("Hello C", "C", 10000);
+
+        assertMockEndpointsSatisfied();
+
+        Throttler throttler = context.getProcessor("idle", Throttler.class);
+        assertEquals(2, throttler.getCorrelationKeys().size());
+        assertTrue(throttler.getCorrelationKeys().contains("A"));
+        assertTrue(throttler.getCorrelationKeys().contains("C"));
+        assertEquals(0, throttler.getAvailablePermits("A"));
+    }
+
+    public void testQueuedCorrelationKeyNotEvicted() throws Exception {
+        getMockEndpoint("mock:queued").expectedBodiesReceived("Hello A", "Hello B", "Bye A");
+
+        Producer producer = context.getEndpoint("direct:queued").createProducer();
+        ServiceHelper.startService(producer);
+        try {
+            AsyncProcessor processor = AsyncProcessorConverterHelper.convert(producer);
+            Exchange first = createExchangeWithBody("Hello A");
+            first.getIn().setHeader("tenant", "A");
+            assertTrue(processor.process(first, new AsyncCallback() {
+                public void done(boolean doneSync) {
+                }
+            }));
+
+            // the exchange must wait for the next permit so its scheduled asynchronously
+            final CountDownLatch latch = new CountDownLatch(1);
+            Exchange second = createExchangeWithBody("Bye A");
+            second.getIn().setHeader("tenant", "A");
+            assertFalse(processor.process(second, new AsyncCallback() {
+                public void done(boolean doneSync) {
+                    latch.countDown();
+                }
+            }));
+
+            Throttler throttler = context.getProcessor("queued", Throttler.class);
+            assertEquals(1, throttler.getQueuedExchanges("A"));
+
+            // adding a key must not evict the key with the waiting exchange
+            template.sendBodyAndHeader("direct:queued", "Hello B", "tenant", "B");
+            assertTrue(throttler.getCorrelationKeys().contains("A"));
+            assertEquals(1, throttler.getQueuedExchanges("A"));
+
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } finally {
+            ServiceHelper.stopService(producer);
+        }
+
+        assertMockEndpointsSatisfied();
+    }
+
+    private void sendWithRate(String body, String tenant, int rate) {
+        Map<String, Object> headers = new HashMap<String, Object>();
+        headers.put("tenant", tenant);
+        headers.put("rate", rate);
+        template.sendBodyAndHeaders("direct:idle", body, headers);
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                onException(ThrottlerRejectedExecutionException.class)
+                    .handled(true)
+                    .to("mock:error");
+
+                from("direct:start")
+                    .throttle(2).timePeriodMillis(10000).correlationExpression(header("tenant")).maximumCorrelationKeys(5)
+                        .rejectExecution(true).id("throttle")
+                    .to("mock:result");
+
+                from("direct:idle")
+                    .throttle(header("rate")).timePeriodMillis(10000).correlationExpression(header("tenant")).maximumCorrelationKeys(2)
+                        .id("idle")
+                    .to("mock:idle");
+
+                from("direct:queued")
+                    .throttle(1).timePeriodMillis(1000).correlationExpression(header("tenant")).maximumCorrelationKeys(1)
+                        .asyncDelayed().id("queued")
+                    .to("mock:queued");
+            }
+        };
+    }
+}
@@ -148,6 +148,20 @@ public class ThrottlerTest extends ContextTestSupport {
         assertThrottlerTiming(elapsed, 1000, INTERVAL, messageCount);
     }
 
+    public void testReleaseReservedPermit() throws Exception {
+        long period = TimeUnit.SECONDS.toNanos(10);
+        Throttler.ThrottleBucket bucket = new Throttler.ThrottleBucket();
+        assertEquals(0, bucket.reserve(1, period, false));
+        assertEquals(-1, bucket.reserve(1, period, false));
+        assertTrue(bucket.reserve(1, period, true) > 0);
+
+        // the permit reserved for an exchange which is rejected is given back
+        bucket.release(1, period);
+        assertEquals(-1, bucket.reserve(1, period, false));
+        bucket.release(1, period);
+        assertEquals(0, bucket.reserve(1, period, false));
+    }
+
     private void assertThrottlerTiming(final long elapsedTimeMs, final int throttle, final int intervalMs, final int messageCount) {
         // now assert that they have actually been throttled (use +/- 50 as slack)
         long minimum = calculateMinimum(intervalMs, throttle, messageCount) - 50;
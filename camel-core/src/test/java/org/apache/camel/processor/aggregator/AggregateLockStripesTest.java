@@ -0,0 +1,122 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.processor.aggregator;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.Exchange;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.processor.BodyInAggregatingStrategy;
+import org.apache.camel.processor.aggregate.AggregateProcessor;
+
+/**
+ * @version 
+ */
+public class AggregateLockStripesTest extends ContextTestSupport {
+
+    private final int size = 400;
+
+    public void testAggregateLockStripes() throws Exception {
+        ExecutorService service = Executors.newFixedThreadPool(20);
+        List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+        for (int i = 0; i < size; i++) {
+            final int id = i % 10;
+            final int count = i;
+            tasks.add(new Callable<Object>() {
+                public Object call() throws Exception {
+                    template.sendBodyAndHeader("direct:start", "" + count, "id", id);
+                    return null;
+                }
+            });
+        }
+
+        MockEndpoint mock = getMockEndpoint("mock:result");
+        mock.expectedMessageCount(10);
+
+        service.invokeAll(tasks);
+
+        assertMockEndpointsSatisfied();
+        service.shutdownNow();
+
+        // each group must contain exactly its own 40 messages
+        Set<String> bodies = new HashSet<String>();
+        for (Exchange exchange : mock.getReceivedExchanges()) {
+            assertEquals("size", exchange.getProperty(Exchange.AGGREGATED_COMPLETED_BY));
+            assertEquals(40, exchange.getProperty(Exchange.AGGREGATED_SIZE));
+            int id = exchange.getIn().getHeader("id", Integer.class);
+            String[] parts = exchange.getIn().getBody(String.class).split("\\+");
+            assertEquals(40, parts.length);
+            for (String part : parts) {
+                assertEquals(id, Integer.parseInt(part) % 10);
+                assertTrue("Duplicate body " + part, bodies.add(part));
+            }
+        }
+        assertEquals(size, bodies.size());
+    }
+
+    public void testAggregateLockStripesTimeoutAndForceCompletion() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:timeout");
+        mock.expectedBodiesReceivedInAnyOrder("A+B", "C");
+        mock.expectedPropertyReceived(Exchange.AGGREGATED_COMPLETED_BY, "timeout");
+
+        template.sendBodyAndHeader("direct:timeout", "A", "id", 1);
+        template.sendBodyAndHeader("direct:timeout", "B", "id", 1);
+        template.sendBodyAndHeader("direct:timeout", "C", "id", 2);
+
+        assertMockEndpointsSatisfied();
+
+        resetMocks();
+        mock.expectedBodiesReceivedInAnyOrder("D", "E+F");
+        mock.expectedPropertyReceived(Exchange.AGGREGATED_COMPLETED_BY, "force");
+
+        template.sendBodyAndHeader("direct:timeout", "D", "id", 3);
+        template.sendBodyAndHeader("direct:timeout", "E", "id", 4);
+        template.sendBodyAndHeader("direct:timeout", "F", "id", 4);
+
+        AggregateProcessor processor = context.getProcessor("timeoutAggregator", AggregateProcessor.class);
+        assertEquals(4, processor.getLockStripes());
+        assertEquals(1, processor.forceCompletionOfGroup("3"));
+        assertEquals(1, processor.forceCompletionOfAllGroups());
+
+        assertMockEndpointsSatisfied();
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("direct:start")
+                    .aggregate(header("id"), new BodyInAggregatingStrategy()).completionSize(40).lockStripes(8)
+                        .to("mock:result");
+
+                from("direct:timeout")
+                    .aggregate(header("id"), new BodyInAggregatingStrategy()).id("timeoutAggregator")
+                        .completionTimeout(500).lockStripes(4)
+                        .to("mock:timeout");
+            }
+        };
+    }
+}
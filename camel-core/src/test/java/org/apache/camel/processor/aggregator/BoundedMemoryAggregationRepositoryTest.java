@@ -0,0 +1,250 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.processor.aggregator;
+
+import java.util.Set;
+
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.Exchange;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.impl.DefaultExchange;
+import org.apache.camel.processor.BodyInAggregatingStrategy;
+import org.apache.camel.processor.aggregate.BoundedMemoryAggregationRepository;
+import org.apache.camel.spi.OptimisticLockingAggregationRepository.OptimisticLockingException;
+
+/**
+ * @version 
+ */
+public class BoundedMemoryAggregationRepositoryTest extends ContextTestSupport {
+
+    private BoundedMemoryAggregationRepository repo;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        repo = new BoundedMemoryAggregationRepository();
+        repo.setShards(2);
+        repo.setMaxRetainedBytes(8 * 1024);
+        repo.start();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        repo.stop();
+        super.tearDown();
+    }
+
+    public void testAddGetRemoveConfirm() throws Exception {
+        Exchange exchange = createExchange("Hello World");
+        assertNull(repo.add(context, "foo", exchange));
+        assertSame(exchange, repo.get(context, "foo"));
+        assertEquals(1, repo.getSize());
+        assertTrue(repo.getRetainedBytes("foo") > "Hello World".length());
+
+        repo.remove(context, "foo", exchange);
+        assertNull(repo.get(context, "foo"));
+        assertEquals(0, repo.getSize());
+
+        Set<String> ids = repo.scan(context);
+        assertEquals(1, ids.size());
+        assertTrue(ids.contains(exchange.getExchangeId()));
+        assertEquals("Hello World", repo.recover(context, exchange.getExchangeId()).getIn().getBody());
+
+        repo.confirm(context, exchange.getExchangeId());
+        assertEquals(0, repo.scan(context).size());
+        assertEquals(0, repo.getRetainedBytes());
+    }
+
+    public void testCompletedExchangeIsCopied() throws Exception {
+        Exchange exchange = createExchange("Hello World");
+        repo.add(context, "foo", exchange);
+        repo.remove(context, "foo", exchange);
+
+        // the completed exchange is routed further which must not change the exchange kept for recovery
+        exchange.getIn().setBody("Bye World");
+        assertEquals("Hello World", repo.recover(context, exchange.getExchangeId()).getIn().getBody());
+    }
+
+    public void testSpillToDisk() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            Exchange exchange = createExchange(createBody(i));
+            exchange.getIn().setHeader("counter", i);
+            exchange.setProperty(Exchange.AGGREGATED_SIZE, i);
+            repo.add(context, "key" + i, exchange);
+        }
+
+        assertEquals(100, repo.getSize());
+        assertEquals(100, repo.getKeys().size());
+        assertTrue("Should spill", repo.getSpilledSize() > 0);
+        assertTrue(repo.getSpillCount() > 0);
+        assertTrue(repo.getSpillFileSize() > 0);
+        assertTrue("Should be within budget", repo.getRetainedBytes() <= repo.getMaxRetainedBytes());
+
+        for (int i = 0; i < 100; i++) {
+            Exchange exchange = repo.get(context, "key" + i);
+            assertNotNull(exchange);
+            assertEquals(createBody(i), exchange.getIn().getBody(String.class));
+            assertEquals(i, exchange.getIn().getHeader("counter"));
+            assertEquals(i, exchange.getProperty(Exchange.AGGREGATED_SIZE));
+        }
+        assertTrue("Should be within budget", repo.getRetainedBytes() <= repo.getMaxRetainedBytes());
+
+        for (int i = 0; i < 100; i++) {
+            repo.remove(context, "key" + i, repo.get(context, "key" + i));
+        }
+        assertEquals(0, repo.getSize());
+        assertEquals(100, repo.getCompletedSize());
+        for (String id : repo.scan(context)) {
+            assertNotNull(repo.recover(context, id));
+            repo.confirm(context, id);
+        }
+        assertEquals(0, repo.getCompletedSize());
+        assertEquals(0, repo.getSpilledSize());
+    }
+
+    public void testOverwriteSpilledAcrossCompaction() throws Exception {
+        BoundedMemoryAggregationRepository single = new BoundedMemoryAggregationRepository(8 * 1024);
+        single.setShards(1);
+        single.start();
+        try {
+            for (int i = 0; i < 40; i++) {
+                single.add(context, "key" + i, createExchange(createLargeBody("A", i)));
+            }
+            assertTrue("Should spill", single.getSpilledSize() > 0);
+            long fileSize = single.getSpillFileSize();
+
+            // replacing the spilled exchanges frees them, which compacts the spill file while the keys are overwritten
+            for (String prefix : new String[]{"B", "C"}) {
+                String previous = prefix.equals("B") ? "A" : "B";
+                for (int i = 0; i < 40; i++) {
+                    Exchange old = single.add(context, "key" + i, createExchange(createLargeBody(prefix, i)));
+                    assertEquals(createLargeBody(previous, i), old.getIn().getBody(String.class));
+                }
+            }
+            assertTrue("Should compact", single.getSpillFileSize() < fileSize * 3);
+
+            for (int i = 0; i < 40; i++) {
+                assertEquals(createLargeBody("C", i), single.get(context, "key" + i).getIn().getBody(String.class));
+            }
+        } finally {
+            single.stop();
+        }
+    }
+
+    public void testUnserializableStaysInMemory() throws Exception {
+        Exchange exchange = createExchange(new Object());
+        repo.add(context, "foo", exchange);
+        for (int i = 0; i < 50; i++) {
+            repo.add(context, "key" + i, createExchange(createBody(i)));
+        }
+
+        // the unserializable exchange is kept in memory
+        assertSame(exchange, repo.get(context, "foo"));
+    }
+
+    public void testOptimisticLocking() throws Exception {
+        BoundedMemoryAggregationRepository optimistic = new BoundedMemoryAggregationRepository(true);
+        optimistic.start();
+        try {
+            Exchange first = createExchange("A");
+            assertNull(optimistic.add(context, "foo", null, first));
+            try {
+                optimistic.add(context, "foo", null, createExchange("B"));
+                fail("Should have thrown exception");
+            } catch (OptimisticLockingException e) {
+                // expected
+            }
+
+            Exchange second = createExchange("A+B");
+            assertSame(first, optimistic.add(context, "foo", first, second));
+            try {
+                optimistic.remove(context, "foo", first);
+                fail("Should have thrown exception");
+            } catch (OptimisticLockingException e) {
+                // expected
+            }
+            optimistic.remove(context, "foo", second);
+            assertNull(optimistic.get(context, "foo"));
+
+            try {
+                optimistic.add(context, "bar", createExchange("C"));
+                fail("Should have thrown exception");
+            } catch (UnsupportedOperationException e) {
+                // expected
+            }
+        } finally {
+            optimistic.stop();
+        }
+    }
+
+    public void testAggregateRoute() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:result");
+        mock.expectedMessageCount(50);
+
+        for (int i = 0; i < 50; i++) {
+            template.sendBodyAndHeader("direct:start", "A" + i, "id", i);
+        }
+        for (int i = 0; i < 50; i++) {
+            template.sendBodyAndHeader("direct:start", "B" + i, "id", i);
+        }
+        for (int i = 0; i < 50; i++) {
+            template.sendBodyAndHeader("direct:start", "C" + i, "id", i);
+        }
+
+        assertMockEndpointsSatisfied();
+        assertEquals("A0+B0+C0", mock.getReceivedExchanges().get(0).getIn().getBody());
+    }
+
+    private Exchange createExchange(Object body) {
+        Exchange exchange = new DefaultExchange(context);
+        exchange.getIn().setBody(body);
+        return exchange;
+    }
+
+    private static String createBody(int i) {
+        StringBuilder sb = new StringBuilder();
+        for (int j = 0; j < 20; j++) {
+            sb.append("Message ").append(i).append(' ');
+        }
+        return sb.toString();
+    }
+
+    private static String createLargeBody(String prefix, int i) {
+        StringBuilder sb = new StringBuilder();
+        for (int j = 0; j < 8 * 1024; j++) {
+            sb.append(prefix).append(i).append(' ');
+        }
+        return sb.toString();
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                BoundedMemoryAggregationRepository repository = new BoundedMemoryAggregationRepository(1024);
+                repository.setShards(1);
+
+                from("direct:start")
+                    .aggregate(header("id"), new BodyInAggregatingStrategy()).aggregationRepository(repository)
+                        .completionSize(3)
+                        .to("mock:result");
+            }
+        };
+    }
+}
@@ -0,0 +1,203 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.util.concurrent;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+/**
+ * @version 
+ */
+public class HashedWheelScheduledExecutorServiceTest extends TestCase {
+
+    private HashedWheelScheduledExecutorService executor;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        executor = createExecutor(0);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        executor.shutdownNow();
+        super.tearDown();
+    }
+
+    private HashedWheelScheduledExecutorService createExecutor(long maxPendingTasks) {
+        ThreadFactory factory = new CamelThreadFactory("${name}", "HashedWheelScheduledExecutorServiceTest", true);
+        HashedWheelTimer timer = new HashedWheelTimer(factory, 10, TimeUnit.MILLISECONDS, 8);
+        ThreadPoolExecutor worker = new ThreadPoolExecutor(2, 2, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), factory);
+        return new HashedWheelScheduledExecutorService(timer, worker, maxPendingTasks);
+    }
+
+    public void testSchedule() throws Exception {
+        long start = System.nanoTime();
+        ScheduledFuture<String> future = executor.schedule(new Callable<String>() {
+            public String call() throws Exception {
+                return "Bye World";
+            }
+        }, 100, TimeUnit.MILLISECONDS);
+        assertEquals(1, executor.getPendingTasks());
+
+        assertEquals("Bye World", future.get(5, TimeUnit.SECONDS));
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue("Should not execute too early: " + elapsed, elapsed >= 100);
+        assertTrue(future.isDone());
+        assertEquals(0, executor.getPendingTasks());
+    }
+
+    public void testScheduleNoDelay() throws Exception {
+        ScheduledFuture<String> future = executor.schedule(new Callable<String>() {
+            public String call() throws Exception {
+                return "Hello World";
+            }
+        }, 0, TimeUnit.MILLISECONDS);
+
+        // is not using the timer
+        assertEquals(0, executor.getPendingTasks());
+        assertEquals("Hello World", future.get(5, TimeUnit.SECONDS));
+        assertEquals(0, executor.getTimer().getExpiredTimeouts());
+    }
+
+    public void testCancel() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        ScheduledFuture<?> future = executor.schedule(new Runnable() {
+            public void run() {
+                latch.countDown();
+            }
+        }, 50, TimeUnit.MILLISECONDS);
+
+        assertTrue(future.cancel(false));
+        assertTrue(future.isCancelled());
+        assertEquals(0, executor.getPendingTasks());
+
+        assertFalse(latch.await(200, TimeUnit.MILLISECONDS));
+    }
+
+    public void testScheduleAtFixedRate() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(5);
+        ScheduledFuture<?> future = executor.scheduleAtFixedRate(new Runnable() {
+            public void run() {
+                latch.countDown();
+            }
+        }, 10, 20, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(future.cancel(false));
+        assertTrue(future.isCancelled());
+    }
+
+    public void testScheduleWithFixedDelayShutdown() throws Exception {
+        final AtomicInteger counter = new AtomicInteger();
+        executor.scheduleWithFixedDelay(new Runnable() {
+            public void run() {
+                counter.incrementAndGet();
+            }
+        }, 10, 20, TimeUnit.MILLISECONDS);
+
+        Thread.sleep(200);
+        assertTrue(counter.get() > 0);
+
+        // periodic tasks are cancelled on shutdown
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        int count = counter.get();
+        Thread.sleep(100);
+        assertEquals(count, counter.get());
+    }
+
+    public void testShutdownExecutesDelayedTasks() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(10);
+        for (int i = 0; i < 10; i++) {
+            executor.schedule(new Runnable() {
+                public void run() {
+                    latch.countDown();
+                }
+            }, 50 + i * 10, TimeUnit.MILLISECONDS);
+        }
+
+        executor.shutdown();
+        assertTrue(executor.isShutdown());
+        assertFalse(executor.isTerminated());
+
+        try {
+            executor.schedule(new Runnable() {
+                public void run() {
+                }
+            }, 10, TimeUnit.MILLISECONDS);
+            fail("Should have thrown exception");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(0, latch.getCount());
+        assertTrue(executor.isTerminated());
+    }
+
+    public void testMaxPendingTasks() throws Exception {
+        executor.shutdownNow();
+        executor = createExecutor(2);
+
+        Runnable task = new Runnable() {
+            public void run() {
+            }
+        };
+        executor.schedule(task, 1, TimeUnit.SECONDS);
+        ScheduledFuture<?> future = executor.schedule(task, 1, TimeUnit.SECONDS);
+        try {
+            executor.schedule(task, 1, TimeUnit.SECONDS);
+            fail("Should have thrown exception");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+
+        // tasks without delay are not pending
+        executor.execute(task);
+
+        // cancel frees up room
+        future.cancel(false);
+        executor.schedule(task, 1, TimeUnit.SECONDS);
+        assertEquals(2, executor.getPendingTasks());
+    }
+
+    public void testManyTasks() throws Exception {
+        final int size = 10000;
+        final CountDownLatch latch = new CountDownLatch(size);
+        for (int i = 0; i < size; i++) {
+            executor.schedule(new Runnable() {
+                public void run() {
+                    latch.countDown();
+                }
+            }, i % 200, TimeUnit.MILLISECONDS);
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(0, executor.getPendingTasks());
+    }
+
+}
@@ -0,0 +1,166 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.util.concurrent;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+/**
+ * @version 
+ */
+public class HashedWheelTimerTest extends TestCase {
+
+    private HashedWheelTimer timer;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        timer = new HashedWheelTimer(new CamelThreadFactory("${name}", "HashedWheelTimerTest", true), 10, TimeUnit.MILLISECONDS, 8);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        timer.stop();
+        super.tearDown();
+    }
+
+    public void testExpire() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+        HashedWheelTimer.Timeout timeout = timer.newTimeout(new Runnable() {
+            public void run() {
+                latch.countDown();
+            }
+        }, 100, TimeUnit.MILLISECONDS);
+        assertEquals(1, timer.getPendingTimeouts());
+        assertTrue(timeout.isPending());
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue("Should not expire too early: " + elapsed, elapsed >= 100);
+
+        assertTrue(timeout.isExpired());
+        assertFalse(timeout.cancel());
+        assertEquals(0, timer.getPendingTimeouts());
+        assertEquals(1, timer.getExpiredTimeouts());
+    }
+
+    public void testCancel() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        HashedWheelTimer.Timeout timeout = timer.newTimeout(new Runnable() {
+            public void run() {
+                latch.countDown();
+            }
+        }, 50, TimeUnit.MILLISECONDS);
+
+        assertTrue(timeout.cancel());
+        assertTrue(timeout.isCancelled());
+        assertEquals(0, timer.getPendingTimeouts());
+
+        assertFalse(latch.await(200, TimeUnit.MILLISECONDS));
+        assertEquals(0, timer.getExpiredTimeouts());
+    }
+
+    public void testExpireInOrderAcrossRounds() throws Exception {
+        final List<Integer> expired = new CopyOnWriteArrayList<Integer>();
+        final CountDownLatch latch = new CountDownLatch(3);
+        // the wheel has 8 ticks of 10 millis, so these timeouts are in the same bucket but different rounds
+        for (final int delay : new int[]{250, 10, 170}) {
+            timer.newTimeout(new Runnable() {
+                public void run() {
+                    expired.add(delay);
+                    latch.countDown();
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(3, expired.size());
+        assertEquals(10, expired.get(0).intValue());
+        assertEquals(170, expired.get(1).intValue());
+        assertEquals(250, expired.get(2).intValue());
+    }
+
+    public void testExceptionInTaskDoesNotStopTimer() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        timer.newTimeout(new Runnable() {
+            public void run() {
+                throw new IllegalArgumentException("Forced");
+            }
+        }, 10, TimeUnit.MILLISECONDS);
+        timer.newTimeout(new Runnable() {
+            public void run() {
+                latch.countDown();
+            }
+        }, 30, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    public void testConcurrentFirstTimeouts() throws Exception {
+        final int size = 10;
+        final CountDownLatch ready = new CountDownLatch(1);
+        final CountDownLatch latch = new CountDownLatch(size);
+        for (int i = 0; i < size; i++) {
+            new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        ready.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    // the timer is started by the first thread
+                    timer.newTimeout(new Runnable() {
+                        public void run() {
+                            latch.countDown();
+                        }
+                    }, 50, TimeUnit.MILLISECONDS);
+                }
+            }).start();
+        }
+
+        ready.countDown();
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    public void testStop() throws Exception {
+        timer.newTimeout(new Runnable() {
+            public void run() {
+            }
+        }, 10, TimeUnit.SECONDS);
+        assertEquals(1, timer.getPendingTimeouts());
+
+        timer.stop();
+        assertEquals(0, timer.getPendingTimeouts());
+
+        try {
+            timer.newTimeout(new Runnable() {
+                public void run() {
+                }
+            }, 10, TimeUnit.MILLISECONDS);
+            fail("Should have thrown exception");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+    }
+
+}
@@ -0,0 +1,220 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.util.concurrent;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+/**
+ * @version 
+ */
+public class RingBufferBlockingQueueTest extends TestCase {
+
+    public void testOfferPoll() throws Exception {
+        RingBufferBlockingQueue<String> queue = new RingBufferBlockingQueue<String>(3);
+        assertTrue(queue.isEmpty());
+        assertEquals(3, queue.remainingCapacity());
+        assertNull(queue.poll());
+        assertNull(queue.peek());
+
+        assertTrue(queue.offer("A"));
+        assertTrue(queue.offer("B"));
+        assertTrue(queue.offer("C"));
+        // the capacity is 3 even though the ring buffer is bigger
+        assertFalse(queue.offer("D"));
+        assertFalse(queue.offer("D", 10, TimeUnit.MILLISECONDS));
+        assertEquals(3, queue.size());
+        assertEquals(0, queue.remainingCapacity());
+
+        assertEquals("A", queue.peek());
+        Iterator<String> it = queue.iterator();
+        assertEquals("A", it.next());
+        assertEquals("B", it.next());
+        assertEquals("C", it.next());
+        assertFalse(it.hasNext());
+
+        assertEquals("A", queue.poll());
+        assertTrue(queue.offer("D"));
+        assertEquals("B", queue.poll());
+        assertEquals("C", queue.poll());
+        assertEquals("D", queue.poll());
+        assertNull(queue.poll());
+        assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+        assertEquals(0, queue.size());
+    }
+
+    public void testDrainTo() throws Exception {
+        RingBufferBlockingQueue<Integer> queue = new RingBufferBlockingQueue<Integer>(16);
+        for (int i = 0; i < 10; i++) {
+            queue.put(i);
+        }
+
+        List<Integer> list = new ArrayList<Integer>();
+        assertEquals(4, queue.drainTo(list, 4));
+        assertEquals(6, queue.drainTo(list));
+        assertEquals(10, list.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Integer.valueOf(i), list.get(i));
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    public void testRemove() throws Exception {
+        RingBufferBlockingQueue<String> queue = new RingBufferBlockingQueue<String>(3);
+        queue.offer("A");
+        queue.offer("B");
+        queue.offer("C");
+        assertFalse(queue.remove("D"));
+
+        // removing in the middle keeps the order of the others
+        assertTrue(queue.remove("B"));
+        assertFalse(queue.remove("B"));
+        assertEquals(2, queue.size());
+        Iterator<String> it = queue.iterator();
+        assertEquals("A", it.next());
+        assertEquals("C", it.next());
+        assertFalse(it.hasNext());
+
+        // removing the head frees its slot and the slot of B
+        assertTrue(queue.remove("A"));
+        assertEquals(1, queue.size());
+        assertEquals(2, queue.remainingCapacity());
+        assertTrue(queue.offer("D"));
+        assertTrue(queue.offer("E"));
+        assertFalse(queue.offer("F"));
+
+        // remove using the iterator
+        it = queue.iterator();
+        assertEquals("C", it.next());
+        assertEquals("D", it.next());
+        it.remove();
+
+        assertEquals("C", queue.peek());
+        assertEquals("C", queue.poll());
+        assertEquals("E", queue.poll());
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    public void testRemoveSignalsBlockedProducer() throws Exception {
+        final RingBufferBlockingQueue<String> queue = new RingBufferBlockingQueue<String>(1);
+        queue.put("A");
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        Thread producer = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    queue.put("B");
+                    latch.countDown();
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+            }
+        });
+        producer.start();
+
+        assertFalse(latch.await(100, TimeUnit.MILLISECONDS));
+        assertTrue(queue.remove("A"));
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals("B", queue.poll());
+    }
+
+    public void testTakeIsSignalled() throws Exception {
+        final RingBufferBlockingQueue<String> queue = new RingBufferBlockingQueue<String>(1);
+        final List<String> taken = new ArrayList<String>();
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        Thread consumer = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    taken.add(queue.take());
+                    taken.add(queue.take());
+                    latch.countDown();
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+            }
+        });
+        consumer.start();
+
+        queue.put("A");
+        // blocks until the consumer has taken A
+        queue.put("B");
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals("A", taken.get(0));
+        assertEquals("B", taken.get(1));
+    }
+
+    public void testConcurrentProducersAndConsumers() throws Exception {
+        final RingBufferBlockingQueue<Integer> queue = new RingBufferBlockingQueue<Integer>(64);
+        final int producers = 4;
+        final int consumers = 4;
+        final int count = 10000;
+        final Set<Integer> received = ConcurrentHashMap.newKeySet();
+        final CountDownLatch latch = new CountDownLatch(producers * count);
+
+        ExecutorService executor = Executors.newFixedThreadPool(producers + consumers);
+        for (int i = 0; i < consumers; i++) {
+            executor.submit(new Runnable() {
+                public void run() {
+                    try {
+                        while (true) {
+                            Integer value = queue.poll(100, TimeUnit.MILLISECONDS);
+                            if (value != null) {
+                                assertTrue("Duplicate " + value, received.add(value));
+                                latch.countDown();
+                            } else if (latch.getCount() == 0) {
+                                return;
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        // ignore
+                    }
+                }
+            });
+        }
+        for (int i = 0; i < producers; i++) {
+            final int offset = i * count;
+            executor.submit(new Runnable() {
+                public void run() {
+                    try {
+                        for (int j = 0; j < count; j++) {
+                            queue.put(offset + j);
+                        }
+                    } catch (InterruptedException e) {
+                        // ignore
+                    }
+                }
+            });
+        }
+
+        assertTrue("Should receive all elements", latch.await(20, TimeUnit.SECONDS));
+        assertEquals(producers * count, received.size());
+        assertTrue(queue.isEmpty());
+        executor.shutdownNow();
+    }
+}
@@ -81,6 +81,7 @@ import org.apache.camel.spi.EventFactory;
 import org.apache.camel.spi.EventNotifier;
 import org.apache.camel.spi.ExecutorServiceManager;
 import org.apache.camel.spi.FactoryFinderResolver;
+import org.apache.camel.spi.HeadersMapFactory;
 import org.apache.camel.spi.InflightRepository;
 import org.apache.camel.spi.InterceptStrategy;
 import org.apache.camel.spi.LifecycleStrategy;
@@ -237,6 +238,11 @@ public abstract class AbstractCamelContextFactoryBean<T extends ModelCamelContex
             LOG.info("Using custom UnitOfWorkFactory: {}", unitOfWorkFactory);
             getContext().setUnitOfWorkFactory(unitOfWorkFactory);
         }
+        HeadersMapFactory headersMapFactory = getBeanForType(HeadersMapFactory.class);
+        if (headersMapFactory != null) {
+            LOG.info("Using custom HeadersMapFactory: {}", headersMapFactory);
+            getContext().setHeadersMapFactory(headersMapFactory);
+        }
         RuntimeEndpointRegistry runtimeEndpointRegistry = getBeanForType(RuntimeEndpointRegistry.class);
         if (runtimeEndpointRegistry != null) {
             LOG.info("Using custom RuntimeEndpointRegistry: {}", runtimeEndpointRegistry);
@@ -534,6 +540,19 @@ public abstract class AbstractCamelContextFactoryBean<T extends ModelCamelContex
             StreamCachingStrategy.SpoolUsedHeapMemoryLimit ul = CamelContextHelper.mandatoryConvertTo(getContext(), StreamCachingStrategy.SpoolUsedHeapMemoryLimit.class, limit);
             getContext().getStreamCachingStrategy().setSpoolUsedHeapMemoryLimit(ul);
         }
+        String spoolMode = CamelContextHelper.parseText(getContext(), streamCaching.getSpoolMode());
+        if (spoolMode != null) {
+            StreamCachingStrategy.SpoolMode sm = CamelContextHelper.mandatoryConvertTo(getContext(), StreamCachingStrategy.SpoolMode.class, spoolMode);
+            getContext().getStreamCachingStrategy().setSpoolMode(sm);
+        }
+        Long offHeapLimit = CamelContextHelper.parseLong(getContext(), streamCaching.getSpoolOffHeapMemoryLimit());
+        if (offHeapLimit != null) {
+            getContext().getStreamCachingStrategy().setSpoolOffHeapMemoryLimit(offHeapLimit);
+        }
+        Integer offHeapChunkSize = CamelContextHelper.parseInteger(getContext(), streamCaching.getSpoolOffHeapChunkSize());
+        if (offHeapChunkSize != null) {
+            getContext().getStreamCachingStrategy().setSpoolOffHeapChunkSize(offHeapChunkSize);
+        }
         String spoolChiper = CamelContextHelper.parseText(getContext(), streamCaching.getSpoolChiper());
         if (spoolChiper != null) {
             getContext().getStreamCachingStrategy().setSpoolChiper(spoolChiper);
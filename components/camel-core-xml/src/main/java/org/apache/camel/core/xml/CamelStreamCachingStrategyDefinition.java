@@ -50,6 +50,15 @@ public class CamelStreamCachingStrategyDefinition extends IdentifiedType {
     @XmlAttribute
     private String spoolUsedHeapMemoryLimit;
 
+    @XmlAttribute
+    private String spoolMode;
+
+    @XmlAttribute
+    private String spoolOffHeapMemoryLimit;
+
+    @XmlAttribute
+    private String spoolOffHeapChunkSize;
+
     @XmlAttribute
     private String spoolRules;
 
@@ -113,6 +122,30 @@ public class CamelStreamCachingStrategyDefinition extends IdentifiedType {
         this.spoolUsedHeapMemoryLimit = spoolUsedHeapMemoryLimit;
     }
 
+    public String getSpoolMode() {
+        return spoolMode;
+    }
+
+    public void setSpoolMode(String spoolMode) {
+        this.spoolMode = spoolMode;
+    }
+
+    public String getSpoolOffHeapMemoryLimit() {
+        return spoolOffHeapMemoryLimit;
+    }
+
+    public void setSpoolOffHeapMemoryLimit(String spoolOffHeapMemoryLimit) {
+        this.spoolOffHeapMemoryLimit = spoolOffHeapMemoryLimit;
+    }
+
+    public String getSpoolOffHeapChunkSize() {
+        return spoolOffHeapChunkSize;
+    }
+
+    public void setSpoolOffHeapChunkSize(String spoolOffHeapChunkSize) {
+        this.spoolOffHeapChunkSize = spoolOffHeapChunkSize;
+    }
+
     public String getSpoolRules() {
         return spoolRules;
     }
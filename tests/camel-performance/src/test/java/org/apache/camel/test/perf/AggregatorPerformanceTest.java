@@ -0,0 +1,124 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.test.perf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.processor.aggregate.AggregationStrategy;
+import org.apache.camel.util.StopWatch;
+import org.junit.Test;
+
+/**
+ * Measures the throughput of the aggregator when it is called concurrently by a number of threads, using either
+ * the shared lock or striped locks for the correlation keys.
+ */
+public class AggregatorPerformanceTest extends AbstractBasePerformanceTest {
+
+    private final int count = 20000;
+    private final int keys = 100;
+    private final int completionSize = 10;
+
+    @Test
+    public void testSharedLock() throws Exception {
+        for (int threads : new int[]{1, 4, 16}) {
+            run("direct:shared", threads);
+        }
+    }
+
+    @Test
+    public void testStripedLocks() throws Exception {
+        for (int threads : new int[]{1, 4, 16}) {
+            run("direct:striped", threads);
+        }
+    }
+
+    private void run(String uri, int threads) throws Exception {
+        template.setDefaultEndpointUri(uri);
+
+        // warm up with 2.000 messages so that the JIT compiler kicks in
+        resetMock(2000 / completionSize);
+        execute(2000, threads);
+        assertMockEndpointsSatisfied();
+
+        resetMock(count / completionSize);
+
+        StopWatch watch = new StopWatch();
+        execute(count, threads);
+
+        assertMockEndpointsSatisfied();
+        log.warn("Ran {} tests using {} with {} threads in {}ms", new Object[]{count, uri, threads, watch.taken()});
+    }
+
+    private void execute(int count, int threads) throws Exception {
+        ExecutorService service = Executors.newFixedThreadPool(threads);
+        List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(threads);
+        final int perThread = count / threads;
+        for (int t = 0; t < threads; t++) {
+            final int offset = t * perThread;
+            tasks.add(new Callable<Object>() {
+                public Object call() throws Exception {
+                    for (int i = offset; i < offset + perThread; i++) {
+                        template.sendBodyAndHeader(getPayload(), "id", i % keys);
+                    }
+                    return null;
+                }
+            });
+        }
+        service.invokeAll(tasks);
+        service.shutdown();
+        service.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            public void configure() throws Exception {
+                from("direct:shared")
+                    .aggregate(header("id"), new SlowAggregationStrategy()).completionSize(completionSize)
+                        .to("mock:end");
+
+                from("direct:striped")
+                    .aggregate(header("id"), new SlowAggregationStrategy()).completionSize(completionSize).lockStripes(64)
+                        .to("mock:end");
+            }
+        };
+    }
+
+    /**
+     * Simulates an aggregation strategy or repository which spends some time per exchange, such as doing IO.
+     */
+    private static final class SlowAggregationStrategy implements AggregationStrategy {
+
+        public Exchange aggregate(Exchange oldExchange, Exchange newExchange) {
+            LockSupport.parkNanos(20000);
+            if (oldExchange == null) {
+                return newExchange;
+            }
+            oldExchange.getIn().setBody(newExchange.getIn().getBody(String.class).length()
+                + oldExchange.getIn().getBody(String.class).length());
+            return oldExchange;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.test.perf;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.util.StopWatch;
+import org.junit.Test;
+
+/**
+ * Measures the throughput of invoking beans from routes, where the method is chosen by the message body type,
+ * given by name, or given by name with parameter values. And compares invoking a method using reflection with
+ * invoking it using a method handle.
+ */
+public class BeanInvocationPerformanceTest extends AbstractBasePerformanceTest {
+
+    private final int count = 30000;
+
+    @Test
+    public void testBeanChosenByBodyType() throws Exception {
+        run("direct:body-type");
+    }
+
+    @Test
+    public void testBeanMethodName() throws Exception {
+        run("direct:method-name");
+    }
+
+    @Test
+    public void testBeanMethodNameWithParameterValues() throws Exception {
+        run("direct:parameter-values");
+    }
+
+    @Test
+    public void testReflectionVersusMethodHandle() throws Throwable {
+        RoutingService service = new RoutingService();
+        Method method = RoutingService.class.getMethod("process", String.class, String.class);
+        MethodHandle handle = MethodHandles.publicLookup().unreflect(method)
+            .asType(MethodType.genericMethodType(3)).asSpreader(Object[].class, 2);
+        Object[] arguments = new Object[]{getPayload(), "xadmin"};
+        int times = count * 100;
+
+        for (int round = 0; round < 2; round++) {
+            StopWatch watch = new StopWatch();
+            for (int i = 0; i < times; i++) {
+                method.invoke(service, arguments);
+            }
+            log.warn("Invoked method {} times using reflection in {}ms", times, watch.taken());
+
+            watch = new StopWatch();
+            for (int i = 0; i < times; i++) {
+                Object result = (Object) handle.invokeExact((Object) service, arguments);
+            }
+            log.warn("Invoked method {} times using method handle in {}ms", times, watch.taken());
+        }
+    }
+
+    private void run(String uri) throws Exception {
+        template.setDefaultEndpointUri(uri);
+
+        // warm up with 20.000 messages so that the JIT compiler kicks in
+        resetMock(20000);
+        execute(20000);
+        assertMockEndpointsSatisfied();
+
+        resetMock(count);
+
+        StopWatch watch = new StopWatch();
+        execute(count);
+
+        assertMockEndpointsSatisfied();
+        log.warn("Ran {} tests using {} in {}ms", new Object[]{count, uri, watch.taken()});
+    }
+
+    @Override
+    protected void execute(int count) {
+        for (int counter = 0; counter < count; counter++) {
+            template.sendBodyAndHeader(getPayload(), "routing", "xadmin");
+        }
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            public void configure() throws Exception {
+                from("direct:body-type")
+                    .bean(new OrderService())
+                    .to("mock:end");
+
+                from("direct:method-name")
+                    .bean(new RoutingService(), "process")
+                    .to("mock:end");
+
+                from("direct:parameter-values")
+                    .bean(new RoutingService(), "process(${body}, ${header.routing})")
+                    .to("mock:end");
+            }
+        };
+    }
+
+    public static final class OrderService {
+
+        public int handle(String body) {
+            return body.length();
+        }
+
+        public int handle(Integer body) {
+            return body;
+        }
+
+        public int handle(byte[] body) {
+            return body.length;
+        }
+    }
+
+    public static final class RoutingService {
+
+        public String process(String body, String routing) {
+            return routing;
+        }
+    }
+}
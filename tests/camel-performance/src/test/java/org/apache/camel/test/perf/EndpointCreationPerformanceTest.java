@@ -0,0 +1,96 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.test.perf;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.camel.component.timer.TimerEndpoint;
+import org.apache.camel.component.timer.TimerEndpointConfigurer;
+import org.apache.camel.spi.GeneratedPropertyConfigurer;
+import org.apache.camel.util.EndpointHelper;
+import org.apache.camel.util.StopWatch;
+import org.junit.Test;
+
+/**
+ * Measures the throughput of creating endpoints with a number of options, such as when using dynamic endpoints
+ * with <tt>toD</tt> or the recipient list, and of setting the options using reflection versus using the
+ * configurer generated by the annotation processor.
+ */
+public class EndpointCreationPerformanceTest extends AbstractBasePerformanceTest {
+
+    private final int count = 200000;
+
+    @Test
+    public void testCreateEndpoint() throws Exception {
+        // warm up so that the JIT compiler kicks in
+        createEndpoints(count / 10);
+
+        StopWatch watch = new StopWatch();
+        createEndpoints(count / 10);
+        log.warn("Ran {} endpoint creations in {}ms", new Object[]{count / 10, watch.taken()});
+    }
+
+    @Test
+    public void testSetPropertiesUsingReflection() throws Exception {
+        // warm up so that the JIT compiler kicks in
+        setProperties(null, count);
+
+        StopWatch watch = new StopWatch();
+        setProperties(null, count);
+        log.warn("Ran {} endpoint configurations using reflection in {}ms", new Object[]{count, watch.taken()});
+    }
+
+    @Test
+    public void testSetPropertiesUsingConfigurer() throws Exception {
+        GeneratedPropertyConfigurer configurer = new TimerEndpointConfigurer();
+
+        // warm up so that the JIT compiler kicks in
+        setProperties(configurer, count);
+
+        StopWatch watch = new StopWatch();
+        setProperties(configurer, count);
+        log.warn("Ran {} endpoint configurations using generated configurer in {}ms", new Object[]{count, watch.taken()});
+    }
+
+    private void createEndpoints(int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+            TimerEndpoint endpoint = context.getEndpoint("timer:foo" + i + "?period=" + (i + 1) + "&delay=0&fixedRate=true&repeatCount=5&daemon=false",
+                    TimerEndpoint.class);
+            assertEquals(i + 1, endpoint.getPeriod());
+        }
+    }
+
+    private void setProperties(GeneratedPropertyConfigurer configurer, int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> parameters = new LinkedHashMap<String, Object>();
+            parameters.put("period", "" + (i + 1));
+            parameters.put("delay", "0");
+            parameters.put("fixedRate", "true");
+            parameters.put("repeatCount", "5");
+            parameters.put("daemon", "false");
+
+            TimerEndpoint endpoint = new TimerEndpoint();
+            if (configurer != null) {
+                EndpointHelper.setProperties(context, configurer, endpoint, parameters);
+            } else {
+                EndpointHelper.setProperties(context, endpoint, parameters);
+            }
+            assertEquals(i + 1, endpoint.getPeriod());
+        }
+    }
+}
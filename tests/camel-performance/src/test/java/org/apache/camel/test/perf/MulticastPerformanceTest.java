@@ -0,0 +1,150 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.test.perf;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.impl.DefaultHeadersMapFactory;
+import org.apache.camel.impl.FastHeadersMapFactory;
+import org.apache.camel.util.StopWatch;
+import org.junit.Test;
+
+/**
+ * Measures the cost of copying exchanges with many headers and properties when using multicast, splitter,
+ * wire tap and recipient list, using either the default or the fast (copy on write) headers map.
+ */
+public class MulticastPerformanceTest extends AbstractBasePerformanceTest {
+
+    private static final Map<String, Object> HEADERS = new HashMap<String, Object>();
+
+    static {
+        for (int i = 0; i < 30; i++) {
+            HEADERS.put("header" + i, "value" + i);
+        }
+    }
+
+    private final int count = 10000;
+
+    @Test
+    public void testMulticastDefaultHeaders() throws InterruptedException {
+        context.setHeadersMapFactory(new DefaultHeadersMapFactory());
+        run("direct:multicast", 20);
+    }
+
+    @Test
+    public void testMulticastFastHeaders() throws InterruptedException {
+        context.setHeadersMapFactory(new FastHeadersMapFactory());
+        run("direct:multicast", 20);
+    }
+
+    @Test
+    public void testSplitDefaultHeaders() throws InterruptedException {
+        context.setHeadersMapFactory(new DefaultHeadersMapFactory());
+        run("direct:split", 20);
+    }
+
+    @Test
+    public void testSplitFastHeaders() throws InterruptedException {
+        context.setHeadersMapFactory(new FastHeadersMapFactory());
+        run("direct:split", 20);
+    }
+
+    @Test
+    public void testRecipientListDefaultHeaders() throws InterruptedException {
+        context.setHeadersMapFactory(new DefaultHeadersMapFactory());
+        run("direct:recipientList", 20);
+    }
+
+    @Test
+    public void testRecipientListFastHeaders() throws InterruptedException {
+        context.setHeadersMapFactory(new FastHeadersMapFactory());
+        run("direct:recipientList", 20);
+    }
+
+    @Test
+    public void testWireTapDefaultHeaders() throws InterruptedException {
+        context.setHeadersMapFactory(new DefaultHeadersMapFactory());
+        run("direct:wireTap", 1);
+    }
+
+    @Test
+    public void testWireTapFastHeaders() throws InterruptedException {
+        context.setHeadersMapFactory(new FastHeadersMapFactory());
+        run("direct:wireTap", 1);
+    }
+
+    private void run(String uri, int branches) throws InterruptedException {
+        template.setDefaultEndpointUri(uri);
+
+        // warm up with 1.000 messages so that the JIT compiler kicks in
+        resetMock(1000 * branches);
+        execute(1000);
+        assertMockEndpointsSatisfied();
+
+        resetMock(count * branches);
+
+        StopWatch watch = new StopWatch();
+        execute(count);
+
+        assertMockEndpointsSatisfied();
+        log.warn("Ran {} tests using {} in {}ms", new Object[]{count, context.getHeadersMapFactory().getClass().getSimpleName(), watch.taken()});
+    }
+
+    @Override
+    protected void execute(int count) {
+        for (int counter = 0; counter < count; counter++) {
+            template.sendBodyAndHeaders(getPayload(), HEADERS);
+        }
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            public void configure() throws Exception {
+                StringBuilder recipients = new StringBuilder();
+                String[] endpoints = new String[20];
+                for (int i = 0; i < 20; i++) {
+                    endpoints[i] = "direct:branch";
+                    recipients.append(i > 0 ? "," : "").append("direct:branch");
+                }
+
+                from("direct:multicast")
+                    .setProperty("foo", constant("bar"))
+                    .multicast().to(endpoints);
+
+                from("direct:split")
+                    .setProperty("foo", constant("bar"))
+                    .split(constant(recipients.toString()).tokenize(","))
+                        .to("direct:branch");
+
+                from("direct:recipientList")
+                    .setProperty("foo", constant("bar"))
+                    .recipientList(constant(recipients.toString()));
+
+                from("direct:wireTap")
+                    .setProperty("foo", constant("bar"))
+                    .wireTap("direct:branch");
+
+                from("direct:branch")
+                    .filter(header("header15").isEqualTo("value15"))
+                        .to("mock:end");
+            }
+        };
+    }
+}
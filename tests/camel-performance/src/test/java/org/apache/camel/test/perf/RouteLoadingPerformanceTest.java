@@ -0,0 +1,104 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.test.perf;
+
+import java.io.ByteArrayInputStream;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.Unmarshaller;
+
+import org.apache.camel.model.ModelParser;
+import org.apache.camel.model.RoutesDefinition;
+import org.apache.camel.util.StopWatch;
+import org.junit.Test;
+
+/**
+ * Measures the time of loading XML routes using the model parser versus using JAXB, including the time to create
+ * the JAXB context and the model parser the first time.
+ */
+public class RouteLoadingPerformanceTest extends AbstractBasePerformanceTest {
+
+    private final int count = 20000;
+
+    @Test
+    public void testLoadRoutesUsingJaxb() throws Exception {
+        byte[] xml = createRoutesXml();
+
+        StopWatch watch = new StopWatch();
+        JAXBContext jaxbContext = context.getModelJAXBContextFactory().newJAXBContext();
+        RoutesDefinition routes = (RoutesDefinition) jaxbContext.createUnmarshaller().unmarshal(new ByteArrayInputStream(xml));
+        log.warn("Created JAXB context and loaded first routes in {}ms", watch.taken());
+        assertEquals(10, routes.getRoutes().size());
+
+        // warm up so that the JIT compiler kicks in
+        loadUsingJaxb(jaxbContext, xml, count);
+
+        watch.restart();
+        loadUsingJaxb(jaxbContext, xml, count);
+        log.warn("Ran {} route loadings using JAXB in {}ms", new Object[]{count, watch.taken()});
+    }
+
+    @Test
+    public void testLoadRoutesUsingModelParser() throws Exception {
+        byte[] xml = createRoutesXml();
+
+        StopWatch watch = new StopWatch();
+        RoutesDefinition routes = (RoutesDefinition) ModelParser.getInstance().parse(new ByteArrayInputStream(xml));
+        log.warn("Created model parser and loaded first routes in {}ms", watch.taken());
+        assertEquals(10, routes.getRoutes().size());
+
+        // warm up so that the JIT compiler kicks in
+        loadUsingModelParser(xml, count);
+
+        watch.restart();
+        loadUsingModelParser(xml, count);
+        log.warn("Ran {} route loadings using model parser in {}ms", new Object[]{count, watch.taken()});
+    }
+
+    private void loadUsingJaxb(JAXBContext jaxbContext, byte[] xml, int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+            Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
+            RoutesDefinition routes = (RoutesDefinition) unmarshaller.unmarshal(new ByteArrayInputStream(xml));
+            assertEquals(10, routes.getRoutes().size());
+        }
+    }
+
+    private void loadUsingModelParser(byte[] xml, int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+            RoutesDefinition routes = (RoutesDefinition) ModelParser.getInstance().parse(new ByteArrayInputStream(xml));
+            assertEquals(10, routes.getRoutes().size());
+        }
+    }
+
+    private static byte[] createRoutesXml() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<routes xmlns=\"http://camel.apache.org/schema/spring\">");
+        for (int i = 0; i < 10; i++) {
+            sb.append("<route id=\"route").append(i).append("\">");
+            sb.append("<from uri=\"direct:start").append(i).append("\"/>");
+            sb.append("<setHeader headerName=\"foo\"><simple>${body}</simple></setHeader>");
+            sb.append("<choice>");
+            sb.append("<when><simple>${header.foo} == 'bar'</simple><to uri=\"mock:bar\"/></when>");
+            sb.append("<otherwise><to uri=\"log:other\"/></otherwise>");
+            sb.append("</choice>");
+            sb.append("<split streaming=\"true\"><tokenize token=\",\"/><to uri=\"mock:split\"/></split>");
+            sb.append("<to uri=\"mock:result\"/>");
+            sb.append("</route>");
+        }
+        sb.append("</routes>");
+        return sb.toString().getBytes("UTF-8");
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.test.perf;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.ActiveMQUuidGenerator;
+import org.apache.camel.impl.CompactUuidGenerator;
+import org.apache.camel.impl.DefaultExchange;
+import org.apache.camel.impl.JavaUuidGenerator;
+import org.apache.camel.impl.SimpleUuidGenerator;
+import org.apache.camel.spi.UuidGenerator;
+import org.apache.camel.util.StopWatch;
+import org.junit.Test;
+
+/**
+ * Measures the throughput of the {@link UuidGenerator} implementations, when generating ids from a single thread
+ * and from multiple threads, and when creating exchanges whose exchange and message ids are read.
+ */
+public class UuidGeneratorPerformanceTest extends AbstractBasePerformanceTest {
+
+    private final int count = 1000000;
+    private final int threads = 4;
+
+    @Test
+    public void testActiveMQUuidGenerator() throws Exception {
+        run(new ActiveMQUuidGenerator());
+    }
+
+    @Test
+    public void testJavaUuidGenerator() throws Exception {
+        run(new JavaUuidGenerator());
+    }
+
+    @Test
+    public void testSimpleUuidGenerator() throws Exception {
+        run(new SimpleUuidGenerator());
+    }
+
+    @Test
+    public void testCompactUuidGenerator() throws Exception {
+        run(new CompactUuidGenerator());
+    }
+
+    private void run(UuidGenerator generator) throws Exception {
+        String name = generator.getClass().getSimpleName();
+
+        // warm up so that the JIT compiler kicks in
+        generate(generator, count);
+
+        StopWatch watch = new StopWatch();
+        generate(generator, count);
+        log.warn("Ran {} generations using {} in {}ms", new Object[]{count, name, watch.taken()});
+
+        watch = new StopWatch();
+        generateConcurrently(generator);
+        log.warn("Ran {} generations using {} with {} threads in {}ms", new Object[]{count, name, threads, watch.taken()});
+
+        context.setUuidGenerator(generator);
+        watch = new StopWatch();
+        for (int i = 0; i < count; i++) {
+            Exchange exchange = new DefaultExchange(context);
+            assertNotNull(exchange.getExchangeId());
+            assertNotNull(exchange.getIn().getMessageId());
+        }
+        log.warn("Ran {} exchanges using {} in {}ms", new Object[]{count, name, watch.taken()});
+    }
+
+    private static int generate(UuidGenerator generator, int count) {
+        int length = 0;
+        for (int i = 0; i < count; i++) {
+            length += generator.generateUuid().length();
+        }
+        return length;
+    }
+
+    private void generateConcurrently(final UuidGenerator generator) throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            new Thread() {
+                public void run() {
+                    generate(generator, count / threads);
+                    latch.countDown();
+                }
+            }.start();
+        }
+        latch.await();
+    }
+}
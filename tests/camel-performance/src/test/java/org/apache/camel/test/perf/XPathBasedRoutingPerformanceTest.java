@@ -16,16 +16,19 @@
  */
 package org.apache.camel.test.perf;
 
+import java.io.ByteArrayInputStream;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.util.ObjectHelper;
 import org.apache.camel.util.StopWatch;
 import org.junit.Test;
 
 public class XPathBasedRoutingPerformanceTest extends AbstractBasePerformanceTest {
 
     private final int count = 30000;
+    private final int largeCount = 200;
 
     @Test
     public void testChoice() throws InterruptedException {
@@ -59,6 +62,56 @@ public class XPathBasedRoutingPerformanceTest extends AbstractBasePerformanceTes
         log.warn("Ran {} tests in {}ms", count, watch.taken());
     }
 
+    @Test
+    public void testFilterLargeDocumentStreaming() throws Exception {
+        // the xpath is supported by the streaming xpath, so no DOM is built and it stops reading the document
+        // when the first order is matched
+        runLargeDocument("direct:large-streaming");
+    }
+
+    @Test
+    public void testFilterLargeDocumentDom() throws Exception {
+        // the same predicate using the descendant axis, which is not supported by the streaming xpath
+        runLargeDocument("direct:large-dom");
+    }
+
+    private void runLargeDocument(String uri) throws Exception {
+        byte[] payload = createLargePayload().getBytes("UTF-8");
+
+        // warm up so that the JIT compiler kicks in
+        resetMock(largeCount);
+        executeLargeDocument(uri, payload, largeCount);
+        assertMockEndpointsSatisfied();
+
+        resetMock(largeCount);
+
+        StopWatch watch = new StopWatch();
+        executeLargeDocument(uri, payload, largeCount);
+
+        assertMockEndpointsSatisfied();
+        log.warn("Ran {} tests with {} bytes payload using {} in {}ms", new Object[]{largeCount, payload.length, uri, watch.taken()});
+    }
+
+    private void executeLargeDocument(String uri, byte[] payload, int count) {
+        for (int counter = 0; counter < count; counter++) {
+            template.sendBody(uri, new ByteArrayInputStream(payload));
+        }
+    }
+
+    /**
+     * Creates a document of about 2 MB with many orders
+     */
+    private String createLargePayload() {
+        String orders = ObjectHelper.between(BODY_1KB_PAYLOAD, "<m:buyStocks xmlns:m=\"http://services.samples/xsd\">", "</m:buyStocks>");
+        StringBuilder sb = new StringBuilder(2 * 1024 * 1024 + BODY_1KB_PAYLOAD.length());
+        sb.append(ObjectHelper.before(BODY_1KB_PAYLOAD, "</m:buyStocks>"));
+        while (sb.length() < 2 * 1024 * 1024) {
+            sb.append(orders);
+        }
+        sb.append("</m:buyStocks></soapenv:Body></soapenv:Envelope>");
+        return sb.toString();
+    }
+
     @Override
     protected RouteBuilder createRouteBuilder() throws Exception {
         return new RouteBuilder() {
@@ -71,6 +124,14 @@ public class XPathBasedRoutingPerformanceTest extends AbstractBasePerformanceTes
                     .filter().xpath("/soapenv:Envelope/soapenv:Body/m:buyStocks/order[1]/symbol='IBM'", namespaces)
                         .to("mock:end");
 
+                from("direct:large-streaming")
+                    .filter().xpath("/soapenv:Envelope/soapenv:Body/m:buyStocks/order[1]/symbol='IBM'", namespaces)
+                        .to("mock:end");
+
+                from("direct:large-dom")
+                    .filter().xpath("//m:buyStocks/order[1]/symbol='IBM'", namespaces)
+                        .to("mock:end");
+
                 from("direct:choice")
                     .choice()
                         .when().xpath("/soapenv:Envelope/soapenv:Body/m:buyStocks/order[1]/symbol='IBM'", namespaces)
@@ -16,12 +16,15 @@
  */
 package org.apache.camel.tools.apt;
 
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import javax.annotation.processing.RoundEnvironment;
@@ -31,13 +34,22 @@ import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
 import javax.lang.model.type.MirroredTypeException;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.ElementFilter;
 import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
 
 import org.apache.camel.spi.Metadata;
 import org.apache.camel.spi.UriEndpoint;
@@ -59,7 +71,8 @@ import static org.apache.camel.tools.apt.helper.Strings.isNullOrEmpty;
 import static org.apache.camel.tools.apt.helper.Strings.safeNull;
 
 /**
- * Processes all Camel {@link UriEndpoint}s and generate json schema and html documentation for the endpoint/component.
+ * Processes all Camel {@link UriEndpoint}s and generate json schema and html documentation for the endpoint/component,
+ * and a configurer which sets the endpoint options without using reflection.
  */
 @SupportedAnnotationTypes({"org.apache.camel.spi.*"})
 @SupportedSourceVersion(SourceVersion.RELEASE_8)
@@ -127,8 +140,190 @@ public class EndpointAnnotationProcessor extends AbstractAnnotationProcessor {
                     };
                     processFile(packageName, fileName, handler);
                 }
+
+                // write the configurer which sets the endpoint options without reflection (only once per endpoint class)
+                String extendsAlias = extendsSchemes != null ? extendsSchemes[0] : null;
+                ComponentModel componentModel = findComponentProperties(roundEnv, uriEndpoint, classElement, titles[0], schemes[0], extendsAlias, label);
+                writePropertyConfigurer(roundEnv, componentModel, classElement, uriEndpoint);
+            }
+        }
+    }
+
+    protected void writePropertyConfigurer(RoundEnvironment roundEnv, ComponentModel componentModel, TypeElement classElement, UriEndpoint uriEndpoint) {
+        // the configurer is generated in the same package as the endpoint
+        if (classElement.getNestingKind() != NestingKind.TOP_LEVEL || classElement.getModifiers().contains(Modifier.PRIVATE)) {
+            return;
+        }
+        Elements elementUtils = processingEnv.getElementUtils();
+        String packageName = elementUtils.getPackageOf(classElement).getQualifiedName().toString();
+        String endpointName = classElement.getSimpleName().toString();
+        String configurerName = endpointName + "Configurer";
+        String fqn = packageName.isEmpty() ? configurerName : packageName + "." + configurerName;
+        // only check the sources being compiled as the class may exist from a previous build
+        if (isRootElement(roundEnv, fqn)) {
+            warning("Cannot generate property configurer for " + classElement.getQualifiedName() + " as the class " + fqn + " already exists");
+            return;
+        }
+
+        Set<EndpointPath> endpointPaths = new LinkedHashSet<EndpointPath>();
+        Set<EndpointOption> endpointOptions = new LinkedHashSet<EndpointOption>();
+        findClassProperties(null, roundEnv, componentModel, endpointPaths, endpointOptions, classElement, "", uriEndpoint.excludeProperties());
+        Set<String> names = new LinkedHashSet<String>();
+        for (EndpointPath path : endpointPaths) {
+            names.add(path.getName());
+        }
+        for (EndpointOption option : endpointOptions) {
+            names.add(option.getName());
+        }
+
+        // only the options which has a single setter method on the endpoint can be set without reflection,
+        // other options (such as overloaded setters) are still set using reflection
+        Map<String, String> setters = new LinkedHashMap<String, String>();
+        for (String name : names) {
+            String type = findSetterParameterType(classElement, packageName, name);
+            if (type != null) {
+                setters.put(name, type);
             }
         }
+        if (setters.isEmpty()) {
+            return;
+        }
+
+        try {
+            JavaFileObject source = processingEnv.getFiler().createSourceFile(fqn, classElement);
+            PrintWriter writer = new PrintWriter(source.openWriter());
+            try {
+                if (!packageName.isEmpty()) {
+                    writer.println("package " + packageName + ";");
+                    writer.println();
+                }
+                writer.println("import org.apache.camel.CamelContext;");
+                writer.println("import org.apache.camel.support.PropertyConfigurerSupport;");
+                writer.println();
+                writer.println("/**");
+                writer.println(" * Sets the options on the {@link " + endpointName + "} without using reflection.");
+                writer.println(" * <p/>");
+                writer.println(" * Generated by camel-apt - do NOT edit this file!");
+                writer.println(" */");
+                writer.println("@SuppressWarnings({\"unchecked\", \"rawtypes\", \"deprecation\"})");
+                writer.println("public class " + configurerName + " extends PropertyConfigurerSupport {");
+                writer.println();
+                writer.println("    @Override");
+                writer.println("    public boolean configure(CamelContext camelContext, Object target, String name, Object value) throws Exception {");
+                // use the raw type as the setters are called with the erased parameter types
+                writer.println("        " + endpointName + " endpoint = (" + endpointName + ") target;");
+                writer.println("        switch (name) {");
+                for (Map.Entry<String, String> entry : setters.entrySet()) {
+                    String name = entry.getKey();
+                    writer.println("        case \"" + name + "\": endpoint.set" + capitalize(name) + "(property(camelContext, " + entry.getValue() + ".class, value)); return true;");
+                }
+                writer.println("        default: return false;");
+                writer.println("        }");
+                writer.println("    }");
+                writer.println();
+                writer.println("}");
+            } finally {
+                writer.close();
+            }
+
+            FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                    "META-INF/services/org/apache/camel/configurer/" + elementUtils.getBinaryName(classElement), classElement);
+            writer = new PrintWriter(resource.openWriter());
+            try {
+                writer.println("# Generated by camel-apt - do NOT edit this file!");
+                writer.println("class=" + fqn);
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            warning("Cannot generate property configurer for " + classElement.getQualifiedName() + " due " + e.getMessage());
+        }
+    }
+
+    /**
+     * Finds the parameter type of the setter method for the given option, using the same rules as
+     * <tt>IntrospectionSupport</tt> does at runtime.
+     *
+     * @return the erased parameter type, or <tt>null</tt> if there is no setter, or the setter is overloaded or not accessible
+     */
+    private String findSetterParameterType(TypeElement classElement, String packageName, String name) {
+        if (name.isEmpty() || !Character.isJavaIdentifierStart(name.charAt(0))) {
+            return null;
+        }
+        String setterName = "set" + capitalize(name);
+        if (setterName.charAt(3) < 'A' || setterName.charAt(3) > 'Z') {
+            return null;
+        }
+        for (int i = 1; i < name.length(); i++) {
+            if (!Character.isJavaIdentifierPart(name.charAt(i))) {
+                return null;
+            }
+        }
+
+        Types typeUtils = processingEnv.getTypeUtils();
+        DeclaredType endpointType = (DeclaredType) classElement.asType();
+        Set<String> parameterTypes = new LinkedHashSet<String>();
+        TypeMirror parameterType = null;
+        TypeElement current = classElement;
+        while (current != null && !"java.lang.Object".equals(current.getQualifiedName().toString())) {
+            for (ExecutableElement method : ElementFilter.methodsIn(current.getEnclosedElements())) {
+                if (!setterName.equals(method.getSimpleName().toString()) || method.getParameters().size() != 1
+                        || !method.getModifiers().contains(Modifier.PUBLIC) || method.getModifiers().contains(Modifier.STATIC)) {
+                    continue;
+                }
+                // void or builder style setter
+                TypeMirror returnType = method.getReturnType();
+                if (returnType.getKind() != TypeKind.VOID
+                        && !typeUtils.isAssignable(typeUtils.erasure(returnType), typeUtils.erasure(current.asType()))) {
+                    continue;
+                }
+                ExecutableType executableType = (ExecutableType) typeUtils.asMemberOf(endpointType, method);
+                TypeMirror type = typeUtils.erasure(executableType.getParameterTypes().get(0));
+                if (parameterTypes.add(type.toString())) {
+                    parameterType = type;
+                }
+            }
+            TypeMirror superclass = current.getSuperclass();
+            current = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) typeUtils.asElement(superclass) : null;
+        }
+
+        if (parameterTypes.size() != 1 || !isAccessible(parameterType, packageName)) {
+            return null;
+        }
+        return parameterType.toString();
+    }
+
+    private static boolean isRootElement(RoundEnvironment roundEnv, String className) {
+        for (Element element : roundEnv.getRootElements()) {
+            if (element instanceof TypeElement && className.equals(((TypeElement) element).getQualifiedName().toString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isAccessible(TypeMirror type, String packageName) {
+        if (type.getKind().isPrimitive()) {
+            return true;
+        } else if (type.getKind() == TypeKind.ARRAY) {
+            return isAccessible(((ArrayType) type).getComponentType(), packageName);
+        } else if (type.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+        Element element = ((DeclaredType) type).asElement();
+        boolean samePackage = packageName.equals(processingEnv.getElementUtils().getPackageOf(element).getQualifiedName().toString());
+        while (element instanceof TypeElement) {
+            Set<Modifier> modifiers = element.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE) || (!samePackage && !modifiers.contains(Modifier.PUBLIC))) {
+                return false;
+            }
+            element = element.getEnclosingElement();
+        }
+        return true;
+    }
+
+    private static String capitalize(String text) {
+        return text.substring(0, 1).toUpperCase(Locale.ENGLISH) + text.substring(1);
     }
 
     protected void writeHtmlDocumentation(PrintWriter writer, RoundEnvironment roundEnv, TypeElement classElement, UriEndpoint uriEndpoint,
@@ -0,0 +1,558 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.tools.apt;
+
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.annotation.processing.SupportedSourceVersion;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+import static org.apache.camel.tools.apt.helper.IOHelper.loadText;
+
+/**
+ * Generates a type converter loader for the <tt>@Converter</tt> classes of the module, which registers the type
+ * converters in the type converter registry without classpath scanning or reflection.
+ * <p/>
+ * Only the converter classes which are listed (by class or package name) in the
+ * <tt>META-INF/services/org/apache/camel/TypeConverter</tt> file of the module are included, as those are the classes
+ * Camel would otherwise scan for at runtime. The generated loader is listed in the
+ * <tt>META-INF/services/org/apache/camel/TypeConverterLoader</tt> file, and is named
+ * <tt>GeneratedTypeConverterLoader</tt> in the common package of the converter classes, unless a class name is given
+ * with the <tt>camel.typeConverterLoader</tt> option. If any of the converter classes cannot be invoked from the
+ * generated loader, then no loader is generated, and Camel will scan for the converters as before.
+ */
+@SupportedAnnotationTypes({"org.apache.camel.Converter", "org.apache.camel.FallbackConverter"})
+@SupportedOptions({TypeConverterLoaderProcessor.LOADER_OPTION})
+@SupportedSourceVersion(SourceVersion.RELEASE_8)
+public class TypeConverterLoaderProcessor extends AbstractAnnotationProcessor {
+
+    public static final String LOADER_OPTION = "camel.typeConverterLoader";
+
+    private static final String CONVERTER = "org.apache.camel.Converter";
+    private static final String FALLBACK_CONVERTER = "org.apache.camel.FallbackConverter";
+    private static final String EXCHANGE = "org.apache.camel.Exchange";
+    private static final String TYPE_CONVERTER_REGISTRY = "org.apache.camel.spi.TypeConverterRegistry";
+    private static final String META_INF_SERVICES = "META-INF/services/org/apache/camel/TypeConverter";
+    private static final String META_INF_SERVICES_LOADER = "META-INF/services/org/apache/camel/TypeConverterLoader";
+
+    private final Set<String> visitedTypes = new LinkedHashSet<String>();
+    private boolean generated;
+
+    public boolean process(Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        try {
+            if (roundEnv.processingOver() || generated) {
+                return false;
+            }
+            TypeElement converter = processingEnv.getElementUtils().getTypeElement(CONVERTER);
+            if (converter == null) {
+                return false;
+            }
+
+            // sort by name so the generated loader is the same for each build
+            Map<String, TypeElement> classes = new TreeMap<String, TypeElement>();
+            for (Element element : roundEnv.getElementsAnnotatedWith(converter)) {
+                if (element.getKind() == ElementKind.CLASS) {
+                    TypeElement classElement = (TypeElement) element;
+                    classes.put(classElement.getQualifiedName().toString(), classElement);
+                }
+            }
+            if (classes.isEmpty()) {
+                return false;
+            }
+
+            // only include the classes which camel would scan for
+            Set<String> names = loadTypeConverterNames();
+            if (names == null) {
+                return false;
+            }
+            List<ConverterClass> converters = new ArrayList<ConverterClass>();
+            for (TypeElement classElement : classes.values()) {
+                if (isIncluded(classElement.getQualifiedName().toString(), names)) {
+                    ConverterClass converterClass = createConverterClass(classElement);
+                    if (converterClass == null) {
+                        return false;
+                    }
+                    converters.add(converterClass);
+                }
+            }
+            if (converters.isEmpty()) {
+                return false;
+            }
+
+            generated = true;
+            String loaderName = processingEnv.getOptions().get(LOADER_OPTION);
+            if (loaderName == null || loaderName.isEmpty()) {
+                loaderName = commonPackage(converters) + ".GeneratedTypeConverterLoader";
+            }
+            writeLoader(loaderName, converters);
+            writeLoaderService(loaderName);
+        } catch (Throwable e) {
+            dumpExceptionToErrorFile("camel-apt-error.log", "Error generating type converter loader", e);
+        }
+        return false;
+    }
+
+    /**
+     * Loads the class and package names from the <tt>META-INF/services/org/apache/camel/TypeConverter</tt> file.
+     *
+     * @return the names, or <tt>null</tt> if the module has no such file
+     */
+    private Set<String> loadTypeConverterNames() {
+        String text;
+        try {
+            FileObject resource = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", META_INF_SERVICES);
+            InputStream is = resource.openInputStream();
+            text = loadText(is, true);
+        } catch (Exception e) {
+            // the module has no type converters to be scanned
+            return null;
+        }
+
+        Set<String> answer = new LinkedHashSet<String>();
+        for (String line : text.split("\n")) {
+            line = line.trim();
+            if (line.startsWith("#") || line.isEmpty()) {
+                continue;
+            }
+            for (String name : line.split(",")) {
+                name = name.trim();
+                if (!name.isEmpty()) {
+                    answer.add(name);
+                }
+            }
+        }
+        return answer;
+    }
+
+    private static boolean isIncluded(String className, Set<String> names) {
+        for (String name : names) {
+            // a class name, or a package which is scanned including its sub packages
+            if (className.equals(name) || className.startsWith(name + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the converter methods of the class and its super classes, the same way as camel does at runtime.
+     *
+     * @return the converter class, or <tt>null</tt> if the class cannot be invoked from the generated loader
+     */
+    private ConverterClass createConverterClass(TypeElement classElement) {
+        if (!isAccessible(classElement)) {
+            log("Cannot generate type converter loader as the converter class " + classElement.getQualifiedName()
+                + " is not a public top level or static nested class. The converters will be scanned at runtime.");
+            return null;
+        }
+
+        ConverterClass answer = new ConverterClass(classElement);
+        TypeElement type = classElement;
+        while (type != null && !"java.lang.Object".equals(type.getQualifiedName().toString())) {
+            if (!visitedTypes.add(type.getQualifiedName().toString())) {
+                // the converters of a shared super class is only loaded once
+                break;
+            }
+            if (!isAccessible(type)) {
+                log("Cannot generate type converter loader as the converter class " + type.getQualifiedName()
+                    + " is not a public top level or static nested class. The converters will be scanned at runtime.");
+                return null;
+            }
+            for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+                AnnotationMirror annotation = findAnnotation(method, CONVERTER);
+                if (annotation != null) {
+                    if (isValidConverterMethod(type, method)) {
+                        answer.methods.add(new ConverterMethod(type, method, false, getBoolean(annotation, "allowNull"), false));
+                    }
+                    continue;
+                }
+                annotation = findAnnotation(method, FALLBACK_CONVERTER);
+                if (annotation != null && isValidFallbackConverterMethod(type, method)) {
+                    answer.methods.add(new ConverterMethod(type, method, true, getBoolean(annotation, "allowNull"),
+                        getBoolean(annotation, "canPromote")));
+                }
+            }
+            TypeMirror superclass = type.getSuperclass();
+            type = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+        }
+        return answer;
+    }
+
+    private boolean isValidConverterMethod(TypeElement type, ExecutableElement method) {
+        List<? extends VariableElement> parameters = method.getParameters();
+        boolean valid = parameters.size() == 1 || (parameters.size() == 2 && isAssignable(parameters.get(1).asType(), EXCHANGE));
+        if (!valid) {
+            warning("Ignoring bad converter on type: " + type.getQualifiedName() + " method: " + method
+                + " as a converter method should have one parameter");
+        } else if (!isPublicConcrete(method)) {
+            warning("Ignoring bad converter on type: " + type.getQualifiedName() + " method: " + method
+                + " as a converter method is not a public and concrete method");
+            valid = false;
+        } else if (method.getReturnType().getKind() == TypeKind.VOID) {
+            warning("Ignoring bad converter on type: " + type.getQualifiedName() + " method: " + method
+                + " as a converter method returns a void method");
+            valid = false;
+        }
+        return valid;
+    }
+
+    private boolean isValidFallbackConverterMethod(TypeElement type, ExecutableElement method) {
+        List<? extends VariableElement> parameters = method.getParameters();
+        int size = parameters.size();
+        boolean valid = size >= 3 && (size == 3 || (size == 4 && isAssignable(parameters.get(1).asType(), EXCHANGE)))
+            && isAssignable(parameters.get(size - 1).asType(), TYPE_CONVERTER_REGISTRY);
+        if (!valid) {
+            warning("Ignoring bad fallback converter on type: " + type.getQualifiedName() + " method: " + method
+                + " as a fallback converter method should have one parameter");
+        } else if (!isPublicConcrete(method)) {
+            warning("Ignoring bad fallback converter on type: " + type.getQualifiedName() + " method: " + method
+                + " as a fallback converter method is not a public and concrete method");
+            valid = false;
+        } else if (method.getReturnType().getKind() == TypeKind.VOID) {
+            warning("Ignoring bad fallback converter on type: " + type.getQualifiedName() + " method: " + method
+                + " as a fallback converter method returns a void method");
+            valid = false;
+        }
+        return valid;
+    }
+
+    private static boolean isPublicConcrete(ExecutableElement method) {
+        Set<Modifier> modifiers = method.getModifiers();
+        return modifiers.contains(Modifier.PUBLIC) && !modifiers.contains(Modifier.ABSTRACT);
+    }
+
+    private static boolean isAccessible(TypeElement type) {
+        while (true) {
+            if (!type.getModifiers().contains(Modifier.PUBLIC)) {
+                return false;
+            }
+            if (type.getNestingKind() == NestingKind.TOP_LEVEL) {
+                return true;
+            }
+            if (type.getNestingKind() != NestingKind.MEMBER || !type.getModifiers().contains(Modifier.STATIC)) {
+                return false;
+            }
+            type = (TypeElement) type.getEnclosingElement();
+        }
+    }
+
+    private boolean isAssignable(TypeMirror type, String className) {
+        TypeElement target = processingEnv.getElementUtils().getTypeElement(className);
+        Types types = processingEnv.getTypeUtils();
+        return target != null && types.isAssignable(types.erasure(type), types.erasure(target.asType()));
+    }
+
+    private static AnnotationMirror findAnnotation(Element element, String annotationName) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+            if (annotationName.equals(annotationType.getQualifiedName().toString())) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    private boolean getBoolean(AnnotationMirror annotation, String name) {
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values = processingEnv.getElementUtils().getElementValuesWithDefaults(annotation);
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+            if (name.equals(entry.getKey().getSimpleName().toString())) {
+                return Boolean.TRUE.equals(entry.getValue().getValue());
+            }
+        }
+        return false;
+    }
+
+    private static String commonPackage(List<ConverterClass> converters) {
+        String answer = null;
+        for (ConverterClass converter : converters) {
+            String name = converter.element.getQualifiedName().toString();
+            String packageName = name.substring(0, name.lastIndexOf('.'));
+            if (answer == null) {
+                answer = packageName;
+            } else {
+                while (!packageName.equals(answer) && !packageName.startsWith(answer + ".")) {
+                    answer = answer.substring(0, Math.max(0, answer.lastIndexOf('.')));
+                }
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * The source name of the erased type, where primitive types are boxed if boxed is <tt>true</tt>.
+     */
+    private String typeName(TypeMirror type, boolean boxed) {
+        Types types = processingEnv.getTypeUtils();
+        if (boxed && type.getKind().isPrimitive()) {
+            return types.boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        }
+        return types.erasure(type).toString();
+    }
+
+    private void writeLoader(String loaderName, List<ConverterClass> converters) throws Exception {
+        int idx = loaderName.lastIndexOf('.');
+        String packageName = loaderName.substring(0, Math.max(0, idx));
+        String simpleName = loaderName.substring(idx + 1);
+
+        JavaFileObject source = processingEnv.getFiler().createSourceFile(loaderName);
+        Writer out = source.openWriter();
+        PrintWriter writer = new PrintWriter(out);
+        try {
+            if (!packageName.isEmpty()) {
+                writer.println("package " + packageName + ";");
+                writer.println();
+            }
+            writer.println("import org.apache.camel.Exchange;");
+            writer.println("import org.apache.camel.RuntimeCamelException;");
+            writer.println("import org.apache.camel.TypeConverter;");
+            writer.println("import org.apache.camel.TypeConverterLoaderException;");
+            writer.println("import org.apache.camel.impl.converter.CachingInjector;");
+            writer.println("import org.apache.camel.spi.TypeConverterAware;");
+            writer.println("import org.apache.camel.spi.TypeConverterLoader;");
+            writer.println("import org.apache.camel.spi.TypeConverterRegistry;");
+            writer.println("import org.apache.camel.support.TypeConverterSupport;");
+            writer.println("import org.apache.camel.util.ObjectHelper;");
+            writer.println("import org.slf4j.Logger;");
+            writer.println("import org.slf4j.LoggerFactory;");
+            writer.println();
+            writer.println("/**");
+            writer.println(" * Loads the type converters of this module without classpath scanning or reflection.");
+            writer.println(" * <p/>");
+            writer.println(" * Generated by camel-apt - do NOT edit this file!");
+            writer.println(" */");
+            writer.println("@SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+            writer.println("public final class " + simpleName + " implements TypeConverterLoader {");
+            writer.println();
+            writer.println("    private static final Logger LOG = LoggerFactory.getLogger(" + simpleName + ".class);");
+            writer.println();
+            writer.println("    @Override");
+            writer.println("    public void load(TypeConverterRegistry registry) throws TypeConverterLoaderException {");
+            for (int i = 0; i < converters.size(); i++) {
+                String className = converters.get(i).element.getQualifiedName().toString();
+                writer.println("        try {");
+                writer.println("            load" + i + "(registry);");
+                writer.println("        } catch (NoClassDefFoundError e) {");
+                writer.println("            LOG.warn(\"Ignoring converter type: " + className + " as a dependent class could not be found: \" + e, e);");
+                writer.println("        }");
+            }
+            writer.println("    }");
+
+            for (int i = 0; i < converters.size(); i++) {
+                writeLoadMethod(writer, i, converters.get(i));
+            }
+            for (int i = 0; i < converters.size(); i++) {
+                writeConverterClass(writer, i, converters.get(i));
+            }
+
+            writer.println();
+            writer.println("    private abstract static class BaseTypeConverter extends TypeConverterSupport {");
+            writer.println("        protected final TypeConverterRegistry registry;");
+            writer.println("        protected final CachingInjector[] injectors;");
+            writer.println("        protected final int index;");
+            writer.println("        private final boolean allowNull;");
+            writer.println("        private final String method;");
+            writer.println();
+            writer.println("        BaseTypeConverter(TypeConverterRegistry registry, CachingInjector[] injectors, int index, boolean allowNull, String method) {");
+            writer.println("            this.registry = registry;");
+            writer.println("            this.injectors = injectors;");
+            writer.println("            this.index = index;");
+            writer.println("            this.allowNull = allowNull;");
+            writer.println("            this.method = method;");
+            writer.println("        }");
+            writer.println();
+            writer.println("        @Override");
+            writer.println("        public boolean allowNull() {");
+            writer.println("            return allowNull;");
+            writer.println("        }");
+            writer.println();
+            writer.println("        @Override");
+            writer.println("        public <T> T convertTo(Class<T> type, Exchange exchange, Object value) {");
+            writer.println("            try {");
+            writer.println("                return (T) doConvertTo(type, exchange, value);");
+            writer.println("            } catch (Exception e) {");
+            writer.println("                throw ObjectHelper.wrapRuntimeCamelException(e);");
+            writer.println("            }");
+            writer.println("        }");
+            writer.println();
+            writer.println("        protected abstract Object doConvertTo(Class type, Exchange exchange, Object value) throws Exception;");
+            writer.println();
+            writer.println("        protected Object instance(int injector, boolean fallback) {");
+            writer.println("            Object answer = injectors[injector].newInstance();");
+            writer.println("            if (answer == null) {");
+            writer.println("                throw new RuntimeCamelException(\"Could not instantiate an instance of converter for: \" + method);");
+            writer.println("            }");
+            writer.println("            // inject parent type converter");
+            writer.println("            if (!fallback && answer instanceof TypeConverterAware && registry instanceof TypeConverter) {");
+            writer.println("                ((TypeConverterAware) answer).setTypeConverter((TypeConverter) registry);");
+            writer.println("            }");
+            writer.println("            return answer;");
+            writer.println("        }");
+            writer.println();
+            writer.println("        @Override");
+            writer.println("        public String toString() {");
+            writer.println("            return \"GeneratedTypeConverter: \" + method;");
+            writer.println("        }");
+            writer.println("    }");
+            writer.println("}");
+        } finally {
+            writer.close();
+        }
+    }
+
+    private void writeLoadMethod(PrintWriter writer, int number, ConverterClass converter) {
+        // the injectors of the classes with instance methods
+        List<TypeElement> instanceTypes = new ArrayList<TypeElement>();
+        for (ConverterMethod method : converter.methods) {
+            if (!method.isStatic() && !instanceTypes.contains(method.type)) {
+                instanceTypes.add(method.type);
+            }
+        }
+
+        writer.println();
+        writer.println("    private static void load" + number + "(TypeConverterRegistry registry) {");
+        writer.println("        CachingInjector[] injectors = new CachingInjector[" + instanceTypes.size() + "];");
+        for (int i = 0; i < instanceTypes.size(); i++) {
+            writer.println("        injectors[" + i + "] = new CachingInjector(registry, " + typeName(instanceTypes.get(i).asType(), false) + ".class);");
+        }
+        String converterName = "Converter" + number;
+        for (int i = 0; i < converter.methods.size(); i++) {
+            ConverterMethod method = converter.methods.get(i);
+            String description = method.type.getQualifiedName() + "." + method.method.getSimpleName();
+            String create = "new " + converterName + "(registry, injectors, " + i + ", " + method.allowNull + ", \"" + description + "\")";
+            if (method.fallback) {
+                writer.println("        registry.addFallbackTypeConverter(" + create + ", " + method.canPromote + ");");
+            } else {
+                String toType = typeName(method.method.getReturnType(), false);
+                String fromType = typeName(method.method.getParameters().get(0).asType(), false);
+                writer.println("        registry.addTypeConverter(" + toType + ".class, " + fromType + ".class, " + create + ");");
+            }
+        }
+        writer.println("    }");
+        converter.instanceTypes = instanceTypes;
+    }
+
+    private void writeConverterClass(PrintWriter writer, int number, ConverterClass converter) {
+        String converterName = "Converter" + number;
+        writer.println();
+        writer.println("    private static final class " + converterName + " extends BaseTypeConverter {");
+        writer.println();
+        writer.println("        " + converterName + "(TypeConverterRegistry registry, CachingInjector[] injectors, int index, boolean allowNull, String method) {");
+        writer.println("            super(registry, injectors, index, allowNull, method);");
+        writer.println("        }");
+        writer.println();
+        writer.println("        @Override");
+        writer.println("        protected Object doConvertTo(Class type, Exchange exchange, Object value) throws Exception {");
+        writer.println("            switch (index) {");
+        for (int i = 0; i < converter.methods.size(); i++) {
+            ConverterMethod method = converter.methods.get(i);
+            String typeName = typeName(method.type.asType(), false);
+            String target = method.isStatic() ? typeName
+                : "((" + typeName + ") instance(" + converter.instanceTypes.indexOf(method.type) + ", " + method.fallback + "))";
+            List<? extends VariableElement> parameters = method.method.getParameters();
+            StringBuilder arguments = new StringBuilder();
+            if (method.fallback) {
+                arguments.append("type, ");
+                if (parameters.size() == 4) {
+                    arguments.append("(").append(typeName(parameters.get(1).asType(), false)).append(") exchange, ");
+                }
+                arguments.append("value, (").append(typeName(parameters.get(parameters.size() - 1).asType(), false)).append(") registry");
+            } else {
+                arguments.append("(").append(typeName(parameters.get(0).asType(), true)).append(") value");
+                if (parameters.size() == 2) {
+                    arguments.append(", (").append(typeName(parameters.get(1).asType(), false)).append(") exchange");
+                }
+            }
+            writer.println("            case " + i + ":");
+            writer.println("                return " + target + "." + method.method.getSimpleName() + "(" + arguments + ");");
+        }
+        writer.println("            default:");
+        writer.println("                throw new IllegalStateException(\"Unknown converter: \" + index);");
+        writer.println("            }");
+        writer.println("        }");
+        writer.println("    }");
+    }
+
+    private void writeLoaderService(String loaderName) throws Exception {
+        FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", META_INF_SERVICES_LOADER);
+        Writer out = resource.openWriter();
+        PrintWriter writer = new PrintWriter(out);
+        try {
+            writer.println("# Generated by camel-apt - do NOT edit this file!");
+            writer.println(loaderName);
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static final class ConverterClass {
+        private final TypeElement element;
+        private final List<ConverterMethod> methods = new ArrayList<ConverterMethod>();
+        private List<TypeElement> instanceTypes;
+
+        ConverterClass(TypeElement element) {
+            this.element = element;
+        }
+    }
+
+    private static final class ConverterMethod {
+        private final TypeElement type;
+        private final ExecutableElement method;
+        private final boolean fallback;
+        private final boolean allowNull;
+        private final boolean canPromote;
+
+        ConverterMethod(TypeElement type, ExecutableElement method, boolean fallback, boolean allowNull, boolean canPromote) {
+            this.type = type;
+            this.method = method;
+            this.fallback = fallback;
+            this.allowNull = allowNull;
+            this.canPromote = canPromote;
+        }
+
+        boolean isStatic() {
+            return method.getModifiers().contains(Modifier.STATIC);
+        }
+    }
+}